@@ -1,30 +1,377 @@
 package com.userservice;
 
+import com.userservice.application.limit.AdaptiveConcurrencyLimiter;
+import com.userservice.application.search.UserPrefixIndex;
+import com.userservice.application.search.UserSearchIndex;
+import com.userservice.application.service.UserAnalyticsService;
 import com.userservice.application.service.UserService;
+import com.userservice.domain.repository.IdGenerator;
+import com.userservice.domain.repository.TransactionManager;
+import com.userservice.domain.repository.UserRepository;
+import com.userservice.infrastructure.archive.ArchivingUserRepository;
+import com.userservice.infrastructure.archive.ColdUserArchive;
+import com.userservice.infrastructure.archive.ColdUserArchiver;
+import com.userservice.infrastructure.bloom.BloomFilterUserRepository;
 import com.userservice.infrastructure.config.HibernateConfig;
+import com.userservice.infrastructure.event.BoundedUserEventPublisher;
+import com.userservice.infrastructure.event.PostgresNotifyBridge;
+import com.userservice.infrastructure.id.TimeOrderedIdGenerator;
+import com.userservice.infrastructure.jdbc.JdbcConnectionPool;
+import com.userservice.infrastructure.jdbc.JdbcUserRepository;
+import com.userservice.infrastructure.memory.InMemoryUserRepository;
+import com.userservice.infrastructure.partition.UserPartitionManager;
+import com.userservice.infrastructure.persistence.HibernateTransactionManager;
+import com.userservice.infrastructure.persistence.ParallelUserScanner;
+import com.userservice.infrastructure.persistence.StreamingUserReader;
+import com.userservice.infrastructure.persistence.TombstonePurgeJob;
 import com.userservice.infrastructure.persistence.UserRepositoryImpl;
+import com.userservice.infrastructure.persistence.UserStatisticsRepositoryImpl;
+import com.userservice.infrastructure.resilience.CircuitBreakerUserRepository;
+import com.userservice.infrastructure.routing.SessionRouter;
+import com.userservice.infrastructure.sharding.Shard;
+import com.userservice.infrastructure.sharding.ShardedUserRepository;
+import com.userservice.infrastructure.snapshot.SnapshotReadUserRepository;
+import com.userservice.infrastructure.snapshot.SnapshotUserRepository;
+import com.userservice.infrastructure.startup.StartupTimer;
+import com.userservice.infrastructure.startup.StartupWarmUp;
+import com.userservice.infrastructure.tracing.JdbcQueryExplainer;
+import com.userservice.infrastructure.tracing.SlowOperationLog;
+import com.userservice.infrastructure.tracing.TracingInterceptor;
+import com.userservice.infrastructure.workload.WorkloadFile;
+import com.userservice.infrastructure.workload.WorkloadRecorder;
+import com.userservice.infrastructure.workload.WorkloadReplayer;
+import com.userservice.presentation.binary.BinaryProtocolBenchmark;
+import com.userservice.presentation.binary.UserServiceServer;
+import com.userservice.presentation.console.BatchCommandRunner;
 import com.userservice.presentation.console.ConsoleApplication;
 
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
 import java.util.logging.Logger;
 
 public class Main {
     private static final Logger logger = Logger.getLogger(Main.class.getName());
 
+    static final String TRAINING_PROPERTY = "userservice.startup.training";
+
     public static void main(String[] args) {
         logger.info("Запуск User Service Application с чистой архитектурой");
 
+        if (Boolean.getBoolean(TRAINING_PROPERTY)) {
+            runTraining();
+            return;
+        }
+
+        BoundedUserEventPublisher eventPublisher = new BoundedUserEventPublisher();
+        PostgresNotifyBridge notifyBridge = null;
+        ShardedUserRepository shardedRepository = null;
+        JdbcConnectionPool connectionPool = null;
+        AdaptiveConcurrencyLimiter concurrencyLimiter = null;
+        BloomFilterUserRepository emailFilter = null;
+        SlowOperationLog slowOperationLog = null;
+        WorkloadRecorder workloadRecorder = null;
+        TombstonePurgeJob purgeJob = null;
+        UserPartitionManager partitionManager = null;
+        ColdUserArchive coldArchive = null;
+        ColdUserArchiver archiver = null;
+        UserPrefixIndex prefixIndex = null;
+        SnapshotUserRepository userSnapshot = null;
+        UserServiceServer binaryServer = null;
+
         try {
-            UserRepositoryImpl userRepository = new UserRepositoryImpl();
-            UserService userService = new UserService(userRepository);
+            eventPublisher.start();
+            if (Boolean.getBoolean("userservice.events.notify")) {
+                notifyBridge = PostgresNotifyBridge.fromHibernateSettings(eventPublisher);
+                notifyBridge.start();
+            }
+
+            UserRepository userRepository;
+            TransactionManager transactionManager;
+            // Физическая очистка мягко удаленных строк; у репозитория в памяти удаление сразу физическое
+            TombstonePurgeJob.Purger purger = null;
+            // Источник перестроения префиксного индекса; по умолчанию - findAll
+            UserPrefixIndex.UserSource userSource = null;
+            // Отчеты по всей таблице строятся SQL-запросами и параллельным сканированием по Hibernate
+            UserAnalyticsService analyticsService = null;
+            // ID известен до обращения к БД; в шардированном режиме его выдает шард.
+            // Без -Duserservice.id.node запуск с БД завершается ошибкой
+            IdGenerator idGenerator;
+            String shardUrls = System.getProperty("userservice.db.shards");
+            if (shardUrls != null && !shardUrls.isBlank()) {
+                List<String> urls = Arrays.asList(shardUrls.split(","));
+                shardedRepository = ShardedUserRepository.connect(urls, eventPublisher);
+                userRepository = shardedRepository;
+                purger = shardPurger(shardedRepository);
+                // Единая транзакция на несколько шардов не поддерживается
+                transactionManager = TransactionManager.NONE;
+                idGenerator = null;
+            } else if ("memory".equalsIgnoreCase(System.getProperty("userservice.repository"))) {
+                userRepository = new InMemoryUserRepository(eventPublisher);
+                transactionManager = TransactionManager.NONE;
+                // Данные живут в одном процессе: номер узла не может совпасть с чужим
+                idGenerator = new TimeOrderedIdGenerator(TimeOrderedIdGenerator.Layout.STANDARD, 0);
+            } else if ("jdbc".equalsIgnoreCase(System.getProperty("userservice.repository"))) {
+                idGenerator = TimeOrderedIdGenerator.standard();
+                partitionManager = preparePartitions();
+                connectionPool = JdbcConnectionPool.fromHibernateSettings();
+                JdbcUserRepository jdbcRepository = new JdbcUserRepository(connectionPool, eventPublisher);
+                userRepository = jdbcRepository;
+                purger = jdbcRepository::purgeDeleted;
+                // Каждый оператор JDBC-репозитория фиксируется сразу
+                transactionManager = TransactionManager.NONE;
+            } else {
+                idGenerator = TimeOrderedIdGenerator.standard();
+                partitionManager = preparePartitions();
+                SessionRouter sessionRouter = SessionRouter.fromConfiguration();
+                UserRepositoryImpl hibernateRepository = new UserRepositoryImpl(sessionRouter, eventPublisher);
+                userRepository = hibernateRepository;
+                purger = hibernateRepository::purgeDeleted;
+                StreamingUserReader streamingReader =
+                        new StreamingUserReader(sessionRouter, StreamingUserReader.DEFAULT_FETCH_SIZE);
+                userSource = streamingReader::forEachUser;
+                transactionManager = new HibernateTransactionManager(sessionRouter);
+                analyticsService = new UserAnalyticsService(
+                        new ParallelUserScanner(sessionRouter, ParallelUserScanner.DEFAULT_CHUNK_SIZE,
+                                Integer.getInteger("userservice.analytics.parallelism",
+                                        ParallelUserScanner.DEFAULT_PARALLELISM)),
+                        new UserStatisticsRepositoryImpl(sessionRouter));
+                // Счетчики статистики между полными пересчетами ведутся по событиям изменений
+                eventPublisher.subscribe(analyticsService);
+                if (SnapshotUserRepository.isEnabled()) {
+                    // Снимок старше срока хранения надгробий не увидит очищенные удаления
+                    Path snapshotFile = Paths.get(System.getProperty(SnapshotUserRepository.FILE_PROPERTY));
+                    userSnapshot = SnapshotUserRepository.open(snapshotFile, streamingReader, hibernateRepository,
+                            Duration.ofHours(Long.getLong(TombstonePurgeJob.RETENTION_PROPERTY,
+                                    TombstonePurgeJob.DEFAULT_RETENTION.toHours())));
+                    eventPublisher.subscribe(userSnapshot);
+                    userSnapshot.start(streamingReader::forEachChangedSince, snapshotFile,
+                            Duration.ofSeconds(Long.getLong("userservice.snapshot.catchup.seconds",
+                                    SnapshotUserRepository.DEFAULT_CATCH_UP_INTERVAL.getSeconds())),
+                            Duration.ofMinutes(Long.getLong("userservice.snapshot.rewrite.minutes",
+                                    SnapshotUserRepository.DEFAULT_REWRITE_INTERVAL.toMinutes())));
+                    userRepository = new SnapshotReadUserRepository(userRepository, userSnapshot);
+                    logger.info("Чтение из снимка " + snapshotFile + ": "
+                            + userSnapshot.getSnapshot().getStore().size() + " пользователей");
+                }
+            }
+            if (!(userRepository instanceof InMemoryUserRepository)
+                    && !"false".equals(System.getProperty("userservice.circuitbreaker.enabled"))) {
+                userRepository = new CircuitBreakerUserRepository(userRepository);
+            }
+            if (!(userRepository instanceof InMemoryUserRepository) && shardedRepository == null
+                    && ColdUserArchiver.isEnabled()) {
+                // Под фильтром Блума: архивные email тоже попадают в фильтр при перестроении
+                coldArchive = ColdUserArchive.open(Paths.get(System.getProperty(ColdUserArchiver.DIR_PROPERTY)));
+                userRepository = new ArchivingUserRepository(userRepository, coldArchive, eventPublisher);
+                archiver = ColdUserArchiver.fromHibernateSettings(coldArchive);
+                archiver.start();
+            }
+            if (!(userRepository instanceof InMemoryUserRepository)
+                    && !"false".equals(System.getProperty("userservice.bloom.enabled"))) {
+                // Отрицательные проверки email (почти все регистрации) не доходят до БД
+                emailFilter = new BloomFilterUserRepository(userRepository);
+                eventPublisher.subscribe(emailFilter);
+                emailFilter.start(Duration.ofMinutes(Long.getLong("userservice.bloom.rebuild.minutes",
+                        BloomFilterUserRepository.DEFAULT_REBUILD_INTERVAL.toMinutes())));
+                userRepository = emailFilter;
+            }
+            if (purger != null && TombstonePurgeJob.isEnabled()) {
+                purgeJob = TombstonePurgeJob.fromSystemProperties(purger);
+                purgeJob.start();
+            }
+            UserService userService = new UserService(userRepository, transactionManager, idGenerator);
+            if (!"false".equals(System.getProperty("userservice.search.enabled"))) {
+                // Подписка до перестроения: изменения во время первичной загрузки не теряются
+                UserSearchIndex searchIndex = new UserSearchIndex(userRepository);
+                eventPublisher.subscribe(searchIndex);
+                searchIndex.rebuild();
+                userService.enableSearch(searchIndex);
+                logger.info("Индекс нечеткого поиска: " + searchIndex.size() + " пользователей");
+            }
+            if (!"false".equals(System.getProperty("userservice.autocomplete.enabled"))) {
+                UserRepository source = userRepository;
+                prefixIndex = new UserPrefixIndex(userSource != null ? userSource
+                        : consumer -> source.findAll().forEach(consumer), userRepository);
+                eventPublisher.subscribe(prefixIndex);
+                prefixIndex.start(Duration.ofMinutes(Long.getLong("userservice.autocomplete.rebuild.minutes",
+                        UserPrefixIndex.DEFAULT_REBUILD_INTERVAL.toMinutes())));
+                userService.enableAutocomplete(prefixIndex);
+            }
+            String recordFile = System.getProperty(WorkloadRecorder.RECORD_PROPERTY);
+            if (recordFile != null && !recordFile.isBlank()) {
+                // Самый внешний перехватчик: в запись попадают и отклоненные ограничителем вызовы
+                workloadRecorder = new WorkloadRecorder(Paths.get(recordFile));
+                userService.addInterceptor(workloadRecorder);
+            }
+            if (!"false".equals(System.getProperty("userservice.trace.enabled"))) {
+                // Внешний перехватчик: трасса открывается и для вызовов, отклоненных ограничителем
+                slowOperationLog = SlowOperationLog.fromSystemProperties(JdbcQueryExplainer.fromHibernateSettings());
+                userService.addInterceptor(new TracingInterceptor(slowOperationLog));
+            }
+            if (!"false".equals(System.getProperty("userservice.limiter.enabled"))) {
+                concurrencyLimiter = new AdaptiveConcurrencyLimiter();
+                userService.addInterceptor(concurrencyLimiter);
+            }
+
+            if (StartupWarmUp.isEnabled()) {
+                new StartupWarmUp().run();
+            }
+            if (StartupTimer.isProbeEnabled()) {
+                // Первый запрос к настоящему репозиторию; процесс завершается после замера
+                userService.getUserById(1L);
+                System.out.println(StartupTimer.report(StartupTimer.sinceProcessStart()));
+                return;
+            }
+
+            String binaryPort = System.getProperty(UserServiceServer.PORT_PROPERTY);
+            if (binaryPort != null && !binaryPort.isBlank()) {
+                binaryServer = UserServiceServer.start(userService, new InetSocketAddress(Integer.parseInt(binaryPort)),
+                        Integer.getInteger(UserServiceServer.WORKERS_PROPERTY, UserServiceServer.DEFAULT_WORKERS));
+            }
+
+            if (args.length > 0 && "binary-bench".equals(args[0])) {
+                // binary-bench [соединений] [глубина конвейера] [запросов]; без порта - сервер на loopback
+                int connections = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+                int depth = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+                int requests = args.length > 3 ? Integer.parseInt(args[3]) : 200_000;
+                if (binaryServer == null) {
+                    binaryServer = UserServiceServer.start(userService,
+                            new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                            Integer.getInteger(UserServiceServer.WORKERS_PROPERTY, UserServiceServer.DEFAULT_WORKERS));
+                }
+                BinaryProtocolBenchmark.Report report = new BinaryProtocolBenchmark(
+                        new InetSocketAddress(InetAddress.getLoopbackAddress(), binaryServer.getPort()),
+                        connections, depth, BinaryProtocolBenchmark.DEFAULT_SEED_USERS).run(requests);
+                System.out.print(report);
+                return;
+            }
+            if (args.length > 1 && "replay".equals(args[0])) {
+                // replay <file> [ускорение] [потоков]
+                Path recording = Paths.get(args[1]);
+                double speed = args.length > 2 ? Double.parseDouble(args[2]) : 1.0;
+                int workers = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+                WorkloadReplayer.Report report = new WorkloadReplayer(userService, speed, workers)
+                        .replay(WorkloadFile.read(recording));
+                System.out.print(report);
+                return;
+            }
+            if (args.length > 0) {
+                // Подкоманда или "batch <file|->" - без интерактивного меню
+                BatchCommandRunner batchRunner = new BatchCommandRunner(userService);
+                if (analyticsService != null) {
+                    batchRunner.enableAnalytics(analyticsService);
+                }
+                batchRunner.runArguments(args);
+                return;
+            }
 
             ConsoleApplication consoleApp = new ConsoleApplication(userService);
+            if (analyticsService != null) {
+                consoleApp.enableAnalytics(analyticsService);
+            }
             consoleApp.start();
 
         } catch (Exception e) {
             logger.severe("Критическая ошибка в приложении: " + e.getMessage());
         } finally {
+            if (binaryServer != null) {
+                // Первым: новые запросы не должны приходить во время остановки остальных компонентов
+                binaryServer.close();
+                logger.info("Двоичный протокол: " + binaryServer.metricsSummary());
+            }
+            if (workloadRecorder != null) {
+                workloadRecorder.close();
+            }
+            if (concurrencyLimiter != null) {
+                logger.info("Ограничитель параллелизма: " + concurrencyLimiter.metricsSummary());
+            }
+            if (slowOperationLog != null) {
+                logger.info("Медленных операций: " + slowOperationLog.getSlowOperations());
+                slowOperationLog.close();
+            }
+            if (purgeJob != null) {
+                logger.info("Очистка удаленных пользователей: " + purgeJob.metricsSummary());
+                purgeJob.close();
+            }
+            if (partitionManager != null) {
+                partitionManager.close();
+            }
+            if (archiver != null) {
+                logger.info("Архивация пользователей: " + archiver.metricsSummary());
+                archiver.close();
+            }
+            if (coldArchive != null) {
+                coldArchive.close();
+            }
+            if (userSnapshot != null) {
+                userSnapshot.close();
+            }
+            if (prefixIndex != null) {
+                prefixIndex.close();
+            }
+            if (emailFilter != null) {
+                logger.info("Фильтр email: " + emailFilter.metricsSummary());
+                emailFilter.close();
+            }
+            if (notifyBridge != null) {
+                notifyBridge.close();
+            }
+            if (shardedRepository != null) {
+                shardedRepository.close();
+            }
+            if (connectionPool != null) {
+                connectionPool.close();
+            }
+            eventPublisher.close();
             HibernateConfig.shutdown();
             logger.info("Приложение завершено");
         }
     }
+
+    // Схема секций готовится до первого обращения репозитория к таблице users
+    private static UserPartitionManager preparePartitions() {
+        if (!UserPartitionManager.isEnabled()) {
+            return null;
+        }
+        UserPartitionManager manager = UserPartitionManager.fromHibernateSettings();
+        manager.prepare();
+        manager.start();
+        return manager;
+    }
+
+    // Каждый шард очищается своим оператором; пакет делится между шардами по очереди
+    private static TombstonePurgeJob.Purger shardPurger(ShardedUserRepository shardedRepository) {
+        return (deletedBefore, limit) -> {
+            int purged = 0;
+            for (Shard shard : shardedRepository.getShards()) {
+                if (purged >= limit) {
+                    break;
+                }
+                if (shard.getRepository() instanceof UserRepositoryImpl) {
+                    purged += ((UserRepositoryImpl) shard.getRepository()).purgeDeleted(deletedBefore, limit - purged);
+                }
+            }
+            return purged;
+        };
+    }
+
+    // Тренировочный прогон для AppCDS: загружает классы горячих путей и завершается,
+    // JVM сохраняет их в архив по -XX:ArchiveClassesAtExit
+    private static void runTraining() {
+        new StartupWarmUp(1_000).run();
+        try {
+            HibernateConfig.getSessionFactory();
+        } catch (Throwable e) {
+            // Без БД архив все равно получит классы Hibernate и драйвера, загруженные до ошибки
+            logger.warning("Тренировочный прогон без подключения к БД: " + e.getMessage());
+        } finally {
+            HibernateConfig.shutdown();
+        }
+        logger.info("Тренировочный прогон завершен");
+    }
 }
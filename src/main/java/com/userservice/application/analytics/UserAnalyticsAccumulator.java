@@ -0,0 +1,62 @@
+package com.userservice.application.analytics;
+
+import com.userservice.application.dto.UserAnalyticsResponse;
+import com.userservice.domain.model.User;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collector;
+
+public class UserAnalyticsAccumulator {
+    private long totalUsers;
+    private long adults;
+    private long minors;
+    private long usersWithoutAge;
+    private final Map<Integer, Long> ageDistribution = new HashMap<>();
+    private final Map<LocalDate, Long> signUpsPerDay = new HashMap<>();
+
+    public static Collector<User, UserAnalyticsAccumulator, UserAnalyticsResponse> collector() {
+        return Collector.of(
+                UserAnalyticsAccumulator::new,
+                UserAnalyticsAccumulator::add,
+                UserAnalyticsAccumulator::merge,
+                UserAnalyticsAccumulator::toResponse,
+                Collector.Characteristics.UNORDERED
+        );
+    }
+
+    public void add(User user) {
+        totalUsers++;
+
+        if (user.getAge() == null) {
+            usersWithoutAge++;
+        } else {
+            if (user.isAdult()) {
+                adults++;
+            } else {
+                minors++;
+            }
+            ageDistribution.merge(user.getAge(), 1L, Long::sum);
+        }
+
+        if (user.getCreatedAt() != null) {
+            signUpsPerDay.merge(user.getCreatedAt().toLocalDate(), 1L, Long::sum);
+        }
+    }
+
+    public UserAnalyticsAccumulator merge(UserAnalyticsAccumulator other) {
+        totalUsers += other.totalUsers;
+        adults += other.adults;
+        minors += other.minors;
+        usersWithoutAge += other.usersWithoutAge;
+        other.ageDistribution.forEach((age, count) -> ageDistribution.merge(age, count, Long::sum));
+        other.signUpsPerDay.forEach((day, count) -> signUpsPerDay.merge(day, count, Long::sum));
+        return this;
+    }
+
+    public UserAnalyticsResponse toResponse() {
+        return new UserAnalyticsResponse(totalUsers, adults, minors, usersWithoutAge,
+                ageDistribution, signUpsPerDay);
+    }
+}
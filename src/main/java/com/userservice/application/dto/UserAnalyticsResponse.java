@@ -0,0 +1,32 @@
+package com.userservice.application.dto;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class UserAnalyticsResponse {
+    private final long totalUsers;
+    private final long adults;
+    private final long minors;
+    private final long usersWithoutAge;
+    private final Map<Integer, Long> ageDistribution;
+    private final Map<LocalDate, Long> signUpsPerDay;
+
+    public UserAnalyticsResponse(long totalUsers, long adults, long minors, long usersWithoutAge,
+                                 Map<Integer, Long> ageDistribution, Map<LocalDate, Long> signUpsPerDay) {
+        this.totalUsers = totalUsers;
+        this.adults = adults;
+        this.minors = minors;
+        this.usersWithoutAge = usersWithoutAge;
+        this.ageDistribution = Collections.unmodifiableMap(new TreeMap<>(ageDistribution));
+        this.signUpsPerDay = Collections.unmodifiableMap(new TreeMap<>(signUpsPerDay));
+    }
+
+    public long getTotalUsers() { return totalUsers; }
+    public long getAdults() { return adults; }
+    public long getMinors() { return minors; }
+    public long getUsersWithoutAge() { return usersWithoutAge; }
+    public Map<Integer, Long> getAgeDistribution() { return ageDistribution; }
+    public Map<LocalDate, Long> getSignUpsPerDay() { return signUpsPerDay; }
+}
@@ -6,13 +6,19 @@ public class UserResponse {
     private final String email;
     private final Integer age;
     private final String createdAt;
+    private final boolean stale;
 
     public UserResponse(Long id, String name, String email, Integer age, String createdAt) {
+        this(id, name, email, age, createdAt, false);
+    }
+
+    public UserResponse(Long id, String name, String email, Integer age, String createdAt, boolean stale) {
         this.id = id;
         this.name = name;
         this.email = email;
         this.age = age;
         this.createdAt = createdAt;
+        this.stale = stale;
     }
 
     public Long getId() { return id; }
@@ -20,4 +26,7 @@ public class UserResponse {
     public String getEmail() { return email; }
     public Integer getAge() { return age; }
     public String getCreatedAt() { return createdAt; }
+
+    // true, если БД недоступна и ответ взят из кэша последних известных значений
+    public boolean isStale() { return stale; }
 }
@@ -0,0 +1,15 @@
+package com.userservice.application.dto;
+
+public class UserSearchResult {
+    private final UserResponse user;
+    private final double score;
+
+    public UserSearchResult(UserResponse user, double score) {
+        this.user = user;
+        this.score = score;
+    }
+
+    public UserResponse getUser() { return user; }
+    // Сходство по триграммам от 0 до 1, 1 - полное совпадение
+    public double getScore() { return score; }
+}
@@ -0,0 +1,34 @@
+package com.userservice.application.dto;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+public class UserStatisticsResponse {
+    private final long totalUsers;
+    private final long adults;
+    private final long minors;
+    private final long usersWithoutAge;
+    private final Map<Integer, Long> ageBuckets;
+    private final Map<LocalDate, Long> dailyCreations;
+    private final String computedAt;
+
+    public UserStatisticsResponse(long totalUsers, long adults, long minors, long usersWithoutAge,
+                                  Map<Integer, Long> ageBuckets, Map<LocalDate, Long> dailyCreations,
+                                  String computedAt) {
+        this.totalUsers = totalUsers;
+        this.adults = adults;
+        this.minors = minors;
+        this.usersWithoutAge = usersWithoutAge;
+        this.ageBuckets = ageBuckets;
+        this.dailyCreations = dailyCreations;
+        this.computedAt = computedAt;
+    }
+
+    public long getTotalUsers() { return totalUsers; }
+    public long getAdults() { return adults; }
+    public long getMinors() { return minors; }
+    public long getUsersWithoutAge() { return usersWithoutAge; }
+    public Map<Integer, Long> getAgeBuckets() { return ageBuckets; }
+    public Map<LocalDate, Long> getDailyCreations() { return dailyCreations; }
+    public String getComputedAt() { return computedAt; }
+}
@@ -0,0 +1,162 @@
+package com.userservice.application.limit;
+
+import com.userservice.application.service.UserOperation;
+import com.userservice.application.service.UserServiceInterceptor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+public class AdaptiveConcurrencyLimiter implements UserServiceInterceptor {
+    private static final Logger logger = LogManager.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    public static final int DEFAULT_INITIAL_LIMIT = 20;
+    public static final int DEFAULT_MIN_LIMIT = 4;
+    public static final int DEFAULT_MAX_LIMIT = 200;
+
+    // Допустимый рост задержки относительно базовой, прежде чем лимит начнет снижаться
+    static final double RTT_TOLERANCE = 1.5;
+    static final double SMOOTHING = 0.2;
+    static final double SHORT_WINDOW_ALPHA = 2.0 / (1 + 10);
+    static final double LONG_WINDOW_ALPHA = 2.0 / (1 + 500);
+
+    private static final double NORMAL_PRIORITY_SHARE = 0.9;
+    private static final double LOW_PRIORITY_SHARE = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    private final Map<UserOperation, AtomicLong> accepted = new EnumMap<>(UserOperation.class);
+    private final Map<UserOperation, AtomicLong> rejected = new EnumMap<>(UserOperation.class);
+
+    public AdaptiveConcurrencyLimiter() {
+        this(DEFAULT_INITIAL_LIMIT, DEFAULT_MIN_LIMIT, DEFAULT_MAX_LIMIT);
+    }
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this(initialLimit, minLimit, maxLimit, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, LongSupplier nanoClock) {
+        if (minLimit <= 0 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 0 < min <= initial <= max");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.nanoClock = nanoClock;
+        for (UserOperation operation : UserOperation.values()) {
+            accepted.put(operation, new AtomicLong());
+            rejected.put(operation, new AtomicLong());
+        }
+    }
+
+    @Override
+    public <T> T around(UserOperation operation, Supplier<T> call) {
+        int started = tryAcquire(operation);
+        if (started < 0) {
+            rejected.get(operation).incrementAndGet();
+            logger.warn("Перегрузка: отклонена операция {} (в работе {}, лимит {})",
+                    operation, inFlight.get(), getLimit());
+            throw new OverloadedException(operation, getLimit());
+        }
+        accepted.get(operation).incrementAndGet();
+
+        long start = nanoClock.getAsLong();
+        try {
+            return call.get();
+        } finally {
+            inFlight.decrementAndGet();
+            onSample(nanoClock.getAsLong() - start, started);
+        }
+    }
+
+    // Возвращает число запросов в работе с учетом текущего или -1, если запрос отклонен
+    private int tryAcquire(UserOperation operation) {
+        int allowed = allowedFor(operation.getPriority());
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    private int allowedFor(UserOperation.Priority priority) {
+        double current = limit;
+        switch (priority) {
+            case HIGH:
+                return (int) current;
+            case NORMAL:
+                return Math.max(1, (int) (current * NORMAL_PRIORITY_SHARE));
+            default:
+                return Math.max(1, (int) (current * LOW_PRIORITY_SHARE));
+        }
+    }
+
+    // Градиентный алгоритм: отношение базовой (длинное окно) и текущей (короткое окно)
+    // задержки показывает, растет ли очередь в БД; запас sqrt(limit) позволяет лимиту расти
+    synchronized void onSample(long rttNanos, int inFlightAtStart) {
+        if (rttNanos <= 0) {
+            rttNanos = 1;
+        }
+        if (longRttNanos == 0) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+            return;
+        }
+
+        shortRttNanos += SHORT_WINDOW_ALPHA * (rttNanos - shortRttNanos);
+        longRttNanos += LONG_WINDOW_ALPHA * (rttNanos - longRttNanos);
+        // Базовая задержка не должна навсегда закрепиться на высоком значении после долгой перегрузки
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        double current = limit;
+        // Запросов мало - задержка ничего не говорит о пределе, лимит не растет вхолостую
+        if (inFlightAtStart < current / 2 && shortRttNanos <= longRttNanos * RTT_TOLERANCE) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRttNanos / shortRttNanos));
+        double queueSize = Math.sqrt(current);
+        double target = current * gradient + queueSize;
+        double updated = current * (1 - SMOOTHING) + target * SMOOTHING;
+        updated = Math.max(minLimit, Math.min(maxLimit, updated));
+
+        if ((int) updated != (int) current) {
+            logger.debug("Лимит параллелизма {} -> {} (rtt {} мкс, базовый {} мкс)",
+                    (int) current, (int) updated, (long) (shortRttNanos / 1_000), (long) (longRttNanos / 1_000));
+        }
+        limit = updated;
+    }
+
+    public int getLimit() { return (int) limit; }
+    public int getInFlight() { return inFlight.get(); }
+
+    public long getAccepted(UserOperation operation) { return accepted.get(operation).get(); }
+    public long getRejected(UserOperation operation) { return rejected.get(operation).get(); }
+
+    public long getTotalRejected() {
+        return rejected.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    public String metricsSummary() {
+        return String.format("limit=%d, inFlight=%d, rejected=%d", getLimit(), getInFlight(), getTotalRejected());
+    }
+}
@@ -0,0 +1,16 @@
+package com.userservice.application.limit;
+
+import com.userservice.application.service.UserOperation;
+
+public class OverloadedException extends RuntimeException {
+    private final UserOperation operation;
+
+    public OverloadedException(UserOperation operation, int limit) {
+        super("Service overloaded, rejected " + operation + " (concurrency limit " + limit + ")");
+        this.operation = operation;
+    }
+
+    public UserOperation getOperation() {
+        return operation;
+    }
+}
@@ -0,0 +1,210 @@
+package com.userservice.application.search;
+
+import java.util.Arrays;
+import java.util.Set;
+
+// Ключ -> отсортированный набор ID. Цепочки с единственным потомком схлопнуты в ребро с меткой, дети
+// упорядочены по первому символу, ID - массив long. Обход поддерева лексикографический и останавливается
+// на нужном числе ID: запрос стоит длину префикса плюс выдачу. Не потокобезопасен
+final class RadixTrie {
+    private static final long[] NO_IDS = new long[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private static final class Node {
+        char[] label;
+        Node[] children = NO_CHILDREN;
+        long[] ids = NO_IDS;
+
+        Node(char[] label) {
+            this.label = label;
+        }
+    }
+
+    private final Node root = new Node(new char[0]);
+    private long entries;
+
+    void add(String key, long id) {
+        Node node = root;
+        int position = 0;
+        while (position < key.length()) {
+            int index = childIndex(node, key.charAt(position));
+            if (index < 0) {
+                Node leaf = new Node(key.substring(position).toCharArray());
+                leaf.ids = new long[]{id};
+                node.children = insertChild(node.children, -index - 1, leaf);
+                entries++;
+                return;
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, key, position);
+            if (common < child.label.length) {
+                // Ключ расходится с меткой посередине ребра: ребро делится на общую часть и остаток
+                Node middle = new Node(Arrays.copyOf(child.label, common));
+                child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+                middle.children = new Node[]{child};
+                node.children[index] = middle;
+                child = middle;
+            }
+            node = child;
+            position += common;
+        }
+        int slot = Arrays.binarySearch(node.ids, id);
+        if (slot < 0) {
+            node.ids = insertId(node.ids, -slot - 1, id);
+            entries++;
+        }
+    }
+
+    boolean remove(String key, long id) {
+        boolean removed = remove(root, key, 0, id);
+        if (removed) {
+            entries--;
+        }
+        return removed;
+    }
+
+    // ID из поддерева префикса в порядке ключей, пока в out не наберется limit значений
+    void collect(String prefix, int limit, Set<Long> out) {
+        Node node = root;
+        int position = 0;
+        while (position < prefix.length()) {
+            int index = childIndex(node, prefix.charAt(position));
+            if (index < 0) {
+                return;
+            }
+            Node child = node.children[index];
+            int length = Math.min(child.label.length, prefix.length() - position);
+            if (commonPrefix(child.label, prefix, position) < length) {
+                return;
+            }
+            node = child;
+            position += length;
+        }
+        collect(node, limit, out);
+    }
+
+    long size() {
+        return entries;
+    }
+
+    long nodeCount() {
+        return countNodes(root);
+    }
+
+    private boolean remove(Node node, String key, int position, long id) {
+        if (position == key.length()) {
+            int slot = Arrays.binarySearch(node.ids, id);
+            if (slot < 0) {
+                return false;
+            }
+            node.ids = removeId(node.ids, slot);
+            return true;
+        }
+        int index = childIndex(node, key.charAt(position));
+        if (index < 0) {
+            return false;
+        }
+        Node child = node.children[index];
+        if (commonPrefix(child.label, key, position) < child.label.length
+                || !remove(child, key, position + child.label.length, id)) {
+            return false;
+        }
+        if (child.ids.length == 0 && child.children.length == 0) {
+            node.children = removeChild(node.children, index);
+        } else if (child.ids.length == 0 && child.children.length == 1) {
+            // Узел без своих ID с одним потомком снова схлопывается в ребро
+            Node grandchild = child.children[0];
+            char[] label = Arrays.copyOf(child.label, child.label.length + grandchild.label.length);
+            System.arraycopy(grandchild.label, 0, label, child.label.length, grandchild.label.length);
+            grandchild.label = label;
+            node.children[index] = grandchild;
+        }
+        return true;
+    }
+
+    private static void collect(Node node, int limit, Set<Long> out) {
+        for (long id : node.ids) {
+            if (out.size() >= limit) {
+                return;
+            }
+            out.add(id);
+        }
+        for (Node child : node.children) {
+            if (out.size() >= limit) {
+                return;
+            }
+            collect(child, limit, out);
+        }
+    }
+
+    private static long countNodes(Node node) {
+        long count = 1;
+        for (Node child : node.children) {
+            count += countNodes(child);
+        }
+        return count;
+    }
+
+    private static int childIndex(Node node, char first) {
+        Node[] children = node.children;
+        int low = 0;
+        int high = children.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char middleFirst = children[middle].label[0];
+            if (middleFirst < first) {
+                low = middle + 1;
+            } else if (middleFirst > first) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static int commonPrefix(char[] label, String key, int position) {
+        int length = Math.min(label.length, key.length() - position);
+        int common = 0;
+        while (common < length && label[common] == key.charAt(position + common)) {
+            common++;
+        }
+        return common;
+    }
+
+    private static Node[] insertChild(Node[] children, int index, Node child) {
+        Node[] result = new Node[children.length + 1];
+        System.arraycopy(children, 0, result, 0, index);
+        result[index] = child;
+        System.arraycopy(children, index, result, index + 1, children.length - index);
+        return result;
+    }
+
+    private static Node[] removeChild(Node[] children, int index) {
+        if (children.length == 1) {
+            return NO_CHILDREN;
+        }
+        Node[] result = new Node[children.length - 1];
+        System.arraycopy(children, 0, result, 0, index);
+        System.arraycopy(children, index + 1, result, index, children.length - index - 1);
+        return result;
+    }
+
+    private static long[] insertId(long[] ids, int index, long id) {
+        long[] result = new long[ids.length + 1];
+        System.arraycopy(ids, 0, result, 0, index);
+        result[index] = id;
+        System.arraycopy(ids, index, result, index + 1, ids.length - index);
+        return result;
+    }
+
+    private static long[] removeId(long[] ids, int index) {
+        if (ids.length == 1) {
+            return NO_IDS;
+        }
+        long[] result = new long[ids.length - 1];
+        System.arraycopy(ids, 0, result, 0, index);
+        System.arraycopy(ids, index + 1, result, index, ids.length - index - 1);
+        return result;
+    }
+}
@@ -0,0 +1,121 @@
+package com.userservice.application.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Триграмма -> ID документов. Сходство - коэффициент Жаккара, как у pg_trgm: слова в нижнем регистре
+// дополняются пробелами ("иван": "  и", " ив", "ива", "ван", "ан "), опечатка портит не больше трех триграмм.
+// Не потокобезопасен, синхронизацию обеспечивает владелец
+class TrigramIndex {
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<Long, String[]> documents = new HashMap<>();
+
+    static final class Match {
+        final long id;
+        final double similarity;
+
+        Match(long id, double similarity) {
+            this.id = id;
+            this.similarity = similarity;
+        }
+    }
+
+    void put(long id, String text) {
+        remove(id);
+        String[] trigrams = trigrams(text);
+        if (trigrams.length == 0) {
+            return;
+        }
+        documents.put(id, trigrams);
+        for (String trigram : trigrams) {
+            postings.computeIfAbsent(trigram, key -> new HashSet<>()).add(id);
+        }
+    }
+
+    void remove(long id) {
+        String[] trigrams = documents.remove(id);
+        if (trigrams == null) {
+            return;
+        }
+        for (String trigram : trigrams) {
+            Set<Long> ids = postings.get(trigram);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(trigram);
+            }
+        }
+    }
+
+    void clear() {
+        postings.clear();
+        documents.clear();
+    }
+
+    int size() {
+        return documents.size();
+    }
+
+    // Сходство не ниже t требует ceil(t * |Q|) общих триграмм, поэтому кандидаты берутся только из
+    // |Q| - ceil(t * |Q|) + 1 самых коротких списков: документ вне их нужного пересечения не наберет
+    List<Match> search(String query, double threshold) {
+        String[] queryTrigrams = trigrams(query);
+        if (queryTrigrams.length == 0) {
+            return Collections.emptyList();
+        }
+        List<Set<Long>> lists = new ArrayList<>(queryTrigrams.length);
+        for (String trigram : queryTrigrams) {
+            lists.add(postings.getOrDefault(trigram, Collections.emptySet()));
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        int minOverlap = Math.max(1, (int) Math.ceil(threshold * queryTrigrams.length - 1e-9));
+        Set<Long> candidates = new HashSet<>();
+        for (int i = 0; i < queryTrigrams.length - minOverlap + 1; i++) {
+            candidates.addAll(lists.get(i));
+        }
+
+        Set<String> querySet = new HashSet<>(Arrays.asList(queryTrigrams));
+        List<Match> matches = new ArrayList<>();
+        for (Long id : candidates) {
+            String[] documentTrigrams = documents.get(id);
+            int overlap = 0;
+            for (String trigram : documentTrigrams) {
+                if (querySet.contains(trigram)) {
+                    overlap++;
+                }
+            }
+            double similarity = (double) overlap / (queryTrigrams.length + documentTrigrams.length - overlap);
+            if (overlap >= minOverlap && similarity >= threshold) {
+                matches.add(new Match(id, similarity));
+            }
+        }
+        return matches;
+    }
+
+    // Уникальные триграммы слов текста; буквы и цифры, остальное - разделители слов
+    static String[] trigrams(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,202 @@
+package com.userservice.application.search;
+
+import com.userservice.domain.event.UserChangeEvent;
+import com.userservice.domain.event.UserChangeListener;
+import com.userservice.domain.model.User;
+import com.userservice.domain.repository.UserRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// Автодополнение по имени (целиком и с начала каждого слова) и email. Перестраивается в фоне потоковым
+// чтением в новое дерево, которое подменяет текущее; между перестроениями обновляется событиями.
+// Пользователи, измененные во время чтения, берутся из текущего индекса, а не из устаревшей выборки
+public class UserPrefixIndex implements UserChangeListener, AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(UserPrefixIndex.class);
+
+    public static final Duration DEFAULT_REBUILD_INTERVAL = Duration.ofHours(6);
+
+    @FunctionalInterface
+    public interface UserSource {
+        void forEachUser(Consumer<User> consumer);
+    }
+
+    private final UserSource source;
+    private final UserRepository userRepository;
+    private final ScheduledExecutorService scheduler;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Доступ к полям ниже - под lock
+    private RadixTrie trie = new RadixTrie();
+    private Map<Long, String[]> keysById = new HashMap<>();
+    private Set<Long> touchedDuringRebuild;
+    private volatile boolean ready;
+
+    public UserPrefixIndex(UserSource source, UserRepository userRepository) {
+        this.source = source;
+        this.userRepository = userRepository;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-prefix-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Первое построение в фоне, чтобы не задерживать старт; до него автодополнение пустое
+    public void start(Duration rebuildInterval) {
+        scheduler.scheduleWithFixedDelay(this::rebuildQuietly, 0, rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void rebuild() {
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            touchedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        RadixTrie next = new RadixTrie();
+        Map<Long, String[]> nextKeys = new HashMap<>();
+        try {
+            source.forEachUser(user -> {
+                String[] keys = keysOf(user);
+                nextKeys.put(user.getId(), keys);
+                for (String key : keys) {
+                    next.add(key, user.getId());
+                }
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                touchedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Long id : touchedDuringRebuild) {
+                replace(next, nextKeys, id, keysById.get(id));
+            }
+            touchedDuringRebuild = null;
+            trie = next;
+            keysById = nextKeys;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Префиксный индекс перестроен: {} пользователей, {} ключей, {} узлов за {} мс",
+                nextKeys.size(), next.size(), next.nodeCount(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @Override
+    public void onUserChanged(UserChangeEvent event) {
+        Optional<User> after = event.isRemote() ? userRepository.findById(event.getUserId()) : event.getAfter();
+        String[] keys = after.map(UserPrefixIndex::keysOf).orElse(null);
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringRebuild != null) {
+                touchedDuringRebuild.add(event.getUserId());
+            }
+            replace(trie, keysById, event.getUserId(), keys);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Потерянные события не восстановить по одному: индекс перестраивается в фоне
+    @Override
+    public void onEventsLost(long count) {
+        scheduler.execute(this::rebuildQuietly);
+    }
+
+    // ID пользователей, у которых имя, слово имени или email начинается с префикса; порядок - по ключу
+    public List<Long> complete(String prefix, int limit) {
+        String key = prefix.toLowerCase(Locale.ROOT);
+        Set<Long> ids = new LinkedHashSet<>();
+        lock.readLock().lock();
+        try {
+            trie.collect(key, limit, ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new ArrayList<>(ids);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return keysById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private static void replace(RadixTrie trie, Map<Long, String[]> keysById, long id, String[] keys) {
+        String[] previous = keys == null ? keysById.remove(id) : keysById.put(id, keys);
+        if (previous != null) {
+            for (String key : previous) {
+                trie.remove(key, id);
+            }
+        }
+        if (keys != null) {
+            for (String key : keys) {
+                trie.add(key, id);
+            }
+        }
+    }
+
+    static String[] keysOf(User user) {
+        Set<String> keys = new LinkedHashSet<>();
+        String name = user.getName().trim().toLowerCase(Locale.ROOT);
+        if (!name.isEmpty()) {
+            keys.add(name);
+        }
+        // "anna maria smirnova": находится и по "mar", и по "smi"
+        for (int space = name.indexOf(' '); space >= 0; space = name.indexOf(' ', space + 1)) {
+            String suffix = name.substring(space + 1).trim();
+            if (!suffix.isEmpty()) {
+                keys.add(suffix);
+            }
+        }
+        keys.add(user.getEmail().getValue().toLowerCase(Locale.ROOT));
+        return keys.toArray(new String[0]);
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // Индекс остается прежним до следующего перестроения
+            logger.warn("Перестроение префиксного индекса не удалось: {}", e.getMessage());
+        }
+    }
+}
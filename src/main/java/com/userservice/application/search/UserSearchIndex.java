@@ -0,0 +1,185 @@
+package com.userservice.application.search;
+
+import com.userservice.domain.event.UserChangeEvent;
+import com.userservice.domain.event.UserChangeListener;
+import com.userservice.domain.model.User;
+import com.userservice.domain.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Нечеткий поиск по имени и локальной части email. Индекс строится один раз и дальше обновляется событиями;
+// событие с другого экземпляра приходит без снимка, и пользователь перечитывается из репозитория.
+// Поиски идут параллельно под read-lock, изменения - под write-lock
+public class UserSearchIndex implements UserChangeListener {
+    public static final String THRESHOLD_PROPERTY = "userservice.search.threshold";
+    public static final double DEFAULT_THRESHOLD = 0.3;
+
+    private final UserRepository userRepository;
+    private final double threshold;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, User> users = new HashMap<>();
+    private final TrigramIndex names = new TrigramIndex();
+    private final TrigramIndex emails = new TrigramIndex();
+    // ID, измененные событиями во время перестроения; null вне перестроения. Доступ под write-lock
+    private Set<Long> touchedDuringRebuild;
+
+    public static final class Hit {
+        private final User user;
+        private final double score;
+
+        Hit(User user, double score) {
+            this.user = user;
+            this.score = score;
+        }
+
+        public User getUser() { return user; }
+        public double getScore() { return score; }
+    }
+
+    public UserSearchIndex(UserRepository userRepository) {
+        this(userRepository, Double.parseDouble(
+                System.getProperty(THRESHOLD_PROPERTY, String.valueOf(DEFAULT_THRESHOLD))));
+    }
+
+    public UserSearchIndex(UserRepository userRepository, double threshold) {
+        if (threshold <= 0 || threshold > 1) {
+            throw new IllegalArgumentException("Search threshold must be in (0, 1]");
+        }
+        this.userRepository = userRepository;
+        this.threshold = threshold;
+    }
+
+    // Подписку на события оформляют до перестроения; пользователи, измененные событиями во время
+    // чтения из репозитория, не перезаписываются устаревшей выборкой
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            touchedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        List<User> snapshot = userRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            Set<Long> touched = touchedDuringRebuild;
+            touchedDuringRebuild = null;
+            Set<Long> present = new HashSet<>();
+            for (User user : snapshot) {
+                present.add(user.getId());
+                if (!touched.contains(user.getId())) {
+                    index(user);
+                }
+            }
+            for (Long id : new ArrayList<>(users.keySet())) {
+                if (!present.contains(id) && !touched.contains(id)) {
+                    unindex(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onUserChanged(UserChangeEvent event) {
+        if (event.isRemote()) {
+            Optional<User> current = userRepository.findById(event.getUserId());
+            if (current.isPresent()) {
+                put(current.get());
+            } else {
+                remove(event.getUserId());
+            }
+            return;
+        }
+        Optional<User> after = event.getAfter();
+        if (after.isPresent()) {
+            put(after.get());
+        } else {
+            remove(event.getUserId());
+        }
+    }
+
+    // Перестроение в потоке диспетчера: следующие события применяются уже поверх него
+    @Override
+    public void onEventsLost(long count) {
+        rebuild();
+    }
+
+    public List<Hit> search(String query, int limit) {
+        List<Hit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = new HashMap<>();
+            for (TrigramIndex.Match match : names.search(query, threshold)) {
+                scores.merge(match.id, match.similarity, Math::max);
+            }
+            for (TrigramIndex.Match match : emails.search(query, threshold)) {
+                scores.merge(match.id, match.similarity, Math::max);
+            }
+            scores.forEach((id, score) -> hits.add(new Hit(users.get(id), score)));
+        } finally {
+            lock.readLock().unlock();
+        }
+        hits.sort(Comparator.comparingDouble(Hit::getScore).reversed()
+                .thenComparing(hit -> hit.getUser().getName())
+                .thenComparing(hit -> hit.getUser().getId()));
+        return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return users.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(User user) {
+        lock.writeLock().lock();
+        try {
+            touch(user.getId());
+            index(user);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            touch(id);
+            unindex(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void touch(long id) {
+        if (touchedDuringRebuild != null) {
+            touchedDuringRebuild.add(id);
+        }
+    }
+
+    private void unindex(long id) {
+        users.remove(id);
+        names.remove(id);
+        emails.remove(id);
+    }
+
+    private void index(User user) {
+        users.put(user.getId(), user);
+        names.put(user.getId(), user.getName());
+        String email = user.getEmail().getValue();
+        emails.put(user.getId(), email.substring(0, email.indexOf('@')));
+    }
+}
@@ -0,0 +1,39 @@
+package com.userservice.application.service;
+
+import com.userservice.application.dto.UserAnalyticsResponse;
+import com.userservice.application.dto.UserStatisticsResponse;
+import com.userservice.application.usecase.GetUserAnalyticsUseCase;
+import com.userservice.application.usecase.GetUserStatisticsUseCase;
+import com.userservice.domain.event.UserChangeEvent;
+import com.userservice.domain.event.UserChangeListener;
+import com.userservice.domain.repository.UserScanner;
+import com.userservice.domain.repository.UserStatisticsRepository;
+
+// Подписывается на события изменений: по ним ведутся счетчики статистики
+public class UserAnalyticsService implements UserChangeListener {
+    private final GetUserAnalyticsUseCase getUserAnalyticsUseCase;
+    private final GetUserStatisticsUseCase getUserStatisticsUseCase;
+
+    public UserAnalyticsService(UserScanner userScanner, UserStatisticsRepository statisticsRepository) {
+        this.getUserAnalyticsUseCase = new GetUserAnalyticsUseCase(userScanner);
+        this.getUserStatisticsUseCase = new GetUserStatisticsUseCase(statisticsRepository);
+    }
+
+    public UserAnalyticsResponse getAnalytics() {
+        return getUserAnalyticsUseCase.execute();
+    }
+
+    public UserStatisticsResponse getStatistics() {
+        return getUserStatisticsUseCase.execute();
+    }
+
+    @Override
+    public void onUserChanged(UserChangeEvent event) {
+        getUserStatisticsUseCase.onUserChanged(event);
+    }
+
+    @Override
+    public void onEventsLost(long count) {
+        getUserStatisticsUseCase.onEventsLost(count);
+    }
+}
@@ -0,0 +1,25 @@
+package com.userservice.application.service;
+
+public enum UserOperation {
+    CREATE(Priority.NORMAL),
+    GET_BY_ID(Priority.HIGH),
+    GET_BY_EMAIL(Priority.HIGH),
+    GET_ALL(Priority.LOW),
+    UPDATE(Priority.NORMAL),
+    DELETE(Priority.NORMAL),
+    SEARCH(Priority.LOW),
+    AUTOCOMPLETE(Priority.NORMAL);
+
+    // Точечные чтения важнее записи, массовая выборка getAllUsers и поиск отбрасываются первыми
+    public enum Priority { HIGH, NORMAL, LOW }
+
+    private final Priority priority;
+
+    UserOperation(Priority priority) {
+        this.priority = priority;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+}
@@ -2,10 +2,19 @@ package com.userservice.application.service;
 
 import com.userservice.application.usecase.*;
 import com.userservice.application.dto.*;
+import com.userservice.application.search.UserPrefixIndex;
+import com.userservice.application.search.UserSearchIndex;
+import com.userservice.domain.repository.IdGenerator;
+import com.userservice.domain.repository.ReadYourWritesSession;
+import com.userservice.domain.repository.TransactionManager;
 import com.userservice.domain.repository.UserRepository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 public class UserService {
     private final CreateUserUseCase createUserUseCase;
     private final GetUserByIdUseCase getUserByIdUseCase;
@@ -13,37 +22,120 @@ public class UserService {
     private final UpdateUserUseCase updateUserUseCase;
     private final DeleteUserUseCase deleteUserUseCase;
     private final GetUserByEmailUseCase getUserByEmailUseCase;
+    private final TransactionManager transactionManager;
+    private volatile SearchUsersUseCase searchUsersUseCase;
+    private volatile AutocompleteUsersUseCase autocompleteUsersUseCase;
+    private final List<UserServiceInterceptor> interceptors = new CopyOnWriteArrayList<>();
 
     public UserService(UserRepository userRepository) {
-        this.createUserUseCase = new CreateUserUseCase(userRepository);
+        this(userRepository, TransactionManager.NONE);
+    }
+
+    public UserService(UserRepository userRepository, TransactionManager transactionManager) {
+        this(userRepository, transactionManager, null);
+    }
+
+    public UserService(UserRepository userRepository, TransactionManager transactionManager, IdGenerator idGenerator) {
+        this.createUserUseCase = new CreateUserUseCase(userRepository, idGenerator);
         this.getUserByIdUseCase = new GetUserByIdUseCase(userRepository);
         this.getAllUsersUseCase = new GetAllUsersUseCase(userRepository);
         this.updateUserUseCase = new UpdateUserUseCase(userRepository);
         this.deleteUserUseCase = new DeleteUserUseCase(userRepository);
         this.getUserByEmailUseCase = new GetUserByEmailUseCase(userRepository);
+        this.transactionManager = transactionManager;
+    }
+
+    // Первый добавленный перехватчик оказывается внешним
+    public void addInterceptor(UserServiceInterceptor interceptor) {
+        interceptors.add(interceptor);
+    }
+
+    // Индекс должен быть подписан на события изменений репозитория, иначе результаты устареют
+    public void enableSearch(UserSearchIndex searchIndex) {
+        this.searchUsersUseCase = new SearchUsersUseCase(searchIndex);
+    }
+
+    public void enableAutocomplete(UserPrefixIndex prefixIndex) {
+        this.autocompleteUsersUseCase = new AutocompleteUsersUseCase(prefixIndex);
+    }
+
+    // Без TransactionManager каждый вызов внутри work по-прежнему выполняется в своей транзакции
+    public <T> T inTransaction(Function<UserService, T> work) {
+        return transactionManager.inTransaction(() -> work.apply(this));
+    }
+
+    public void runInTransaction(Consumer<UserService> work) {
+        transactionManager.inTransaction(() -> {
+            work.accept(this);
+            return null;
+        });
+    }
+
+    // Чтения внутри work видят записи, сделанные ранее в той же сессии, даже при чтении с реплики
+    public <T> T inSession(ReadYourWritesSession session, Function<UserService, T> work) {
+        return session.call(() -> work.apply(this));
+    }
+
+    public void runInSession(ReadYourWritesSession session, Consumer<UserService> work) {
+        session.call(() -> {
+            work.accept(this);
+            return null;
+        });
     }
 
     public UserResponse createUser(CreateUserRequest request) {
-        return createUserUseCase.execute(request);
+        return invoke(UserOperation.CREATE, request, () -> createUserUseCase.execute(request));
     }
 
     public Optional<UserResponse> getUserById(Long id) {
-        return getUserByIdUseCase.execute(id);
+        return invoke(UserOperation.GET_BY_ID, id, () -> getUserByIdUseCase.execute(id));
     }
 
     public List<UserResponse> getAllUsers() {
-        return getAllUsersUseCase.execute();
+        return invoke(UserOperation.GET_ALL, null, () -> getAllUsersUseCase.execute());
+    }
+
+    // Пользователи с ID больше afterId по возрастанию ID; следующая страница - после последнего ID
+    public List<UserResponse> getUsersPage(long afterId, int limit) {
+        return invoke(UserOperation.GET_ALL, null, () -> getAllUsersUseCase.executePage(afterId, limit));
     }
 
     public UserResponse updateUser(UpdateUserRequest request) {
-        return updateUserUseCase.execute(request);
+        return invoke(UserOperation.UPDATE, request, () -> updateUserUseCase.execute(request));
     }
 
     public boolean deleteUser(Long id) {
-        return deleteUserUseCase.execute(id);
+        return invoke(UserOperation.DELETE, id, () -> deleteUserUseCase.execute(id));
     }
 
     public Optional<UserResponse> getUserByEmail(String email) {
-        return getUserByEmailUseCase.execute(email);
+        return invoke(UserOperation.GET_BY_EMAIL, email, () -> getUserByEmailUseCase.execute(email));
+    }
+
+    public List<UserSearchResult> searchUsers(String query, int limit) {
+        SearchUsersUseCase useCase = searchUsersUseCase;
+        if (useCase == null) {
+            throw new IllegalStateException("Fuzzy search is not enabled");
+        }
+        return invoke(UserOperation.SEARCH, query, () -> useCase.execute(query, limit));
+    }
+
+    // ID пользователей, у которых имя, слово имени или email начинается с префикса
+    public List<Long> autocomplete(String prefix, int limit) {
+        AutocompleteUsersUseCase useCase = autocompleteUsersUseCase;
+        if (useCase == null) {
+            throw new IllegalStateException("Autocomplete is not enabled");
+        }
+        return invoke(UserOperation.AUTOCOMPLETE, prefix, () -> useCase.execute(prefix, limit));
+    }
+
+    private <T> T invoke(UserOperation operation, Object argument, Supplier<T> call) {
+        Supplier<T> chain = call;
+        for (int i = interceptors.size() - 1; i >= 0; i--) {
+            UserServiceInterceptor interceptor = interceptors.get(i);
+            Supplier<T> next = chain;
+            chain = () -> interceptor.around(operation, argument, next);
+        }
+        return chain.get();
     }
-}
\ No newline at end of file
+}
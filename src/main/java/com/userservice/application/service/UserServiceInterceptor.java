@@ -0,0 +1,12 @@
+package com.userservice.application.service;
+
+import java.util.function.Supplier;
+
+public interface UserServiceInterceptor {
+    <T> T around(UserOperation operation, Supplier<T> call);
+
+    // Аргумент вызова (запрос, ID или email; null для getAllUsers) - для перехватчиков, которым он нужен
+    default <T> T around(UserOperation operation, Object argument, Supplier<T> call) {
+        return around(operation, call);
+    }
+}
@@ -0,0 +1,26 @@
+package com.userservice.application.usecase;
+
+import com.userservice.application.search.UserPrefixIndex;
+
+import java.util.List;
+
+public class AutocompleteUsersUseCase {
+    public static final int MAX_LIMIT = 50;
+
+    private final UserPrefixIndex prefixIndex;
+
+    public AutocompleteUsersUseCase(UserPrefixIndex prefixIndex) {
+        this.prefixIndex = prefixIndex;
+    }
+
+    public List<Long> execute(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            throw new IllegalArgumentException("Prefix cannot be empty");
+        }
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Autocomplete limit must be between 1 and " + MAX_LIMIT);
+        }
+
+        return prefixIndex.complete(prefix.stripLeading(), limit);
+    }
+}
@@ -4,13 +4,22 @@ import com.userservice.application.dto.CreateUserRequest;
 import com.userservice.application.dto.UserResponse;
 import com.userservice.domain.model.Email;
 import com.userservice.domain.model.User;
+import com.userservice.domain.repository.DataAccessException;
+import com.userservice.domain.repository.IdGenerator;
 import com.userservice.domain.repository.UserRepository;
 
 public class CreateUserUseCase {
     private final UserRepository userRepository;
+    private final IdGenerator idGenerator;
 
     public CreateUserUseCase(UserRepository userRepository) {
+        this(userRepository, null);
+    }
+
+    // Без генератора ID назначает репозиторий при сохранении
+    public CreateUserUseCase(UserRepository userRepository, IdGenerator idGenerator) {
         this.userRepository = userRepository;
+        this.idGenerator = idGenerator;
     }
 
     public UserResponse execute(CreateUserRequest request) {
@@ -19,12 +28,24 @@ public class CreateUserUseCase {
         }
 
         User user = new User(
+                idGenerator != null ? idGenerator.nextId() : null,
                 request.getName(),
                 new Email(request.getEmail()),
-                request.getAge()
+                request.getAge(),
+                null
         );
 
-        User savedUser = userRepository.save(user);
+        User savedUser;
+        try {
+            savedUser = userRepository.save(user);
+        } catch (DataAccessException e) {
+            // Параллельная регистрация с тем же email прошла проверку выше одновременно с этой;
+            // дубликат отсекло ограничение уникальности хранилища
+            if (userRepository.existsByEmail(user.getEmail())) {
+                throw new IllegalArgumentException("User with this email already exists", e);
+            }
+            throw e;
+        }
 
         return toResponse(savedUser);
     }
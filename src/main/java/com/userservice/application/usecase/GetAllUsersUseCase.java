@@ -8,6 +8,8 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 public class GetAllUsersUseCase {
+    public static final int MAX_PAGE_SIZE = 1_000;
+
     private final UserRepository userRepository;
 
     public GetAllUsersUseCase(UserRepository userRepository) {
@@ -21,6 +23,15 @@ public class GetAllUsersUseCase {
                 .collect(Collectors.toList());
     }
 
+    public List<UserResponse> executePage(long afterId, int limit) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return userRepository.findPage(afterId, limit).stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+
     private UserResponse toResponse(User user) {
         return new UserResponse(
                 user.getId(),
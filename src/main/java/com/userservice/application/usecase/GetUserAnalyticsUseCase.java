@@ -0,0 +1,17 @@
+package com.userservice.application.usecase;
+
+import com.userservice.application.analytics.UserAnalyticsAccumulator;
+import com.userservice.application.dto.UserAnalyticsResponse;
+import com.userservice.domain.repository.UserScanner;
+
+public class GetUserAnalyticsUseCase {
+    private final UserScanner userScanner;
+
+    public GetUserAnalyticsUseCase(UserScanner userScanner) {
+        this.userScanner = userScanner;
+    }
+
+    public UserAnalyticsResponse execute() {
+        return userScanner.scan(UserAnalyticsAccumulator.collector());
+    }
+}
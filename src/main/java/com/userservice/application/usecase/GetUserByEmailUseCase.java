@@ -2,6 +2,7 @@ package com.userservice.application.usecase;
 
 import com.userservice.domain.model.Email;
 import com.userservice.domain.model.User;
+import com.userservice.domain.repository.StaleReads;
 import com.userservice.domain.repository.UserRepository;
 import com.userservice.application.dto.UserResponse;
 
@@ -19,17 +20,20 @@ public class GetUserByEmailUseCase {
             throw new IllegalArgumentException("Email cannot be empty");
         }
 
+        StaleReads.consume();
         Optional<User> user = userRepository.findByEmail(new Email(email));
-        return user.map(this::toResponse);
+        boolean stale = StaleReads.consume();
+        return user.map(found -> toResponse(found, stale));
     }
 
-    private UserResponse toResponse(User user) {
+    private UserResponse toResponse(User user, boolean stale) {
         return new UserResponse(
                 user.getId(),
                 user.getName(),
                 user.getEmail().getValue(),
                 user.getAge(),
-                user.getCreatedAt() != null ? user.getCreatedAt().toString() : null
+                user.getCreatedAt() != null ? user.getCreatedAt().toString() : null,
+                stale
         );
     }
 }
@@ -1,6 +1,7 @@
 package com.userservice.application.usecase;
 
 import com.userservice.domain.model.User;
+import com.userservice.domain.repository.StaleReads;
 import com.userservice.domain.repository.UserRepository;
 import com.userservice.application.dto.UserResponse;
 
@@ -18,17 +19,20 @@ public class GetUserByIdUseCase {
             throw new IllegalArgumentException("Invalid user ID");
         }
 
+        StaleReads.consume();
         Optional<User> user = userRepository.findById(id);
-        return user.map(this::toResponse);
+        boolean stale = StaleReads.consume();
+        return user.map(found -> toResponse(found, stale));
     }
 
-    private UserResponse toResponse(User user) {
+    private UserResponse toResponse(User user, boolean stale) {
         return new UserResponse(
                 user.getId(),
                 user.getName(),
                 user.getEmail().getValue(),
                 user.getAge(),
-                user.getCreatedAt() != null ? user.getCreatedAt().toString() : null
+                user.getCreatedAt() != null ? user.getCreatedAt().toString() : null,
+                stale
         );
     }
 }
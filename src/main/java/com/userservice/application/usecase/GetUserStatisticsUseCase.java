@@ -0,0 +1,221 @@
+package com.userservice.application.usecase;
+
+import com.userservice.application.dto.UserStatisticsResponse;
+import com.userservice.domain.event.UserChangeEvent;
+import com.userservice.domain.event.UserChangeListener;
+import com.userservice.domain.model.User;
+import com.userservice.domain.model.UserStatistics;
+import com.userservice.domain.repository.UserStatisticsRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Полный пересчет по таблице - при старте, раз в fullRefreshInterval и после изменений, которые нельзя
+// учесть по событию (с другого узла, без снимка до/после, потерянные). В остальное время счетчики
+// ведутся по событиям изменений, и истекший TTL не приводит к запросу в БД
+public class GetUserStatisticsUseCase implements UserChangeListener {
+    public static final Duration DEFAULT_TTL = Duration.ofSeconds(30);
+    public static final Duration DEFAULT_FULL_REFRESH_INTERVAL = Duration.ofMinutes(10);
+
+    private final UserStatisticsRepository statisticsRepository;
+    private final Duration ttl;
+    private final Duration fullRefreshInterval;
+    private final Clock clock;
+
+    private volatile CachedStatistics cached;
+
+    // Доступ к полям ниже - под totalsLock: события не ждут полного пересчета, который идет под this
+    private final Object totalsLock = new Object();
+    private RunningTotals totals;
+    private Instant fullRefreshAt;
+    private boolean stale;
+    // События, пришедшие во время полного пересчета; применяются к его результату
+    private List<UserChangeEvent> duringRefresh;
+
+    public GetUserStatisticsUseCase(UserStatisticsRepository statisticsRepository) {
+        this(statisticsRepository, DEFAULT_TTL, DEFAULT_FULL_REFRESH_INTERVAL, Clock.systemUTC());
+    }
+
+    public GetUserStatisticsUseCase(UserStatisticsRepository statisticsRepository, Duration ttl,
+                                    Duration fullRefreshInterval, Clock clock) {
+        this.statisticsRepository = statisticsRepository;
+        this.ttl = ttl;
+        this.fullRefreshInterval = fullRefreshInterval;
+        this.clock = clock;
+    }
+
+    public UserStatisticsResponse execute() {
+        CachedStatistics current = cached;
+        if (current != null && current.isFresh(clock.instant(), ttl)) {
+            return current.response;
+        }
+        return refresh();
+    }
+
+    @Override
+    public void onUserChanged(UserChangeEvent event) {
+        synchronized (totalsLock) {
+            if (!isApplicable(event)) {
+                stale = true;
+            } else if (duringRefresh != null) {
+                duringRefresh.add(event);
+            } else if (totals != null) {
+                totals.apply(event);
+            }
+        }
+    }
+
+    @Override
+    public void onEventsLost(long count) {
+        synchronized (totalsLock) {
+            stale = true;
+        }
+    }
+
+    private synchronized UserStatisticsResponse refresh() {
+        Instant now = clock.instant();
+        CachedStatistics current = cached;
+        if (current != null && current.isFresh(now, ttl)) {
+            return current.response;
+        }
+
+        UserStatistics statistics = null;
+        synchronized (totalsLock) {
+            if (totals != null && !stale && now.isBefore(fullRefreshAt.plus(fullRefreshInterval))) {
+                statistics = totals.toStatistics();
+            }
+        }
+        if (statistics == null) {
+            statistics = recompute(now);
+        }
+
+        CachedStatistics refreshed = new CachedStatistics(toResponse(statistics, now), now);
+        cached = refreshed;
+        return refreshed.response;
+    }
+
+    // Событие, зафиксированное до запроса и пришедшее во время него, будет учтено дважды;
+    // расхождение живет до следующего полного пересчета
+    private UserStatistics recompute(Instant now) {
+        synchronized (totalsLock) {
+            stale = false;
+            duringRefresh = new ArrayList<>();
+        }
+        UserStatistics computed;
+        try {
+            computed = statisticsRepository.computeStatistics();
+        } catch (RuntimeException e) {
+            synchronized (totalsLock) {
+                duringRefresh = null;
+                stale = true;
+            }
+            throw e;
+        }
+        synchronized (totalsLock) {
+            totals = new RunningTotals(computed);
+            duringRefresh.forEach(totals::apply);
+            duringRefresh = null;
+            fullRefreshAt = now;
+            return totals.toStatistics();
+        }
+    }
+
+    private static boolean isApplicable(UserChangeEvent event) {
+        if (event.isRemote()) {
+            return false;
+        }
+        switch (event.getType()) {
+            case CREATED:
+                return event.getAfter().isPresent();
+            case UPDATED:
+                return event.getBefore().isPresent() && event.getAfter().isPresent();
+            case DELETED:
+                return event.getBefore().isPresent();
+            default:
+                return false;
+        }
+    }
+
+    private UserStatisticsResponse toResponse(UserStatistics statistics, Instant computedAt) {
+        return new UserStatisticsResponse(
+                statistics.getTotalUsers(),
+                statistics.getAdults(),
+                statistics.getMinors(),
+                statistics.getUsersWithoutAge(),
+                statistics.getAgeBuckets(),
+                statistics.getDailyCreations(),
+                computedAt.toString()
+        );
+    }
+
+    private static class RunningTotals {
+        private long totalUsers;
+        private long adults;
+        private long minors;
+        private long usersWithoutAge;
+        private final Map<Integer, Long> ageBuckets;
+        private final Map<LocalDate, Long> dailyCreations;
+
+        RunningTotals(UserStatistics statistics) {
+            this.totalUsers = statistics.getTotalUsers();
+            this.adults = statistics.getAdults();
+            this.minors = statistics.getMinors();
+            this.usersWithoutAge = statistics.getUsersWithoutAge();
+            this.ageBuckets = new HashMap<>(statistics.getAgeBuckets());
+            this.dailyCreations = new HashMap<>(statistics.getDailyCreations());
+        }
+
+        // Обновление - вычитание прежнего состояния и добавление нового
+        void apply(UserChangeEvent event) {
+            event.getBefore().ifPresent(user -> add(user, -1));
+            event.getAfter().ifPresent(user -> add(user, 1));
+        }
+
+        private void add(User user, long sign) {
+            totalUsers += sign;
+            Integer age = user.getAge();
+            if (age == null) {
+                usersWithoutAge += sign;
+            } else {
+                if (user.isAdult()) {
+                    adults += sign;
+                } else {
+                    minors += sign;
+                }
+                merge(ageBuckets, (age / UserStatistics.AGE_BUCKET_WIDTH) * UserStatistics.AGE_BUCKET_WIDTH, sign);
+            }
+            if (user.getCreatedAt() != null) {
+                merge(dailyCreations, user.getCreatedAt().toLocalDate(), sign);
+            }
+        }
+
+        private static <K> void merge(Map<K, Long> counts, K key, long delta) {
+            counts.merge(key, delta, (current, change) -> current + change == 0 ? null : current + change);
+        }
+
+        UserStatistics toStatistics() {
+            return new UserStatistics(totalUsers, adults, minors, usersWithoutAge,
+                    ageBuckets, dailyCreations);
+        }
+    }
+
+    private static class CachedStatistics {
+        private final UserStatisticsResponse response;
+        private final Instant computedAt;
+
+        CachedStatistics(UserStatisticsResponse response, Instant computedAt) {
+            this.response = response;
+            this.computedAt = computedAt;
+        }
+
+        boolean isFresh(Instant now, Duration ttl) {
+            return now.isBefore(computedAt.plus(ttl));
+        }
+    }
+}
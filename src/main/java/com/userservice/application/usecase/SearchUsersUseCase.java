@@ -0,0 +1,42 @@
+package com.userservice.application.usecase;
+
+import com.userservice.application.dto.UserResponse;
+import com.userservice.application.dto.UserSearchResult;
+import com.userservice.application.search.UserSearchIndex;
+import com.userservice.domain.model.User;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class SearchUsersUseCase {
+    public static final int MAX_LIMIT = 100;
+
+    private final UserSearchIndex searchIndex;
+
+    public SearchUsersUseCase(UserSearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    public List<UserSearchResult> execute(String query, int limit) {
+        if (query == null || query.trim().isEmpty()) {
+            throw new IllegalArgumentException("Search query cannot be empty");
+        }
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Search limit must be between 1 and " + MAX_LIMIT);
+        }
+
+        return searchIndex.search(query.trim(), limit).stream()
+                .map(hit -> new UserSearchResult(toResponse(hit.getUser()), hit.getScore()))
+                .collect(Collectors.toList());
+    }
+
+    private UserResponse toResponse(User user) {
+        return new UserResponse(
+                user.getId(),
+                user.getName(),
+                user.getEmail().getValue(),
+                user.getAge(),
+                user.getCreatedAt() != null ? user.getCreatedAt().toString() : null
+        );
+    }
+}
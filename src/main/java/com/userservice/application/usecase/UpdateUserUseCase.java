@@ -2,6 +2,7 @@ package com.userservice.application.usecase;
 
 import com.userservice.domain.model.User;
 import com.userservice.domain.model.Email;
+import com.userservice.domain.repository.DataAccessException;
 import com.userservice.domain.repository.UserRepository;
 import com.userservice.application.dto.UpdateUserRequest;
 import com.userservice.application.dto.UserResponse;
@@ -30,7 +31,15 @@ public class UpdateUserUseCase {
                 request.getAge()
         );
 
-        userRepository.update(updatedUser);
+        try {
+            userRepository.update(updatedUser);
+        } catch (DataAccessException e) {
+            // Email заняли между проверкой и обновлением
+            if (!existingUser.getEmail().equals(newEmail) && userRepository.existsByEmail(newEmail)) {
+                throw new IllegalArgumentException("User with this email already exists", e);
+            }
+            throw e;
+        }
 
         return toResponse(updatedUser);
     }
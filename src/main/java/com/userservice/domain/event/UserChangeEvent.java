@@ -0,0 +1,56 @@
+package com.userservice.domain.event;
+
+import com.userservice.domain.model.User;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+
+public class UserChangeEvent {
+    private final UserChangeType type;
+    private final Long userId;
+    private final User before;
+    private final User after;
+    private final Instant occurredAt;
+    private final boolean remote;
+
+    private UserChangeEvent(UserChangeType type, Long userId, User before, User after,
+                            Instant occurredAt, boolean remote) {
+        this.type = Objects.requireNonNull(type, "Type cannot be null");
+        this.userId = Objects.requireNonNull(userId, "User ID cannot be null");
+        this.before = before;
+        this.after = after;
+        this.occurredAt = occurredAt;
+        this.remote = remote;
+    }
+
+    public static UserChangeEvent created(User after) {
+        return new UserChangeEvent(UserChangeType.CREATED, after.getId(), null, after, Instant.now(), false);
+    }
+
+    public static UserChangeEvent updated(User before, User after) {
+        return new UserChangeEvent(UserChangeType.UPDATED, after.getId(), before, after, Instant.now(), false);
+    }
+
+    public static UserChangeEvent deleted(User before) {
+        return new UserChangeEvent(UserChangeType.DELETED, before.getId(), before, null, Instant.now(), false);
+    }
+
+    // Событие с другого экземпляра сервиса: снимков нет, только факт изменения
+    public static UserChangeEvent remote(UserChangeType type, Long userId) {
+        return new UserChangeEvent(type, userId, null, null, Instant.now(), true);
+    }
+
+    public UserChangeType getType() { return type; }
+    public Long getUserId() { return userId; }
+    public Optional<User> getBefore() { return Optional.ofNullable(before); }
+    public Optional<User> getAfter() { return Optional.ofNullable(after); }
+    public Instant getOccurredAt() { return occurredAt; }
+    public boolean isRemote() { return remote; }
+
+    @Override
+    public String toString() {
+        return String.format("UserChangeEvent{type=%s, userId=%d, remote=%s, occurredAt=%s}",
+                type, userId, remote, occurredAt);
+    }
+}
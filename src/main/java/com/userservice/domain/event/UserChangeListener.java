@@ -0,0 +1,11 @@
+package com.userservice.domain.event;
+
+@FunctionalInterface
+public interface UserChangeListener {
+    void onUserChanged(UserChangeEvent event);
+
+    // Издатель отбросил события: обработчик с производным состоянием должен пересинхронизироваться с источником.
+    // Вызывается после доставки всех событий, принятых до потери
+    default void onEventsLost(long count) {
+    }
+}
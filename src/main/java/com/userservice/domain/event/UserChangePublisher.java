@@ -0,0 +1,8 @@
+package com.userservice.domain.event;
+
+@FunctionalInterface
+public interface UserChangePublisher {
+    UserChangePublisher NONE = event -> {};
+
+    void publish(UserChangeEvent event);
+}
@@ -0,0 +1,7 @@
+package com.userservice.domain.event;
+
+public enum UserChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,34 @@
+package com.userservice.domain.model;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class UserStatistics {
+    public static final int AGE_BUCKET_WIDTH = 10;
+
+    private final long totalUsers;
+    private final long adults;
+    private final long minors;
+    private final long usersWithoutAge;
+    private final Map<Integer, Long> ageBuckets;
+    private final Map<LocalDate, Long> dailyCreations;
+
+    public UserStatistics(long totalUsers, long adults, long minors, long usersWithoutAge,
+                          Map<Integer, Long> ageBuckets, Map<LocalDate, Long> dailyCreations) {
+        this.totalUsers = totalUsers;
+        this.adults = adults;
+        this.minors = minors;
+        this.usersWithoutAge = usersWithoutAge;
+        this.ageBuckets = Collections.unmodifiableMap(new TreeMap<>(ageBuckets));
+        this.dailyCreations = Collections.unmodifiableMap(new TreeMap<>(dailyCreations));
+    }
+
+    public long getTotalUsers() { return totalUsers; }
+    public long getAdults() { return adults; }
+    public long getMinors() { return minors; }
+    public long getUsersWithoutAge() { return usersWithoutAge; }
+    public Map<Integer, Long> getAgeBuckets() { return ageBuckets; }
+    public Map<LocalDate, Long> getDailyCreations() { return dailyCreations; }
+}
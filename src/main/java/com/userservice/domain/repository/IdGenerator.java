@@ -0,0 +1,7 @@
+package com.userservice.domain.repository;
+
+@FunctionalInterface
+public interface IdGenerator {
+    // Идентификатор назначается в процессе, до обращения к хранилищу
+    long nextId();
+}
@@ -0,0 +1,59 @@
+package com.userservice.domain.repository;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Сессия клиента для read-your-writes: позиция журнала основной БД после последней записи клиента.
+// Живет у вызывающего кода (соединение, консоль, пакет команд) и передается в вызов явно;
+// пока вызов выполняется, репозиторий видит сессию как активную. Токен - число, его можно
+// вернуть клиенту и восстановить через resume на другом экземпляре сервиса
+public final class ReadYourWritesSession {
+    public static final long NO_WRITES = 0L;
+
+    private static final ThreadLocal<ReadYourWritesSession> ACTIVE = new ThreadLocal<>();
+
+    private final AtomicLong writePosition;
+
+    private ReadYourWritesSession(long writePosition) {
+        this.writePosition = new AtomicLong(writePosition);
+    }
+
+    public static ReadYourWritesSession start() {
+        return new ReadYourWritesSession(NO_WRITES);
+    }
+
+    public static ReadYourWritesSession resume(long token) {
+        if (token < NO_WRITES) {
+            throw new IllegalArgumentException("Token cannot be negative: " + token);
+        }
+        return new ReadYourWritesSession(token);
+    }
+
+    public static Optional<ReadYourWritesSession> active() {
+        return Optional.ofNullable(ACTIVE.get());
+    }
+
+    public long getToken() {
+        return writePosition.get();
+    }
+
+    // Параллельные запросы одной сессии фиксируются в любом порядке: позиция только растет
+    public void recordWrite(long position) {
+        writePosition.accumulateAndGet(position, Math::max);
+    }
+
+    public <T> T call(Supplier<T> work) {
+        ReadYourWritesSession previous = ACTIVE.get();
+        ACTIVE.set(this);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                ACTIVE.remove();
+            } else {
+                ACTIVE.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.userservice.domain.repository;
+
+// Репозиторий, отдавший данные из кэша вместо БД, помечает чтение в текущем потоке;
+// вызывающий код забирает отметку сразу после вызова
+public final class StaleReads {
+    private static final ThreadLocal<Boolean> STALE = new ThreadLocal<>();
+
+    private StaleReads() {}
+
+    public static void mark() {
+        STALE.set(Boolean.TRUE);
+    }
+
+    public static boolean consume() {
+        boolean stale = Boolean.TRUE.equals(STALE.get());
+        STALE.remove();
+        return stale;
+    }
+}
@@ -0,0 +1,15 @@
+package com.userservice.domain.repository;
+
+import java.util.function.Supplier;
+
+public interface TransactionManager {
+    // Все вызовы репозитория внутри work выполняются в одной сессии и фиксируются одним коммитом
+    <T> T inTransaction(Supplier<T> work);
+
+    TransactionManager NONE = new TransactionManager() {
+        @Override
+        public <T> T inTransaction(Supplier<T> work) {
+            return work.get();
+        }
+    };
+}
@@ -0,0 +1,15 @@
+package com.userservice.domain.repository;
+
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+
+import java.util.List;
+import java.util.Optional;
+
+// Порт только для чтения: его реализуют хранилища, которые не умеют менять данные (снимки)
+public interface UserReader {
+    Optional<User> findById(Long id);
+    List<User> findAll();
+    Optional<User> findByEmail(Email email);
+    boolean existsByEmail(Email email);
+}
@@ -3,15 +3,29 @@ package com.userservice.domain.repository;
 import com.userservice.domain.model.User;
 import com.userservice.domain.model.Email;
 
+import java.util.Comparator;
 import java.util.List;
-import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
-public interface UserRepository {
-    Optional<User> findById(Long id);
-    List<User> findAll();
-    Optional<User> findByEmail(Email email);
+public interface UserRepository extends UserReader {
+    // Заданная дата создания сохраняется (перенос между шардами, возврат из архива), иначе назначается при вставке
     User save(User user);
     void update(User user);
     void delete(Long id);
-    boolean existsByEmail(Email email);
+
+    // Страница по возрастанию ID после курсора: вставки не сдвигают страницы, пропущенное не перечитывается.
+    // Реализации с БД переопределяют, чтобы не загружать всех пользователей
+    default List<User> findPage(long afterId, int limit) {
+        return findAll().stream()
+                .filter(user -> user.getId() > afterId)
+                .sorted(Comparator.comparing(User::getId))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    // Потоковый обход email без загрузки пользователей целиком; реализации по возможности переопределяют
+    default void forEachEmail(Consumer<Email> action) {
+        findAll().forEach(user -> action.accept(user.getEmail()));
+    }
 }
@@ -0,0 +1,9 @@
+package com.userservice.domain.repository;
+
+import com.userservice.domain.model.User;
+
+import java.util.stream.Collector;
+
+public interface UserScanner {
+    <A, R> R scan(Collector<User, A, R> collector);
+}
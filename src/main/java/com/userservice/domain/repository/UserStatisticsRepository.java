@@ -0,0 +1,8 @@
+package com.userservice.domain.repository;
+
+import com.userservice.domain.model.UserStatistics;
+
+public interface UserStatisticsRepository {
+    // Полный пересчет по таблице; между пересчетами счетчики ведутся по событиям изменений
+    UserStatistics computeStatistics();
+}
@@ -0,0 +1,110 @@
+package com.userservice.infrastructure.archive;
+
+import com.userservice.domain.event.UserChangeEvent;
+import com.userservice.domain.event.UserChangePublisher;
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+import com.userservice.domain.repository.UserRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+// Точечные чтения, не нашедшие пользователя в БД, проверяют архив. Обновление возвращает архивного
+// пользователя в БД с прежними ID и датой создания, удаление изымает его из архива. findAll - только горячие
+public class ArchivingUserRepository implements UserRepository {
+    private static final Logger logger = LogManager.getLogger(ArchivingUserRepository.class);
+
+    private final UserRepository delegate;
+    private final ColdUserArchive archive;
+    // Удаление только из архива проходит мимо delegate, событие публикуется здесь
+    private final UserChangePublisher changePublisher;
+
+    public ArchivingUserRepository(UserRepository delegate, ColdUserArchive archive) {
+        this(delegate, archive, UserChangePublisher.NONE);
+    }
+
+    public ArchivingUserRepository(UserRepository delegate, ColdUserArchive archive,
+                                   UserChangePublisher changePublisher) {
+        this.delegate = delegate;
+        this.archive = archive;
+        this.changePublisher = changePublisher;
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        Optional<User> user = delegate.findById(id);
+        return user.isPresent() || id == null ? user : archive.findById(id);
+    }
+
+    @Override
+    public List<User> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<User> findPage(long afterId, int limit) {
+        return delegate.findPage(afterId, limit);
+    }
+
+    @Override
+    public Optional<User> findByEmail(Email email) {
+        Optional<User> user = delegate.findByEmail(email);
+        return user.isPresent() ? user : archive.findByEmail(email);
+    }
+
+    @Override
+    public User save(User user) {
+        return delegate.save(user);
+    }
+
+    @Override
+    public void update(User user) {
+        // Архив проверяется первым: это локальный поиск, и для горячих ID он обычно отсекается диапазоном
+        Optional<User> archived = archive.findById(user.getId());
+        if (archived.isPresent() && delegate.findById(user.getId()).isEmpty()) {
+            logger.debug("Пользователь {} возвращается из архива в БД", user.getId());
+            // save с заданной датой создания не назначает новую
+            delegate.save(new User(user.getId(), user.getName(), user.getEmail(), user.getAge(),
+                    archived.get().getCreatedAt()));
+            archive.remove(user.getId());
+            return;
+        }
+        delegate.update(user);
+    }
+
+    @Override
+    public void delete(Long id) {
+        Optional<User> archived = archive.findById(id);
+        if (archived.isEmpty()) {
+            delegate.delete(id);
+            return;
+        }
+        if (delegate.findById(id).isPresent()) {
+            // В БД более новая копия: событие публикует delegate
+            delegate.delete(id);
+            archive.remove(id);
+            return;
+        }
+        archive.remove(id);
+        logger.debug("Пользователь {} удален из архива", id);
+        try {
+            changePublisher.publish(UserChangeEvent.deleted(archived.get()));
+        } catch (Exception e) {
+            logger.error("Ошибка публикации удаления архивного пользователя {}: {}", id, e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean existsByEmail(Email email) {
+        return delegate.existsByEmail(email) || archive.findByEmail(email).isPresent();
+    }
+
+    @Override
+    public void forEachEmail(Consumer<Email> action) {
+        delegate.forEachEmail(action);
+        archive.forEachEmail(action);
+    }
+}
@@ -0,0 +1,208 @@
+package com.userservice.infrastructure.archive;
+
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Каталог холодного архива: неизменяемые колоночные сегменты и журнал изъятых записей removed.log.
+// Изъятый ID (вернулся в БД или удален) записывается с номером последнего сегмента;
+// копии в более новых сегментах (повторная архивация) снова видны
+public class ColdUserArchive implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(ColdUserArchive.class);
+
+    static final String REMOVED_LOG = "removed.log";
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d{10})\\.ucol");
+    // id, номер сегмента
+    private static final int REMOVED_ENTRY_SIZE = Long.BYTES * 2;
+
+    private final Path directory;
+    private final int blockSize;
+    // Новые сегменты первыми: при повторной архивации побеждает последняя копия
+    private final CopyOnWriteArrayList<Segment> segments = new CopyOnWriteArrayList<>();
+    private final Map<Long, Long> removedUpTo = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private FileChannel removedLog;
+
+    private ColdUserArchive(Path directory, int blockSize) {
+        this.directory = directory;
+        this.blockSize = blockSize;
+    }
+
+    public static ColdUserArchive open(Path directory) {
+        return open(directory, ColumnarUserSegment.DEFAULT_BLOCK_SIZE);
+    }
+
+    public static ColdUserArchive open(Path directory, int blockSize) {
+        ColdUserArchive archive = new ColdUserArchive(directory, blockSize);
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> listing = Files.list(directory)) {
+                files = listing.sorted().collect(Collectors.toList());
+            }
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                Matcher matcher = SEGMENT_NAME.matcher(name);
+                if (matcher.matches()) {
+                    archive.segments.add(0, new Segment(Long.parseLong(matcher.group(1)),
+                            ColumnarUserSegment.open(file)));
+                } else if (name.endsWith(".tmp")) {
+                    // Недописанный сегмент прерванной архивации: строки из БД по нему не удалялись
+                    Files.delete(file);
+                }
+            }
+            archive.loadRemoved();
+        } catch (IOException e) {
+            logger.error("Ошибка при открытии архива {}: {}", directory, e.getMessage(), e);
+            throw new RuntimeException("Failed to open user archive: " + directory, e);
+        }
+        logger.info("Архив пользователей {}: сегментов {}, пользователей {}, изъято {}",
+                directory, archive.segments.size(), archive.size(), archive.removedUpTo.size());
+        return archive;
+    }
+
+    public Optional<User> findById(long id) {
+        for (Segment segment : segments) {
+            User user = segment.data.findById(id);
+            if (user != null) {
+                return visible(segment, user);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public Optional<User> findByEmail(Email email) {
+        for (Segment segment : segments) {
+            User user = segment.data.findByEmail(email.getValue());
+            if (user != null && visible(segment, user).isPresent()) {
+                return Optional.of(user);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public void forEachEmail(Consumer<Email> action) {
+        for (Segment segment : segments) {
+            segment.data.forEach(user -> {
+                if (visible(segment, user).isPresent()) {
+                    action.accept(user.getEmail());
+                }
+            });
+        }
+    }
+
+    // Сегмент сначала надежно записывается на диск, только после этого строки можно удалять из БД
+    public void append(List<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        synchronized (writeLock) {
+            long sequence = segments.isEmpty() ? 1 : segments.get(0).sequence + 1;
+            Path path = directory.resolve(String.format("segment-%010d.ucol", sequence));
+            ColumnarUserSegment.write(path, users, blockSize);
+            segments.add(0, new Segment(sequence, ColumnarUserSegment.open(path)));
+            logger.info("В архив записан сегмент {}: {} пользователей, {} байт",
+                    path.getFileName(), users.size(), sizeOf(path));
+        }
+    }
+
+    // Пользователь вернулся в БД или удален: архивные копии больше не отдаются
+    public void remove(long id) {
+        synchronized (writeLock) {
+            long sequence = segments.isEmpty() ? 0 : segments.get(0).sequence;
+            ByteBuffer entry = ByteBuffer.allocate(REMOVED_ENTRY_SIZE).putLong(id).putLong(sequence);
+            entry.flip();
+            try {
+                if (removedLog == null) {
+                    removedLog = FileChannel.open(directory.resolve(REMOVED_LOG),
+                            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                }
+                while (entry.hasRemaining()) {
+                    removedLog.write(entry);
+                }
+                removedLog.force(false);
+            } catch (IOException e) {
+                logger.error("Ошибка при записи журнала изъятых пользователей: {}", e.getMessage(), e);
+                throw new RuntimeException("Failed to record archive removal: " + id, e);
+            }
+            removedUpTo.put(id, sequence);
+        }
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.data.size();
+        }
+        return size;
+    }
+
+    public int segmentCount() { return segments.size(); }
+
+    @Override
+    public void close() {
+        synchronized (writeLock) {
+            if (removedLog != null) {
+                try {
+                    removedLog.close();
+                } catch (IOException e) {
+                    logger.warn("Ошибка при закрытии журнала изъятых пользователей: {}", e.getMessage());
+                }
+                removedLog = null;
+            }
+        }
+    }
+
+    private Optional<User> visible(Segment segment, User user) {
+        Long removedAt = removedUpTo.get(user.getId());
+        return removedAt != null && segment.sequence <= removedAt ? Optional.empty() : Optional.of(user);
+    }
+
+    private void loadRemoved() throws IOException {
+        Path log = directory.resolve(REMOVED_LOG);
+        if (!Files.exists(log)) {
+            return;
+        }
+        ByteBuffer entries = ByteBuffer.wrap(Files.readAllBytes(log));
+        // Хвост неполной записи (сбой во время записи) отбрасывается
+        while (entries.remaining() >= REMOVED_ENTRY_SIZE) {
+            removedUpTo.merge(entries.getLong(), entries.getLong(), Math::max);
+        }
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static final class Segment {
+        final long sequence;
+        final ColumnarUserSegment data;
+
+        Segment(long sequence, ColumnarUserSegment data) {
+            this.sequence = sequence;
+            this.data = data;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.userservice.infrastructure.archive;
+
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+import com.userservice.infrastructure.config.HibernateConfig;
+import com.userservice.infrastructure.jdbc.JdbcConnectionPool;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Пакет строк, не менявшихся с cutoff, сначала записывается сегментом архива, затем удаляется из БД тем же
+// условием; измененные в промежутке строки остаются в БД, а их копии изымаются из архива. Сбой между записью
+// и удалением безопасен: БД проверяется раньше архива, следующий проход повторит архивацию
+public class ColdUserArchiver implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(ColdUserArchiver.class);
+
+    public static final String DIR_PROPERTY = "userservice.archive.dir";
+    public static final String CUTOFF_PROPERTY = "userservice.archive.cutoff.days";
+    public static final String BATCH_PROPERTY = "userservice.archive.batch";
+
+    public static final int DEFAULT_CUTOFF_DAYS = 730;
+    public static final int DEFAULT_BATCH_SIZE = 20_000;
+    private static final Duration RUN_INTERVAL = Duration.ofDays(1);
+
+    private static final String SELECT_COLD =
+            "SELECT id, name, email, age, created_at FROM users " +
+            "WHERE deleted_at IS NULL AND created_at IS NOT NULL " +
+            "AND COALESCE(updated_at, created_at) < ? AND id > ? ORDER BY id LIMIT ?";
+    private static final String DELETE_ARCHIVED =
+            "DELETE FROM users WHERE id = ANY (?) AND deleted_at IS NULL " +
+            "AND COALESCE(updated_at, created_at) < ? RETURNING id";
+
+    private final JdbcConnectionPool.ConnectionFactory connectionFactory;
+    private final ColdUserArchive archive;
+    private final Duration cutoff;
+    private final int batchSize;
+    private final Clock clock;
+    private final ScheduledExecutorService scheduler;
+    private volatile boolean closed;
+
+    private final AtomicLong archivedRows = new AtomicLong();
+    private final AtomicLong segments = new AtomicLong();
+
+    public ColdUserArchiver(JdbcConnectionPool.ConnectionFactory connectionFactory, ColdUserArchive archive,
+                            Duration cutoff, int batchSize) {
+        this(connectionFactory, archive, cutoff, batchSize, Clock.systemDefaultZone());
+    }
+
+    ColdUserArchiver(JdbcConnectionPool.ConnectionFactory connectionFactory, ColdUserArchive archive,
+                     Duration cutoff, int batchSize, Clock clock) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Archive batch size must be positive");
+        }
+        this.connectionFactory = connectionFactory;
+        this.archive = archive;
+        this.cutoff = cutoff;
+        this.batchSize = batchSize;
+        this.clock = clock;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cold-user-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static ColdUserArchiver fromHibernateSettings(ColdUserArchive archive) {
+        Map<String, Object> settings = HibernateConfig.connectionSettings();
+        String url = (String) settings.get("hibernate.connection.url");
+        String username = (String) settings.get("hibernate.connection.username");
+        String password = (String) settings.get("hibernate.connection.password");
+        return new ColdUserArchiver(() -> DriverManager.getConnection(url, username, password), archive,
+                Duration.ofDays(Integer.getInteger(CUTOFF_PROPERTY, DEFAULT_CUTOFF_DAYS)),
+                Integer.getInteger(BATCH_PROPERTY, DEFAULT_BATCH_SIZE));
+    }
+
+    public static boolean isEnabled() {
+        return System.getProperty(DIR_PROPERTY) != null;
+    }
+
+    public void start() {
+        logger.info("Архивация пользователей: не менявшиеся {} дн., пакет {}", cutoff.toDays(), batchSize);
+        scheduler.scheduleWithFixedDelay(this::runQuietly, 0, RUN_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Переносит в архив все строки старше границы; возвращает число удаленных из БД строк
+    public long runOnce() {
+        LocalDateTime before = LocalDateTime.now(clock).minus(cutoff);
+        long moved = 0;
+        long afterId = Long.MIN_VALUE;
+        try (Connection connection = connectionFactory.open()) {
+            while (!closed) {
+                List<User> batch = selectCold(connection, before, afterId);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                archive.append(batch);
+                segments.incrementAndGet();
+
+                Set<Long> deleted = deleteArchived(connection, batch, before);
+                for (User user : batch) {
+                    if (!deleted.contains(user.getId())) {
+                        // Строку изменили после чтения: актуальная версия осталась в БД
+                        archive.remove(user.getId());
+                    }
+                }
+                moved += deleted.size();
+                archivedRows.addAndGet(deleted.size());
+                afterId = batch.get(batch.size() - 1).getId();
+                if (batch.size() < batchSize) {
+                    break;
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Ошибка при архивации пользователей: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to archive cold users", e);
+        }
+        if (moved > 0) {
+            logger.info("В архив перенесено пользователей: {}, старше {}", moved, before);
+        }
+        return moved;
+    }
+
+    public long getArchivedRows() { return archivedRows.get(); }
+    public long getSegments() { return segments.get(); }
+
+    public String metricsSummary() {
+        return String.format("перенесено %d строк в %d сегментов, в архиве %d пользователей",
+                archivedRows.get(), segments.get(), archive.size());
+    }
+
+    private List<User> selectCold(Connection connection, LocalDateTime before, long afterId) throws SQLException {
+        List<User> users = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_COLD)) {
+            statement.setTimestamp(1, Timestamp.valueOf(before));
+            statement.setLong(2, afterId);
+            statement.setInt(3, batchSize);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    int age = resultSet.getInt("age");
+                    users.add(new User(resultSet.getLong("id"), resultSet.getString("name"),
+                            new Email(resultSet.getString("email")), resultSet.wasNull() ? null : age,
+                            resultSet.getTimestamp("created_at").toLocalDateTime()));
+                }
+            }
+        }
+        return users;
+    }
+
+    private Set<Long> deleteArchived(Connection connection, List<User> batch, LocalDateTime before)
+            throws SQLException {
+        Long[] ids = new Long[batch.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = batch.get(i).getId();
+        }
+        Set<Long> deleted = new HashSet<>();
+        Array array = connection.createArrayOf("bigint", ids);
+        try (PreparedStatement statement = connection.prepareStatement(DELETE_ARCHIVED)) {
+            statement.setArray(1, array);
+            statement.setTimestamp(2, Timestamp.valueOf(before));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    deleted.add(resultSet.getLong(1));
+                }
+            }
+        } finally {
+            array.free();
+        }
+        return deleted;
+    }
+
+    private void runQuietly() {
+        try {
+            runOnce();
+        } catch (RuntimeException e) {
+            // Следующая попытка - при следующем запуске
+            logger.warn("Архивация пользователей прервана: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,499 @@
+package com.userservice.infrastructure.archive;
+
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Неизменяемый файл архива, строки отсортированы по ID и разбиты на блоки по blockSize, сжатые Deflate:
+// ID и created_at - дельтами (varint), имена - словарем блока, у email словарем кодируется домен.
+// Каталог блоков и индекс email (хеш -> строка) несжаты, поэтому точечный поиск распаковывает один блок
+final class ColumnarUserSegment {
+    private static final Logger logger = LogManager.getLogger(ColumnarUserSegment.class);
+
+    static final int MAGIC = 0x55434F4C; // "UCOL"
+    static final int VERSION = 1;
+    static final int DEFAULT_BLOCK_SIZE = 4_096;
+    // magic, version, rowCount, blockSize, blockCount, checksum
+    static final int HEADER_SIZE = Integer.BYTES * 5 + Long.BYTES;
+    // firstId, offset, length, rows
+    static final int DIRECTORY_ENTRY_SIZE = Long.BYTES * 2 + Integer.BYTES * 2;
+    // hash, row
+    static final int EMAIL_ENTRY_SIZE = Long.BYTES + Integer.BYTES;
+    private static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    private static final int CACHED_BLOCKS = 8;
+
+    private final Path path;
+    private final ByteBuffer file;
+    private final int rowCount;
+    private final int blockSize;
+    private final long[] firstIds;
+    private final long[] blockOffsets;
+    private final int[] blockLengths;
+    private final int[] blockRows;
+    private final long lastId;
+    private final int emailIndexOffset;
+    // Распакованные блоки: соседние запросы часто попадают в один блок; доступ под monitor кэша
+    private final LinkedHashMap<Integer, User[]> blockCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, User[]> eldest) {
+            return size() > CACHED_BLOCKS;
+        }
+    };
+
+    private ColumnarUserSegment(Path path, ByteBuffer file) {
+        this.path = path;
+        this.file = file;
+
+        if (file.getInt(0) != MAGIC) {
+            throw new IllegalStateException("Not a user archive segment: " + path);
+        }
+        if (file.getInt(4) != VERSION) {
+            throw new IllegalStateException("Unsupported archive segment version " + file.getInt(4) + ": " + path);
+        }
+        this.rowCount = file.getInt(8);
+        this.blockSize = file.getInt(12);
+        int blockCount = file.getInt(16);
+        long expectedChecksum = file.getLong(20);
+
+        CRC32 checksum = new CRC32();
+        ByteBuffer body = file.duplicate().order(BYTE_ORDER);
+        body.position(HEADER_SIZE);
+        checksum.update(body);
+        if (checksum.getValue() != expectedChecksum) {
+            throw new IllegalStateException("Archive segment checksum mismatch: " + path);
+        }
+
+        this.firstIds = new long[blockCount];
+        this.blockOffsets = new long[blockCount];
+        this.blockLengths = new int[blockCount];
+        this.blockRows = new int[blockCount];
+        int position = HEADER_SIZE;
+        for (int block = 0; block < blockCount; block++) {
+            firstIds[block] = file.getLong(position);
+            blockOffsets[block] = file.getLong(position + 8);
+            blockLengths[block] = file.getInt(position + 16);
+            blockRows[block] = file.getInt(position + 20);
+            position += DIRECTORY_ENTRY_SIZE;
+        }
+        this.emailIndexOffset = position;
+        this.lastId = rowCount == 0 ? Long.MIN_VALUE : lastIdOf(blockCount - 1);
+    }
+
+    static ColumnarUserSegment open(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(BYTE_ORDER);
+            return new ColumnarUserSegment(path, mapped);
+        } catch (IOException e) {
+            logger.error("Ошибка при открытии сегмента архива {}: {}", path, e.getMessage(), e);
+            throw new RuntimeException("Failed to open archive segment: " + path, e);
+        }
+    }
+
+    // Пользователи должны быть отсортированы по ID и иметь дату создания
+    static void write(Path path, List<User> users, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Archive block size must be positive");
+        }
+        int blockCount = (users.size() + blockSize - 1) / blockSize;
+        List<byte[]> blocks = new ArrayList<>(blockCount);
+        long previousId = Long.MIN_VALUE;
+        for (User user : users) {
+            if (user.getId() == null || user.getId() <= previousId) {
+                throw new IllegalArgumentException("Archived users must have ascending IDs");
+            }
+            if (user.getCreatedAt() == null) {
+                throw new IllegalArgumentException("Archived user has no creation time: " + user.getId());
+            }
+            previousId = user.getId();
+        }
+        for (int block = 0; block < blockCount; block++) {
+            blocks.add(compress(encodeBlock(
+                    users.subList(block * blockSize, Math.min(users.size(), (block + 1) * blockSize)))));
+        }
+
+        int directorySize = blockCount * DIRECTORY_ENTRY_SIZE;
+        int emailIndexSize = users.size() * EMAIL_ENTRY_SIZE;
+        long dataOffset = (long) HEADER_SIZE + directorySize + emailIndexSize;
+
+        ByteBuffer index = ByteBuffer.allocate(directorySize + emailIndexSize).order(BYTE_ORDER);
+        long offset = dataOffset;
+        for (int block = 0; block < blockCount; block++) {
+            index.putLong(users.get(block * blockSize).getId())
+                    .putLong(offset)
+                    .putInt(blocks.get(block).length)
+                    .putInt(Math.min(blockSize, users.size() - block * blockSize));
+            offset += blocks.get(block).length;
+        }
+        for (long[] entry : sortedEmailIndex(users)) {
+            index.putLong(entry[0]).putInt((int) entry[1]);
+        }
+        index.flip();
+
+        CRC32 checksum = new CRC32();
+        checksum.update(index.duplicate());
+        for (byte[] block : blocks) {
+            checksum.update(block);
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(BYTE_ORDER);
+        header.putInt(MAGIC)
+                .putInt(VERSION)
+                .putInt(users.size())
+                .putInt(blockSize)
+                .putInt(blockCount)
+                .putLong(checksum.getValue())
+                .flip();
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, header);
+            writeFully(channel, index);
+            for (byte[] block : blocks) {
+                writeFully(channel, ByteBuffer.wrap(block));
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            logger.error("Ошибка при записи сегмента архива {}: {}", path, e.getMessage(), e);
+            throw new RuntimeException("Failed to write archive segment: " + path, e);
+        }
+
+        try {
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error("Ошибка при публикации сегмента архива {}: {}", path, e.getMessage(), e);
+            throw new RuntimeException("Failed to publish archive segment: " + path, e);
+        }
+    }
+
+    User findById(long id) {
+        if (rowCount == 0 || id < firstIds[0] || id > lastId) {
+            return null;
+        }
+        int block = Arrays.binarySearch(firstIds, id);
+        if (block < 0) {
+            block = -block - 2;
+        }
+        User[] users = block(block);
+        int low = 0;
+        int high = users.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleId = users[middle].getId();
+            if (middleId < id) {
+                low = middle + 1;
+            } else if (middleId > id) {
+                high = middle - 1;
+            } else {
+                return users[middle];
+            }
+        }
+        return null;
+    }
+
+    User findByEmail(String email) {
+        long hash = hash(email);
+        // Первая запись с таким хешем; коллизии хеша разрешаются сравнением самого email
+        int low = 0;
+        int high = rowCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (file.getLong(emailIndexOffset + middle * EMAIL_ENTRY_SIZE) < hash) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        for (int entry = low; entry < rowCount; entry++) {
+            int position = emailIndexOffset + entry * EMAIL_ENTRY_SIZE;
+            if (file.getLong(position) != hash) {
+                break;
+            }
+            int row = file.getInt(position + Long.BYTES);
+            User user = block(row / blockSize)[row % blockSize];
+            if (user.getEmail().getValue().equals(email)) {
+                return user;
+            }
+        }
+        return null;
+    }
+
+    // Последовательный обход без кэширования блоков: не вытесняет блоки точечных запросов
+    void forEach(Consumer<User> action) {
+        for (int block = 0; block < firstIds.length; block++) {
+            for (User user : decodeBlock(block)) {
+                action.accept(user);
+            }
+        }
+    }
+
+    int size() { return rowCount; }
+    long firstId() { return rowCount == 0 ? Long.MAX_VALUE : firstIds[0]; }
+    long lastId() { return lastId; }
+    Path path() { return path; }
+
+    private User[] block(int block) {
+        synchronized (blockCache) {
+            User[] cached = blockCache.get(block);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        User[] decoded = decodeBlock(block);
+        synchronized (blockCache) {
+            blockCache.put(block, decoded);
+        }
+        return decoded;
+    }
+
+    private long lastIdOf(int block) {
+        User[] users = decodeBlock(block);
+        return users[users.length - 1].getId();
+    }
+
+    private User[] decodeBlock(int block) {
+        byte[] compressed = new byte[blockLengths[block]];
+        ByteBuffer slice = file.duplicate();
+        slice.position((int) blockOffsets[block]);
+        slice.get(compressed);
+        try {
+            return decode(decompress(compressed), blockRows[block]);
+        } catch (IOException | DataFormatException e) {
+            throw new IllegalStateException("Corrupted archive block " + block + " in " + path, e);
+        }
+    }
+
+    private static byte[] encodeBlock(List<User> users) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            long previousId = 0;
+            for (User user : users) {
+                writeVarLong(out, user.getId() - previousId);
+                previousId = user.getId();
+            }
+            long previousMicros = 0;
+            for (User user : users) {
+                long micros = toMicros(user.getCreatedAt());
+                writeVarLong(out, zigZag(micros - previousMicros));
+                previousMicros = micros;
+            }
+            for (User user : users) {
+                writeVarLong(out, user.getAge() == null ? 0 : user.getAge() + 1L);
+            }
+
+            Map<String, Integer> names = new LinkedHashMap<>();
+            Map<String, Integer> domains = new LinkedHashMap<>();
+            for (User user : users) {
+                names.putIfAbsent(user.getName(), names.size());
+                String email = user.getEmail().getValue();
+                domains.putIfAbsent(email.substring(email.lastIndexOf('@') + 1), domains.size());
+            }
+            writeDictionary(out, names);
+            for (User user : users) {
+                writeVarLong(out, names.get(user.getName()));
+            }
+            writeDictionary(out, domains);
+            for (User user : users) {
+                String email = user.getEmail().getValue();
+                int at = email.lastIndexOf('@');
+                writeVarLong(out, domains.get(email.substring(at + 1)));
+                writeString(out, email.substring(0, at));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode archive block", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static User[] decode(byte[] bytes, int rows) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        long[] ids = new long[rows];
+        long id = 0;
+        for (int row = 0; row < rows; row++) {
+            id += readVarLong(in);
+            ids[row] = id;
+        }
+        LocalDateTime[] createdAt = new LocalDateTime[rows];
+        long micros = 0;
+        for (int row = 0; row < rows; row++) {
+            micros += unZigZag(readVarLong(in));
+            createdAt[row] = fromMicros(micros);
+        }
+        Integer[] ages = new Integer[rows];
+        for (int row = 0; row < rows; row++) {
+            long age = readVarLong(in);
+            ages[row] = age == 0 ? null : (int) (age - 1);
+        }
+        String[] nameDictionary = readDictionary(in);
+        String[] names = new String[rows];
+        for (int row = 0; row < rows; row++) {
+            names[row] = nameDictionary[(int) readVarLong(in)];
+        }
+        String[] domainDictionary = readDictionary(in);
+        User[] users = new User[rows];
+        for (int row = 0; row < rows; row++) {
+            String domain = domainDictionary[(int) readVarLong(in)];
+            Email email = new Email(readString(in) + "@" + domain);
+            users[row] = new User(ids[row], names[row], email, ages[row], createdAt[row]);
+        }
+        return users;
+    }
+
+    // Пары (хеш email, номер строки), упорядоченные по хешу
+    private static long[][] sortedEmailIndex(List<User> users) {
+        long[][] entries = new long[users.size()][];
+        for (int row = 0; row < users.size(); row++) {
+            entries[row] = new long[]{hash(users.get(row).getEmail().getValue()), row};
+        }
+        Arrays.sort(entries, (left, right) -> left[0] != right[0]
+                ? Long.compare(left[0], right[0]) : Long.compare(left[1], right[1]));
+        return entries;
+    }
+
+    static long hash(String email) {
+        // FNV-1a 64 с финальным перемешиванием, чтобы близкие адреса расходились по индексу
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : email.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static byte[] compress(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 64);
+            byte[] buffer = new byte[8_192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] decompress(byte[] compressed) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 4);
+            byte[] buffer = new byte[8_192];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated archive block");
+                }
+                out.write(buffer, 0, inflated);
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void writeDictionary(DataOutputStream out, Map<String, Integer> dictionary) throws IOException {
+        writeVarLong(out, dictionary.size());
+        for (String value : dictionary.keySet()) {
+            writeString(out, value);
+        }
+    }
+
+    private static String[] readDictionary(DataInputStream in) throws IOException {
+        String[] dictionary = new String[(int) readVarLong(in)];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = readString(in);
+        }
+        return dictionary;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[(int) readVarLong(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        long seconds = Math.floorDiv(micros, 1_000_000L);
+        int nanos = (int) Math.floorMod(micros, 1_000_000L) * 1_000;
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
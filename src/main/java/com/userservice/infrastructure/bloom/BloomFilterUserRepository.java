@@ -0,0 +1,229 @@
+package com.userservice.infrastructure.bloom;
+
+import com.userservice.domain.event.UserChangeEvent;
+import com.userservice.domain.event.UserChangeListener;
+import com.userservice.domain.event.UserChangeType;
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+import com.userservice.domain.repository.UserRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Негативный кэш email для проверки при регистрации: если фильтр Блума точно не содержит адрес,
+// existsByEmail отвечает без обращения к БД; до первого построения фильтра все вызовы идут в БД.
+// Адреса с других узлов попадают в фильтр по событиям изменений, а до их прихода дубликат
+// отсекает уникальный индекс БД. findByEmail всегда идет в БД: ложный промах там - потерянный пользователь.
+// Удаленные и замененные адреса остаются в фильтре до периодического перестроения
+public class BloomFilterUserRepository implements UserRepository, UserChangeListener, AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(BloomFilterUserRepository.class);
+
+    public static final long DEFAULT_INITIAL_CAPACITY = 100_000;
+    public static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+    public static final Duration DEFAULT_REBUILD_INTERVAL = Duration.ofHours(1);
+
+    private final UserRepository delegate;
+    private final double falsePositiveRate;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile ScalableBloomFilter filter;
+    // Фильтр, заполняемый перестроением; новые адреса пишутся и в него, чтобы не потеряться при подмене
+    private volatile ScalableBloomFilter building;
+
+    private final AtomicLong definiteNegatives = new AtomicLong();
+    private final AtomicLong databaseChecks = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+    private final AtomicLong deletesSinceRebuild = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    public BloomFilterUserRepository(UserRepository delegate) {
+        this(delegate, DEFAULT_FALSE_POSITIVE_RATE);
+    }
+
+    public BloomFilterUserRepository(UserRepository delegate, double falsePositiveRate) {
+        this.delegate = delegate;
+        this.falsePositiveRate = falsePositiveRate;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "email-bloom-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Первое построение в фоне, чтобы не задерживать старт; далее - перестроение с заданным интервалом
+    public void start(Duration rebuildInterval) {
+        scheduler.scheduleWithFixedDelay(this::rebuildQuietly, 0, rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void rebuild() {
+        ScalableBloomFilter current = filter;
+        long capacity = Math.max(DEFAULT_INITIAL_CAPACITY,
+                current != null ? current.getApproximateCount() * 2 : 0);
+        ScalableBloomFilter next = new ScalableBloomFilter(capacity, falsePositiveRate);
+
+        long started = System.nanoTime();
+        building = next;
+        try {
+            delegate.forEachEmail(email -> next.put(email.getValue()));
+            filter = next;
+            deletesSinceRebuild.set(0);
+            rebuilds.incrementAndGet();
+        } finally {
+            building = null;
+        }
+        logger.info("Фильтр email перестроен: {} адресов, {} KiB, ожидаемая доля ложных срабатываний {} за {} мс",
+                next.getApproximateCount(), next.getBitSize() / 8 / 1024,
+                String.format("%.4f", next.expectedFalsePositiveRate()), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public boolean isReady() {
+        return filter != null;
+    }
+
+    @Override
+    public boolean existsByEmail(Email email) {
+        ScalableBloomFilter current = filter;
+        if (current != null && !current.mightContain(email.getValue())) {
+            definiteNegatives.incrementAndGet();
+            return false;
+        }
+        boolean exists = delegate.existsByEmail(email);
+        recordDatabaseCheck(current, exists);
+        return exists;
+    }
+
+    @Override
+    public Optional<User> findByEmail(Email email) {
+        return delegate.findByEmail(email);
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<User> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<User> findPage(long afterId, int limit) {
+        return delegate.findPage(afterId, limit);
+    }
+
+    @Override
+    public void forEachEmail(Consumer<Email> action) {
+        delegate.forEachEmail(action);
+    }
+
+    // Адрес добавляется до записи (нет окна, в котором зафиксированный email отсекается фильтром)
+    // и после нее (попадает в фильтр, перестроение которого началось во время записи)
+    @Override
+    public User save(User user) {
+        remember(user.getEmail());
+        User saved = delegate.save(user);
+        remember(saved.getEmail());
+        return saved;
+    }
+
+    @Override
+    public void update(User user) {
+        remember(user.getEmail());
+        delegate.update(user);
+        remember(user.getEmail());
+    }
+
+    @Override
+    public void delete(Long id) {
+        delegate.delete(id);
+        deletesSinceRebuild.incrementAndGet();
+    }
+
+    // Локальные записи уже учтены в save/update; событие с другого узла несет только ID
+    @Override
+    public void onUserChanged(UserChangeEvent event) {
+        if (!event.isRemote()) {
+            return;
+        }
+        if (event.getType() == UserChangeType.DELETED) {
+            deletesSinceRebuild.incrementAndGet();
+        } else {
+            delegate.findById(event.getUserId()).ifPresent(user -> remember(user.getEmail()));
+        }
+    }
+
+    @Override
+    public void onEventsLost(long count) {
+        scheduler.execute(this::rebuildQuietly);
+    }
+
+    public long getDefiniteNegatives() { return definiteNegatives.get(); }
+    public long getDatabaseChecks() { return databaseChecks.get(); }
+    public long getFalsePositives() { return falsePositives.get(); }
+    public long getDeletesSinceRebuild() { return deletesSinceRebuild.get(); }
+    public long getRebuilds() { return rebuilds.get(); }
+
+    // Доля ложных срабатываний среди отсутствующих адресов: FP / (FP + точные отрицания)
+    public double observedFalsePositiveRate() {
+        long fp = falsePositives.get();
+        long negatives = fp + definiteNegatives.get();
+        return negatives == 0 ? 0.0 : (double) fp / negatives;
+    }
+
+    public double expectedFalsePositiveRate() {
+        ScalableBloomFilter current = filter;
+        return current != null ? current.expectedFalsePositiveRate() : 0.0;
+    }
+
+    public String metricsSummary() {
+        return String.format("ready=%s, skipped=%d, dbChecks=%d, falsePositives=%d, observedFpRate=%.4f, "
+                        + "expectedFpRate=%.4f, deletesSinceRebuild=%d",
+                isReady(), getDefiniteNegatives(), getDatabaseChecks(), getFalsePositives(),
+                observedFalsePositiveRate(), expectedFalsePositiveRate(), getDeletesSinceRebuild());
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void recordDatabaseCheck(ScalableBloomFilter consulted, boolean exists) {
+        if (consulted == null) {
+            return;
+        }
+        databaseChecks.incrementAndGet();
+        if (!exists) {
+            falsePositives.incrementAndGet();
+        }
+    }
+
+    // Порядок чтения важен: building до filter, иначе подмена между чтениями теряет адрес
+    private void remember(Email email) {
+        ScalableBloomFilter next = building;
+        ScalableBloomFilter current = filter;
+        if (next != null) {
+            next.put(email.getValue());
+        }
+        if (current != null) {
+            current.put(email.getValue());
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            // Остается прежний фильтр (или проход в БД, если фильтр еще не построен)
+            logger.error("Ошибка перестроения фильтра email: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.userservice.infrastructure.bloom;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// При заполнении ступени добавляется новая, вдвое больше и с вдвое меньшей вероятностью ложного срабатывания:
+// суммарная вероятность не превышает falsePositiveRate. Удаленные значения остаются "возможно присутствующими"
+// до перестроения. Чтение и запись битов без блокировок
+public class ScalableBloomFilter {
+    static final int GROWTH_FACTOR = 2;
+    static final double TIGHTENING_RATIO = 0.5;
+
+    private final double falsePositiveRate;
+    private final List<Stage> stages = new CopyOnWriteArrayList<>();
+    private final AtomicLong count = new AtomicLong();
+
+    public ScalableBloomFilter(long initialCapacity, double falsePositiveRate) {
+        if (initialCapacity <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Capacity must be positive and false positive rate in (0, 1)");
+        }
+        this.falsePositiveRate = falsePositiveRate;
+        stages.add(new Stage(initialCapacity, falsePositiveRate * (1 - TIGHTENING_RATIO)));
+    }
+
+    public void put(String value) {
+        long hash = hash(value);
+        // Повторная вставка не расходует емкость ступени
+        if (mightContain(hash)) {
+            return;
+        }
+        currentStage().put(hash);
+        count.incrementAndGet();
+    }
+
+    public boolean mightContain(String value) {
+        return mightContain(hash(value));
+    }
+
+    private boolean mightContain(long hash) {
+        for (Stage stage : stages) {
+            if (stage.mightContain(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long getApproximateCount() {
+        return count.get();
+    }
+
+    public int getStageCount() {
+        return stages.size();
+    }
+
+    public long getBitSize() {
+        return stages.stream().mapToLong(stage -> stage.bitCount).sum();
+    }
+
+    // Оценка по фактическому заполнению ступеней: 1 - П(1 - p_i)
+    public double expectedFalsePositiveRate() {
+        double allNegative = 1.0;
+        for (Stage stage : stages) {
+            allNegative *= 1.0 - stage.expectedFalsePositiveRate();
+        }
+        return 1.0 - allNegative;
+    }
+
+    private Stage currentStage() {
+        Stage last = stages.get(stages.size() - 1);
+        if (last.inserted.get() < last.capacity) {
+            return last;
+        }
+        synchronized (stages) {
+            last = stages.get(stages.size() - 1);
+            if (last.inserted.get() >= last.capacity) {
+                double rate = falsePositiveRate * (1 - TIGHTENING_RATIO) * Math.pow(TIGHTENING_RATIO, stages.size());
+                last = new Stage(last.capacity * GROWTH_FACTOR, rate);
+                stages.add(last);
+            }
+            return last;
+        }
+    }
+
+    // FNV-1a с финализатором murmur3; второй хеш для схемы Кирша-Митценмахера получается перемешиванием первого
+    static long hash(String value) {
+        long h = 0xCBF29CE484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001B3L;
+        }
+        return fmix64(h);
+    }
+
+    private static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Stage {
+        private final long capacity;
+        private final long bitCount;
+        private final int hashFunctions;
+        private final AtomicLongArray words;
+        private final AtomicLong inserted = new AtomicLong();
+
+        Stage(long capacity, double falsePositiveRate) {
+            double ln2 = Math.log(2);
+            long bits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (ln2 * ln2));
+            int words = (int) Math.min(Integer.MAX_VALUE - 8, (bits + 63) / 64);
+            this.capacity = capacity;
+            this.bitCount = (long) words * 64;
+            this.hashFunctions = Math.max(1, (int) Math.round((double) bitCount / capacity * ln2));
+            this.words = new AtomicLongArray(words);
+        }
+
+        void put(long hash) {
+            long h2 = fmix64(hash) | 1;
+            for (int i = 0; i < hashFunctions; i++) {
+                long bit = Math.floorMod(hash + i * h2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = words.get(word);
+                    if ((current & mask) != 0) {
+                        break;
+                    }
+                } while (!words.compareAndSet(word, current, current | mask));
+            }
+            inserted.incrementAndGet();
+        }
+
+        boolean mightContain(long hash) {
+            long h2 = fmix64(hash) | 1;
+            for (int i = 0; i < hashFunctions; i++) {
+                long bit = Math.floorMod(hash + i * h2, bitCount);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        double expectedFalsePositiveRate() {
+            return Math.pow(1 - Math.exp(-(double) hashFunctions * inserted.get() / bitCount), hashFunctions);
+        }
+    }
+}
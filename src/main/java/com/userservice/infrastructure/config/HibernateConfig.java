@@ -9,18 +9,36 @@ import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public class HibernateConfig {
     private static final Logger logger = LogManager.getLogger(HibernateConfig.class);
-    private static SessionFactory sessionFactory;
+    public static final String REPLICA_URL_PROPERTY = "userservice.db.replica.url";
+    public static final String REPLICA_USERNAME_PROPERTY = "userservice.db.replica.username";
+    public static final String REPLICA_PASSWORD_PROPERTY = "userservice.db.replica.password";
+
+    // volatile: фабрику запрашивают параллельный сканер, обработчики двоичного протокола и фоновые задачи
+    private static volatile SessionFactory sessionFactory;
+    private static volatile SessionFactory replicaSessionFactory;
 
     public static SessionFactory getSessionFactory() {
+        SessionFactory current = sessionFactory;
+        if (current != null) {
+            return current;
+        }
+        return createSessionFactory();
+    }
+
+    // Под блокировкой класса: два потока не построят по своей фабрике
+    private static synchronized SessionFactory createSessionFactory() {
         if (sessionFactory == null) {
             logger.debug("Начало создания SessionFactory...");
 
             try {
                 logger.debug("Создание StandardServiceRegistry...");
                 StandardServiceRegistry standardRegistry = new StandardServiceRegistryBuilder()
-                        .configure("hibernate.cfg.xml")
+                        .applySettings(HibernateSettings.primary())
                         .build();
 
                 logger.debug("Создание MetadataSources...");
@@ -50,7 +68,72 @@ public class HibernateConfig {
         return sessionFactory;
     }
 
-    public static void shutdown() {
+    public static boolean isReplicaConfigured() {
+        return System.getProperty(REPLICA_URL_PROPERTY) != null;
+    }
+
+    public static synchronized SessionFactory getReplicaSessionFactory() {
+        if (!isReplicaConfigured()) {
+            logger.debug("Реплика не настроена, чтение идет с основной БД");
+            return getSessionFactory();
+        }
+        if (replicaSessionFactory == null) {
+            Map<String, Object> settings = new HashMap<>();
+            settings.put("hibernate.connection.url", System.getProperty(REPLICA_URL_PROPERTY));
+            if (System.getProperty(REPLICA_USERNAME_PROPERTY) != null) {
+                settings.put("hibernate.connection.username", System.getProperty(REPLICA_USERNAME_PROPERTY));
+            }
+            if (System.getProperty(REPLICA_PASSWORD_PROPERTY) != null) {
+                settings.put("hibernate.connection.password", System.getProperty(REPLICA_PASSWORD_PROPERTY));
+            }
+            // Реплика доступна только на чтение, схемой управляет основная БД
+            settings.put("hibernate.hbm2ddl.auto", "none");
+
+            replicaSessionFactory = buildSessionFactory(settings);
+            logger.info("SessionFactory реплики создана: {}", System.getProperty(REPLICA_URL_PROPERTY));
+        }
+        return replicaSessionFactory;
+    }
+
+    // Настройки подключения без построения SessionFactory - для кода, работающего с JDBC напрямую
+    public static Map<String, Object> connectionSettings() {
+        Map<String, Object> settings = HibernateSettings.primary();
+
+        Map<String, Object> connection = new HashMap<>();
+        for (String key : new String[]{"hibernate.connection.url", "hibernate.connection.username",
+                "hibernate.connection.password", "hibernate.connection.pool_size"}) {
+            if (settings.get(key) != null) {
+                connection.put(key, settings.get(key));
+            }
+        }
+        return connection;
+    }
+
+    public static SessionFactory buildSessionFactory(Map<String, Object> overrides) {
+        try {
+            StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                    .applySettings(HibernateSettings.primary(overrides))
+                    .build();
+
+            Metadata metadata = new MetadataSources(registry)
+                    .addAnnotatedClass(UserEntity.class)
+                    .getMetadataBuilder()
+                    .build();
+
+            return metadata.getSessionFactoryBuilder().build();
+        } catch (Exception e) {
+            logger.error("Ошибка при создании SessionFactory с настройками {}", overrides.keySet(), e);
+            throw new IllegalStateException("Ошибка инициализации Hibernate: " + e.getMessage(), e);
+        }
+    }
+
+    public static synchronized void shutdown() {
+        if (replicaSessionFactory != null && !replicaSessionFactory.isClosed()) {
+            replicaSessionFactory.close();
+            logger.info("SessionFactory реплики закрыта");
+        }
+        replicaSessionFactory = null;
+
         if (sessionFactory != null) {
             try {
                 logger.debug("Начало закрытия SessionFactory...");
@@ -0,0 +1,56 @@
+package com.userservice.infrastructure.config;
+
+import com.userservice.infrastructure.partition.UserPartitionManager;
+import com.userservice.infrastructure.tracing.TracingStatementInspector;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public final class HibernateSettings {
+    public static final String URL_PROPERTY = "userservice.db.url";
+    public static final String USERNAME_PROPERTY = "userservice.db.username";
+    public static final String PASSWORD_PROPERTY = "userservice.db.password";
+
+    static final String DEFAULT_URL = "jdbc:postgresql://localhost:5432/user_service";
+    static final String DEFAULT_USERNAME = "postgres";
+    static final String DEFAULT_PASSWORD = "password";
+
+    private HibernateSettings() {}
+
+    // Замена hibernate.cfg.xml: настройки собираются в коде, без разбора XML и JAXB при старте
+    public static Map<String, Object> primary() {
+        Map<String, Object> settings = new HashMap<>();
+
+        settings.put("hibernate.connection.driver_class", "org.postgresql.Driver");
+        settings.put("hibernate.connection.url", System.getProperty(URL_PROPERTY, DEFAULT_URL));
+        settings.put("hibernate.connection.username", System.getProperty(USERNAME_PROPERTY, DEFAULT_USERNAME));
+        settings.put("hibernate.connection.password", System.getProperty(PASSWORD_PROPERTY, DEFAULT_PASSWORD));
+        settings.put("hibernate.connection.pool_size", "10");
+
+        settings.put("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
+        settings.put("hibernate.show_sql", "true");
+        settings.put("hibernate.format_sql", "true");
+        // Секционированной таблицей users управляет UserPartitionManager: update пытался бы
+        // добавить уникальный индекс по email, недопустимый без ключа секционирования
+        settings.put("hibernate.hbm2ddl.auto", UserPartitionManager.isEnabled() ? "none" : "update");
+
+        // ID назначаются в процессе, поэтому INSERT можно пакетировать (с IDENTITY Hibernate отключает пакеты)
+        settings.put("hibernate.jdbc.batch_size", "50");
+        settings.put("hibernate.order_inserts", "true");
+
+        // Диалект задан явно: не нужно открывать соединение ради метаданных JDBC при загрузке
+        settings.put("hibernate.temp.use_jdbc_metadata_defaults", "false");
+        // SQL попадает в трассу текущего вызова для журнала медленных операций
+        settings.put("hibernate.session_factory.statement_inspector", TracingStatementInspector.class.getName());
+        // Маппинг только аннотациями: orm.xml не ищется и не разбирается
+        settings.put("hibernate.xml_mapping_enabled", "false");
+
+        return settings;
+    }
+
+    public static Map<String, Object> primary(Map<String, Object> overrides) {
+        Map<String, Object> settings = primary();
+        settings.putAll(overrides);
+        return settings;
+    }
+}
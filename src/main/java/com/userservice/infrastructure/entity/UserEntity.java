@@ -2,15 +2,19 @@ package com.userservice.infrastructure.entity;
 
 import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
+// Удаление мягкое: строка с deleted_at остается до фоновой очистки и не видна ни одному чтению Hibernate
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_deleted_at", columnList = "deleted_at"))
+@SQLRestriction("deleted_at IS NULL")
 public class UserEntity {
 
+    // ID назначается в процессе (TimeOrderedIdGenerator): INSERT не ждет сгенерированный ключ и может пакетироваться
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @Column(name = "name", nullable = false, length = 100)
@@ -22,10 +26,18 @@ public class UserEntity {
     @Column(name = "age")
     private Integer age;
 
+    // Ключ секционирования таблицы users (UserPartitionManager)
     @CreationTimestamp
-    @Column(name = "created_at", updatable = false)
+    @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
     public UserEntity() {}
 
     public UserEntity(Long id, String name, String email, Integer age, LocalDateTime createdAt) {
@@ -50,4 +62,10 @@ public class UserEntity {
 
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public LocalDateTime getDeletedAt() { return deletedAt; }
+    public void setDeletedAt(LocalDateTime deletedAt) { this.deletedAt = deletedAt; }
 }
@@ -0,0 +1,214 @@
+package com.userservice.infrastructure.event;
+
+import com.userservice.domain.event.UserChangeEvent;
+import com.userservice.domain.event.UserChangeListener;
+import com.userservice.domain.event.UserChangePublisher;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+public class BoundedUserEventPublisher implements UserChangePublisher, AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(BoundedUserEventPublisher.class);
+
+    public static final int DEFAULT_CAPACITY = 8_192;
+    public static final Duration DEFAULT_MAX_BLOCK = Duration.ofMillis(100);
+
+    private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final List<UserChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicReferenceArray<UserChangeEvent> buffer;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final long maxBlockNanos;
+
+    private final AtomicLong enqueuePosition = new AtomicLong();
+    // Пишет только поток диспетчера, volatile - ради метрики getPendingEvents
+    private volatile long dequeuePosition;
+
+    private final AtomicLong publishedEvents = new AtomicLong();
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final AtomicLong blockedPublishes = new AtomicLong();
+    // Потери, о которых обработчики еще не узнали, и позиция очереди на момент последней потери
+    private final AtomicLong unreportedDrops = new AtomicLong();
+    private final AtomicLong lossPosition = new AtomicLong();
+
+    private final Thread dispatcher;
+    private volatile boolean running;
+    private volatile boolean dispatcherParked;
+
+    public BoundedUserEventPublisher() {
+        this(DEFAULT_CAPACITY, DEFAULT_MAX_BLOCK);
+    }
+
+    public BoundedUserEventPublisher(int capacity, Duration maxBlock) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two");
+        }
+        this.buffer = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = capacity - 1;
+        this.maxBlockNanos = maxBlock.toNanos();
+        this.dispatcher = new Thread(this::dispatchLoop, "user-event-dispatcher");
+        this.dispatcher.setDaemon(true);
+    }
+
+    public void subscribe(UserChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void unsubscribe(UserChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    public synchronized void start() {
+        if (!running) {
+            running = true;
+            dispatcher.start();
+            logger.info("Диспетчер событий пользователей запущен, емкость буфера {}", mask + 1);
+        }
+    }
+
+    @Override
+    public void publish(UserChangeEvent event) {
+        if (offer(event)) {
+            publishedEvents.incrementAndGet();
+            wakeDispatcher();
+            return;
+        }
+
+        // Буфер заполнен: притормаживаем производителя, но не дольше maxBlock
+        blockedPublishes.incrementAndGet();
+        long deadline = System.nanoTime() + maxBlockNanos;
+        long parkNanos = MIN_PARK_NANOS;
+        while (System.nanoTime() < deadline) {
+            wakeDispatcher();
+            LockSupport.parkNanos(parkNanos);
+            if (offer(event)) {
+                publishedEvents.incrementAndGet();
+                wakeDispatcher();
+                return;
+            }
+            parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+        }
+
+        // Обработчики пересинхронизируются после событий, уже стоящих в очереди: иначе более старое
+        // событие из очереди перезапишет состояние, прочитанное при пересинхронизации
+        lossPosition.accumulateAndGet(enqueuePosition.get(), Math::max);
+        unreportedDrops.incrementAndGet();
+        droppedEvents.incrementAndGet();
+        logger.warn("Буфер событий переполнен, событие отброшено: {}", event);
+        wakeDispatcher();
+    }
+
+    public long getPublishedEvents() { return publishedEvents.get(); }
+    public long getDroppedEvents() { return droppedEvents.get(); }
+    public long getBlockedPublishes() { return blockedPublishes.get(); }
+
+    public int getPendingEvents() {
+        return (int) Math.max(0, enqueuePosition.get() - dequeuePosition);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(dispatcher);
+        try {
+            dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Диспетчер событий остановлен: опубликовано {}, отброшено {}",
+                publishedEvents.get(), droppedEvents.get());
+    }
+
+    private boolean offer(UserChangeEvent event) {
+        long position = enqueuePosition.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+
+            if (difference == 0) {
+                if (enqueuePosition.compareAndSet(position, position + 1)) {
+                    buffer.lazySet(index, event);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = enqueuePosition.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = enqueuePosition.get();
+            }
+        }
+    }
+
+    private UserChangeEvent poll() {
+        int index = (int) dequeuePosition & mask;
+        if (sequences.get(index) != dequeuePosition + 1) {
+            return null;
+        }
+        UserChangeEvent event = buffer.get(index);
+        buffer.lazySet(index, null);
+        sequences.set(index, dequeuePosition + mask + 1);
+        dequeuePosition++;
+        return event;
+    }
+
+    private void wakeDispatcher() {
+        if (dispatcherParked) {
+            LockSupport.unpark(dispatcher);
+        }
+    }
+
+    private void dispatchLoop() {
+        long parkNanos = MIN_PARK_NANOS;
+        while (running || sequences.get((int) dequeuePosition & mask) == dequeuePosition + 1) {
+            if (unreportedDrops.get() > 0 && dequeuePosition >= lossPosition.get()) {
+                reportLoss(unreportedDrops.getAndSet(0));
+            }
+            UserChangeEvent event = poll();
+            if (event == null) {
+                dispatcherParked = true;
+                LockSupport.parkNanos(parkNanos);
+                dispatcherParked = false;
+                parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+                continue;
+            }
+            parkNanos = MIN_PARK_NANOS;
+            deliver(event);
+        }
+    }
+
+    private void reportLoss(long count) {
+        logger.warn("Обработчики событий пересинхронизируются после потери {} событий", count);
+        for (UserChangeListener listener : listeners) {
+            try {
+                listener.onEventsLost(count);
+            } catch (Exception e) {
+                logger.error("Ошибка пересинхронизации обработчика после потери событий: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void deliver(UserChangeEvent event) {
+        for (UserChangeListener listener : listeners) {
+            try {
+                listener.onUserChanged(event);
+            } catch (Exception e) {
+                logger.error("Ошибка в обработчике события {}: {}", event, e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.userservice.infrastructure.event;
+
+import com.userservice.domain.event.UserChangeEvent;
+import com.userservice.domain.event.UserChangeListener;
+import com.userservice.domain.event.UserChangeType;
+import com.userservice.infrastructure.config.HibernateConfig;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.UUID;
+
+public class PostgresNotifyBridge implements UserChangeListener, AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(PostgresNotifyBridge.class);
+
+    public static final String DEFAULT_CHANNEL = "user_changes";
+    private static final int POLL_TIMEOUT_MILLIS = 500;
+
+    private final BoundedUserEventPublisher publisher;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String channel;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private Connection notifyConnection;
+    private Thread listenerThread;
+    private volatile boolean running;
+
+    public PostgresNotifyBridge(BoundedUserEventPublisher publisher, String url, String username, String password) {
+        this(publisher, url, username, password, DEFAULT_CHANNEL);
+    }
+
+    public PostgresNotifyBridge(BoundedUserEventPublisher publisher, String url, String username,
+                                String password, String channel) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid notification channel name: " + channel);
+        }
+        this.publisher = publisher;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.channel = channel;
+    }
+
+    public static PostgresNotifyBridge fromHibernateSettings(BoundedUserEventPublisher publisher) {
+        Map<String, Object> settings = HibernateConfig.getSessionFactory().getProperties();
+        return new PostgresNotifyBridge(
+                publisher,
+                (String) settings.get("hibernate.connection.url"),
+                (String) settings.get("hibernate.connection.username"),
+                (String) settings.get("hibernate.connection.password")
+        );
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        try {
+            notifyConnection = DriverManager.getConnection(url, username, password);
+        } catch (SQLException e) {
+            logger.error("Не удалось открыть соединение для NOTIFY: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to start PostgreSQL notify bridge", e);
+        }
+
+        running = true;
+        publisher.subscribe(this);
+        listenerThread = new Thread(this::listenLoop, "user-changes-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+        logger.info("Мост LISTEN/NOTIFY запущен: канал {}, экземпляр {}", channel, instanceId);
+    }
+
+    @Override
+    public void onUserChanged(UserChangeEvent event) {
+        if (event.isRemote()) {
+            return;
+        }
+
+        String payload = instanceId + "|" + event.getType() + "|" + event.getUserId();
+        synchronized (this) {
+            if (notifyConnection == null) {
+                return;
+            }
+            try (PreparedStatement statement = notifyConnection.prepareStatement("SELECT pg_notify(?, ?)")) {
+                statement.setString(1, channel);
+                statement.setString(2, payload);
+                statement.execute();
+            } catch (SQLException e) {
+                logger.error("Ошибка отправки NOTIFY для {}: {}", event, e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        publisher.unsubscribe(this);
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+        closeQuietly(notifyConnection);
+        notifyConnection = null;
+        logger.info("Мост LISTEN/NOTIFY остановлен");
+    }
+
+    private void listenLoop() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        handle(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Соединение LISTEN потеряно, переподключение: {}", e.getMessage());
+                sleepBeforeReconnect();
+            }
+        }
+    }
+
+    private void handle(String payload) {
+        String[] parts = payload.split("\\|");
+        if (parts.length != 3) {
+            logger.warn("Некорректное уведомление об изменении пользователя: {}", payload);
+            return;
+        }
+        if (instanceId.equals(parts[0])) {
+            return;
+        }
+
+        try {
+            UserChangeEvent event = UserChangeEvent.remote(UserChangeType.valueOf(parts[1]), Long.parseLong(parts[2]));
+            logger.debug("Получено изменение с другого экземпляра: {}", event);
+            publisher.publish(event);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Некорректное уведомление об изменении пользователя: {}", payload);
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(1_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.debug("Ошибка при закрытии соединения NOTIFY: {}", e.getMessage());
+        }
+    }
+}
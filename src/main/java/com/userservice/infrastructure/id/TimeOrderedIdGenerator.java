@@ -0,0 +1,152 @@
+package com.userservice.infrastructure.id;
+
+import com.userservice.domain.repository.IdGenerator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// 64-битные ID, упорядоченные по времени: [timestamp][node][sequence]; вставки идут в правый край индекса.
+// Состояние (tick, sequence) упаковано в один AtomicLong; при отставании часов или исчерпании
+// последовательности берется следующий логический тик, ID остаются строго возрастающими
+public class TimeOrderedIdGenerator implements IdGenerator {
+    private static final Logger logger = LogManager.getLogger(TimeOrderedIdGenerator.class);
+
+    public static final String NODE_PROPERTY = "userservice.id.node";
+    // 2024-01-01T00:00:00Z
+    static final long EPOCH_MILLIS = 1_704_067_200_000L;
+
+    public static final class Layout {
+        // 41 бит миллисекунд (~69 лет), 1024 узла, 4096 ID на узел в миллисекунду
+        public static final Layout STANDARD = new Layout(1, 41, 10, 12);
+        // Укладывается в 48 бит локального ID шарда (ShardIdCodec): тик 10 мс (~87 лет), 16 узлов, 64 ID на тик
+        public static final Layout SHARD_LOCAL = new Layout(10, 38, 4, 6);
+
+        final long tickMillis;
+        final int timestampBits;
+        final int nodeBits;
+        final int sequenceBits;
+
+        public Layout(long tickMillis, int timestampBits, int nodeBits, int sequenceBits) {
+            if (tickMillis <= 0 || timestampBits + nodeBits + sequenceBits > 63 || sequenceBits <= 0) {
+                throw new IllegalArgumentException("Invalid ID layout");
+            }
+            this.tickMillis = tickMillis;
+            this.timestampBits = timestampBits;
+            this.nodeBits = nodeBits;
+            this.sequenceBits = sequenceBits;
+        }
+
+        public int totalBits() {
+            return timestampBits + nodeBits + sequenceBits;
+        }
+    }
+
+    private static volatile TimeOrderedIdGenerator standard;
+    private static volatile TimeOrderedIdGenerator shardLocal;
+
+    private final Layout layout;
+    private final long node;
+    private final LongSupplier millisClock;
+    private final long maxTick;
+    private final AtomicLong state = new AtomicLong();
+
+    public TimeOrderedIdGenerator(Layout layout, long node) {
+        this(layout, node, System::currentTimeMillis);
+    }
+
+    TimeOrderedIdGenerator(Layout layout, long node, LongSupplier millisClock) {
+        if (node < 0 || node >= (1L << layout.nodeBits)) {
+            throw new IllegalArgumentException("Node ID out of range: " + node);
+        }
+        this.layout = layout;
+        this.node = node;
+        this.millisClock = millisClock;
+        this.maxTick = (1L << layout.timestampBits) - 1;
+    }
+
+    // Один генератор на процесс и схему: два экземпляра с одним узлом выдали бы одинаковые ID
+    public static TimeOrderedIdGenerator standard() {
+        if (standard == null) {
+            synchronized (TimeOrderedIdGenerator.class) {
+                if (standard == null) {
+                    standard = new TimeOrderedIdGenerator(Layout.STANDARD, configuredNode(Layout.STANDARD));
+                }
+            }
+        }
+        return standard;
+    }
+
+    public static TimeOrderedIdGenerator shardLocal() {
+        if (shardLocal == null) {
+            synchronized (TimeOrderedIdGenerator.class) {
+                if (shardLocal == null) {
+                    shardLocal = new TimeOrderedIdGenerator(Layout.SHARD_LOCAL, configuredNode(Layout.SHARD_LOCAL));
+                }
+            }
+        }
+        return shardLocal;
+    }
+
+    @Override
+    public long nextId() {
+        long next;
+        while (true) {
+            long previous = state.get();
+            long now = currentTick();
+            // Переполнение последовательности переносится в тик: заем времени у будущего
+            next = now > (previous >>> layout.sequenceBits) ? now << layout.sequenceBits : previous + 1;
+            if (state.compareAndSet(previous, next)) {
+                break;
+            }
+        }
+
+        long tick = next >>> layout.sequenceBits;
+        if (tick > maxTick) {
+            throw new IllegalStateException("ID timestamp bits exhausted");
+        }
+        long sequence = next & ((1L << layout.sequenceBits) - 1);
+        return (tick << (layout.nodeBits + layout.sequenceBits)) | (node << layout.sequenceBits) | sequence;
+    }
+
+    public Instant timestampOf(long id) {
+        long tick = id >>> (layout.nodeBits + layout.sequenceBits);
+        return Instant.ofEpochMilli(EPOCH_MILLIS + tick * layout.tickMillis);
+    }
+
+    public long nodeOf(long id) {
+        return (id >>> layout.sequenceBits) & ((1L << layout.nodeBits) - 1);
+    }
+
+    public long getNode() {
+        return node;
+    }
+
+    private long currentTick() {
+        return Math.max(0, (millisClock.getAsLong() - EPOCH_MILLIS) / layout.tickMillis);
+    }
+
+    // Номер узла обязателен: вычисленный из имени хоста номер у двух экземпляров может совпасть,
+    // и они выдадут одинаковые первичные ключи
+    static long configuredNode(Layout layout) {
+        long nodes = 1L << layout.nodeBits;
+        String configured = System.getProperty(NODE_PROPERTY);
+        if (configured == null || configured.isBlank()) {
+            throw new IllegalStateException(NODE_PROPERTY + " must be set to a node ID unique across instances (0-"
+                    + (nodes - 1) + ")");
+        }
+        long node;
+        try {
+            node = Long.parseLong(configured.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Invalid " + NODE_PROPERTY + ": " + configured, e);
+        }
+        if (node < 0 || node >= nodes) {
+            throw new IllegalStateException(NODE_PROPERTY + " must be in range 0-" + (nodes - 1) + ": " + node);
+        }
+        logger.info("Узел генератора ID: {}", node);
+        return node;
+    }
+}
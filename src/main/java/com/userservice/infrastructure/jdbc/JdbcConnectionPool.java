@@ -0,0 +1,145 @@
+package com.userservice.infrastructure.jdbc;
+
+import com.userservice.infrastructure.config.HibernateConfig;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class JdbcConnectionPool implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(JdbcConnectionPool.class);
+
+    public static final int DEFAULT_POOL_SIZE = 10;
+    public static final Duration DEFAULT_ACQUIRE_TIMEOUT = Duration.ofSeconds(5);
+
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    private final ConnectionFactory connectionFactory;
+    private final BlockingQueue<PooledConnection> idle;
+    private final AtomicInteger opened = new AtomicInteger();
+    private final int maxSize;
+    private final long acquireTimeoutNanos;
+    // Сигнал ожидающим: соединение вернулось в пул или освободилось место под новое
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private volatile boolean closed;
+
+    public JdbcConnectionPool(ConnectionFactory connectionFactory, int maxSize, Duration acquireTimeout) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Pool size must be positive");
+        }
+        this.connectionFactory = connectionFactory;
+        this.maxSize = maxSize;
+        this.idle = new ArrayBlockingQueue<>(maxSize);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    }
+
+    public static JdbcConnectionPool fromHibernateSettings() {
+        Map<String, Object> settings = HibernateConfig.connectionSettings();
+        String url = (String) settings.get("hibernate.connection.url");
+        String username = (String) settings.get("hibernate.connection.username");
+        String password = (String) settings.get("hibernate.connection.password");
+        Object poolSize = settings.get("hibernate.connection.pool_size");
+
+        int size = poolSize != null ? Integer.parseInt(poolSize.toString()) : DEFAULT_POOL_SIZE;
+        logger.info("Пул JDBC-соединений: {} (до {} соединений)", url, size);
+        return new JdbcConnectionPool(() -> DriverManager.getConnection(url, username, password),
+                size, DEFAULT_ACQUIRE_TIMEOUT);
+    }
+
+    public PooledConnection acquire() throws SQLException {
+        long remaining = acquireTimeoutNanos;
+        lock.lock();
+        try {
+            while (true) {
+                if (closed) {
+                    throw new SQLException("Connection pool is closed");
+                }
+                PooledConnection connection = idle.poll();
+                if (connection != null) {
+                    return connection;
+                }
+                // Новое соединение открывается только пока не достигнут предел пула
+                if (opened.get() < maxSize) {
+                    opened.incrementAndGet();
+                    break;
+                }
+                if (remaining <= 0) {
+                    throw new SQLException("Timed out waiting for a pooled connection");
+                }
+                remaining = available.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        } finally {
+            lock.unlock();
+        }
+
+        // Соединение открывается вне блокировки: место в пуле уже занято
+        try {
+            return new PooledConnection(this, connectionFactory.open());
+        } catch (SQLException | RuntimeException e) {
+            freeSlot();
+            throw e;
+        }
+    }
+
+    void release(PooledConnection connection, boolean broken) {
+        if (broken || closed) {
+            connection.closePhysically();
+            freeSlot();
+            return;
+        }
+        lock.lock();
+        try {
+            idle.offer(connection);
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Место закрытого соединения освобождается, ожидающий поток откроет замену
+    private void freeSlot() {
+        lock.lock();
+        try {
+            opened.decrementAndGet();
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getOpenedConnections() { return opened.get(); }
+    public int getIdleConnections() { return idle.size(); }
+
+    @Override
+    public void close() {
+        closed = true;
+        PooledConnection connection;
+        while ((connection = idle.poll()) != null) {
+            connection.closePhysically();
+            freeSlot();
+        }
+        lock.lock();
+        try {
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        logger.info("Пул JDBC-соединений закрыт");
+    }
+}
@@ -0,0 +1,391 @@
+package com.userservice.infrastructure.jdbc;
+
+import com.userservice.domain.event.UserChangeEvent;
+import com.userservice.domain.event.UserChangePublisher;
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+import com.userservice.domain.repository.DataAccessException;
+import com.userservice.domain.repository.IdGenerator;
+import com.userservice.domain.repository.UserRepository;
+import com.userservice.infrastructure.id.TimeOrderedIdGenerator;
+import com.userservice.infrastructure.tracing.Trace;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public class JdbcUserRepository implements UserRepository {
+    private static final Logger logger = LogManager.getLogger(JdbcUserRepository.class);
+
+    private static final String COLUMNS = "id, name, email, age, created_at";
+
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    // Строки с deleted_at - мягко удаленные пользователи, ожидающие фоновой очистки
+    private static final String FIND_BY_ID = "SELECT " + COLUMNS + " FROM users WHERE id = ? AND deleted_at IS NULL";
+    private static final String FIND_ALL = "SELECT " + COLUMNS + " FROM users WHERE deleted_at IS NULL";
+    private static final String FIND_PAGE =
+            "SELECT " + COLUMNS + " FROM users WHERE id > ? AND deleted_at IS NULL ORDER BY id LIMIT ?";
+    private static final String FIND_BY_EMAIL =
+            "SELECT " + COLUMNS + " FROM users WHERE email = ? AND deleted_at IS NULL";
+    private static final String EXISTS_BY_EMAIL = "SELECT 1 FROM users WHERE email = ? AND deleted_at IS NULL";
+    private static final String ALL_EMAILS = "SELECT email FROM users WHERE deleted_at IS NULL";
+    private static final int STREAM_FETCH_SIZE = 1_000;
+    private static final String INSERT =
+            "INSERT INTO users (id, name, email, age, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?) " +
+            "RETURNING " + COLUMNS;
+    // Снимок "до" берется в том же операторе, что и обновление: один round-trip вместо двух
+    private static final String UPDATE =
+            "UPDATE users u SET name = ?, email = ?, age = ?, updated_at = ? " +
+            "FROM (SELECT " + COLUMNS + " FROM users WHERE id = ? AND deleted_at IS NULL FOR UPDATE) before " +
+            "WHERE u.id = before.id " +
+            "RETURNING before.id, before.name, before.email, before.age, before.created_at";
+    // Обновление одной строки вместо DELETE: индексы не перестраиваются в часы пик
+    private static final String DELETE =
+            "UPDATE users SET deleted_at = ?, updated_at = ? WHERE id = ? AND deleted_at IS NULL RETURNING " + COLUMNS;
+    private static final String PURGE_TOMBSTONE = "DELETE FROM users WHERE email = ? AND deleted_at IS NOT NULL";
+    private static final String PURGE_BATCH =
+            "DELETE FROM users WHERE id IN (SELECT id FROM users WHERE deleted_at < ? " +
+            "ORDER BY deleted_at LIMIT ? FOR UPDATE SKIP LOCKED)";
+
+    @FunctionalInterface
+    private interface SqlWork<T> {
+        T run(PooledConnection connection) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface SqlCall<T> {
+        T call() throws SQLException;
+    }
+
+    private final JdbcConnectionPool connectionPool;
+    private final UserChangePublisher changePublisher;
+    private final IdGenerator idGenerator;
+
+    public JdbcUserRepository(JdbcConnectionPool connectionPool) {
+        this(connectionPool, UserChangePublisher.NONE);
+    }
+
+    public JdbcUserRepository(JdbcConnectionPool connectionPool, UserChangePublisher changePublisher) {
+        this(connectionPool, changePublisher, TimeOrderedIdGenerator.standard());
+    }
+
+    public JdbcUserRepository(JdbcConnectionPool connectionPool, UserChangePublisher changePublisher,
+                              IdGenerator idGenerator) {
+        this.connectionPool = connectionPool;
+        this.changePublisher = changePublisher;
+        this.idGenerator = idGenerator;
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        logger.debug("Поиск пользователя по ID: {}", id);
+
+        try {
+            return execute(connection -> {
+                PreparedStatement statement = connection.prepare(FIND_BY_ID);
+                statement.setLong(1, id);
+                Trace.statement(FIND_BY_ID, id);
+                return single(statement);
+            });
+        } catch (SQLException e) {
+            logger.error("Ошибка при поиске пользователя по ID {}: {}", id, e.getMessage(), e);
+            throw new DataAccessException("Failed to find user by ID: " + id, e);
+        }
+    }
+
+    @Override
+    public List<User> findAll() {
+        logger.debug("Получение всех пользователей");
+
+        try {
+            return execute(connection -> {
+                List<User> users = new ArrayList<>();
+                Trace.statement(FIND_ALL);
+                try (ResultSet resultSet = connection.prepare(FIND_ALL).executeQuery()) {
+                    while (resultSet.next()) {
+                        users.add(toUser(resultSet));
+                    }
+                }
+                logger.debug("Найдено {} пользователей", users.size());
+                return users;
+            });
+        } catch (SQLException e) {
+            logger.error("Ошибка при получении всех пользователей: {}", e.getMessage(), e);
+            throw new DataAccessException("Failed to load users", e);
+        }
+    }
+
+    @Override
+    public List<User> findPage(long afterId, int limit) {
+        logger.debug("Получение страницы пользователей после ID {}, не более {}", afterId, limit);
+
+        try {
+            return execute(connection -> {
+                List<User> users = new ArrayList<>();
+                PreparedStatement statement = connection.prepare(FIND_PAGE);
+                statement.setLong(1, afterId);
+                statement.setInt(2, limit);
+                Trace.statement(FIND_PAGE, afterId);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        users.add(toUser(resultSet));
+                    }
+                }
+                return users;
+            });
+        } catch (SQLException e) {
+            logger.error("Ошибка при получении страницы пользователей после ID {}: {}", afterId, e.getMessage(), e);
+            throw new DataAccessException("Failed to load users after ID: " + afterId, e);
+        }
+    }
+
+    @Override
+    public Optional<User> findByEmail(Email email) {
+        logger.debug("Поиск пользователя по email: {}", email.getValue());
+
+        try {
+            return execute(connection -> {
+                PreparedStatement statement = connection.prepare(FIND_BY_EMAIL);
+                statement.setString(1, email.getValue());
+                Trace.statement(FIND_BY_EMAIL, email.getValue());
+                return single(statement);
+            });
+        } catch (SQLException e) {
+            logger.error("Ошибка при поиске пользователя по email {}: {}", email.getValue(), e.getMessage(), e);
+            throw new DataAccessException("Failed to find user by email: " + email.getValue(), e);
+        }
+    }
+
+    @Override
+    public boolean existsByEmail(Email email) {
+        logger.debug("Проверка существования пользователя с email: {}", email.getValue());
+
+        try {
+            return execute(connection -> {
+                PreparedStatement statement = connection.prepare(EXISTS_BY_EMAIL);
+                statement.setString(1, email.getValue());
+                Trace.statement(EXISTS_BY_EMAIL, email.getValue());
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next();
+                }
+            });
+        } catch (SQLException e) {
+            logger.error("Ошибка при проверке email {}: {}", email.getValue(), e.getMessage(), e);
+            throw new DataAccessException("Failed to check email: " + email.getValue(), e);
+        }
+    }
+
+    @Override
+    public void forEachEmail(Consumer<Email> action) {
+        logger.debug("Потоковое чтение email всех пользователей");
+
+        try {
+            execute(connection -> {
+                // Драйвер PostgreSQL читает курсором порциями только вне autocommit
+                connection.getConnection().setAutoCommit(false);
+                try {
+                    PreparedStatement statement = connection.prepare(ALL_EMAILS);
+                    statement.setFetchSize(STREAM_FETCH_SIZE);
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            action.accept(new Email(resultSet.getString(1)));
+                        }
+                    }
+                    connection.getConnection().commit();
+                } finally {
+                    connection.getConnection().setAutoCommit(true);
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            logger.error("Ошибка при чтении email пользователей: {}", e.getMessage(), e);
+            throw new DataAccessException("Failed to stream user emails", e);
+        }
+    }
+
+    @Override
+    public User save(User user) {
+        logger.info("Сохранение пользователя: {}", user.getEmail().getValue());
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime createdAt = user.getCreatedAt() != null ? user.getCreatedAt() : now;
+        long id = user.getId() != null ? user.getId() : idGenerator.nextId();
+        try {
+            User savedUser = execute(connection -> replacingTombstone(connection, user.getEmail(), () -> {
+                PreparedStatement statement = connection.prepare(INSERT);
+                statement.setLong(1, id);
+                statement.setString(2, user.getName());
+                statement.setString(3, user.getEmail().getValue());
+                setAge(statement, 4, user.getAge());
+                statement.setObject(5, createdAt);
+                statement.setObject(6, now);
+                Trace.statement(INSERT, id, user.getName(), user.getEmail().getValue(), user.getAge(), createdAt, now);
+                return single(statement).orElseThrow(() -> new SQLException("INSERT returned no row"));
+            }));
+
+            logger.info("Пользователь успешно сохранен: {} (ID: {})",
+                    savedUser.getEmail().getValue(), savedUser.getId());
+            publishAfterCommit(UserChangeEvent.created(savedUser));
+            return savedUser;
+        } catch (SQLException e) {
+            logger.error("Ошибка при сохранении пользователя {}: {}",
+                    user.getEmail().getValue(), e.getMessage(), e);
+            throw new DataAccessException("Failed to save user: " + user.getEmail().getValue(), e);
+        }
+    }
+
+    @Override
+    public void update(User user) {
+        logger.info("Обновление пользователя: {} (ID: {})",
+                user.getEmail().getValue(), user.getId());
+
+        try {
+            Optional<User> before = execute(connection -> replacingTombstone(connection, user.getEmail(), () -> {
+                PreparedStatement statement = connection.prepare(UPDATE);
+                LocalDateTime updatedAt = LocalDateTime.now();
+                statement.setString(1, user.getName());
+                statement.setString(2, user.getEmail().getValue());
+                setAge(statement, 3, user.getAge());
+                statement.setObject(4, updatedAt);
+                statement.setLong(5, user.getId());
+                Trace.statement(UPDATE, user.getName(), user.getEmail().getValue(), user.getAge(), updatedAt, user.getId());
+                return single(statement);
+            }));
+
+            if (before.isEmpty()) {
+                logger.warn("Пользователь для обновления не найден: ID {}", user.getId());
+                return;
+            }
+            logger.info("Пользователь успешно обновлен: {} (ID: {})",
+                    user.getEmail().getValue(), user.getId());
+            publishAfterCommit(UserChangeEvent.updated(before.get(), user));
+        } catch (SQLException e) {
+            logger.error("Ошибка при обновлении пользователя {} (ID: {}): {}",
+                    user.getEmail().getValue(), user.getId(), e.getMessage(), e);
+            throw new DataAccessException("Failed to update user: " + user.getEmail().getValue(), e);
+        }
+    }
+
+    @Override
+    public void delete(Long id) {
+        logger.info("Удаление пользователя с ID: {}", id);
+
+        try {
+            Optional<User> before = execute(connection -> {
+                PreparedStatement statement = connection.prepare(DELETE);
+                LocalDateTime deletedAt = LocalDateTime.now();
+                statement.setObject(1, deletedAt);
+                statement.setObject(2, deletedAt);
+                statement.setLong(3, id);
+                Trace.statement(DELETE, deletedAt, deletedAt, id);
+                return single(statement);
+            });
+
+            if (before.isPresent()) {
+                logger.info("Пользователь успешно удален: {} (ID: {})", before.get().getEmail().getValue(), id);
+                publishAfterCommit(UserChangeEvent.deleted(before.get()));
+            } else {
+                logger.warn("Пользователь для удаления не найден: ID {}", id);
+            }
+        } catch (SQLException e) {
+            logger.error("Ошибка при удалении пользователя ID {}: {}", id, e.getMessage(), e);
+            throw new DataAccessException("Failed to delete user with ID: " + id, e);
+        }
+    }
+
+    // Физически удаляет до limit пользователей, удаленных раньше deletedBefore; возвращает число строк
+    public int purgeDeleted(LocalDateTime deletedBefore, int limit) {
+        try {
+            return execute(connection -> {
+                PreparedStatement statement = connection.prepare(PURGE_BATCH);
+                statement.setObject(1, deletedBefore);
+                statement.setInt(2, limit);
+                Trace.statement(PURGE_BATCH, deletedBefore, limit);
+                return statement.executeUpdate();
+            });
+        } catch (SQLException e) {
+            logger.error("Ошибка очистки удаленных пользователей: {}", e.getMessage(), e);
+            throw new DataAccessException("Failed to purge deleted users", e);
+        }
+    }
+
+    // Email удаленного, но еще не очищенного пользователя занят его строкой: при нарушении уникальности
+    // строка очищается сразу и оператор повторяется. Обычная запись лишних запросов не делает
+    private static <T> T replacingTombstone(PooledConnection connection, Email email, SqlCall<T> write)
+            throws SQLException {
+        try {
+            return write.call();
+        } catch (SQLException e) {
+            if (!UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                throw e;
+            }
+            PreparedStatement purge = connection.prepare(PURGE_TOMBSTONE);
+            purge.setString(1, email.getValue());
+            Trace.statement(PURGE_TOMBSTONE, email.getValue());
+            if (purge.executeUpdate() == 0) {
+                throw e;
+            }
+            logger.info("Email {} освобожден от удаленного пользователя, запись повторяется", email.getValue());
+            return write.call();
+        }
+    }
+
+    // Каждый оператор выполняется в режиме autocommit: явная транзакция не нужна
+    private <T> T execute(SqlWork<T> work) throws SQLException {
+        long acquiring = Trace.start();
+        try (PooledConnection connection = connectionPool.acquire()) {
+            Trace.stop("connection-acquire", acquiring);
+            long querying = Trace.start();
+            try {
+                return work.run(connection);
+            } catch (SQLException e) {
+                connection.onFailure(e);
+                throw e;
+            } finally {
+                // Результат читается и отображается в том же проходе: маппинг входит в query
+                Trace.stop("query", querying);
+            }
+        }
+    }
+
+    private static Optional<User> single(PreparedStatement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() ? Optional.of(toUser(resultSet)) : Optional.empty();
+        }
+    }
+
+    static User toUser(ResultSet resultSet) throws SQLException {
+        return new User(
+                resultSet.getLong(1),
+                resultSet.getString(2),
+                new Email(resultSet.getString(3)),
+                resultSet.getObject(4, Integer.class),
+                resultSet.getObject(5, LocalDateTime.class)
+        );
+    }
+
+    private static void setAge(PreparedStatement statement, int index, Integer age) throws SQLException {
+        if (age != null) {
+            statement.setInt(index, age);
+        } else {
+            statement.setNull(index, Types.INTEGER);
+        }
+    }
+
+    private void publishAfterCommit(UserChangeEvent event) {
+        try {
+            changePublisher.publish(event);
+        } catch (Exception e) {
+            logger.error("Ошибка публикации события {}: {}", event, e.getMessage(), e);
+        }
+    }
+}
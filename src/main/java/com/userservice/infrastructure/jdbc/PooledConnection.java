@@ -0,0 +1,62 @@
+package com.userservice.infrastructure.jdbc;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+public class PooledConnection implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(PooledConnection.class);
+
+    private final JdbcConnectionPool pool;
+    private final Connection connection;
+    // Соединение используется одним потоком за раз, синхронизация кэша не нужна
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+    private boolean broken;
+
+    PooledConnection(JdbcConnectionPool pool, Connection connection) {
+        this.pool = pool;
+        this.connection = connection;
+    }
+
+    public PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement statement = statements.get(sql);
+        if (statement == null) {
+            statement = connection.prepareStatement(sql);
+            statements.put(sql, statement);
+        } else {
+            statement.clearParameters();
+        }
+        return statement;
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    // Ошибки соединения (SQLState 08xxx) исключают его из пула; ошибки запроса - нет
+    public void onFailure(SQLException cause) {
+        String state = cause.getSQLState();
+        if (state == null || state.startsWith("08")) {
+            broken = true;
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.release(this, broken);
+    }
+
+    void closePhysically() {
+        statements.clear();
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.debug("Ошибка при закрытии JDBC-соединения: {}", e.getMessage());
+        }
+    }
+}
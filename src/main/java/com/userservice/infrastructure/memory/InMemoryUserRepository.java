@@ -0,0 +1,140 @@
+package com.userservice.infrastructure.memory;
+
+import com.userservice.domain.event.UserChangeEvent;
+import com.userservice.domain.event.UserChangePublisher;
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+import com.userservice.domain.repository.DataAccessException;
+import com.userservice.domain.repository.UserRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+public class InMemoryUserRepository implements UserRepository {
+    private static final Logger logger = LogManager.getLogger(InMemoryUserRepository.class);
+
+    private final Map<Long, User> users = new ConcurrentHashMap<>();
+    // Индекс email -> ID играет роль уникального ограничения таблицы users
+    private final Map<Email, Long> emails = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final UserChangePublisher changePublisher;
+
+    public InMemoryUserRepository() {
+        this(UserChangePublisher.NONE);
+    }
+
+    public InMemoryUserRepository(UserChangePublisher changePublisher) {
+        this.changePublisher = changePublisher;
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(users.get(id));
+    }
+
+    @Override
+    public List<User> findAll() {
+        List<User> result = new ArrayList<>(users.values());
+        result.sort(Comparator.comparing(User::getId));
+        return result;
+    }
+
+    @Override
+    public Optional<User> findByEmail(Email email) {
+        Long id = emails.get(email);
+        return id == null ? Optional.empty() : findById(id);
+    }
+
+    @Override
+    public boolean existsByEmail(Email email) {
+        return emails.containsKey(email);
+    }
+
+    @Override
+    public void forEachEmail(Consumer<Email> action) {
+        emails.keySet().forEach(action);
+    }
+
+    @Override
+    public User save(User user) {
+        long id = user.getId() != null ? user.getId() : sequence.incrementAndGet();
+        // Email резервируется до вставки: из двух параллельных регистраций проходит одна
+        if (emails.putIfAbsent(user.getEmail(), id) != null) {
+            throw new DataAccessException("Failed to save user: " + user.getEmail().getValue(),
+                    new IllegalStateException("Duplicate email"));
+        }
+
+        LocalDateTime createdAt = user.getCreatedAt() != null ? user.getCreatedAt() : LocalDateTime.now();
+        User saved = new User(id, user.getName(), user.getEmail(), user.getAge(), createdAt);
+        if (users.putIfAbsent(id, saved) != null) {
+            emails.remove(user.getEmail(), id);
+            throw new DataAccessException("Failed to save user: " + user.getEmail().getValue(),
+                    new IllegalStateException("Duplicate ID " + id));
+        }
+        logger.debug("Пользователь сохранен в памяти: {} (ID: {})", saved.getEmail().getValue(), id);
+
+        publish(UserChangeEvent.created(saved));
+        return saved;
+    }
+
+    @Override
+    public void update(User user) {
+        User[] before = new User[1];
+        // compute блокирует запись по ID: обновления и удаление одного пользователя не перемежаются,
+        // а обновление уже удаленного пользователя не восстанавливает его
+        User updated = users.computeIfPresent(user.getId(), (id, current) -> {
+            if (!current.getEmail().equals(user.getEmail())) {
+                if (emails.putIfAbsent(user.getEmail(), id) != null) {
+                    throw new DataAccessException("Failed to update user: " + user.getEmail().getValue(),
+                            new IllegalStateException("Duplicate email"));
+                }
+                emails.remove(current.getEmail(), id);
+            }
+            before[0] = current;
+            return new User(id, user.getName(), user.getEmail(), user.getAge(), current.getCreatedAt());
+        });
+
+        if (updated == null) {
+            logger.warn("Пользователь для обновления не найден: ID {}", user.getId());
+            return;
+        }
+        publish(UserChangeEvent.updated(before[0], updated));
+    }
+
+    @Override
+    public void delete(Long id) {
+        User[] before = new User[1];
+        users.computeIfPresent(id, (key, current) -> {
+            emails.remove(current.getEmail(), key);
+            before[0] = current;
+            return null;
+        });
+
+        if (before[0] == null) {
+            logger.warn("Пользователь для удаления не найден: ID {}", id);
+            return;
+        }
+        publish(UserChangeEvent.deleted(before[0]));
+    }
+
+    public int size() {
+        return users.size();
+    }
+
+    private void publish(UserChangeEvent event) {
+        try {
+            changePublisher.publish(event);
+        } catch (Exception e) {
+            logger.error("Ошибка публикации события {}: {}", event, e.getMessage(), e);
+        }
+    }
+}
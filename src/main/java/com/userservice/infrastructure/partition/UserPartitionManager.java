@@ -0,0 +1,339 @@
+package com.userservice.infrastructure.partition;
+
+import com.userservice.infrastructure.config.HibernateConfig;
+import com.userservice.infrastructure.jdbc.JdbcConnectionPool;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Таблица users секционируется по месяцам created_at (PostgreSQL 13+): секции создаются на monthsAhead вперед,
+// старше срока хранения - отсоединяются в схему ARCHIVE_SCHEMA, строки вне секций идут в users_default.
+// Уникальный индекс обязан включать ключ секционирования, поэтому уникальность email держит таблица
+// user_emails с триггером; нарушение дает тот же SQLSTATE 23505
+public class UserPartitionManager implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(UserPartitionManager.class);
+
+    public static final String ENABLED_PROPERTY = "userservice.partitioning.enabled";
+    public static final String MIGRATE_PROPERTY = "userservice.partitioning.migrate";
+    public static final String MONTHS_AHEAD_PROPERTY = "userservice.partitioning.months.ahead";
+    public static final String RETAIN_MONTHS_PROPERTY = "userservice.partitioning.retain.months";
+
+    public static final int DEFAULT_MONTHS_AHEAD = 3;
+    public static final String ARCHIVE_SCHEMA = "users_archive";
+    static final String DEFAULT_PARTITION = "users_default";
+    private static final Pattern PARTITION_NAME = Pattern.compile("users_p(\\d{4})_(\\d{2})");
+    private static final long MAINTENANCE_INTERVAL_HOURS = 24;
+
+    private static final String IS_PARTITIONED =
+            "SELECT c.relkind FROM pg_class c WHERE c.oid = to_regclass('users')";
+    private static final String LIST_PARTITIONS =
+            "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = 'users'::regclass";
+    private static final String CREATE_PARENT =
+            "CREATE TABLE users (" +
+            "id bigint NOT NULL, " +
+            "name varchar(100) NOT NULL, " +
+            "email varchar(100) NOT NULL, " +
+            "age integer, " +
+            "created_at timestamp(6) NOT NULL, " +
+            "updated_at timestamp(6), " +
+            "deleted_at timestamp(6), " +
+            "PRIMARY KEY (id, created_at)" +
+            ") PARTITION BY RANGE (created_at)";
+    private static final String[] PARENT_OBJECTS = {
+            "CREATE INDEX IF NOT EXISTS idx_users_email ON users (email)",
+            "CREATE INDEX IF NOT EXISTS idx_users_deleted_at ON users (deleted_at)",
+            "CREATE TABLE IF NOT EXISTS " + DEFAULT_PARTITION + " PARTITION OF users DEFAULT",
+            "CREATE TABLE IF NOT EXISTS user_emails (email varchar(100) PRIMARY KEY, user_id bigint NOT NULL)",
+            "CREATE OR REPLACE FUNCTION users_email_unique() RETURNS trigger AS $$ " +
+            "BEGIN " +
+            "  IF TG_OP = 'INSERT' THEN " +
+            "    INSERT INTO user_emails (email, user_id) VALUES (NEW.email, NEW.id); " +
+            "  ELSIF TG_OP = 'DELETE' THEN " +
+            "    DELETE FROM user_emails WHERE email = OLD.email AND user_id = OLD.id; " +
+            "  ELSIF NEW.email <> OLD.email THEN " +
+            "    DELETE FROM user_emails WHERE email = OLD.email AND user_id = OLD.id; " +
+            "    INSERT INTO user_emails (email, user_id) VALUES (NEW.email, NEW.id); " +
+            "  END IF; " +
+            "  RETURN NULL; " +
+            "END $$ LANGUAGE plpgsql",
+            "DROP TRIGGER IF EXISTS users_email_unique ON users",
+            "CREATE TRIGGER users_email_unique AFTER INSERT OR UPDATE OF email OR DELETE ON users " +
+            "FOR EACH ROW EXECUTE FUNCTION users_email_unique()"
+    };
+
+    private final JdbcConnectionPool.ConnectionFactory connectionFactory;
+    private final int monthsAhead;
+    private final int retainMonths;
+    private final Clock clock;
+    private final ScheduledExecutorService scheduler;
+
+    public UserPartitionManager(JdbcConnectionPool.ConnectionFactory connectionFactory, int monthsAhead,
+                                int retainMonths) {
+        this(connectionFactory, monthsAhead, retainMonths, Clock.systemDefaultZone());
+    }
+
+    UserPartitionManager(JdbcConnectionPool.ConnectionFactory connectionFactory, int monthsAhead,
+                         int retainMonths, Clock clock) {
+        if (monthsAhead < 1 || retainMonths < 0) {
+            throw new IllegalArgumentException("Months ahead must be positive and retention non-negative");
+        }
+        this.connectionFactory = connectionFactory;
+        this.monthsAhead = monthsAhead;
+        this.retainMonths = retainMonths;
+        this.clock = clock;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "users-partition-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    public static UserPartitionManager fromHibernateSettings() {
+        Map<String, Object> settings = HibernateConfig.connectionSettings();
+        String url = (String) settings.get("hibernate.connection.url");
+        String username = (String) settings.get("hibernate.connection.username");
+        String password = (String) settings.get("hibernate.connection.password");
+        return new UserPartitionManager(() -> DriverManager.getConnection(url, username, password),
+                Integer.getInteger(MONTHS_AHEAD_PROPERTY, DEFAULT_MONTHS_AHEAD),
+                Integer.getInteger(RETAIN_MONTHS_PROPERTY, 0));
+    }
+
+    // Вызывается до первого обращения Hibernate к таблице: при секционировании схемой управляет менеджер
+    public void prepare() {
+        try (Connection connection = connectionFactory.open()) {
+            String kind = relationKind(connection);
+            if (kind == null) {
+                inTransaction(connection, () -> {
+                    execute(connection, CREATE_PARENT);
+                    createParentObjects(connection);
+                });
+                logger.info("Создана секционированная таблица users");
+            } else if (!"p".equals(kind)) {
+                if (!Boolean.getBoolean(MIGRATE_PROPERTY)) {
+                    throw new IllegalStateException("Table users is not partitioned; start once with -D"
+                            + MIGRATE_PROPERTY + "=true to convert it");
+                }
+                migrate(connection);
+            }
+        } catch (SQLException e) {
+            logger.error("Ошибка подготовки секционированной таблицы users: {}", e.getMessage(), e);
+            throw new IllegalStateException("Failed to prepare partitioned users table", e);
+        }
+        maintain();
+    }
+
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::maintainQuietly, MAINTENANCE_INTERVAL_HOURS,
+                MAINTENANCE_INTERVAL_HOURS, TimeUnit.HOURS);
+    }
+
+    // Создает недостающие будущие секции и отсоединяет устаревшие
+    public void maintain() {
+        YearMonth current = YearMonth.now(clock);
+        try (Connection connection = connectionFactory.open()) {
+            List<String> existing = listPartitions(connection);
+            for (YearMonth month : monthsToCreate(current, monthsAhead)) {
+                if (!existing.contains(partitionName(month))) {
+                    createPartition(connection, month);
+                }
+            }
+            for (String partition : partitionsToDetach(existing, current, retainMonths)) {
+                detach(connection, partition);
+            }
+        } catch (SQLException e) {
+            logger.error("Ошибка обслуживания секций users: {}", e.getMessage(), e);
+            throw new IllegalStateException("Failed to maintain users partitions", e);
+        }
+    }
+
+    // Существующая таблица переименовывается и копируется в секционированную одной транзакцией;
+    // старая таблица остается как users_unpartitioned до ручного удаления
+    private void migrate(Connection connection) throws SQLException {
+        logger.info("Перенос таблицы users в секционированную");
+        inTransaction(connection, () -> {
+            execute(connection, "ALTER TABLE users RENAME TO users_unpartitioned");
+            // Имена индексов общие для схемы: прежние освобождаются для новой таблицы
+            execute(connection, "ALTER INDEX IF EXISTS users_pkey RENAME TO users_unpartitioned_pkey");
+            execute(connection, "ALTER INDEX IF EXISTS idx_users_deleted_at RENAME TO idx_users_unpartitioned_deleted_at");
+            execute(connection, "UPDATE users_unpartitioned SET created_at = COALESCE(updated_at, now()) " +
+                    "WHERE created_at IS NULL");
+            execute(connection, CREATE_PARENT);
+            createParentObjects(connection);
+
+            YearMonth first = YearMonth.now(clock);
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT min(created_at) FROM users_unpartitioned")) {
+                if (resultSet.next() && resultSet.getObject(1) != null) {
+                    first = YearMonth.from(resultSet.getObject(1, LocalDateTime.class));
+                }
+            }
+            YearMonth last = YearMonth.now(clock).plusMonths(monthsAhead);
+            for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+                execute(connection, partitionDdl(month));
+            }
+            execute(connection, "INSERT INTO users (id, name, email, age, created_at, updated_at, deleted_at) " +
+                    "SELECT id, name, email, age, created_at, updated_at, deleted_at FROM users_unpartitioned");
+        });
+        logger.info("Таблица users секционирована; прежняя таблица сохранена как users_unpartitioned");
+    }
+
+    // Секция создается отдельно и присоединяется: строки этого месяца, попавшие в users_default,
+    // переносятся в нее в той же транзакции (иначе PostgreSQL отказал бы в создании секции)
+    private void createPartition(Connection connection, YearMonth month) throws SQLException {
+        String name = partitionName(month);
+        String range = rangeCondition(month);
+        inTransaction(connection, () -> {
+            execute(connection, "CREATE TABLE " + name + " (LIKE users INCLUDING DEFAULTS)");
+            execute(connection, "INSERT INTO " + name + " SELECT * FROM " + DEFAULT_PARTITION + " WHERE " + range);
+            execute(connection, "DELETE FROM " + DEFAULT_PARTITION + " WHERE " + range);
+            execute(connection, "ALTER TABLE users ATTACH PARTITION " + name + " " + bounds(month));
+            // Удаление из users_default сняло email перенесенных строк с учета
+            execute(connection, "INSERT INTO user_emails (email, user_id) SELECT email, id FROM " + name +
+                    " ON CONFLICT DO NOTHING");
+        });
+        logger.info("Создана секция {}", name);
+    }
+
+    private void detach(Connection connection, String partition) throws SQLException {
+        inTransaction(connection, () -> {
+            execute(connection, "CREATE SCHEMA IF NOT EXISTS " + ARCHIVE_SCHEMA);
+            execute(connection, "ALTER TABLE users DETACH PARTITION " + partition);
+            execute(connection, "DELETE FROM user_emails e USING " + partition + " p " +
+                    "WHERE e.email = p.email AND e.user_id = p.id");
+            execute(connection, "ALTER TABLE " + partition + " SET SCHEMA " + ARCHIVE_SCHEMA);
+        });
+        logger.info("Секция {} отсоединена и перенесена в схему {}", partition, ARCHIVE_SCHEMA);
+    }
+
+    private void createParentObjects(Connection connection) throws SQLException {
+        for (String sql : PARENT_OBJECTS) {
+            execute(connection, sql);
+        }
+    }
+
+    static String partitionName(YearMonth month) {
+        return String.format("users_p%04d_%02d", month.getYear(), month.getMonthValue());
+    }
+
+    static YearMonth monthOf(String partitionName) {
+        Matcher matcher = PARTITION_NAME.matcher(partitionName);
+        if (!matcher.matches()) {
+            return null;
+        }
+        return YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+    }
+
+    static String partitionDdl(YearMonth month) {
+        return "CREATE TABLE IF NOT EXISTS " + partitionName(month) + " PARTITION OF users " + bounds(month);
+    }
+
+    static List<YearMonth> monthsToCreate(YearMonth current, int monthsAhead) {
+        List<YearMonth> months = new ArrayList<>();
+        for (int i = 0; i <= monthsAhead; i++) {
+            months.add(current.plusMonths(i));
+        }
+        return months;
+    }
+
+    // Хранятся текущий месяц и retainMonths предыдущих; 0 - хранить все
+    static List<String> partitionsToDetach(List<String> partitions, YearMonth current, int retainMonths) {
+        List<String> detached = new ArrayList<>();
+        if (retainMonths == 0) {
+            return detached;
+        }
+        YearMonth oldestKept = current.minusMonths(retainMonths);
+        for (String partition : partitions) {
+            YearMonth month = monthOf(partition);
+            if (month != null && month.isBefore(oldestKept)) {
+                detached.add(partition);
+            }
+        }
+        return detached;
+    }
+
+    private static String bounds(YearMonth month) {
+        return "FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')";
+    }
+
+    private static String rangeCondition(YearMonth month) {
+        return "created_at >= '" + month.atDay(1) + "' AND created_at < '" + month.plusMonths(1).atDay(1) + "'";
+    }
+
+    private static String relationKind(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(IS_PARTITIONED)) {
+            return resultSet.next() ? resultSet.getString(1) : null;
+        }
+    }
+
+    private static List<String> listPartitions(Connection connection) throws SQLException {
+        List<String> partitions = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(LIST_PARTITIONS)) {
+            while (resultSet.next()) {
+                partitions.add(resultSet.getString(1));
+            }
+        }
+        return partitions;
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SqlWork {
+        void run() throws SQLException;
+    }
+
+    // DDL в PostgreSQL транзакционен: частично созданная секция или перенос откатываются целиком
+    private static void inTransaction(Connection connection, SqlWork work) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            work.run();
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private void maintainQuietly() {
+        try {
+            maintain();
+        } catch (RuntimeException e) {
+            logger.warn("Обслуживание секций users не выполнено: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
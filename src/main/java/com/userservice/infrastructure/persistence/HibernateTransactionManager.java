@@ -0,0 +1,84 @@
+package com.userservice.infrastructure.persistence;
+
+import com.userservice.domain.repository.TransactionManager;
+import com.userservice.infrastructure.routing.SessionRouter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.SessionFactory;
+
+import java.util.function.Supplier;
+
+public class HibernateTransactionManager implements TransactionManager {
+    private static final Logger logger = LogManager.getLogger(HibernateTransactionManager.class);
+
+    private final SessionRouter sessionRouter;
+
+    public HibernateTransactionManager() {
+        this(SessionRouter.primaryOnly());
+    }
+
+    public HibernateTransactionManager(SessionRouter sessionRouter) {
+        this.sessionRouter = sessionRouter;
+    }
+
+    @Override
+    public <T> T inTransaction(Supplier<T> work) {
+        SessionFactory sessionFactory = sessionRouter.writeFactory();
+        UnitOfWork current = UnitOfWork.current(sessionFactory);
+        if (current != null) {
+            return joinExisting(current, work);
+        }
+
+        UnitOfWork unit = UnitOfWork.begin(sessionFactory);
+        logger.debug("Начата единица работы");
+        try {
+            T result = work.get();
+            if (unit.isRollbackOnly()) {
+                throw new IllegalStateException("Unit of work was marked rollback-only by a nested call");
+            }
+            unit.getTransaction().commit();
+            sessionRouter.recordWrite(unit.getSession());
+            logger.debug("Единица работы зафиксирована");
+            runAfterCommit(unit);
+            return result;
+        } catch (RuntimeException | Error e) {
+            rollback(unit, e);
+            throw e;
+        } finally {
+            unit.end();
+        }
+    }
+
+    private <T> T joinExisting(UnitOfWork unit, Supplier<T> work) {
+        try {
+            return work.get();
+        } catch (RuntimeException | Error e) {
+            // Внешний вызов мог перехватить исключение, но фиксировать частичный результат нельзя
+            unit.setRollbackOnly();
+            throw e;
+        }
+    }
+
+    private void rollback(UnitOfWork unit, Throwable cause) {
+        if (!unit.getTransaction().isActive()) {
+            return;
+        }
+        logger.warn("Откат единицы работы: {}", cause.getMessage());
+        try {
+            unit.getTransaction().rollback();
+        } catch (RuntimeException e) {
+            logger.error("Ошибка при откате единицы работы: {}", e.getMessage(), e);
+            cause.addSuppressed(e);
+        }
+    }
+
+    private void runAfterCommit(UnitOfWork unit) {
+        for (Runnable action : unit.getAfterCommitActions()) {
+            try {
+                action.run();
+            } catch (Exception e) {
+                logger.error("Ошибка в действии после коммита: {}", e.getMessage(), e);
+            }
+        }
+    }
+}
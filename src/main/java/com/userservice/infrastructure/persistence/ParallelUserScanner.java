@@ -0,0 +1,182 @@
+package com.userservice.infrastructure.persistence;
+
+import com.userservice.domain.model.User;
+import com.userservice.domain.repository.UserScanner;
+import com.userservice.infrastructure.entity.UserEntity;
+import com.userservice.infrastructure.routing.SessionRouter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collector;
+
+// Чанки режутся по позициям строк, а не по диапазонам значений ID: ID упорядочены по времени
+// и разрежены (миллионы значений на миллисекунду). Границы чанков - каждый chunkSize-й ID,
+// они вычисляются одним проходом по индексу первичного ключа перед сканированием
+public class ParallelUserScanner implements UserScanner {
+    private static final Logger logger = LogManager.getLogger(ParallelUserScanner.class);
+
+    public static final int DEFAULT_CHUNK_SIZE = 10_000;
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    private static final String CHUNK_STARTS_SQL =
+            "SELECT id FROM (SELECT id, row_number() OVER (ORDER BY id) AS rn FROM users WHERE deleted_at IS NULL) t "
+                    + "WHERE (rn - 1) % :chunkSize = 0 ORDER BY id";
+
+    // Доступ к данным сканера; в тестах подменяется
+    interface ChunkReader {
+        // Первый ID каждого чанка по возрастанию
+        List<Long> chunkStarts(int chunkSize);
+
+        // Пользователи с fromId <= id < toId; toId == null - до конца таблицы
+        List<User> read(long fromId, Long toId);
+    }
+
+    private final ChunkReader chunkReader;
+    private final int chunkSize;
+    private final int parallelism;
+
+    public ParallelUserScanner() {
+        this(DEFAULT_CHUNK_SIZE, DEFAULT_PARALLELISM);
+    }
+
+    public ParallelUserScanner(int chunkSize, int parallelism) {
+        this(SessionRouter.primaryOnly(), chunkSize, parallelism);
+    }
+
+    public ParallelUserScanner(SessionRouter sessionRouter, int chunkSize, int parallelism) {
+        this(new HibernateChunkReader(sessionRouter), chunkSize, parallelism);
+    }
+
+    ParallelUserScanner(ChunkReader chunkReader, int chunkSize, int parallelism) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.chunkReader = chunkReader;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public <A, R> R scan(Collector<User, A, R> collector) {
+        List<Long> starts = chunkReader.chunkStarts(chunkSize);
+        A container;
+
+        if (starts.isEmpty()) {
+            logger.debug("Таблица пользователей пуста, сканирование не требуется");
+            container = collector.supplier().get();
+        } else {
+            logger.debug("Параллельное сканирование: {} чанков по {} строк, потоков {}",
+                    starts.size(), chunkSize, parallelism);
+
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                container = pool.invoke(new ChunkTask<>(collector, starts, 0, starts.size()));
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        return finish(collector, container);
+    }
+
+    private <A> A readChunk(Collector<User, A, ?> collector, long fromId, Long toId) {
+        A container = collector.supplier().get();
+        List<User> users = chunkReader.read(fromId, toId);
+        logger.trace("Чанк ID [{}, {}): {} пользователей", fromId, toId, users.size());
+        for (User user : users) {
+            collector.accumulator().accept(container, user);
+        }
+        return container;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <A, R> R finish(Collector<User, A, R> collector, A container) {
+        if (collector.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH)) {
+            return (R) container;
+        }
+        return collector.finisher().apply(container);
+    }
+
+    private static final class HibernateChunkReader implements ChunkReader {
+        private final SessionRouter sessionRouter;
+
+        HibernateChunkReader(SessionRouter sessionRouter) {
+            this.sessionRouter = sessionRouter;
+        }
+
+        @Override
+        public List<Long> chunkStarts(int chunkSize) {
+            try (Session session = sessionRouter.openReadSession()) {
+                return session.createNativeQuery(CHUNK_STARTS_SQL, Long.class)
+                        .setParameter("chunkSize", chunkSize)
+                        .list();
+            } catch (Exception e) {
+                logger.error("Ошибка при определении границ чанков: {}", e.getMessage(), e);
+                throw new RuntimeException("Failed to determine user chunk boundaries", e);
+            }
+        }
+
+        @Override
+        public List<User> read(long fromId, Long toId) {
+            try (Session session = sessionRouter.openReadSession()) {
+                session.setDefaultReadOnly(true);
+                Query<UserEntity> query = session.createQuery(toId == null
+                                ? "FROM UserEntity u WHERE u.id >= :fromId"
+                                : "FROM UserEntity u WHERE u.id >= :fromId AND u.id < :toId",
+                        UserEntity.class
+                ).setParameter("fromId", fromId);
+                if (toId != null) {
+                    query.setParameter("toId", toId);
+                }
+                List<UserEntity> entities = query.list();
+                List<User> users = new ArrayList<>(entities.size());
+                for (UserEntity entity : entities) {
+                    users.add(UserEntityMapper.toDomain(entity));
+                }
+                return users;
+            } catch (Exception e) {
+                logger.error("Ошибка при чтении чанка ID [{}, {}): {}", fromId, toId, e.getMessage(), e);
+                throw new RuntimeException("Failed to scan users in id range " + fromId + ".." + toId, e);
+            }
+        }
+    }
+
+    private class ChunkTask<A> extends RecursiveTask<A> {
+        private final Collector<User, A, ?> collector;
+        private final List<Long> starts;
+        private final int from;
+        private final int to;
+
+        ChunkTask(Collector<User, A, ?> collector, List<Long> starts, int from, int to) {
+            this.collector = collector;
+            this.starts = starts;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected A compute() {
+            if (to - from == 1) {
+                return readChunk(collector, starts.get(from), from + 1 < starts.size() ? starts.get(from + 1) : null);
+            }
+
+            int middle = from + (to - from) / 2;
+            ChunkTask<A> left = new ChunkTask<>(collector, starts, from, middle);
+            ChunkTask<A> right = new ChunkTask<>(collector, starts, middle, to);
+
+            left.fork();
+            A rightResult = right.compute();
+            A leftResult = left.join();
+            return collector.combiner().apply(leftResult, rightResult);
+        }
+    }
+}
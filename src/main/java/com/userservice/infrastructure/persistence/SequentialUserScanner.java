@@ -0,0 +1,27 @@
+package com.userservice.infrastructure.persistence;
+
+import com.userservice.domain.model.User;
+import com.userservice.domain.repository.UserRepository;
+import com.userservice.domain.repository.UserScanner;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.stream.Collector;
+
+public class SequentialUserScanner implements UserScanner {
+    private static final Logger logger = LogManager.getLogger(SequentialUserScanner.class);
+
+    private final UserRepository userRepository;
+
+    public SequentialUserScanner(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public <A, R> R scan(Collector<User, A, R> collector) {
+        List<User> users = userRepository.findAll();
+        logger.debug("Последовательное сканирование: {} пользователей", users.size());
+        return users.stream().collect(collector);
+    }
+}
@@ -0,0 +1,130 @@
+package com.userservice.infrastructure.persistence;
+
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+import com.userservice.infrastructure.entity.UserEntity;
+import com.userservice.infrastructure.routing.SessionRouter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.query.SelectionQuery;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+public class StreamingUserReader {
+    private static final Logger logger = LogManager.getLogger(StreamingUserReader.class);
+
+    public static final int DEFAULT_FETCH_SIZE = 1_000;
+
+    private static final String CHANGED_SINCE_SQL =
+            "SELECT id, name, email, age, created_at, deleted_at FROM users " +
+            "WHERE id > :afterId OR updated_at >= :since ORDER BY id";
+
+    private final SessionRouter sessionRouter;
+    private final int fetchSize;
+
+    public StreamingUserReader() {
+        this(DEFAULT_FETCH_SIZE);
+    }
+
+    public StreamingUserReader(int fetchSize) {
+        this(SessionRouter.primaryOnly(), fetchSize);
+    }
+
+    public StreamingUserReader(SessionRouter sessionRouter, int fetchSize) {
+        this.sessionRouter = sessionRouter;
+        this.fetchSize = fetchSize;
+    }
+
+    public long forEachUser(Consumer<User> consumer) {
+        logger.debug("Потоковое чтение пользователей, fetch size {}", fetchSize);
+        return stream("FROM UserEntity u ORDER BY u.id", Map.of(), consumer);
+    }
+
+    // Нативный запрос: @SQLRestriction сущности скрыл бы мягко удаленные строки, а для догоняющего
+    // чтения они - единственный след удаления (удаление обновляет и updated_at)
+    public long forEachChangedSince(long afterId, LocalDateTime since, Consumer<User> changed, LongConsumer deleted) {
+        logger.debug("Потоковое чтение изменений: ID > {} или updated_at >= {}", afterId, since);
+        Transaction transaction = null;
+        try (StatelessSession session = sessionRouter.readFactory().openStatelessSession()) {
+            transaction = session.beginTransaction();
+            long count = 0;
+
+            NativeQuery<Object[]> query = session.createNativeQuery(CHANGED_SINCE_SQL, Object[].class)
+                    .setParameter("afterId", afterId)
+                    .setParameter("since", since)
+                    .setFetchSize(fetchSize)
+                    .setReadOnly(true);
+
+            try (ScrollableResults<Object[]> results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+                while (results.next()) {
+                    Object[] row = results.get();
+                    long id = ((Number) row[0]).longValue();
+                    if (row[5] != null) {
+                        deleted.accept(id);
+                    } else {
+                        changed.accept(new User(id, (String) row[1], new Email((String) row[2]),
+                                row[3] == null ? null : ((Number) row[3]).intValue(), toLocalDateTime(row[4])));
+                    }
+                    count++;
+                }
+            }
+
+            transaction.commit();
+            logger.debug("Потоковое чтение изменений завершено: {} строк", count);
+            return count;
+        } catch (Exception e) {
+            if (transaction != null && transaction.isActive()) {
+                transaction.rollback();
+            }
+            logger.error("Ошибка при потоковом чтении изменений: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to stream user changes", e);
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value == null || value instanceof LocalDateTime) {
+            return (LocalDateTime) value;
+        }
+        return ((Timestamp) value).toLocalDateTime();
+    }
+
+    private long stream(String hql, Map<String, Object> parameters, Consumer<User> consumer) {
+        Transaction transaction = null;
+        try (StatelessSession session = sessionRouter.readFactory().openStatelessSession()) {
+            // PostgreSQL отдает строки порциями только внутри транзакции
+            transaction = session.beginTransaction();
+            long count = 0;
+
+            SelectionQuery<UserEntity> query = session.createSelectionQuery(hql, UserEntity.class)
+                    .setFetchSize(fetchSize)
+                    .setReadOnly(true);
+            parameters.forEach(query::setParameter);
+
+            try (ScrollableResults<UserEntity> results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+                while (results.next()) {
+                    consumer.accept(UserEntityMapper.toDomain(results.get()));
+                    count++;
+                }
+            }
+
+            transaction.commit();
+            logger.debug("Потоковое чтение завершено: {} пользователей", count);
+            return count;
+        } catch (Exception e) {
+            if (transaction != null && transaction.isActive()) {
+                transaction.rollback();
+            }
+            logger.error("Ошибка при потоковом чтении пользователей: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to stream users", e);
+        }
+    }
+}
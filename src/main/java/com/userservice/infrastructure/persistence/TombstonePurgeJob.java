@@ -0,0 +1,153 @@
+package com.userservice.infrastructure.persistence;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Физическая очистка мягко удаленных строк только в окне низкой нагрузки (например, 01:00-05:00, через полночь
+// тоже), небольшими пакетами с паузой: блокировки не держатся, автовакуум не нагружается разом.
+// Строки, удаленные позже retention назад, не трогаются
+public class TombstonePurgeJob implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(TombstonePurgeJob.class);
+
+    public static final String ENABLED_PROPERTY = "userservice.purge.enabled";
+    public static final String WINDOW_PROPERTY = "userservice.purge.window";
+    public static final String BATCH_PROPERTY = "userservice.purge.batch";
+    public static final String PAUSE_PROPERTY = "userservice.purge.pause.ms";
+    public static final String RETENTION_PROPERTY = "userservice.purge.retention.hours";
+
+    public static final String DEFAULT_WINDOW = "01:00-05:00";
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final Duration DEFAULT_PAUSE = Duration.ofMillis(200);
+    public static final Duration DEFAULT_RETENTION = Duration.ofHours(24);
+    private static final Duration CHECK_INTERVAL = Duration.ofMinutes(1);
+
+    @FunctionalInterface
+    public interface Purger {
+        int purgeDeleted(LocalDateTime deletedBefore, int limit);
+    }
+
+    private final Purger purger;
+    private final LocalTime windowStart;
+    private final LocalTime windowEnd;
+    private final int batchSize;
+    private final Duration pause;
+    private final Duration retention;
+    private final Clock clock;
+    private final ScheduledExecutorService scheduler;
+    private volatile boolean closed;
+
+    private final AtomicLong purgedRows = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    public TombstonePurgeJob(Purger purger, LocalTime windowStart, LocalTime windowEnd,
+                             int batchSize, Duration pause, Duration retention) {
+        this(purger, windowStart, windowEnd, batchSize, pause, retention, Clock.systemDefaultZone());
+    }
+
+    TombstonePurgeJob(Purger purger, LocalTime windowStart, LocalTime windowEnd,
+                      int batchSize, Duration pause, Duration retention, Clock clock) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Purge batch size must be positive");
+        }
+        this.purger = purger;
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+        this.batchSize = batchSize;
+        this.pause = pause;
+        this.retention = retention;
+        this.clock = clock;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tombstone-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static TombstonePurgeJob fromSystemProperties(Purger purger) {
+        String[] window = System.getProperty(WINDOW_PROPERTY, DEFAULT_WINDOW).split("-");
+        if (window.length != 2) {
+            throw new IllegalArgumentException("Purge window must look like HH:mm-HH:mm");
+        }
+        return new TombstonePurgeJob(purger,
+                LocalTime.parse(window[0].trim()),
+                LocalTime.parse(window[1].trim()),
+                Integer.getInteger(BATCH_PROPERTY, DEFAULT_BATCH_SIZE),
+                Duration.ofMillis(Long.getLong(PAUSE_PROPERTY, DEFAULT_PAUSE.toMillis())),
+                Duration.ofHours(Long.getLong(RETENTION_PROPERTY, DEFAULT_RETENTION.toHours())));
+    }
+
+    public static boolean isEnabled() {
+        return !"false".equals(System.getProperty(ENABLED_PROPERTY));
+    }
+
+    public void start() {
+        logger.info("Очистка удаленных пользователей: окно {}-{}, пакет {}, пауза {} мс, хранение {} ч",
+                windowStart, windowEnd, batchSize, pause.toMillis(), retention.toHours());
+        // Фиксированная задержка: следующая проверка начинается только после завершения текущего прохода
+        scheduler.scheduleWithFixedDelay(this::runQuietly, 0, CHECK_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Пакеты удаляются, пока есть что удалять и не закончилось окно; возвращает число удаленных строк
+    public long runOnce() throws InterruptedException {
+        long purged = 0;
+        while (!closed && inWindow(LocalTime.now(clock))) {
+            int rows = purger.purgeDeleted(LocalDateTime.now(clock).minus(retention), batchSize);
+            batches.incrementAndGet();
+            purgedRows.addAndGet(rows);
+            purged += rows;
+            if (rows < batchSize) {
+                break;
+            }
+            if (!pause.isZero()) {
+                Thread.sleep(pause.toMillis());
+            }
+        }
+        if (purged > 0) {
+            logger.info("Очищено удаленных пользователей: {}", purged);
+        }
+        return purged;
+    }
+
+    boolean inWindow(LocalTime now) {
+        if (windowStart.equals(windowEnd)) {
+            return true;
+        }
+        if (windowStart.isBefore(windowEnd)) {
+            return !now.isBefore(windowStart) && now.isBefore(windowEnd);
+        }
+        return !now.isBefore(windowStart) || now.isBefore(windowEnd);
+    }
+
+    public long getPurgedRows() { return purgedRows.get(); }
+    public long getBatches() { return batches.get(); }
+
+    public String metricsSummary() {
+        return String.format("очищено %d строк за %d пакетов", purgedRows.get(), batches.get());
+    }
+
+    private void runQuietly() {
+        try {
+            runOnce();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // Следующая попытка - при следующей проверке окна
+            logger.warn("Очистка удаленных пользователей прервана: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        scheduler.shutdownNow();
+    }
+}
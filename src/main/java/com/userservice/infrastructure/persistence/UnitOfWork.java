@@ -0,0 +1,55 @@
+package com.userservice.infrastructure.persistence;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class UnitOfWork {
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    private final SessionFactory sessionFactory;
+    private final Session session;
+    private final Transaction transaction;
+    private final List<Runnable> afterCommit = new ArrayList<>();
+    private boolean rollbackOnly;
+
+    private UnitOfWork(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+        this.session = sessionFactory.openSession();
+        this.transaction = session.beginTransaction();
+    }
+
+    static UnitOfWork begin(SessionFactory sessionFactory) {
+        UnitOfWork unit = new UnitOfWork(sessionFactory);
+        CURRENT.set(unit);
+        return unit;
+    }
+
+    // Сессия привязана к конкретной БД: репозиторий другого шарда ее не подхватит
+    static UnitOfWork current(SessionFactory sessionFactory) {
+        UnitOfWork unit = CURRENT.get();
+        return unit != null && unit.sessionFactory == sessionFactory ? unit : null;
+    }
+
+    Session getSession() { return session; }
+    Transaction getTransaction() { return transaction; }
+
+    boolean isRollbackOnly() { return rollbackOnly; }
+    void setRollbackOnly() { rollbackOnly = true; }
+
+    void afterCommit(Runnable action) {
+        afterCommit.add(action);
+    }
+
+    List<Runnable> getAfterCommitActions() {
+        return afterCommit;
+    }
+
+    void end() {
+        CURRENT.remove();
+        session.close();
+    }
+}
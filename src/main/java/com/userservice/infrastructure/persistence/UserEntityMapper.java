@@ -0,0 +1,45 @@
+package com.userservice.infrastructure.persistence;
+
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+import com.userservice.infrastructure.entity.UserEntity;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+final class UserEntityMapper {
+    private static final Logger logger = LogManager.getLogger(UserEntityMapper.class);
+
+    private UserEntityMapper() {}
+
+    static User toDomain(UserEntity entity) {
+        if (entity == null) return null;
+
+        User user = new User(
+                entity.getId(),
+                entity.getName(),
+                new Email(entity.getEmail()),
+                entity.getAge(),
+                entity.getCreatedAt()
+        );
+
+        logger.trace("Преобразование UserEntity -> User: {} (ID: {})",
+                entity.getEmail(), entity.getId());
+
+        return user;
+    }
+
+    static UserEntity toEntity(User user) {
+        UserEntity entity = new UserEntity(
+                user.getId(),
+                user.getName(),
+                user.getEmail().getValue(),
+                user.getAge(),
+                user.getCreatedAt()
+        );
+
+        logger.trace("Преобразование User -> UserEntity: {} (ID: {})",
+                user.getEmail().getValue(), user.getId());
+
+        return entity;
+    }
+}
@@ -1,29 +1,81 @@
 package com.userservice.infrastructure.persistence;
 
+import com.userservice.domain.event.UserChangeEvent;
+import com.userservice.domain.event.UserChangePublisher;
 import com.userservice.domain.model.Email;
 import com.userservice.domain.model.User;
+import com.userservice.domain.repository.DataAccessException;
+import com.userservice.domain.repository.IdGenerator;
 import com.userservice.domain.repository.UserRepository;
-import com.userservice.infrastructure.config.HibernateConfig;
 import com.userservice.infrastructure.entity.UserEntity;
+import com.userservice.infrastructure.id.TimeOrderedIdGenerator;
+import com.userservice.infrastructure.routing.SessionRouter;
+import com.userservice.infrastructure.tracing.Trace;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.hibernate.LockMode;
 import org.hibernate.Session;
 import org.hibernate.Transaction;
 import org.hibernate.query.Query;
+import org.hibernate.type.StandardBasicTypes;
 
+import java.sql.SQLException;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class UserRepositoryImpl implements UserRepository {
     private static final Logger logger = LogManager.getLogger(UserRepositoryImpl.class);
 
+    private static final int STREAM_FETCH_SIZE = 1_000;
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    // Нативный SQL: @SQLRestriction скрывает удаленные строки от HQL
+    private static final String PURGE_TOMBSTONE = "DELETE FROM users WHERE email = :email AND deleted_at IS NOT NULL";
+    // persist с @CreationTimestamp заменил бы переданную дату создания текущим временем
+    private static final String INSERT_WITH_CREATED_AT =
+            "INSERT INTO users (id, name, email, age, created_at, updated_at) " +
+            "VALUES (:id, :name, :email, :age, :createdAt, :updatedAt)";
+    // SKIP LOCKED: очистка не ждет строки, занятые пользовательскими транзакциями
+    private static final String PURGE_BATCH =
+            "DELETE FROM users WHERE id IN (SELECT id FROM users WHERE deleted_at < :before " +
+            "ORDER BY deleted_at LIMIT :limit FOR UPDATE SKIP LOCKED)";
+
+    private final SessionRouter sessionRouter;
+    private final UserChangePublisher changePublisher;
+    private final IdGenerator idGenerator;
+
+    public UserRepositoryImpl() {
+        this(UserChangePublisher.NONE);
+    }
+
+    public UserRepositoryImpl(UserChangePublisher changePublisher) {
+        this(SessionRouter.primaryOnly(), changePublisher);
+    }
+
+    public UserRepositoryImpl(SessionRouter sessionRouter, UserChangePublisher changePublisher) {
+        this(sessionRouter, changePublisher, TimeOrderedIdGenerator.standard());
+    }
+
+    public UserRepositoryImpl(SessionRouter sessionRouter, UserChangePublisher changePublisher,
+                              IdGenerator idGenerator) {
+        this.sessionRouter = sessionRouter;
+        this.changePublisher = changePublisher;
+        this.idGenerator = idGenerator;
+    }
+
     @Override
     public Optional<User> findById(Long id) {
         logger.debug("Поиск пользователя по ID: {}", id);
 
-        try (Session session = HibernateConfig.getSessionFactory().openSession()) {
-            UserEntity entity = session.get(UserEntity.class, id);
+        try {
+            Trace.bind(id);
+            UserEntity entity = inReadSession(session -> live(session.get(UserEntity.class, id)));
 
             if (entity != null) {
                 logger.debug("Пользователь найден по ID {}: {}", id, entity.getEmail());
@@ -31,10 +83,10 @@ public class UserRepositoryImpl implements UserRepository {
                 logger.debug("Пользователь не найден по ID: {}", id);
             }
 
-            return Optional.ofNullable(toDomain(entity));
+            return Optional.ofNullable(UserEntityMapper.toDomain(entity));
         } catch (Exception e) {
             logger.error("Ошибка при поиске пользователя по ID {}: {}", id, e.getMessage(), e);
-            return Optional.empty();
+            throw new DataAccessException("Failed to find user by ID: " + id, e);
         }
     }
 
@@ -42,19 +94,41 @@ public class UserRepositoryImpl implements UserRepository {
     public List<User> findAll() {
         logger.debug("Получение всех пользователей");
 
-        try (Session session = HibernateConfig.getSessionFactory().openSession()) {
-            List<UserEntity> entities = session.createQuery(
+        try {
+            List<UserEntity> entities = inReadSession(session -> session.createQuery(
                     "FROM UserEntity",
                     UserEntity.class
-            ).list();
+            ).list());
 
             logger.debug("Найдено {} пользователей", entities.size());
-            return entities.stream()
-                    .map(this::toDomain)
+            long mapping = Trace.start();
+            List<User> users = entities.stream()
+                    .map(UserEntityMapper::toDomain)
                     .collect(Collectors.toList());
+            Trace.stop("mapping", mapping);
+            return users;
         } catch (Exception e) {
             logger.error("Ошибка при получении всех пользователей: {}", e.getMessage(), e);
-            return List.of();
+            throw new DataAccessException("Failed to load users", e);
+        }
+    }
+
+    @Override
+    public List<User> findPage(long afterId, int limit) {
+        logger.debug("Получение страницы пользователей после ID {}, не более {}", afterId, limit);
+
+        try {
+            List<UserEntity> entities = inReadSession(session -> session.createQuery(
+                    "FROM UserEntity u WHERE u.id > :afterId ORDER BY u.id",
+                    UserEntity.class
+            ).setParameter("afterId", afterId).setMaxResults(limit).list());
+
+            return entities.stream()
+                    .map(UserEntityMapper::toDomain)
+                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            logger.error("Ошибка при получении страницы пользователей после ID {}: {}", afterId, e.getMessage(), e);
+            throw new DataAccessException("Failed to load users after ID: " + afterId, e);
         }
     }
 
@@ -62,13 +136,16 @@ public class UserRepositoryImpl implements UserRepository {
     public Optional<User> findByEmail(Email email) {
         logger.debug("Поиск пользователя по email: {}", email.getValue());
 
-        try (Session session = HibernateConfig.getSessionFactory().openSession()) {
-            Query<UserEntity> query = session.createQuery(
-                    "FROM UserEntity WHERE email = :email",
-                    UserEntity.class
-            );
-            query.setParameter("email", email.getValue());
-            UserEntity entity = query.uniqueResult();
+        try {
+            UserEntity entity = inReadSession(session -> {
+                Query<UserEntity> query = session.createQuery(
+                        "FROM UserEntity WHERE email = :email",
+                        UserEntity.class
+                );
+                query.setParameter("email", email.getValue());
+                Trace.bind(email.getValue());
+                return query.uniqueResult();
+            });
 
             if (entity != null) {
                 logger.debug("Пользователь найден по email {}: ID {}", email.getValue(), entity.getId());
@@ -76,10 +153,10 @@ public class UserRepositoryImpl implements UserRepository {
                 logger.debug("Пользователь не найден по email: {}", email.getValue());
             }
 
-            return Optional.ofNullable(toDomain(entity));
+            return Optional.ofNullable(UserEntityMapper.toDomain(entity));
         } catch (Exception e) {
             logger.error("Ошибка при поиске пользователя по email {}: {}", email.getValue(), e.getMessage(), e);
-            return Optional.empty();
+            throw new DataAccessException("Failed to find user by email: " + email.getValue(), e);
         }
     }
 
@@ -87,26 +164,38 @@ public class UserRepositoryImpl implements UserRepository {
     public User save(User user) {
         logger.info("Сохранение пользователя: {}", user.getEmail().getValue());
 
-        Transaction transaction = null;
-        try (Session session = HibernateConfig.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
-            UserEntity entity = toEntity(user);
-            session.persist(entity);
-            transaction.commit();
+        try {
+            User savedUser = replacingTombstone(user.getEmail(), () -> inWriteTransaction(session -> {
+                UserEntity entity = UserEntityMapper.toEntity(user);
+                if (entity.getId() == null) {
+                    entity.setId(idGenerator.nextId());
+                }
+                if (user.getCreatedAt() != null) {
+                    // Перенос между шардами и возврат из архива сохраняют исходную дату создания
+                    session.createNativeMutationQuery(INSERT_WITH_CREATED_AT)
+                            .setParameter("id", entity.getId())
+                            .setParameter("name", entity.getName())
+                            .setParameter("email", entity.getEmail())
+                            .setParameter("age", entity.getAge(), StandardBasicTypes.INTEGER)
+                            .setParameter("createdAt", entity.getCreatedAt())
+                            .setParameter("updatedAt", LocalDateTime.now())
+                            .executeUpdate();
+                    return UserEntityMapper.toDomain(entity);
+                }
+                session.persist(entity);
+                return UserEntityMapper.toDomain(entity);
+            }));
 
-            User savedUser = toDomain(entity);
             logger.info("Пользователь успешно сохранен: {} (ID: {})",
                     savedUser.getEmail().getValue(), savedUser.getId());
 
+            publishAfterCommit(UserChangeEvent.created(savedUser));
+
             return savedUser;
         } catch (Exception e) {
-            if (transaction != null) {
-                logger.warn("Откат транзакции при сохранении пользователя: {}", user.getEmail().getValue());
-                transaction.rollback();
-            }
             logger.error("Ошибка при сохранении пользователя {}: {}",
                     user.getEmail().getValue(), e.getMessage(), e);
-            throw new RuntimeException("Failed to save user: " + user.getEmail().getValue(), e);
+            throw new DataAccessException("Failed to save user: " + user.getEmail().getValue(), e);
         }
     }
 
@@ -115,24 +204,33 @@ public class UserRepositoryImpl implements UserRepository {
         logger.info("Обновление пользователя: {} (ID: {})",
                 user.getEmail().getValue(), user.getId());
 
-        Transaction transaction = null;
-        try (Session session = HibernateConfig.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
-            UserEntity entity = toEntity(user);
-            session.merge(entity);
-            transaction.commit();
-
+        try {
+            User before = replacingTombstone(user.getEmail(), () -> inWriteTransaction(session -> {
+                // Загрузка до merge дает снимок "до" и избавляет merge от повторного SELECT.
+                // Блокировка строки упорядочивает параллельные обновления одного пользователя
+                Trace.bind(user.getId());
+                UserEntity current = live(session.get(UserEntity.class, user.getId(), LockMode.PESSIMISTIC_WRITE));
+                if (current == null) {
+                    // merge сущности с назначенным ID вставил бы удаленного пользователя заново
+                    return null;
+                }
+                User previous = UserEntityMapper.toDomain(current);
+                session.merge(UserEntityMapper.toEntity(user));
+                return previous;
+            }));
+
+            if (before == null) {
+                logger.warn("Пользователь для обновления не найден: ID {}", user.getId());
+                return;
+            }
             logger.info("Пользователь успешно обновлен: {} (ID: {})",
                     user.getEmail().getValue(), user.getId());
+
+            publishAfterCommit(UserChangeEvent.updated(before, user));
         } catch (Exception e) {
-            if (transaction != null) {
-                logger.warn("Откат транзакции при обновлении пользователя: {} (ID: {})",
-                        user.getEmail().getValue(), user.getId());
-                transaction.rollback();
-            }
             logger.error("Ошибка при обновлении пользователя {} (ID: {}): {}",
                     user.getEmail().getValue(), user.getId(), e.getMessage(), e);
-            throw new RuntimeException("Failed to update user: " + user.getEmail().getValue(), e);
+            throw new DataAccessException("Failed to update user: " + user.getEmail().getValue(), e);
         }
     }
 
@@ -140,27 +238,29 @@ public class UserRepositoryImpl implements UserRepository {
     public void delete(Long id) {
         logger.info("Удаление пользователя с ID: {}", id);
 
-        Transaction transaction = null;
-        try (Session session = HibernateConfig.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
-            UserEntity entity = session.get(UserEntity.class, id);
-
-            if (entity != null) {
+        try {
+            // Транзакция фиксируется и когда удалять нечего
+            User before = inWriteTransaction(session -> {
+                Trace.bind(id);
+                UserEntity entity = live(session.get(UserEntity.class, id));
+                if (entity == null) {
+                    return null;
+                }
                 logger.debug("Найден пользователь для удаления: {} (ID: {})", entity.getEmail(), id);
-                session.remove(entity);
-                transaction.commit();
-                logger.info("Пользователь успешно удален: {} (ID: {})", entity.getEmail(), id);
+                // Обновление одной строки вместо DELETE; физически строку удалит TombstonePurgeJob
+                entity.setDeletedAt(LocalDateTime.now());
+                return UserEntityMapper.toDomain(entity);
+            });
+
+            if (before != null) {
+                logger.info("Пользователь успешно удален: {} (ID: {})", before.getEmail().getValue(), id);
+                publishAfterCommit(UserChangeEvent.deleted(before));
             } else {
                 logger.warn("Пользователь для удаления не найден: ID {}", id);
-                transaction.commit(); // Все равно коммитим, т.к. удалять нечего
             }
         } catch (Exception e) {
-            if (transaction != null) {
-                logger.warn("Откат транзакции при удалении пользователя ID {}: {}", id, e.getMessage());
-                transaction.rollback();
-            }
             logger.error("Ошибка при удалении пользователя ID {}: {}", id, e.getMessage(), e);
-            throw new RuntimeException("Failed to delete user with ID: " + id, e);
+            throw new DataAccessException("Failed to delete user with ID: " + id, e);
         }
     }
 
@@ -168,42 +268,164 @@ public class UserRepositoryImpl implements UserRepository {
     public boolean existsByEmail(Email email) {
         logger.debug("Проверка существования пользователя с email: {}", email.getValue());
 
-        boolean exists = findByEmail(email).isPresent();
-        logger.debug("Пользователь с email {} {}существует",
-                email.getValue(), exists ? "" : "не ");
+        try {
+            // Проверка перед записью: реплика может еще не видеть email, занятый на другом узле
+            boolean exists = inPrimarySession(session -> session.createQuery(
+                            "SELECT count(u) FROM UserEntity u WHERE u.email = :email", Long.class)
+                    .setParameter("email", email.getValue())
+                    .getSingleResult() > 0);
+            logger.debug("Пользователь с email {} {}существует",
+                    email.getValue(), exists ? "" : "не ");
+
+            return exists;
+        } catch (Exception e) {
+            logger.error("Ошибка при проверке email {}: {}", email.getValue(), e.getMessage(), e);
+            throw new DataAccessException("Failed to check email: " + email.getValue(), e);
+        }
+    }
 
-        return exists;
+    @Override
+    public void forEachEmail(Consumer<Email> action) {
+        logger.debug("Потоковое чтение email всех пользователей");
+
+        try {
+            inReadSession(session -> {
+                // Только колонка email и курсор с ограниченной выборкой: сущности не загружаются
+                try (Stream<String> emails = session.createQuery("SELECT u.email FROM UserEntity u", String.class)
+                        .setFetchSize(STREAM_FETCH_SIZE)
+                        .setReadOnly(true)
+                        .stream()) {
+                    emails.forEach(email -> action.accept(new Email(email)));
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            logger.error("Ошибка при чтении email пользователей: {}", e.getMessage(), e);
+            throw new DataAccessException("Failed to stream user emails", e);
+        }
     }
 
-    private User toDomain(UserEntity entity) {
-        if (entity == null) return null;
+    // Физически удаляет до limit пользователей, удаленных раньше deletedBefore; возвращает число строк
+    public int purgeDeleted(LocalDateTime deletedBefore, int limit) {
+        try {
+            return inWriteTransaction(session -> session.createNativeMutationQuery(PURGE_BATCH)
+                    .setParameter("before", deletedBefore)
+                    .setParameter("limit", limit)
+                    .executeUpdate());
+        } catch (Exception e) {
+            logger.error("Ошибка очистки удаленных пользователей: {}", e.getMessage(), e);
+            throw new DataAccessException("Failed to purge deleted users", e);
+        }
+    }
 
-        User user = new User(
-                entity.getId(),
-                entity.getName(),
-                new Email(entity.getEmail()),
-                entity.getAge(),
-                entity.getCreatedAt()
-        );
+    // Email удаленного, но еще не очищенного пользователя занят его строкой: при нарушении уникальности
+    // строка очищается сразу и запись повторяется. Обычная запись лишних запросов не делает.
+    // В единице работы ошибка возникает только при коммите, поэтому там повтор не выполняется
+    private <T> T replacingTombstone(Email email, Supplier<T> write) {
+        try {
+            return write.get();
+        } catch (RuntimeException e) {
+            if (!isUniqueViolation(e) || UnitOfWork.current(sessionRouter.writeFactory()) != null) {
+                throw e;
+            }
+            int purged = inWriteTransaction(session -> session.createNativeMutationQuery(PURGE_TOMBSTONE)
+                    .setParameter("email", email.getValue())
+                    .executeUpdate());
+            if (purged == 0) {
+                throw e;
+            }
+            logger.info("Email {} освобожден от удаленного пользователя, запись повторяется", email.getValue());
+            return write.get();
+        }
+    }
 
-        logger.trace("Преобразование UserEntity -> User: {} (ID: {})",
-                entity.getEmail(), entity.getId());
+    static boolean isUniqueViolation(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException && UNIQUE_VIOLATION.equals(((SQLException) cause).getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-        return user;
+    // Сущность, удаленная в текущей сессии, остается в ее кэше и возвращается get() в обход @SQLRestriction
+    private static UserEntity live(UserEntity entity) {
+        return entity != null && entity.getDeletedAt() == null ? entity : null;
     }
 
-    private UserEntity toEntity(User user) {
-        UserEntity entity = new UserEntity(
-                user.getId(),
-                user.getName(),
-                user.getEmail().getValue(),
-                user.getAge(),
-                user.getCreatedAt()
-        );
+    private <T> T inReadSession(Function<Session, T> work) {
+        return inSession(false, work);
+    }
 
-        logger.trace("Преобразование User -> UserEntity: {} (ID: {})",
-                user.getEmail().getValue(), user.getId());
+    private <T> T inPrimarySession(Function<Session, T> work) {
+        return inSession(true, work);
+    }
 
-        return entity;
+    private <T> T inSession(boolean primary, Function<Session, T> work) {
+        UnitOfWork unit = UnitOfWork.current(sessionRouter.writeFactory());
+        if (unit != null) {
+            return traced("query", work, unit.getSession());
+        }
+        long opening = Trace.start();
+        try (Session session = primary ? sessionRouter.openWriteSession() : sessionRouter.openReadSession()) {
+            Trace.stop("session-open", opening);
+            // Соединение Hibernate получает лениво, поэтому его ожидание входит в фазу query
+            return traced("query", work, session);
+        }
+    }
+
+    // Внутри единицы работы коммит и откат выполняет HibernateTransactionManager
+    private <T> T inWriteTransaction(Function<Session, T> work) {
+        UnitOfWork unit = UnitOfWork.current(sessionRouter.writeFactory());
+        if (unit != null) {
+            return work.apply(unit.getSession());
+        }
+
+        Transaction transaction = null;
+        long opening = Trace.start();
+        try (Session session = sessionRouter.openWriteSession()) {
+            Trace.stop("session-open", opening);
+            transaction = session.beginTransaction();
+            T result = traced("query", work, session);
+            // INSERT/UPDATE выполняются при flush в коммите
+            long committing = Trace.start();
+            transaction.commit();
+            Trace.stop("commit", committing);
+            sessionRouter.recordWrite(session);
+            return result;
+        } catch (RuntimeException e) {
+            if (transaction != null && transaction.isActive()) {
+                logger.warn("Откат транзакции: {}", e.getMessage());
+                transaction.rollback();
+            }
+            throw e;
+        }
+    }
+
+    private static <T> T traced(String phase, Function<Session, T> work, Session session) {
+        long started = Trace.start();
+        try {
+            return work.apply(session);
+        } finally {
+            Trace.stop(phase, started);
+        }
+    }
+
+    private void publishAfterCommit(UserChangeEvent event) {
+        UnitOfWork unit = UnitOfWork.current(sessionRouter.writeFactory());
+        if (unit != null) {
+            unit.afterCommit(() -> publish(event));
+            return;
+        }
+        publish(event);
+    }
+
+    private void publish(UserChangeEvent event) {
+        try {
+            changePublisher.publish(event);
+        } catch (Exception e) {
+            // Изменение уже зафиксировано, сбой доставки события не должен откатывать операцию
+            logger.error("Ошибка публикации события {}: {}", event, e.getMessage(), e);
+        }
     }
 }
@@ -0,0 +1,95 @@
+package com.userservice.infrastructure.persistence;
+
+import com.userservice.domain.model.UserStatistics;
+import com.userservice.domain.repository.UserStatisticsRepository;
+import com.userservice.infrastructure.routing.SessionRouter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class UserStatisticsRepositoryImpl implements UserStatisticsRepository {
+    private static final Logger logger = LogManager.getLogger(UserStatisticsRepositoryImpl.class);
+
+    private static final String SUMMARY_SQL =
+            "SELECT count(*) AS total, " +
+            "count(*) FILTER (WHERE age >= 18) AS adults, " +
+            "count(*) FILTER (WHERE age < 18) AS minors, " +
+            "count(*) FILTER (WHERE age IS NULL) AS without_age " +
+            "FROM users WHERE deleted_at IS NULL";
+
+    private static final String AGE_BUCKETS_SQL =
+            "SELECT (age / " + UserStatistics.AGE_BUCKET_WIDTH + ") * " + UserStatistics.AGE_BUCKET_WIDTH + " AS bucket, " +
+            "count(*) AS users " +
+            "FROM users WHERE age IS NOT NULL AND deleted_at IS NULL " +
+            "GROUP BY bucket";
+
+    private static final String DAILY_CREATIONS_SQL =
+            "SELECT CAST(created_at AS date) AS day, count(*) AS users " +
+            "FROM users WHERE deleted_at IS NULL " +
+            "GROUP BY day";
+
+    private final SessionRouter sessionRouter;
+
+    public UserStatisticsRepositoryImpl() {
+        this(SessionRouter.primaryOnly());
+    }
+
+    public UserStatisticsRepositoryImpl(SessionRouter sessionRouter) {
+        this.sessionRouter = sessionRouter;
+    }
+
+    @Override
+    public UserStatistics computeStatistics() {
+        logger.debug("Полный расчет статистики пользователей");
+
+        try (Session session = sessionRouter.openReadSession()) {
+            session.setDefaultReadOnly(true);
+
+            Object[] summary = session.createNativeQuery(SUMMARY_SQL, Object[].class)
+                    .addScalar("total", Long.class)
+                    .addScalar("adults", Long.class)
+                    .addScalar("minors", Long.class)
+                    .addScalar("without_age", Long.class)
+                    .getSingleResult();
+
+            Map<Integer, Long> ageBuckets = new HashMap<>();
+            NativeQuery<Object[]> bucketQuery = session.createNativeQuery(AGE_BUCKETS_SQL, Object[].class)
+                    .addScalar("bucket", Integer.class)
+                    .addScalar("users", Long.class);
+            for (Object[] row : bucketQuery.list()) {
+                ageBuckets.put((Integer) row[0], (Long) row[1]);
+            }
+
+            Map<LocalDate, Long> dailyCreations = new HashMap<>();
+            List<Object[]> dailyRows = session.createNativeQuery(DAILY_CREATIONS_SQL, Object[].class)
+                    .addScalar("day", LocalDate.class)
+                    .addScalar("users", Long.class)
+                    .list();
+            for (Object[] row : dailyRows) {
+                dailyCreations.put((LocalDate) row[0], (Long) row[1]);
+            }
+
+            UserStatistics statistics = new UserStatistics(
+                    (Long) summary[0],
+                    (Long) summary[1],
+                    (Long) summary[2],
+                    (Long) summary[3],
+                    ageBuckets,
+                    dailyCreations
+            );
+
+            logger.debug("Статистика рассчитана: всего {}, дней с регистрациями {}",
+                    statistics.getTotalUsers(), dailyCreations.size());
+            return statistics;
+        } catch (Exception e) {
+            logger.error("Ошибка при расчете статистики пользователей: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to compute user statistics", e);
+        }
+    }
+}
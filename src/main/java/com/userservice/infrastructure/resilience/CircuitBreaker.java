@@ -0,0 +1,145 @@
+package com.userservice.infrastructure.resilience;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+public class CircuitBreaker {
+    private static final Logger logger = LogManager.getLogger(CircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    public static final int DEFAULT_WINDOW_SIZE = 20;
+    public static final int DEFAULT_MINIMUM_CALLS = 10;
+    public static final double DEFAULT_FAILURE_RATE_THRESHOLD = 0.5;
+    public static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(10);
+    public static final int DEFAULT_HALF_OPEN_PROBES = 3;
+
+    private final String name;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openDurationNanos;
+    private final int halfOpenProbes;
+    private final LongSupplier nanoClock;
+
+    // Кольцевое окно последних исходов: true - сбой
+    private final boolean[] outcomes;
+    private int outcomeIndex;
+    private int recordedCalls;
+    private int failuresInWindow;
+
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int probesInFlight;
+    private int probesSucceeded;
+
+    private final AtomicLong rejectedCalls = new AtomicLong();
+    private final AtomicLong openTransitions = new AtomicLong();
+
+    public CircuitBreaker(String name) {
+        this(name, DEFAULT_WINDOW_SIZE, DEFAULT_MINIMUM_CALLS, DEFAULT_FAILURE_RATE_THRESHOLD,
+                DEFAULT_OPEN_DURATION, DEFAULT_HALF_OPEN_PROBES, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                   Duration openDuration, int halfOpenProbes, LongSupplier nanoClock) {
+        if (minimumCalls > windowSize || halfOpenProbes <= 0) {
+            throw new IllegalArgumentException("Invalid circuit breaker settings");
+        }
+        this.name = name;
+        this.outcomes = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+        this.halfOpenProbes = halfOpenProbes;
+        this.nanoClock = nanoClock;
+    }
+
+    // false - вызов нужно отклонить сразу, не обращаясь к БД
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (nanoClock.getAsLong() - openedAtNanos < openDurationNanos) {
+                    rejectedCalls.incrementAndGet();
+                    return false;
+                }
+                transitionTo(State.HALF_OPEN);
+                probesInFlight = 1;
+                return true;
+            default:
+                if (probesInFlight + probesSucceeded >= halfOpenProbes) {
+                    rejectedCalls.incrementAndGet();
+                    return false;
+                }
+                probesInFlight++;
+                return true;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            probesInFlight = Math.max(0, probesInFlight - 1);
+            probesSucceeded++;
+            if (probesSucceeded >= halfOpenProbes) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            // Любая неудачная проба возвращает цепь в OPEN на полный интервал
+            transitionTo(State.OPEN);
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && recordedCalls >= minimumCalls
+                && (double) failuresInWindow / recordedCalls >= failureRateThreshold) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public long getRejectedCalls() { return rejectedCalls.get(); }
+    public long getOpenTransitions() { return openTransitions.get(); }
+
+    private void record(boolean failure) {
+        if (recordedCalls == outcomes.length) {
+            if (outcomes[outcomeIndex]) {
+                failuresInWindow--;
+            }
+        } else {
+            recordedCalls++;
+        }
+        outcomes[outcomeIndex] = failure;
+        if (failure) {
+            failuresInWindow++;
+        }
+        outcomeIndex = (outcomeIndex + 1) % outcomes.length;
+    }
+
+    private void transitionTo(State next) {
+        logger.warn("Цепь {}: {} -> {}", name, state, next);
+        state = next;
+        probesInFlight = 0;
+        probesSucceeded = 0;
+        if (next == State.OPEN) {
+            openedAtNanos = nanoClock.getAsLong();
+            openTransitions.incrementAndGet();
+        } else if (next == State.CLOSED) {
+            recordedCalls = 0;
+            failuresInWindow = 0;
+            outcomeIndex = 0;
+        }
+    }
+}
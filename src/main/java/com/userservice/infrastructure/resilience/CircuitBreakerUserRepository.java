@@ -0,0 +1,220 @@
+package com.userservice.infrastructure.resilience;
+
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+import com.userservice.domain.repository.DataAccessException;
+import com.userservice.domain.repository.StaleReads;
+import com.userservice.domain.repository.UserRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public class CircuitBreakerUserRepository implements UserRepository {
+    private static final Logger logger = LogManager.getLogger(CircuitBreakerUserRepository.class);
+
+    public static final int DEFAULT_STALE_CACHE_SIZE = 10_000;
+
+    private final UserRepository delegate;
+    private final CircuitBreaker circuitBreaker;
+    private final int staleCacheSize;
+    // LRU последних успешно прочитанных пользователей; доступ под monitor самого кэша
+    private final LinkedHashMap<Long, User> staleCache;
+    private final Map<Email, Long> staleEmails = new LinkedHashMap<>();
+
+    public CircuitBreakerUserRepository(UserRepository delegate) {
+        this(delegate, new CircuitBreaker("user-repository"), DEFAULT_STALE_CACHE_SIZE);
+    }
+
+    public CircuitBreakerUserRepository(UserRepository delegate, CircuitBreaker circuitBreaker, int staleCacheSize) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+        this.staleCacheSize = staleCacheSize;
+        this.staleCache = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return read(() -> delegate.findById(id), () -> cachedById(id), "findById " + id)
+                .map(this::remember);
+    }
+
+    @Override
+    public Optional<User> findByEmail(Email email) {
+        return read(() -> delegate.findByEmail(email), () -> cachedByEmail(email), "findByEmail " + email.getValue())
+                .map(this::remember);
+    }
+
+    @Override
+    public boolean existsByEmail(Email email) {
+        Optional<Boolean> exists = read(() -> Optional.of(delegate.existsByEmail(email)),
+                () -> cachedByEmail(email).map(user -> true), "existsByEmail " + email.getValue());
+        return exists.orElse(false);
+    }
+
+    @Override
+    public List<User> findAll() {
+        // Полный список из ограниченного кэша не восстановить: при открытой цепи - быстрый отказ
+        return call(delegate::findAll, "findAll");
+    }
+
+    @Override
+    public List<User> findPage(long afterId, int limit) {
+        return call(() -> delegate.findPage(afterId, limit), "findPage");
+    }
+
+    @Override
+    public void forEachEmail(Consumer<Email> action) {
+        call(() -> {
+            delegate.forEachEmail(action);
+            return null;
+        }, "forEachEmail");
+    }
+
+    @Override
+    public User save(User user) {
+        return remember(call(() -> delegate.save(user), "save"));
+    }
+
+    @Override
+    public void update(User user) {
+        call(() -> {
+            delegate.update(user);
+            return null;
+        }, "update");
+        remember(user);
+    }
+
+    @Override
+    public void delete(Long id) {
+        call(() -> {
+            delegate.delete(id);
+            return null;
+        }, "delete");
+        forget(id);
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public int getStaleCacheSize() {
+        synchronized (staleCache) {
+            return staleCache.size();
+        }
+    }
+
+    private <T> Optional<T> read(Supplier<Optional<T>> primary, Supplier<Optional<T>> fallback, String description) {
+        if (!circuitBreaker.tryAcquire()) {
+            return staleOrFail(fallback, description, null);
+        }
+        try {
+            Optional<T> result = primary.get();
+            circuitBreaker.onSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            if (!isHealthFailure(e)) {
+                circuitBreaker.onSuccess();
+                throw e;
+            }
+            circuitBreaker.onFailure();
+            return staleOrFail(fallback, description, e);
+        }
+    }
+
+    private <T> Optional<T> staleOrFail(Supplier<Optional<T>> fallback, String description, RuntimeException cause) {
+        Optional<T> stale = fallback.get();
+        if (stale.isPresent()) {
+            logger.warn("БД недоступна, {} обслужен из кэша устаревших данных", description);
+            StaleReads.mark();
+            return stale;
+        }
+        // "Не найден" при недоступной БД был бы ложью - сообщаем о сбое
+        if (cause != null) {
+            throw cause;
+        }
+        throw new CircuitOpenException("Database unavailable (circuit " + circuitBreaker.getState() + "): " + description);
+    }
+
+    private <T> T call(Supplier<T> work, String description) {
+        if (!circuitBreaker.tryAcquire()) {
+            throw new CircuitOpenException("Database unavailable (circuit " + circuitBreaker.getState() + "): " + description);
+        }
+        try {
+            T result = work.get();
+            circuitBreaker.onSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            if (isHealthFailure(e)) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+            throw e;
+        }
+    }
+
+    // Нарушение ограничений (SQLState 23xxx) - ответ здоровой БД, цепь из-за него не размыкается
+    static boolean isHealthFailure(Throwable error) {
+        if (!(error instanceof DataAccessException)) {
+            return false;
+        }
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException) {
+                String state = ((SQLException) cause).getSQLState();
+                if (state != null && state.startsWith("23")) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private Optional<User> cachedById(Long id) {
+        synchronized (staleCache) {
+            return Optional.ofNullable(staleCache.get(id));
+        }
+    }
+
+    private Optional<User> cachedByEmail(Email email) {
+        synchronized (staleCache) {
+            Long id = staleEmails.get(email);
+            return id == null ? Optional.empty() : Optional.ofNullable(staleCache.get(id));
+        }
+    }
+
+    private User remember(User user) {
+        if (user == null || user.getId() == null) {
+            return user;
+        }
+        synchronized (staleCache) {
+            User previous = staleCache.put(user.getId(), user);
+            if (previous != null && !previous.getEmail().equals(user.getEmail())) {
+                staleEmails.remove(previous.getEmail());
+            }
+            staleEmails.put(user.getEmail(), user.getId());
+
+            if (staleCache.size() > staleCacheSize) {
+                Map.Entry<Long, User> eldest = staleCache.entrySet().iterator().next();
+                staleCache.remove(eldest.getKey());
+                staleEmails.remove(eldest.getValue().getEmail(), eldest.getKey());
+            }
+        }
+        return user;
+    }
+
+    private void forget(Long id) {
+        synchronized (staleCache) {
+            User removed = staleCache.remove(id);
+            if (removed != null) {
+                staleEmails.remove(removed.getEmail(), id);
+            }
+        }
+    }
+}
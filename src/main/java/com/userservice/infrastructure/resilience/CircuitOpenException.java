@@ -0,0 +1,10 @@
+package com.userservice.infrastructure.resilience;
+
+import com.userservice.domain.repository.DataAccessException;
+
+public class CircuitOpenException extends DataAccessException {
+
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+}
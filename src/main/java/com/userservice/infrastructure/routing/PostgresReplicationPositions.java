@@ -0,0 +1,39 @@
+package com.userservice.infrastructure.routing;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+import java.util.function.Supplier;
+
+// Позиции - смещение LSN от '0/0' в байтах; у потоковой реплики оно сопоставимо с основной БД
+final class PostgresReplicationPositions implements ReplicationPositions {
+    private static final Logger logger = LogManager.getLogger(PostgresReplicationPositions.class);
+
+    private static final String CURRENT_LSN_SQL = "SELECT CAST(pg_current_wal_lsn() - '0/0' AS bigint)";
+    // NULL, если БД не находится в режиме восстановления (не реплика)
+    private static final String REPLAY_LSN_SQL = "SELECT CAST(pg_last_wal_replay_lsn() - '0/0' AS bigint)";
+
+    private final Supplier<SessionFactory> replica;
+
+    PostgresReplicationPositions(Supplier<SessionFactory> replica) {
+        this.replica = replica;
+    }
+
+    @Override
+    public long afterCommit(Session primarySession) {
+        return primarySession.createNativeQuery(CURRENT_LSN_SQL, Long.class).getSingleResult();
+    }
+
+    @Override
+    public long replayed() {
+        try (Session session = replica.get().openSession()) {
+            Long position = session.createNativeQuery(REPLAY_LSN_SQL, Long.class).getSingleResult();
+            return position != null ? position : UNKNOWN;
+        } catch (RuntimeException e) {
+            logger.warn("Не удалось получить позицию реплики: {}", e.getMessage());
+            return UNKNOWN;
+        }
+    }
+}
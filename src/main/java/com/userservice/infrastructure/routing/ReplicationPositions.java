@@ -0,0 +1,13 @@
+package com.userservice.infrastructure.routing;
+
+import org.hibernate.Session;
+
+interface ReplicationPositions {
+    long UNKNOWN = -1L;
+
+    // Позиция журнала основной БД сразу после коммита; запрос идет по соединению записавшей сессии
+    long afterCommit(Session primarySession);
+
+    // Позиция, до которой реплика применила журнал; UNKNOWN - реплика не потоковая или недоступна
+    long replayed();
+}
@@ -0,0 +1,111 @@
+package com.userservice.infrastructure.routing;
+
+import com.userservice.domain.repository.ReadYourWritesSession;
+import com.userservice.infrastructure.config.HibernateConfig;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Чтение активной ReadYourWritesSession идет на реплику, только если реплика применила журнал
+// до позиции последней записи этой сессии. Чтение без сессии или без записей - всегда на реплику
+public class SessionRouter {
+    private static final Logger logger = LogManager.getLogger(SessionRouter.class);
+
+    private final Supplier<SessionFactory> primary;
+    private final Supplier<SessionFactory> replica;
+    // null - реплики нет, все идет на основную БД и позиции не запрашиваются
+    private final ReplicationPositions positions;
+
+    // Последняя известная позиция реплики: сессии, которых она уже догнала, не делают лишнего запроса
+    private final AtomicLong replayedPosition = new AtomicLong(ReplicationPositions.UNKNOWN);
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong primaryReads = new AtomicLong();
+
+    public SessionRouter(Supplier<SessionFactory> primary, Supplier<SessionFactory> replica) {
+        this(primary, replica, new PostgresReplicationPositions(replica));
+    }
+
+    SessionRouter(Supplier<SessionFactory> primary, Supplier<SessionFactory> replica,
+                  ReplicationPositions positions) {
+        this.primary = primary;
+        this.replica = replica;
+        this.positions = positions;
+    }
+
+    public static SessionRouter primaryOnly() {
+        return primaryOnly(HibernateConfig::getSessionFactory);
+    }
+
+    public static SessionRouter primaryOnly(Supplier<SessionFactory> primary) {
+        return new SessionRouter(primary, primary, null);
+    }
+
+    public static SessionRouter fromConfiguration() {
+        if (!HibernateConfig.isReplicaConfigured()) {
+            return primaryOnly();
+        }
+        return new SessionRouter(HibernateConfig::getSessionFactory, HibernateConfig::getReplicaSessionFactory);
+    }
+
+    public Session openReadSession() {
+        return readFactory().openSession();
+    }
+
+    public Session openWriteSession() {
+        return primary.get().openSession();
+    }
+
+    public SessionFactory readFactory() {
+        if (mustReadFromPrimary()) {
+            primaryReads.incrementAndGet();
+            logger.trace("Чтение направлено на основную БД (read-your-writes)");
+            return primary.get();
+        }
+        replicaReads.incrementAndGet();
+        return replica.get();
+    }
+
+    public SessionFactory writeFactory() {
+        return primary.get();
+    }
+
+    // Вызывается сразу после коммита, пока сессия записи открыта
+    public void recordWrite(Session primarySession) {
+        if (positions == null) {
+            return;
+        }
+        ReadYourWritesSession.active().ifPresent(session -> session.recordWrite(positionAfterCommit(primarySession)));
+    }
+
+    public long getReplicaReads() { return replicaReads.get(); }
+    public long getPrimaryReads() { return primaryReads.get(); }
+
+    private long positionAfterCommit(Session primarySession) {
+        try {
+            return positions.afterCommit(primarySession);
+        } catch (RuntimeException e) {
+            // Коммит уже выполнен: без позиции сессия читает с основной БД, иначе может не увидеть запись
+            logger.warn("Не удалось получить позицию журнала после коммита: {}", e.getMessage());
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private boolean mustReadFromPrimary() {
+        if (positions == null) {
+            return false;
+        }
+        long token = ReadYourWritesSession.active()
+                .map(ReadYourWritesSession::getToken)
+                .orElse(ReadYourWritesSession.NO_WRITES);
+        if (token == ReadYourWritesSession.NO_WRITES || token <= replayedPosition.get()) {
+            return false;
+        }
+        long replayed = positions.replayed();
+        replayedPosition.accumulateAndGet(replayed, Math::max);
+        return token > replayed;
+    }
+}
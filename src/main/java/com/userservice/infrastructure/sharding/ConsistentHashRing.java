@@ -0,0 +1,53 @@
+package com.userservice.infrastructure.sharding;
+
+import com.userservice.domain.model.Email;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+public class ConsistentHashRing {
+    public static final int DEFAULT_VIRTUAL_NODES = 160;
+
+    private final NavigableMap<Long, Integer> ring = new TreeMap<>();
+
+    // Позиции на кольце зависят от имени шарда, а не от порядка: добавление шарда двигает ~1/N ключей
+    public ConsistentHashRing(List<Shard> shards, int virtualNodes) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        for (Shard shard : shards) {
+            for (int node = 0; node < virtualNodes; node++) {
+                ring.put(hash(shard.getName() + "#" + node), shard.getIndex());
+            }
+        }
+    }
+
+    public int shardFor(Email email) {
+        long hash = hash(normalize(email));
+        Map.Entry<Long, Integer> entry = ring.ceilingEntry(hash);
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    static String normalize(Email email) {
+        return email.getValue().trim().toLowerCase(Locale.ROOT);
+    }
+
+    static long hash(String key) {
+        long h = 0xCBF29CE484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001B3L;
+        }
+        // Финализатор murmur3: FNV плохо перемешивает старшие биты для близких строк
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
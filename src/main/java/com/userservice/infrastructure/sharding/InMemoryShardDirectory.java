@@ -0,0 +1,53 @@
+package com.userservice.infrastructure.sharding;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+public class InMemoryShardDirectory implements ShardDirectory {
+    private final NavigableMap<Long, Long> locations = new ConcurrentSkipListMap<>();
+    private final Map<Long, Long> users = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<Long> locationOf(long userId) {
+        return Optional.ofNullable(locations.get(userId));
+    }
+
+    @Override
+    public Optional<Long> userAt(long location) {
+        return Optional.ofNullable(users.get(location));
+    }
+
+    @Override
+    public List<Long> movedAfter(long afterId, int limit) {
+        return locations.tailMap(afterId, false).keySet().stream()
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    // Запись одного пользователя сериализуется барьером ShardedUserRepository
+    @Override
+    public void record(long userId, long location) {
+        Long previous = locations.put(userId, location);
+        if (previous != null) {
+            users.remove(previous, userId);
+        }
+        users.put(location, userId);
+    }
+
+    @Override
+    public void remove(long userId) {
+        Long previous = locations.remove(userId);
+        if (previous != null) {
+            users.remove(previous, userId);
+        }
+    }
+
+    public int size() {
+        return locations.size();
+    }
+}
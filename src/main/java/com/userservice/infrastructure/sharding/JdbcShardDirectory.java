@@ -0,0 +1,157 @@
+package com.userservice.infrastructure.sharding;
+
+import com.userservice.domain.repository.DataAccessException;
+import com.userservice.infrastructure.config.HibernateConfig;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Каталог в таблице первого шарда, кэшируется в памяти целиком: записей столько, сколько переносов.
+// Изменение сначала фиксируется в БД, потом в кэше. Переносы других узлов кэш не видит, поэтому
+// промах по месту строки и обход шардов перечитывают таблицу (reload*)
+public class JdbcShardDirectory implements ShardDirectory {
+    private static final Logger logger = LogManager.getLogger(JdbcShardDirectory.class);
+
+    private static final String CREATE_SQL = "CREATE TABLE IF NOT EXISTS user_shard_directory ("
+            + "user_id bigint PRIMARY KEY, location bigint NOT NULL UNIQUE)";
+    private static final String SELECT_SQL = "SELECT user_id, location FROM user_shard_directory";
+    private static final String SELECT_LOCATION_SQL = "SELECT location FROM user_shard_directory WHERE user_id = ?";
+    private static final String SELECT_USER_SQL = "SELECT user_id FROM user_shard_directory WHERE location = ?";
+    private static final String UPSERT_SQL = "INSERT INTO user_shard_directory (user_id, location) VALUES (?, ?) "
+            + "ON CONFLICT (user_id) DO UPDATE SET location = EXCLUDED.location";
+    private static final String DELETE_SQL = "DELETE FROM user_shard_directory WHERE user_id = ?";
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private volatile InMemoryShardDirectory cache = new InMemoryShardDirectory();
+
+    private JdbcShardDirectory(String url, String username, String password) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    public static JdbcShardDirectory open(String url) {
+        Map<String, Object> settings = HibernateConfig.connectionSettings();
+        JdbcShardDirectory directory = new JdbcShardDirectory(url,
+                (String) settings.get("hibernate.connection.username"),
+                (String) settings.get("hibernate.connection.password"));
+        directory.createTable();
+        directory.reload();
+        logger.info("Каталог перенесенных пользователей загружен: {} записей", directory.cache.size());
+        return directory;
+    }
+
+    @Override
+    public Optional<Long> locationOf(long userId) {
+        return cache.locationOf(userId);
+    }
+
+    @Override
+    public Optional<Long> userAt(long location) {
+        return cache.userAt(location);
+    }
+
+    @Override
+    public List<Long> movedAfter(long afterId, int limit) {
+        return cache.movedAfter(afterId, limit);
+    }
+
+    @Override
+    public Optional<Long> reloadLocationOf(long userId) {
+        Optional<Long> location = selectOne(SELECT_LOCATION_SQL, userId);
+        if (location.isPresent()) {
+            cache.record(userId, location.get());
+        } else {
+            cache.remove(userId);
+        }
+        return location;
+    }
+
+    @Override
+    public Optional<Long> reloadUserAt(long location) {
+        Optional<Long> userId = selectOne(SELECT_USER_SQL, location);
+        if (userId.isPresent()) {
+            cache.record(userId.get(), location);
+        } else {
+            cache.userAt(location).ifPresent(cache::remove);
+        }
+        return userId;
+    }
+
+    @Override
+    public void reload() {
+        InMemoryShardDirectory loaded = new InMemoryShardDirectory();
+        try (Connection connection = connect();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(SELECT_SQL)) {
+            while (resultSet.next()) {
+                loaded.record(resultSet.getLong(1), resultSet.getLong(2));
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to load shard directory", e);
+        }
+        cache = loaded;
+        logger.debug("Каталог перенесенных пользователей перечитан: {} записей", loaded.size());
+    }
+
+    @Override
+    public void record(long userId, long location) {
+        try (Connection connection = connect();
+             PreparedStatement statement = connection.prepareStatement(UPSERT_SQL)) {
+            statement.setLong(1, userId);
+            statement.setLong(2, location);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to record shard location of user " + userId, e);
+        }
+        cache.record(userId, location);
+    }
+
+    // Запись удаляется и без кэша: ее мог добавить перенос на другом узле
+    @Override
+    public void remove(long userId) {
+        try (Connection connection = connect();
+             PreparedStatement statement = connection.prepareStatement(DELETE_SQL)) {
+            statement.setLong(1, userId);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to remove shard location of user " + userId, e);
+        }
+        cache.remove(userId);
+    }
+
+    private void createTable() {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_SQL);
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to create shard directory", e);
+        }
+    }
+
+    private Optional<Long> selectOne(String sql, long key) {
+        try (Connection connection = connect();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, key);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? Optional.of(resultSet.getLong(1)) : Optional.empty();
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to read shard directory entry " + key, e);
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(url, username, password);
+    }
+}
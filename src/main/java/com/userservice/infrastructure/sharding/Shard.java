@@ -0,0 +1,52 @@
+package com.userservice.infrastructure.sharding;
+
+import com.userservice.domain.event.UserChangePublisher;
+import com.userservice.domain.repository.UserRepository;
+import com.userservice.infrastructure.config.HibernateConfig;
+import com.userservice.infrastructure.id.TimeOrderedIdGenerator;
+import com.userservice.infrastructure.persistence.UserRepositoryImpl;
+import com.userservice.infrastructure.routing.SessionRouter;
+import org.hibernate.SessionFactory;
+
+import java.util.Map;
+
+public class Shard implements AutoCloseable {
+    private final int index;
+    private final String name;
+    private final UserRepository repository;
+    private final AutoCloseable resource;
+
+    public Shard(int index, String name, UserRepository repository) {
+        this(index, name, repository, null);
+    }
+
+    private Shard(int index, String name, UserRepository repository, AutoCloseable resource) {
+        if (index < 0 || index >= ShardIdCodec.MAX_SHARDS) {
+            throw new IllegalArgumentException("Shard index out of range: " + index);
+        }
+        this.index = index;
+        this.name = name;
+        this.repository = repository;
+        this.resource = resource;
+    }
+
+    public static Shard connect(int index, String url) {
+        SessionFactory sessionFactory = HibernateConfig.buildSessionFactory(Map.of("hibernate.connection.url", url));
+        SessionRouter router = SessionRouter.primaryOnly(() -> sessionFactory);
+        // Локальный ID шарда ограничен 48 битами ShardIdCodec
+        UserRepositoryImpl repository = new UserRepositoryImpl(router, UserChangePublisher.NONE,
+                TimeOrderedIdGenerator.shardLocal());
+        return new Shard(index, "shard-" + index, repository, sessionFactory::close);
+    }
+
+    public int getIndex() { return index; }
+    public String getName() { return name; }
+    public UserRepository getRepository() { return repository; }
+
+    @Override
+    public void close() throws Exception {
+        if (resource != null) {
+            resource.close();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.userservice.infrastructure.sharding;
+
+import java.util.List;
+import java.util.Optional;
+
+// Каталог перенесенных пользователей. Глобальный ID выдается при создании и больше не меняется,
+// а строка после переноса живет в другом шарде под другим локальным ID. Место строки кодируется
+// так же, как ID (ShardIdCodec); у неперенесенного пользователя место совпадает с ID и в каталоге его нет
+public interface ShardDirectory {
+    Optional<Long> locationOf(long userId);
+
+    // Обратное отображение: чей ID у строки, найденной в шарде
+    Optional<Long> userAt(long location);
+
+    void record(long userId, long location);
+
+    // ID перенесенных пользователей больше afterId по возрастанию: постраничное чтение берет их
+    // отдельно, так как в шарде назначения их строки стоят не на месте своего ID
+    List<Long> movedAfter(long afterId, int limit);
+
+    void remove(long userId);
+
+    // Чтение мимо кэша узла: переносы, сделанные другими узлами, кэш не видит. Реализации без кэша
+    // отвечают теми же данными
+    default Optional<Long> reloadLocationOf(long userId) {
+        return locationOf(userId);
+    }
+
+    default Optional<Long> reloadUserAt(long location) {
+        return userAt(location);
+    }
+
+    // Перечитать каталог целиком перед обходом шардов: одно чтение вместо запроса на каждую строку
+    default void reload() {
+    }
+}
@@ -0,0 +1,27 @@
+package com.userservice.infrastructure.sharding;
+
+public final class ShardIdCodec {
+    static final int LOCAL_ID_BITS = 48;
+    static final int MAX_SHARDS = 1 << 15;
+    private static final long LOCAL_ID_MASK = (1L << LOCAL_ID_BITS) - 1;
+
+    private ShardIdCodec() {}
+
+    public static long encode(int shard, long localId) {
+        if (shard < 0 || shard >= MAX_SHARDS) {
+            throw new IllegalArgumentException("Shard index out of range: " + shard);
+        }
+        if (localId <= 0 || localId > LOCAL_ID_MASK) {
+            throw new IllegalArgumentException("Local ID out of range: " + localId);
+        }
+        return ((long) shard << LOCAL_ID_BITS) | localId;
+    }
+
+    public static int shardOf(long globalId) {
+        return (int) (globalId >>> LOCAL_ID_BITS);
+    }
+
+    public static long localIdOf(long globalId) {
+        return globalId & LOCAL_ID_MASK;
+    }
+}
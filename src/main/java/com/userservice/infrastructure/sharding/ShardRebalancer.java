@@ -0,0 +1,89 @@
+package com.userservice.infrastructure.sharding;
+
+import com.userservice.domain.model.User;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+
+public class ShardRebalancer {
+    private static final Logger logger = LogManager.getLogger(ShardRebalancer.class);
+
+    private final ShardedUserRepository repository;
+    private final Duration pauseBetweenMoves;
+
+    public ShardRebalancer(ShardedUserRepository repository) {
+        this(repository, Duration.ZERO);
+    }
+
+    public ShardRebalancer(ShardedUserRepository repository, Duration pauseBetweenMoves) {
+        this.repository = repository;
+        this.pauseBetweenMoves = pauseBetweenMoves;
+    }
+
+    // Переносит пользователей по одному, сервис продолжает обслуживать запросы: запись переносимого
+    // пользователя ждет окончания переноса, ID сохраняется, а место строки записывается в каталог шардов
+    public Report rebalance() {
+        long scanned = 0;
+        long moved = 0;
+        long failed = 0;
+
+        repository.reloadDirectory();
+        for (Shard source : repository.getShards()) {
+            for (User row : source.getRepository().findAll()) {
+                scanned++;
+                if (repository.shardFor(row.getEmail()) == source.getIndex()) {
+                    continue;
+                }
+
+                User user = repository.toGlobal(source, row);
+                try {
+                    if (repository.relocate(user.getId())) {
+                        moved++;
+                    }
+                } catch (RuntimeException e) {
+                    failed++;
+                    logger.error("Не удалось перенести пользователя {}: {}",
+                            user.getEmail().getValue(), e.getMessage(), e);
+                }
+                pause();
+            }
+        }
+
+        if (failed == 0) {
+            repository.finishRebalance();
+        } else {
+            // Поиск по email продолжает заглядывать в шард старого кольца до успешного повтора
+            logger.warn("Ребалансировка не завершена: {} пользователей остались в прежних шардах", failed);
+        }
+        logger.info("Ребалансировка завершена: просмотрено {}, перенесено {}, ошибок {}", scanned, moved, failed);
+        return new Report(scanned, moved, failed);
+    }
+
+    private void pause() {
+        if (pauseBetweenMoves.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseBetweenMoves.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static class Report {
+        private final long scannedUsers;
+        private final long movedUsers;
+        private final long failedMoves;
+
+        Report(long scannedUsers, long movedUsers, long failedMoves) {
+            this.scannedUsers = scannedUsers;
+            this.movedUsers = movedUsers;
+            this.failedMoves = failedMoves;
+        }
+
+        public long getScannedUsers() { return scannedUsers; }
+        public long getMovedUsers() { return movedUsers; }
+        public long getFailedMoves() { return failedMoves; }
+    }
+}
@@ -0,0 +1,463 @@
+package com.userservice.infrastructure.sharding;
+
+import com.userservice.domain.event.UserChangeEvent;
+import com.userservice.domain.event.UserChangePublisher;
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+import com.userservice.domain.repository.UserRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+// Пользователь живет в шарде своего email по кольцу, поэтому поиск по email - один шард
+// (два во время ребалансировки). ID не меняется при переносе: место строки ищется в ShardDirectory
+public class ShardedUserRepository implements UserRepository, AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(ShardedUserRepository.class);
+
+    static final Comparator<User> MERGE_ORDER = Comparator
+            .comparing(User::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(User::getId);
+    private static final Comparator<User> ID_ORDER = Comparator.comparing(User::getId);
+
+    private static final int FENCE_STRIPES = 256;
+
+    private final Map<Integer, Shard> shards = new ConcurrentHashMap<>();
+    private final int virtualNodes;
+    private final UserChangePublisher changePublisher;
+    private final ExecutorService executor;
+    private final ShardDirectory directory;
+    // Барьер записи на пользователя: update/delete не попадают в строку, которую сейчас переносят
+    private final ReentrantLock[] fences = new ReentrantLock[FENCE_STRIPES];
+    private volatile ConsistentHashRing ring;
+    // Кольцо до добавления шарда: пока ребалансировка не закончена, пользователь может быть и там
+    private volatile ConsistentHashRing previousRing;
+
+    public ShardedUserRepository(List<Shard> shards) {
+        this(shards, ConsistentHashRing.DEFAULT_VIRTUAL_NODES, UserChangePublisher.NONE);
+    }
+
+    public ShardedUserRepository(List<Shard> shards, int virtualNodes, UserChangePublisher changePublisher) {
+        this(shards, virtualNodes, changePublisher, new InMemoryShardDirectory());
+    }
+
+    public ShardedUserRepository(List<Shard> shards, int virtualNodes, UserChangePublisher changePublisher,
+                                 ShardDirectory directory) {
+        for (Shard shard : shards) {
+            if (this.shards.putIfAbsent(shard.getIndex(), shard) != null) {
+                throw new IllegalArgumentException("Duplicate shard index: " + shard.getIndex());
+            }
+        }
+        this.virtualNodes = virtualNodes;
+        this.changePublisher = changePublisher;
+        this.directory = directory;
+        for (int i = 0; i < fences.length; i++) {
+            fences[i] = new ReentrantLock();
+        }
+        this.ring = new ConsistentHashRing(shards, virtualNodes);
+        this.executor = Executors.newFixedThreadPool(Math.max(2, shards.size() * 2), runnable -> {
+            Thread thread = new Thread(runnable, "user-shard-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.info("Шардированный репозиторий: {} шардов, {} виртуальных узлов на шард",
+                shards.size(), virtualNodes);
+    }
+
+    public static ShardedUserRepository connect(List<String> urls, UserChangePublisher changePublisher) {
+        List<Shard> shards = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            shards.add(Shard.connect(i, urls.get(i)));
+        }
+        return new ShardedUserRepository(shards, ConsistentHashRing.DEFAULT_VIRTUAL_NODES, changePublisher,
+                JdbcShardDirectory.open(urls.get(0)));
+    }
+
+    public synchronized void addShard(Shard shard) {
+        if (previousRing != null) {
+            throw new IllegalStateException("Previous rebalance is not finished");
+        }
+        if (shards.putIfAbsent(shard.getIndex(), shard) != null) {
+            throw new IllegalArgumentException("Duplicate shard index: " + shard.getIndex());
+        }
+        previousRing = ring;
+        ring = new ConsistentHashRing(new ArrayList<>(shards.values()), virtualNodes);
+        logger.info("Добавлен шард {} (индекс {}), требуется ребалансировка", shard.getName(), shard.getIndex());
+    }
+
+    public List<Shard> getShards() {
+        return shards.values().stream()
+                .sorted(Comparator.comparingInt(Shard::getIndex))
+                .collect(Collectors.toList());
+    }
+
+    Shard getShard(int index) {
+        Shard shard = shards.get(index);
+        if (shard == null) {
+            throw new IllegalArgumentException("Unknown shard index: " + index);
+        }
+        return shard;
+    }
+
+    public int shardFor(Email email) {
+        return ring.shardFor(email);
+    }
+
+    // Перед обходом шардов: toGlobal читает только кэш каталога
+    void reloadDirectory() {
+        directory.reload();
+    }
+
+    // Вызывается ребалансировкой, когда все пользователи перенесены в шарды нового кольца
+    synchronized void finishRebalance() {
+        previousRing = null;
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        if (id == null || id <= 0) {
+            return Optional.empty();
+        }
+        long location = locationOf(id);
+        Optional<User> user = findAt(id, location);
+        if (user.isEmpty()) {
+            // Пользователя мог перенести другой узел: место перечитывается из каталога мимо кэша
+            long reloaded = directory.reloadLocationOf(id).orElse(id);
+            if (reloaded != location) {
+                user = findAt(id, reloaded);
+            }
+        }
+        return user;
+    }
+
+    private Optional<User> findAt(long id, long location) {
+        if (location == id && directory.userAt(id).isPresent()) {
+            // Это место перенесенного пользователя, а не чей-то ID
+            return Optional.empty();
+        }
+        Shard shard = shards.get(ShardIdCodec.shardOf(location));
+        if (shard == null) {
+            logger.debug("ID {} указывает на неизвестный шард {}", id, ShardIdCodec.shardOf(location));
+            return Optional.empty();
+        }
+        return shard.getRepository().findById(ShardIdCodec.localIdOf(location))
+                .map(user -> withId(user, id));
+    }
+
+    @Override
+    public List<User> findAll() {
+        directory.reload();
+        List<Shard> targets = getShards();
+        List<CompletableFuture<List<User>>> futures = targets.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> shard.getRepository().findAll().stream()
+                        .map(user -> toGlobal(shard, user))
+                        .sorted(MERGE_ORDER)
+                        .collect(Collectors.toList()), executor))
+                .collect(Collectors.toList());
+
+        List<List<User>> perShard = futures.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+        return mergeSorted(perShard, MERGE_ORDER, Integer.MAX_VALUE);
+    }
+
+    // Каждый шард отдает не больше limit своих строк после курсора, перенесенные пользователи идут
+    // отдельным списком из каталога; k-путевое слияние по ID берет первые limit
+    @Override
+    public List<User> findPage(long afterId, int limit) {
+        long cursor = Math.max(afterId, 0);
+        directory.reload();
+        List<CompletableFuture<List<User>>> futures = getShards().stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> nativePage(shard, cursor, limit), executor))
+                .collect(Collectors.toList());
+
+        List<List<User>> sources = new ArrayList<>();
+        for (CompletableFuture<List<User>> future : futures) {
+            sources.add(future.join());
+        }
+        sources.add(movedPage(cursor, limit));
+        return mergeSorted(sources, ID_ORDER, limit);
+    }
+
+    // Строки на месте создания: глобальный ID - закодированное место, поэтому курсор переводится
+    // в локальный ID шарда, а порядок локальных ID совпадает с глобальным
+    private List<User> nativePage(Shard shard, long afterId, int limit) {
+        int index = shard.getIndex();
+        if (ShardIdCodec.shardOf(afterId) > index) {
+            return List.of();
+        }
+        long localAfter = ShardIdCodec.shardOf(afterId) == index ? ShardIdCodec.localIdOf(afterId) : 0;
+        List<User> page = new ArrayList<>(limit);
+        while (page.size() < limit) {
+            List<User> rows = shard.getRepository().findPage(localAfter, limit);
+            for (User row : rows) {
+                long location = ShardIdCodec.encode(index, row.getId());
+                // Перенесенные сюда строки приходят из movedPage под своими ID
+                if (page.size() < limit && directory.userAt(location).isEmpty()) {
+                    page.add(withId(row, location));
+                }
+            }
+            if (rows.size() < limit) {
+                break;
+            }
+            localAfter = rows.get(rows.size() - 1).getId();
+        }
+        return page;
+    }
+
+    private List<User> movedPage(long afterId, int limit) {
+        List<User> page = new ArrayList<>(limit);
+        long cursor = afterId;
+        while (page.size() < limit) {
+            List<Long> ids = directory.movedAfter(cursor, limit);
+            for (long id : ids) {
+                if (page.size() < limit) {
+                    findAt(id, locationOf(id)).ifPresent(page::add);
+                }
+            }
+            if (ids.size() < limit) {
+                break;
+            }
+            cursor = ids.get(ids.size() - 1);
+        }
+        return page;
+    }
+
+    @Override
+    public Optional<User> findByEmail(Email email) {
+        return findRowByEmail(email).map(found -> {
+            long location = ShardIdCodec.encode(found.getKey().getIndex(), found.getValue().getId());
+            // Строку мог перенести сюда другой узел: без записи в кэше каталог перечитывается
+            Optional<Long> userId = directory.userAt(location);
+            return withId(found.getValue(), userId.isPresent()
+                    ? userId.get() : directory.reloadUserAt(location).orElse(location));
+        });
+    }
+
+    // Глобальный ID не нужен: каталог не перечитывается
+    @Override
+    public boolean existsByEmail(Email email) {
+        return findRowByEmail(email).isPresent();
+    }
+
+    private Optional<Map.Entry<Shard, User>> findRowByEmail(Email email) {
+        Shard home = getShard(ring.shardFor(email));
+        Optional<User> user = home.getRepository().findByEmail(email);
+        ConsistentHashRing previous = previousRing;
+        if (user.isPresent() || previous == null || previous.shardFor(email) == home.getIndex()) {
+            return user.map(found -> Map.entry(home, found));
+        }
+
+        // Ребалансировка еще не перенесла пользователя из шарда старого кольца
+        Shard before = getShard(previous.shardFor(email));
+        return before.getRepository().findByEmail(email).map(found -> Map.entry(before, found));
+    }
+
+    @Override
+    public void forEachEmail(Consumer<Email> action) {
+        // Последовательно: action не обязан быть потокобезопасным
+        for (Shard shard : getShards()) {
+            shard.getRepository().forEachEmail(action);
+        }
+    }
+
+    @Override
+    public User save(User user) {
+        if (user.getId() != null) {
+            // Глобальный ID содержит номер шарда и выдается только после выбора шарда
+            throw new IllegalArgumentException("Sharded repository assigns user IDs itself");
+        }
+        Shard shard = getShard(ring.shardFor(user.getEmail()));
+        logger.debug("Сохранение пользователя {} в шард {}", user.getEmail().getValue(), shard.getName());
+
+        User saved = toGlobal(shard, shard.getRepository().save(user));
+        publish(UserChangeEvent.created(saved));
+        return saved;
+    }
+
+    // Смена email переносит пользователя в шард нового адреса с прежним ID
+    @Override
+    public void update(User user) {
+        long id = requireId(user.getId());
+        User before;
+        User after;
+        ReentrantLock fence = fenceFor(id);
+        fence.lock();
+        try {
+            Optional<User> current = findById(id);
+            if (current.isEmpty()) {
+                // Перенос скопировал бы удаленного пользователя в другой шард заново
+                logger.warn("Пользователь для обновления не найден: ID {}", id);
+                return;
+            }
+            before = current.get();
+            after = new User(id, user.getName(), user.getEmail(), user.getAge(), before.getCreatedAt());
+            long location = locationOf(id);
+            int target = ring.shardFor(user.getEmail());
+            if (ShardIdCodec.shardOf(location) == target) {
+                getShard(target).getRepository().update(withId(after, ShardIdCodec.localIdOf(location)));
+            } else {
+                move(id, location, target, after);
+            }
+        } finally {
+            fence.unlock();
+        }
+        publish(UserChangeEvent.updated(before, after));
+    }
+
+    @Override
+    public void delete(Long id) {
+        long userId = requireId(id);
+        Optional<User> before;
+        ReentrantLock fence = fenceFor(userId);
+        fence.lock();
+        try {
+            before = findById(userId);
+            long location = locationOf(userId);
+            getShard(ShardIdCodec.shardOf(location)).getRepository().delete(ShardIdCodec.localIdOf(location));
+            directory.remove(userId);
+        } finally {
+            fence.unlock();
+        }
+        before.ifPresent(user -> publish(UserChangeEvent.deleted(user)));
+    }
+
+    // Перенос в шард по кольцу под барьером записи. Барьер действует в пределах процесса:
+    // ребалансировка выполняется на узле, который и обслуживает запись
+    boolean relocate(long id) {
+        ReentrantLock fence = fenceFor(id);
+        fence.lock();
+        try {
+            long location = locationOf(id);
+            Optional<User> user = getShard(ShardIdCodec.shardOf(location)).getRepository()
+                    .findById(ShardIdCodec.localIdOf(location));
+            if (user.isEmpty()) {
+                return false;
+            }
+            int target = ring.shardFor(user.get().getEmail());
+            if (ShardIdCodec.shardOf(location) == target) {
+                return false;
+            }
+            move(id, location, target, user.get());
+            return true;
+        } finally {
+            fence.unlock();
+        }
+    }
+
+    // Копия, запись в каталог, удаление исходной строки. Копия сохраняет дату создания: save с заданной
+    // датой не назначает новую. После сбоя между копией и каталогом в целевом шарде остается строка
+    // с тем же email без владельца: повторный перенос ее подхватывает
+    private void move(long id, long location, int target, User user) {
+        Shard source = getShard(ShardIdCodec.shardOf(location));
+        Shard destination = getShard(target);
+        Optional<User> orphan = destination.getRepository().findByEmail(user.getEmail())
+                .filter(found -> directory.userAt(ShardIdCodec.encode(target, found.getId())).isEmpty());
+
+        User copy;
+        if (orphan.isPresent()) {
+            copy = withId(user, orphan.get().getId());
+            destination.getRepository().update(copy);
+        } else {
+            copy = destination.getRepository().save(withId(user, null));
+        }
+        directory.record(id, ShardIdCodec.encode(target, copy.getId()));
+        source.getRepository().delete(ShardIdCodec.localIdOf(location));
+        logger.debug("Пользователь {} перенесен из {} в {}", id, source.getName(), destination.getName());
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        for (Shard shard : shards.values()) {
+            try {
+                shard.close();
+            } catch (Exception e) {
+                logger.error("Ошибка при закрытии шарда {}: {}", shard.getName(), e.getMessage(), e);
+            }
+        }
+    }
+
+    private static long requireId(Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("User ID cannot be null");
+        }
+        return id;
+    }
+
+    private long locationOf(long id) {
+        return directory.locationOf(id).orElse(id);
+    }
+
+    private ReentrantLock fenceFor(long id) {
+        return fences[Long.hashCode(id * 0x9E3779B97F4A7C15L) & (FENCE_STRIPES - 1)];
+    }
+
+    // Строка шарда с глобальным ID: у перенесенной - ID из каталога, иначе - закодированное место
+    User toGlobal(Shard shard, User user) {
+        long location = ShardIdCodec.encode(shard.getIndex(), user.getId());
+        return withId(user, directory.userAt(location).orElse(location));
+    }
+
+    private static User withId(User user, Long id) {
+        return new User(id, user.getName(), user.getEmail(), user.getAge(), user.getCreatedAt());
+    }
+
+    private static List<User> mergeSorted(List<List<User>> sortedLists, Comparator<User> order, int limit) {
+        PriorityQueue<Cursor> heads = new PriorityQueue<>((a, b) -> order.compare(a.current(), b.current()));
+        int total = 0;
+        for (List<User> list : sortedLists) {
+            total += list.size();
+            if (!list.isEmpty()) {
+                heads.add(new Cursor(list));
+            }
+        }
+
+        List<User> merged = new ArrayList<>(Math.min(total, limit));
+        while (!heads.isEmpty() && merged.size() < limit) {
+            Cursor cursor = heads.poll();
+            merged.add(cursor.current());
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    private void publish(UserChangeEvent event) {
+        try {
+            changePublisher.publish(event);
+        } catch (Exception e) {
+            logger.error("Ошибка публикации события {}: {}", event, e.getMessage(), e);
+        }
+    }
+
+    private static class Cursor {
+        private final List<User> users;
+        private int position;
+
+        Cursor(List<User> users) {
+            this.users = users;
+        }
+
+        User current() {
+            return users.get(position);
+        }
+
+        boolean advance() {
+            return ++position < users.size();
+        }
+    }
+}
@@ -0,0 +1,456 @@
+package com.userservice.infrastructure.snapshot;
+
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+import com.userservice.domain.repository.UserReader;
+import com.userservice.infrastructure.persistence.StreamingUserReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+// Строки (имена и email) лежат в куче из сегментов не больше segmentSize: один ByteBuffer адресуется int
+// и ограничен 2 ГБ, а на десятках миллионов пользователей строки его превышают. Ссылка на строку - long:
+// номер сегмента в старших 32 битах, смещение в младших; строка не пересекает границу сегмента.
+// Строки упорядочены по ID: постраничное чтение находит начало страницы двоичным поиском
+public class OffHeapUserStore implements UserReader {
+    private static final Logger logger = LogManager.getLogger(OffHeapUserStore.class);
+
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    static final int NULL_AGE = -1;
+    static final long NULL_TIMESTAMP = Long.MIN_VALUE;
+    static final int EMPTY_SLOT = 0;
+    static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+    // ids, createdAt, ages, nameRefs, emailRefs, idIndex, emailIndex; за ними сегменты строк
+    static final int FIXED_SECTION_COUNT = 7;
+
+    private final int size;
+    private final ByteBuffer ids;
+    private final ByteBuffer createdAt;
+    private final ByteBuffer ages;
+    private final ByteBuffer nameRefs;
+    private final ByteBuffer emailRefs;
+    private final ByteBuffer[] segments;
+    private final ByteBuffer idIndex;
+    private final ByteBuffer emailIndex;
+    private final int idIndexMask;
+    private final int emailIndexMask;
+
+    OffHeapUserStore(int size, ByteBuffer ids, ByteBuffer createdAt, ByteBuffer ages,
+                     ByteBuffer nameRefs, ByteBuffer emailRefs, ByteBuffer[] segments,
+                     ByteBuffer idIndex, ByteBuffer emailIndex) {
+        this.size = size;
+        this.ids = ids.order(BYTE_ORDER);
+        this.createdAt = createdAt.order(BYTE_ORDER);
+        this.ages = ages.order(BYTE_ORDER);
+        this.nameRefs = nameRefs.order(BYTE_ORDER);
+        this.emailRefs = emailRefs.order(BYTE_ORDER);
+        this.segments = new ByteBuffer[segments.length];
+        for (int i = 0; i < segments.length; i++) {
+            this.segments[i] = segments[i].order(BYTE_ORDER);
+        }
+        this.idIndex = idIndex.order(BYTE_ORDER);
+        this.emailIndex = emailIndex.order(BYTE_ORDER);
+        this.idIndexMask = idIndex.capacity() / Integer.BYTES - 1;
+        this.emailIndexMask = emailIndex.capacity() / Integer.BYTES - 1;
+    }
+
+    public static OffHeapUserStore load(StreamingUserReader reader) {
+        long start = System.nanoTime();
+        Builder builder = new Builder();
+        reader.forEachUser(builder::add);
+        OffHeapUserStore store = builder.build();
+
+        logger.info("Off-heap снимок загружен: {} пользователей, {} байт вне кучи за {} мс",
+                store.size(), store.offHeapBytes(), (System.nanoTime() - start) / 1_000_000);
+        return store;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long offHeapBytes() {
+        long bytes = (long) size * (Long.BYTES * 4 + Integer.BYTES) + idIndex.capacity() + emailIndex.capacity();
+        for (ByteBuffer segment : segments) {
+            bytes += segment.limit();
+        }
+        return bytes;
+    }
+
+    int segmentCount() {
+        return segments.length;
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        int row = findRowById(id);
+        return row < 0 ? Optional.empty() : Optional.of(readUser(row));
+    }
+
+    @Override
+    public List<User> findAll() {
+        List<User> users = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            users.add(readUser(row));
+        }
+        return users;
+    }
+
+    // Обход без промежуточного списка: на десятках миллионов строк findAll не помещается в кучу
+    public void forEach(Consumer<User> consumer) {
+        for (int row = 0; row < size; row++) {
+            consumer.accept(readUser(row));
+        }
+    }
+
+    @Override
+    public Optional<User> findByEmail(Email email) {
+        int row = findRowByEmail(email);
+        return row < 0 ? Optional.empty() : Optional.of(readUser(row));
+    }
+
+    @Override
+    public boolean existsByEmail(Email email) {
+        return findRowByEmail(email) >= 0;
+    }
+
+    long maxId() {
+        return size == 0 ? 0 : idAt(size - 1);
+    }
+
+    long idAt(int row) {
+        return ids.getLong(row * Long.BYTES);
+    }
+
+    // Первая строка с ID больше afterId; size, если таких нет
+    int firstRowAfter(long afterId) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (idAt(middle) <= afterId) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    ByteBuffer[] sections() {
+        ByteBuffer[] sections = new ByteBuffer[FIXED_SECTION_COUNT + segments.length];
+        sections[0] = section(ids, size * Long.BYTES);
+        sections[1] = section(createdAt, size * Long.BYTES);
+        sections[2] = section(ages, size * Integer.BYTES);
+        sections[3] = section(nameRefs, size * Long.BYTES);
+        sections[4] = section(emailRefs, size * Long.BYTES);
+        sections[5] = section(idIndex, idIndex.capacity());
+        sections[6] = section(emailIndex, emailIndex.capacity());
+        for (int i = 0; i < segments.length; i++) {
+            sections[FIXED_SECTION_COUNT + i] = section(segments[i], segments[i].limit());
+        }
+        return sections;
+    }
+
+    static OffHeapUserStore fromSections(int size, ByteBuffer[] sections) {
+        ByteBuffer[] segments = new ByteBuffer[sections.length - FIXED_SECTION_COUNT];
+        System.arraycopy(sections, FIXED_SECTION_COUNT, segments, 0, segments.length);
+        return new OffHeapUserStore(size, sections[0], sections[1], sections[2], sections[3],
+                sections[4], segments, sections[5], sections[6]);
+    }
+
+    private static ByteBuffer section(ByteBuffer buffer, int length) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(0).limit(length);
+        return view.slice().order(BYTE_ORDER);
+    }
+
+    private int findRowById(long id) {
+        int slot = hashId(id) & idIndexMask;
+        while (true) {
+            int entry = idIndex.getInt(slot * Integer.BYTES);
+            if (entry == EMPTY_SLOT) {
+                return -1;
+            }
+            int row = entry - 1;
+            if (ids.getLong(row * Long.BYTES) == id) {
+                return row;
+            }
+            slot = (slot + 1) & idIndexMask;
+        }
+    }
+
+    private int findRowByEmail(Email email) {
+        byte[] key = email.getValue().getBytes(StandardCharsets.UTF_8);
+        int slot = hashBytes(key) & emailIndexMask;
+        while (true) {
+            int entry = emailIndex.getInt(slot * Integer.BYTES);
+            if (entry == EMPTY_SLOT) {
+                return -1;
+            }
+            int row = entry - 1;
+            if (stringEquals(emailRefs.getLong(row * Long.BYTES), key)) {
+                return row;
+            }
+            slot = (slot + 1) & emailIndexMask;
+        }
+    }
+
+    User readUser(int row) {
+        int age = ages.getInt(row * Integer.BYTES);
+        long createdAtMicros = createdAt.getLong(row * Long.BYTES);
+
+        return new User(
+                ids.getLong(row * Long.BYTES),
+                readString(nameRefs.getLong(row * Long.BYTES)),
+                new Email(readString(emailRefs.getLong(row * Long.BYTES))),
+                age == NULL_AGE ? null : age,
+                createdAtMicros == NULL_TIMESTAMP ? null : fromMicros(createdAtMicros)
+        );
+    }
+
+    private String readString(long ref) {
+        return new String(stringBytes(segments[segmentOf(ref)], offsetOf(ref)), StandardCharsets.UTF_8);
+    }
+
+    private boolean stringEquals(long ref, byte[] key) {
+        ByteBuffer segment = segments[segmentOf(ref)];
+        int offset = offsetOf(ref);
+        if (segment.getInt(offset) != key.length) {
+            return false;
+        }
+        int start = offset + Integer.BYTES;
+        for (int i = 0; i < key.length; i++) {
+            if (segment.get(start + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static long stringRef(int segment, int offset) {
+        return ((long) segment << 32) | (offset & 0xFFFFFFFFL);
+    }
+
+    static int segmentOf(long ref) {
+        return (int) (ref >>> 32);
+    }
+
+    static int offsetOf(long ref) {
+        return (int) ref;
+    }
+
+    private static byte[] stringBytes(ByteBuffer segment, int offset) {
+        byte[] bytes = new byte[segment.getInt(offset)];
+        int start = offset + Integer.BYTES;
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = segment.get(start + i);
+        }
+        return bytes;
+    }
+
+    static int hashId(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    static int hashBytes(byte[] bytes) {
+        int h = 0x811C9DC5;
+        for (byte b : bytes) {
+            h ^= b;
+            h *= 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    static long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        long seconds = Math.floorDiv(micros, 1_000_000L);
+        int nanos = (int) Math.floorMod(micros, 1_000_000L) * 1_000;
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    public static class Builder {
+        private static final int MAX_DICTIONARY_SIZE = 1_000_000;
+
+        private final Map<String, Long> nameDictionary = new HashMap<>();
+        private final List<ByteBuffer> segments = new ArrayList<>();
+        private final int segmentSize;
+        private ByteBuffer ids;
+        private ByteBuffer createdAt;
+        private ByteBuffer ages;
+        private ByteBuffer nameRefs;
+        private ByteBuffer emailRefs;
+        // Текущий (последний) сегмент строк
+        private ByteBuffer strings;
+        private int size;
+        private long lastId;
+
+        public Builder() {
+            this(1_024);
+        }
+
+        public Builder(int expectedUsers) {
+            this(expectedUsers, DEFAULT_SEGMENT_SIZE);
+        }
+
+        Builder(int expectedUsers, int segmentSize) {
+            if (segmentSize <= Integer.BYTES) {
+                throw new IllegalArgumentException("Segment size is too small: " + segmentSize);
+            }
+            int capacity = Math.max(16, expectedUsers);
+            this.segmentSize = segmentSize;
+            this.ids = allocate(capacity * Long.BYTES);
+            this.createdAt = allocate(capacity * Long.BYTES);
+            this.ages = allocate(capacity * Integer.BYTES);
+            this.nameRefs = allocate(capacity * Long.BYTES);
+            this.emailRefs = allocate(capacity * Long.BYTES);
+            this.strings = allocate((int) Math.min(segmentSize, (long) capacity * 32));
+            this.segments.add(strings);
+        }
+
+        public Builder add(User user) {
+            if (user.getId() == null) {
+                throw new IllegalArgumentException("Snapshot requires persisted users with ID");
+            }
+            if (size > 0 && user.getId() <= lastId) {
+                throw new IllegalArgumentException("Snapshot rows must be added in ascending ID order: "
+                        + user.getId() + " after " + lastId);
+            }
+            ensureRowCapacity();
+
+            ids.putLong(size * Long.BYTES, user.getId());
+            createdAt.putLong(size * Long.BYTES,
+                    user.getCreatedAt() == null ? NULL_TIMESTAMP : toMicros(user.getCreatedAt()));
+            ages.putInt(size * Integer.BYTES, user.getAge() == null ? NULL_AGE : user.getAge());
+            nameRefs.putLong(size * Long.BYTES, internName(user.getName()));
+            emailRefs.putLong(size * Long.BYTES, appendString(user.getEmail().getValue()));
+            lastId = user.getId();
+            size++;
+            return this;
+        }
+
+        public OffHeapUserStore build() {
+            for (ByteBuffer segment : segments) {
+                segment.limit(segment.position());
+            }
+
+            ByteBuffer idIndex = allocate(indexCapacity(size) * Integer.BYTES);
+            ByteBuffer emailIndex = allocate(indexCapacity(size) * Integer.BYTES);
+            int mask = indexCapacity(size) - 1;
+
+            for (int row = 0; row < size; row++) {
+                insert(idIndex, mask, hashId(ids.getLong(row * Long.BYTES)), row);
+                long emailRef = emailRefs.getLong(row * Long.BYTES);
+                insert(emailIndex, mask, hashBytes(stringBytes(segments.get(segmentOf(emailRef)), offsetOf(emailRef))),
+                        row);
+            }
+
+            logger.debug("Off-heap снимок построен: {} пользователей, {} уникальных имен в словаре, сегментов строк {}",
+                    size, nameDictionary.size(), segments.size());
+            nameDictionary.clear();
+
+            return new OffHeapUserStore(size, ids, createdAt, ages, nameRefs, emailRefs,
+                    segments.toArray(new ByteBuffer[0]), idIndex, emailIndex);
+        }
+
+        private long internName(String name) {
+            Long ref = nameDictionary.get(name);
+            if (ref != null) {
+                return ref;
+            }
+            long appended = appendString(name);
+            if (nameDictionary.size() < MAX_DICTIONARY_SIZE) {
+                nameDictionary.put(name, appended);
+            }
+            return appended;
+        }
+
+        private long appendString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            int required = Integer.BYTES + bytes.length;
+            if (required > segmentSize) {
+                throw new IllegalArgumentException("String does not fit into a snapshot segment: " + bytes.length);
+            }
+            if (strings.remaining() < required) {
+                long needed = (long) strings.position() + required;
+                if (needed <= segmentSize) {
+                    // Сегмент растет удвоением, но не больше segmentSize
+                    strings = grow(strings, (int) needed, segmentSize);
+                    segments.set(segments.size() - 1, strings);
+                } else {
+                    // Сегмент заполнен: строка начинает следующий
+                    strings.limit(strings.position());
+                    strings = allocate(Math.min(segmentSize, Math.max(required, strings.capacity())));
+                    segments.add(strings);
+                }
+            }
+            long ref = stringRef(segments.size() - 1, strings.position());
+            strings.putInt(bytes.length).put(bytes);
+            return ref;
+        }
+
+        private void ensureRowCapacity() {
+            if ((size + 1) * Long.BYTES <= ids.capacity()) {
+                return;
+            }
+            int rows = size * 2;
+            ids = grow(ids, rows * Long.BYTES, Integer.MAX_VALUE);
+            createdAt = grow(createdAt, rows * Long.BYTES, Integer.MAX_VALUE);
+            ages = grow(ages, rows * Integer.BYTES, Integer.MAX_VALUE);
+            nameRefs = grow(nameRefs, rows * Long.BYTES, Integer.MAX_VALUE);
+            emailRefs = grow(emailRefs, rows * Long.BYTES, Integer.MAX_VALUE);
+        }
+
+        private static void insert(ByteBuffer index, int mask, int hash, int row) {
+            int slot = hash & mask;
+            while (index.getInt(slot * Integer.BYTES) != EMPTY_SLOT) {
+                slot = (slot + 1) & mask;
+            }
+            index.putInt(slot * Integer.BYTES, row + 1);
+        }
+
+        private static int indexCapacity(int size) {
+            int capacity = Integer.highestOneBit(Math.max(2, size * 2 - 1)) << 1;
+            if (capacity <= 0) {
+                throw new IllegalStateException("Too many users for off-heap snapshot: " + size);
+            }
+            return capacity;
+        }
+
+        private static ByteBuffer grow(ByteBuffer buffer, int minCapacity, int maxCapacity) {
+            long newCapacity = Math.min(Math.max((long) buffer.capacity() * 2, minCapacity), maxCapacity);
+            if (newCapacity < minCapacity) {
+                throw new IllegalStateException("Off-heap snapshot section exceeds 2 GB");
+            }
+            ByteBuffer copy = allocate((int) newCapacity);
+            ByteBuffer source = buffer.duplicate();
+            int position = buffer.position();
+            source.clear();
+            copy.put(source);
+            copy.position(position);
+            return copy;
+        }
+
+        private static ByteBuffer allocate(int capacity) {
+            return ByteBuffer.allocateDirect(capacity).order(BYTE_ORDER);
+        }
+    }
+}
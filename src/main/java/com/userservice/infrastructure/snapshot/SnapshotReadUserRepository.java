@@ -0,0 +1,71 @@
+package com.userservice.infrastructure.snapshot;
+
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+import com.userservice.domain.repository.UserRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+// Чтение из снимка, запись и проверка занятости email - в БД. Промах снимка уходит в БД:
+// пользователь мог появиться на другом узле после последнего догоняющего чтения.
+// Overlay меняют только события после фиксации транзакции: при откате в снимке не остается строк,
+// которых нет в БД. Собственная запись видна в снимке с доставкой ее события
+public class SnapshotReadUserRepository implements UserRepository {
+    private final UserRepository delegate;
+    private final SnapshotUserRepository snapshot;
+
+    public SnapshotReadUserRepository(UserRepository delegate, SnapshotUserRepository snapshot) {
+        this.delegate = delegate;
+        this.snapshot = snapshot;
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        Optional<User> user = snapshot.findById(id);
+        return user.isPresent() ? user : delegate.findById(id);
+    }
+
+    @Override
+    public List<User> findAll() {
+        return snapshot.findAll();
+    }
+
+    @Override
+    public List<User> findPage(long afterId, int limit) {
+        return snapshot.findPage(afterId, limit);
+    }
+
+    @Override
+    public Optional<User> findByEmail(Email email) {
+        Optional<User> user = snapshot.findByEmail(email);
+        return user.isPresent() ? user : delegate.findByEmail(email);
+    }
+
+    // Уникальность email проверяется по БД: снимок может отставать на интервал догоняющего чтения
+    @Override
+    public boolean existsByEmail(Email email) {
+        return delegate.existsByEmail(email);
+    }
+
+    @Override
+    public void forEachEmail(Consumer<Email> action) {
+        delegate.forEachEmail(action);
+    }
+
+    @Override
+    public User save(User user) {
+        return delegate.save(user);
+    }
+
+    @Override
+    public void update(User user) {
+        delegate.update(user);
+    }
+
+    @Override
+    public void delete(Long id) {
+        delegate.delete(id);
+    }
+}
@@ -0,0 +1,382 @@
+package com.userservice.infrastructure.snapshot;
+
+import com.userservice.domain.event.UserChangeEvent;
+import com.userservice.domain.event.UserChangeListener;
+import com.userservice.domain.event.UserChangeType;
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+import com.userservice.domain.repository.UserReader;
+import com.userservice.infrastructure.persistence.StreamingUserReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+
+// Снимок + overlay изменений после него. Периодически снимок переписывается вместе с overlay:
+// overlay очищается, а следующий запуск догоняет БД только от момента последней перезаписи
+public class SnapshotUserRepository implements UserReader, UserChangeListener, AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(SnapshotUserRepository.class);
+
+    // Запас на расхождение часов приложения и БД: повторное применение строки безопасно
+    static final Duration CATCH_UP_MARGIN = Duration.ofMinutes(1);
+
+    public static final String FILE_PROPERTY = "userservice.snapshot.file";
+    public static final Duration DEFAULT_CATCH_UP_INTERVAL = Duration.ofMinutes(1);
+    public static final Duration DEFAULT_REWRITE_INTERVAL = Duration.ofHours(1);
+    private static final long RELEASE_POLL_MILLIS = 10;
+
+    // Строки с ID > afterId или измененные с since; мягко удаленные приходят в deleted
+    @FunctionalInterface
+    public interface ChangeFeed {
+        long forEachChangedSince(long afterId, LocalDateTime since, Consumer<User> changed, LongConsumer deleted);
+    }
+
+    private volatile UserSnapshot snapshot;
+    private final Map<Long, Optional<User>> overlay = new ConcurrentHashMap<>();
+    private final Map<Email, Long> overlayEmails = new ConcurrentHashMap<>();
+    private volatile long highWaterId;
+    private volatile LocalDateTime caughtUpAt;
+    // Источник актуальных строк для событий с других узлов, которые приходят без снимка пользователя
+    private final UserReader source;
+    private ScheduledExecutorService scheduler;
+    private ChangeFeed feed;
+
+    public SnapshotUserRepository(UserSnapshot snapshot) {
+        this(snapshot, null);
+    }
+
+    public SnapshotUserRepository(UserSnapshot snapshot, UserReader source) {
+        this.snapshot = snapshot;
+        this.source = source;
+        this.highWaterId = snapshot.getHighWaterId();
+        this.caughtUpAt = snapshot.getTakenAt();
+    }
+
+    public static boolean isEnabled() {
+        String file = System.getProperty(FILE_PROPERTY);
+        return file != null && !file.isBlank();
+    }
+
+    // maxAge - срок хранения надгробий: физически очищенные строки догоняющее чтение уже не увидит,
+    // поэтому более старый снимок заменяется полной загрузкой
+    public static SnapshotUserRepository open(Path path, StreamingUserReader reader, UserReader source,
+                                              Duration maxAge) {
+        UserSnapshot snapshot = null;
+
+        if (Files.exists(path)) {
+            try {
+                snapshot = new UserSnapshotLoader().load(path);
+                if (snapshot.getTakenAt().isBefore(LocalDateTime.now().minus(maxAge))) {
+                    logger.warn("Снимок {} старше {} ч, выполняется полная загрузка из БД", path, maxAge.toHours());
+                    snapshot = null;
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Снимок {} не может быть загружен, выполняется полная загрузка из БД: {}",
+                        path, e.getMessage());
+            }
+        }
+
+        if (snapshot == null) {
+            LocalDateTime takenAt = LocalDateTime.now();
+            OffHeapUserStore store = OffHeapUserStore.load(reader);
+            new UserSnapshotWriter().write(store, takenAt, path);
+            snapshot = new UserSnapshot(store, UserSnapshotFormat.VERSION, store.maxId(), takenAt);
+        }
+
+        SnapshotUserRepository repository = new SnapshotUserRepository(snapshot, source);
+        repository.catchUp(reader::forEachChangedSince);
+        return repository;
+    }
+
+    public synchronized long catchUp(ChangeFeed feed) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime since = caughtUpAt.minus(CATCH_UP_MARGIN);
+
+        long applied = feed.forEachChangedSince(highWaterId, since, this::apply, this::markDeleted);
+
+        caughtUpAt = startedAt;
+        logger.info("Снимок догнал БД: применено {} изменений (ID > {} или updated_at >= {})",
+                applied, highWaterId, since);
+        return applied;
+    }
+
+    // Догоняющее чтение и перезапись снимка в фоне; интервалы независимы
+    public synchronized void start(ChangeFeed feed, Path path, Duration catchUpInterval, Duration rewriteInterval) {
+        if (scheduler != null) {
+            return;
+        }
+        this.feed = feed;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> quietly("догоняющее чтение", () -> catchUp(feed)),
+                catchUpInterval.toMillis(), catchUpInterval.toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(() -> quietly("перезапись снимка", () -> rewrite(path)),
+                rewriteInterval.toMillis(), rewriteInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private static void quietly(String action, Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            logger.error("Ошибка фоновой задачи снимка ({}): {}", action, e.getMessage(), e);
+        }
+    }
+
+    // Снимок + overlay записываются в новый файл, overlay очищается от вошедших в него записей.
+    // Время снимка - начало последнего догоняющего чтения: более поздние изменения подтянет следующее
+    public synchronized void rewrite(Path path) {
+        long start = System.nanoTime();
+        LocalDateTime takenAt = caughtUpAt;
+        Map<Long, Optional<User>> captured = new HashMap<>(overlay);
+        UserSnapshot current = snapshot;
+
+        // Слияние по ID: строки снимка упорядочены, overlay вставляется на свои места
+        OffHeapUserStore store = current.getStore();
+        OffHeapUserStore.Builder builder = new OffHeapUserStore.Builder(store.size() + captured.size());
+        Iterator<Optional<User>> changes = new TreeMap<>(captured).values().iterator();
+        Optional<User> change = changes.hasNext() ? changes.next() : null;
+        for (int row = 0; row < store.size(); row++) {
+            long id = store.idAt(row);
+            while (change != null && (change.isEmpty() || change.get().getId() < id)) {
+                change.ifPresent(builder::add);
+                change = changes.hasNext() ? changes.next() : null;
+            }
+            if (!captured.containsKey(id)) {
+                builder.add(store.readUser(row));
+            }
+        }
+        while (change != null) {
+            change.ifPresent(builder::add);
+            change = changes.hasNext() ? changes.next() : null;
+        }
+        new UserSnapshotWriter().write(builder.build(), takenAt, path);
+        snapshot = new UserSnapshotLoader().load(path);
+        release(current);
+
+        // Запись, замененная событием во время перезаписи, остается в overlay (сравнение по ссылке)
+        int compacted = 0;
+        for (Map.Entry<Long, Optional<User>> entry : captured.entrySet()) {
+            Optional<User> value = entry.getValue();
+            boolean[] removed = new boolean[1];
+            overlay.computeIfPresent(entry.getKey(), (id, existing) -> {
+                removed[0] = existing == value;
+                return removed[0] ? null : existing;
+            });
+            if (removed[0]) {
+                compacted++;
+                value.ifPresent(user -> overlayEmails.remove(user.getEmail(), user.getId()));
+            }
+        }
+        logger.info("Снимок перезаписан: {} пользователей, из overlay перенесено {}, осталось {}, за {} мс",
+                snapshot.getStore().size(), compacted, overlay.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Новые читатели уже видят новый снимок; прежний освобождается, когда закончат начатые чтения
+    private static void release(UserSnapshot retired) {
+        try {
+            while (retired.readers.get() > 0) {
+                Thread.sleep(RELEASE_POLL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.debug("Ожидание читателей прежнего снимка прервано, его освободит сборщик мусора");
+            return;
+        }
+        retired.release();
+    }
+
+    // Счетчик увеличивается до повторной проверки ссылки: release не снимет отображение у читателя,
+    // успевшего взять прежний снимок
+    private <T> T read(Function<UserSnapshot, T> reader) {
+        UserSnapshot current = snapshot;
+        current.readers.incrementAndGet();
+        while (current != snapshot) {
+            current.readers.decrementAndGet();
+            current = snapshot;
+            current.readers.incrementAndGet();
+        }
+        try {
+            return reader.apply(current);
+        } finally {
+            current.readers.decrementAndGet();
+        }
+    }
+
+    public int overlaySize() {
+        return overlay.size();
+    }
+
+    @Override
+    public void close() {
+        ScheduledExecutorService running;
+        synchronized (this) {
+            running = scheduler;
+        }
+        if (running != null) {
+            running.shutdownNow();
+        }
+    }
+
+    void apply(User user) {
+        Optional<User> previous = overlay.put(user.getId(), Optional.of(user));
+        if (previous != null && previous.isPresent()) {
+            overlayEmails.remove(previous.get().getEmail(), user.getId());
+        }
+        overlayEmails.put(user.getEmail(), user.getId());
+
+        if (user.getId() > highWaterId) {
+            highWaterId = user.getId();
+        }
+    }
+
+    void markDeleted(long id) {
+        Optional<User> previous = overlay.put(id, Optional.empty());
+        if (previous != null && previous.isPresent()) {
+            overlayEmails.remove(previous.get().getEmail(), id);
+        }
+        if (id > highWaterId) {
+            highWaterId = id;
+        }
+    }
+
+    @Override
+    public void onUserChanged(UserChangeEvent event) {
+        if (event.getType() == UserChangeType.DELETED) {
+            markDeleted(event.getUserId());
+        } else if (event.getAfter().isPresent()) {
+            apply(event.getAfter().get());
+        } else if (source != null) {
+            // Событие с другого узла: строка перечитывается, иначе снимок отставал бы до догоняющего чтения
+            Optional<User> current = source.findById(event.getUserId());
+            if (current.isPresent()) {
+                apply(current.get());
+            } else {
+                markDeleted(event.getUserId());
+            }
+        }
+    }
+
+    // Изменения потерянных событий уже в БД: внеочередное догоняющее чтение подтягивает их
+    @Override
+    public void onEventsLost(long count) {
+        ScheduledExecutorService running;
+        ChangeFeed changes;
+        synchronized (this) {
+            running = scheduler;
+            changes = feed;
+        }
+        if (running != null) {
+            running.execute(() -> quietly("догоняющее чтение после потери событий", () -> catchUp(changes)));
+        }
+    }
+
+    public UserSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return read(current -> {
+            Optional<User> overridden = overlay.get(id);
+            if (overridden != null) {
+                return overridden;
+            }
+            return current.getStore().findById(id);
+        });
+    }
+
+    @Override
+    public List<User> findAll() {
+        return read(current -> {
+            List<User> users = new ArrayList<>();
+            current.getStore().forEach(user -> {
+                if (!overlay.containsKey(user.getId())) {
+                    users.add(user);
+                }
+            });
+            for (Optional<User> user : overlay.values()) {
+                user.ifPresent(users::add);
+            }
+            return users;
+        });
+    }
+
+    // Слияние двух упорядоченных по ID потоков: строк снимка от двоичного поиска и измененных в overlay
+    public List<User> findPage(long afterId, int limit) {
+        return read(current -> {
+            OffHeapUserStore store = current.getStore();
+            // Копия overlay: событие посреди обхода не должно скрыть строку снимка, не добавив замену
+            Map<Long, Optional<User>> captured = new HashMap<>(overlay);
+            List<User> changed = captured.values().stream()
+                    .flatMap(Optional::stream)
+                    .filter(user -> user.getId() > afterId)
+                    .sorted(Comparator.comparing(User::getId))
+                    .limit(limit)
+                    .collect(Collectors.toList());
+
+            List<User> page = new ArrayList<>(limit);
+            int row = store.firstRowAfter(afterId);
+            int next = 0;
+            while (page.size() < limit) {
+                while (row < store.size() && captured.containsKey(store.idAt(row))) {
+                    row++;
+                }
+                boolean fromStore = row < store.size();
+                boolean fromOverlay = next < changed.size();
+                if (!fromStore && !fromOverlay) {
+                    break;
+                }
+                if (fromStore && (!fromOverlay || store.idAt(row) < changed.get(next).getId())) {
+                    page.add(store.readUser(row++));
+                } else {
+                    page.add(changed.get(next++));
+                }
+            }
+            return page;
+        });
+    }
+
+    @Override
+    public Optional<User> findByEmail(Email email) {
+        return read(current -> {
+            Long overlayId = overlayEmails.get(email);
+            if (overlayId != null) {
+                Optional<User> user = overlay.getOrDefault(overlayId, Optional.empty());
+                if (user.isPresent() && user.get().getEmail().equals(email)) {
+                    return user;
+                }
+            }
+
+            // Строка из снимка устарела, если пользователь с тем же ID уже есть в overlay
+            return current.getStore().findByEmail(email)
+                    .filter(user -> !overlay.containsKey(user.getId()));
+        });
+    }
+
+    @Override
+    public boolean existsByEmail(Email email) {
+        return findByEmail(email).isPresent();
+    }
+}
@@ -0,0 +1,91 @@
+package com.userservice.infrastructure.snapshot;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class UserSnapshot {
+    private static final Logger logger = LogManager.getLogger(UserSnapshot.class);
+
+    private final OffHeapUserStore store;
+    private final int version;
+    private final long highWaterId;
+    private final LocalDateTime takenAt;
+    // Отображенные секции файла; у снимка, построенного в памяти, их нет
+    private final ByteBuffer[] mapped;
+    // Число читателей, которые сейчас обращаются к store: отображение снимается только при нуле
+    final AtomicInteger readers = new AtomicInteger();
+
+    public UserSnapshot(OffHeapUserStore store, int version, long highWaterId, LocalDateTime takenAt) {
+        this(store, version, highWaterId, takenAt, new ByteBuffer[0]);
+    }
+
+    UserSnapshot(OffHeapUserStore store, int version, long highWaterId, LocalDateTime takenAt, ByteBuffer[] mapped) {
+        this.store = store;
+        this.version = version;
+        this.highWaterId = highWaterId;
+        this.takenAt = takenAt;
+        this.mapped = mapped;
+    }
+
+    public OffHeapUserStore getStore() { return store; }
+    public int getVersion() { return version; }
+    public long getHighWaterId() { return highWaterId; }
+    public LocalDateTime getTakenAt() { return takenAt; }
+
+    // Снимает отображение файла сразу, не дожидаясь сборки мусора: иначе каждая перезапись оставляет
+    // в адресном пространстве прежний файл. После вызова обращение к store недопустимо
+    void release() {
+        if (mapped.length == 0) {
+            return;
+        }
+        Unmapper unmapper = Unmapper.INSTANCE;
+        if (unmapper == null) {
+            logger.debug("Снятие отображения недоступно, прежний снимок освободит сборщик мусора");
+            return;
+        }
+        for (ByteBuffer buffer : mapped) {
+            unmapper.unmap(buffer);
+        }
+        logger.debug("Отображение прежнего снимка снято: {} секций", mapped.length);
+    }
+
+    // sun.misc.Unsafe.invokeCleaner из модуля jdk.unsupported: в Java 11 другого способа снять
+    // отображение MappedByteBuffer нет
+    private static final class Unmapper {
+        static final Unmapper INSTANCE = create();
+
+        private final Object unsafe;
+        private final Method invokeCleaner;
+
+        private Unmapper(Object unsafe, Method invokeCleaner) {
+            this.unsafe = unsafe;
+            this.invokeCleaner = invokeCleaner;
+        }
+
+        private static Unmapper create() {
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Field field = unsafeClass.getDeclaredField("theUnsafe");
+                field.setAccessible(true);
+                return new Unmapper(field.get(null), unsafeClass.getMethod("invokeCleaner", ByteBuffer.class));
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                logger.warn("Снятие отображения снимков недоступно: {}", e.getMessage());
+                return null;
+            }
+        }
+
+        void unmap(ByteBuffer buffer) {
+            try {
+                invokeCleaner.invoke(unsafe, buffer);
+            } catch (ReflectiveOperationException e) {
+                logger.warn("Не удалось снять отображение секции снимка: {}", e.getMessage());
+            }
+        }
+    }
+}
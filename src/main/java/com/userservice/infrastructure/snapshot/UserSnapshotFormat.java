@@ -0,0 +1,23 @@
+package com.userservice.infrastructure.snapshot;
+
+final class UserSnapshotFormat {
+    static final int MAGIC = 0x55534E50; // "USNP"
+    // 2: ссылки на строки - long, строки разбиты на сегменты (число секций переменное)
+    // 3: строки упорядочены по ID; файлы прежних версий заменяются полной загрузкой
+    static final int VERSION = 3;
+    static final int MAX_SECTION_COUNT = OffHeapUserStore.FIXED_SECTION_COUNT + 1_024;
+
+    // magic, version, userCount, sectionCount, highWaterId, takenAt, checksum; затем (offset, length) секций
+    static final int FIXED_HEADER_SIZE = Integer.BYTES * 4 + Long.BYTES * 3;
+    static final int ALIGNMENT = Long.BYTES;
+
+    private UserSnapshotFormat() {}
+
+    static int headerSize(int sectionCount) {
+        return FIXED_HEADER_SIZE + sectionCount * Long.BYTES * 2;
+    }
+
+    static long align(long offset) {
+        return (offset + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+}
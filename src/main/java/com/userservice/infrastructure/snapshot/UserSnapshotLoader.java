@@ -0,0 +1,95 @@
+package com.userservice.infrastructure.snapshot;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+public class UserSnapshotLoader {
+    private static final Logger logger = LogManager.getLogger(UserSnapshotLoader.class);
+
+    // Полная проверка CRC читает каждую страницу файла и отменяет ленивое отображение, поэтому она по запросу
+    public static final String VERIFY_PROPERTY = "userservice.snapshot.verify";
+
+    private final boolean verifyChecksum;
+
+    public UserSnapshotLoader() {
+        this(Boolean.getBoolean(VERIFY_PROPERTY));
+    }
+
+    public UserSnapshotLoader(boolean verifyChecksum) {
+        this.verifyChecksum = verifyChecksum;
+    }
+
+    public UserSnapshot load(Path path) {
+        long start = System.nanoTime();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = read(channel, 0, UserSnapshotFormat.FIXED_HEADER_SIZE, path);
+
+            if (header.getInt() != UserSnapshotFormat.MAGIC) {
+                throw new IllegalStateException("Not a user snapshot file: " + path);
+            }
+            int version = header.getInt();
+            if (version != UserSnapshotFormat.VERSION) {
+                throw new IllegalStateException("Unsupported snapshot version " + version + ": " + path);
+            }
+            int size = header.getInt();
+            int sectionCount = header.getInt();
+            if (sectionCount <= OffHeapUserStore.FIXED_SECTION_COUNT
+                    || sectionCount > UserSnapshotFormat.MAX_SECTION_COUNT) {
+                throw new IllegalStateException("Unexpected snapshot section count " + sectionCount + ": " + path);
+            }
+            long highWaterId = header.getLong();
+            long takenAtMicros = header.getLong();
+            long expectedChecksum = header.getLong();
+            ByteBuffer sectionTable = read(channel, UserSnapshotFormat.FIXED_HEADER_SIZE,
+                    UserSnapshotFormat.headerSize(sectionCount) - UserSnapshotFormat.FIXED_HEADER_SIZE, path);
+
+            ByteBuffer[] sections = new ByteBuffer[sectionCount];
+            CRC32 checksum = new CRC32();
+            for (int i = 0; i < sectionCount; i++) {
+                long offset = sectionTable.getLong();
+                long length = sectionTable.getLong();
+                if (offset + length > channel.size()) {
+                    throw new IllegalStateException("Snapshot section " + i + " is out of bounds: " + path);
+                }
+                sections[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, length)
+                        .order(OffHeapUserStore.BYTE_ORDER);
+                if (verifyChecksum) {
+                    checksum.update(sections[i].duplicate());
+                }
+            }
+
+            if (verifyChecksum && checksum.getValue() != expectedChecksum) {
+                throw new IllegalStateException("Snapshot checksum mismatch: " + path);
+            }
+
+            UserSnapshot snapshot = new UserSnapshot(OffHeapUserStore.fromSections(size, sections),
+                    version, highWaterId, OffHeapUserStore.fromMicros(takenAtMicros), sections);
+
+            logger.info("Снимок пользователей {} отображен в память: {} пользователей, версия {}, CRC {}, за {} мс",
+                    path, size, version, verifyChecksum ? "проверена" : "не проверялась",
+                    (System.nanoTime() - start) / 1_000_000);
+            return snapshot;
+        } catch (IOException e) {
+            logger.error("Ошибка при чтении снимка пользователей {}: {}", path, e.getMessage(), e);
+            throw new RuntimeException("Failed to load user snapshot: " + path, e);
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length, Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(OffHeapUserStore.BYTE_ORDER);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IllegalStateException("Snapshot file is truncated: " + path);
+            }
+        }
+        return buffer.flip();
+    }
+}
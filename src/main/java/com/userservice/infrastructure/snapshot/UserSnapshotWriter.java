@@ -0,0 +1,77 @@
+package com.userservice.infrastructure.snapshot;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.zip.CRC32;
+
+public class UserSnapshotWriter {
+    private static final Logger logger = LogManager.getLogger(UserSnapshotWriter.class);
+
+    public void write(OffHeapUserStore store, LocalDateTime takenAt, Path path) {
+        ByteBuffer[] sections = store.sections();
+        long highWaterId = store.maxId();
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+        logger.info("Запись снимка пользователей в {}: {} пользователей, high-water ID {}",
+                path, store.size(), highWaterId);
+
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+            CRC32 checksum = new CRC32();
+            long[] offsets = new long[sections.length];
+            long offset = UserSnapshotFormat.align(UserSnapshotFormat.headerSize(sections.length));
+
+            for (int i = 0; i < sections.length; i++) {
+                offsets[i] = offset;
+                ByteBuffer section = sections[i].duplicate();
+                checksum.update(section.duplicate());
+                writeFully(channel, section, offset);
+                offset = UserSnapshotFormat.align(offset + sections[i].remaining());
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(UserSnapshotFormat.headerSize(sections.length))
+                    .order(OffHeapUserStore.BYTE_ORDER);
+            header.putInt(UserSnapshotFormat.MAGIC)
+                    .putInt(UserSnapshotFormat.VERSION)
+                    .putInt(store.size())
+                    .putInt(sections.length)
+                    .putLong(highWaterId)
+                    .putLong(OffHeapUserStore.toMicros(takenAt))
+                    .putLong(checksum.getValue());
+            for (int i = 0; i < sections.length; i++) {
+                header.putLong(offsets[i]).putLong(sections[i].remaining());
+            }
+            header.flip();
+            writeFully(channel, header, 0);
+
+            channel.force(true);
+        } catch (IOException e) {
+            logger.error("Ошибка при записи снимка пользователей {}: {}", path, e.getMessage(), e);
+            throw new RuntimeException("Failed to write user snapshot: " + path, e);
+        }
+
+        try {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error("Ошибка при публикации снимка пользователей {}: {}", path, e.getMessage(), e);
+            throw new RuntimeException("Failed to publish user snapshot: " + path, e);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long current = position;
+        while (buffer.hasRemaining()) {
+            current += channel.write(buffer, current);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.userservice.infrastructure.startup;
+
+import java.time.Duration;
+import java.time.Instant;
+
+public final class StartupTimer {
+    public static final String PROBE_PROPERTY = "userservice.startup.probe";
+    public static final String REPORT_PREFIX = "time-to-first-response-ms=";
+
+    private StartupTimer() {}
+
+    public static boolean isProbeEnabled() {
+        return Boolean.getBoolean(PROBE_PROPERTY);
+    }
+
+    // Отсчет от старта процесса, а не от main: в замер входят загрузка JVM и классов
+    public static Duration sinceProcessStart() {
+        Instant started = ProcessHandle.current().info().startInstant().orElseThrow();
+        return Duration.between(started, Instant.now());
+    }
+
+    public static String report(Duration elapsed) {
+        return REPORT_PREFIX + elapsed.toMillis();
+    }
+}
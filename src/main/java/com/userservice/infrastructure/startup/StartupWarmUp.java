@@ -0,0 +1,61 @@
+package com.userservice.infrastructure.startup;
+
+import com.userservice.application.dto.CreateUserRequest;
+import com.userservice.application.dto.UpdateUserRequest;
+import com.userservice.application.dto.UserResponse;
+import com.userservice.application.service.UserService;
+import com.userservice.infrastructure.memory.InMemoryUserRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+
+public class StartupWarmUp {
+    private static final Logger logger = LogManager.getLogger(StartupWarmUp.class);
+
+    public static final String WARMUP_PROPERTY = "userservice.startup.warmup";
+    public static final int DEFAULT_ITERATIONS = 10_000;
+
+    private final int iterations;
+
+    public StartupWarmUp() {
+        this(Integer.getInteger(WARMUP_PROPERTY + ".iterations", DEFAULT_ITERATIONS));
+    }
+
+    public StartupWarmUp(int iterations) {
+        this.iterations = iterations;
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(WARMUP_PROPERTY);
+    }
+
+    // Прогоняет все пути UserService на репозитории в памяти: JIT компилирует валидацию,
+    // разбор email и маппинг DTO до первого реального запроса, БД при этом не затрагивается
+    public long run() {
+        long start = System.nanoTime();
+        UserService userService = new UserService(new InMemoryUserRepository());
+
+        long checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            String email = "warmup" + i + "@example.com";
+            UserResponse created = userService.createUser(new CreateUserRequest("Warm Up " + i, email, 18 + i % 60));
+            checksum += userService.getUserById(created.getId()).map(UserResponse::getId).orElse(0L);
+            checksum += userService.getUserByEmail(email).isPresent() ? 1 : 0;
+            userService.updateUser(new UpdateUserRequest(created.getId(), "Warmed " + i, email, 20 + i % 60));
+            if (i % 100 == 0) {
+                checksum += userService.getAllUsers().size();
+            }
+            try {
+                userService.createUser(new CreateUserRequest("Invalid", "not-an-email", -1));
+            } catch (IllegalArgumentException expected) {
+                checksum++;
+            }
+            userService.deleteUser(created.getId());
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        logger.info("Прогрев завершен: {} итераций за {} мс (контрольная сумма {})", iterations, elapsedMillis, checksum);
+        return elapsedMillis;
+    }
+}
@@ -0,0 +1,74 @@
+package com.userservice.infrastructure.tracing;
+
+import com.userservice.infrastructure.config.HibernateConfig;
+import com.userservice.infrastructure.jdbc.JdbcConnectionPool;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+// EXPLAIN (ANALYZE, BUFFERS) в транзакции, которая всегда откатывается:
+// ANALYZE действительно выполняет оператор, в том числе INSERT/UPDATE/DELETE
+public class JdbcQueryExplainer implements QueryExplainer {
+    private static final int QUERY_TIMEOUT_SECONDS = 30;
+
+    private final JdbcConnectionPool.ConnectionFactory connectionFactory;
+
+    public JdbcQueryExplainer(JdbcConnectionPool.ConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    public static JdbcQueryExplainer fromHibernateSettings() {
+        Map<String, Object> settings = HibernateConfig.connectionSettings();
+        String url = (String) settings.get("hibernate.connection.url");
+        String username = (String) settings.get("hibernate.connection.username");
+        String password = (String) settings.get("hibernate.connection.password");
+        return new JdbcQueryExplainer(() -> DriverManager.getConnection(url, username, password));
+    }
+
+    @Override
+    public String explain(String sql, List<Object> parameters) throws SQLException {
+        int placeholders = placeholders(sql);
+        if (placeholders != parameters.size()) {
+            throw new IllegalArgumentException("Parameters of the statement were not captured ("
+                    + placeholders + " placeholders, " + parameters.size() + " values)");
+        }
+
+        try (Connection connection = connectionFactory.open()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + sql)) {
+                statement.setQueryTimeout(QUERY_TIMEOUT_SECONDS);
+                for (int i = 0; i < parameters.size(); i++) {
+                    statement.setObject(i + 1, parameters.get(i));
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        plan.append("    ").append(resultSet.getString(1)).append(System.lineSeparator());
+                    }
+                }
+                return plan.toString();
+            } finally {
+                connection.rollback();
+            }
+        }
+    }
+
+    static int placeholders(String sql) {
+        int count = 0;
+        boolean quoted = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (c == '?' && !quoted) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
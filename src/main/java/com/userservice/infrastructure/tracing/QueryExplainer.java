@@ -0,0 +1,9 @@
+package com.userservice.infrastructure.tracing;
+
+import java.util.List;
+
+@FunctionalInterface
+public interface QueryExplainer {
+    // Текст плана выполнения оператора с данными параметрами
+    String explain(String sql, List<Object> parameters) throws Exception;
+}
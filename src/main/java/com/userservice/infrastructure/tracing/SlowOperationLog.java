@@ -0,0 +1,144 @@
+package com.userservice.infrastructure.tracing;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Трассы дольше порога пишутся в логгер com.userservice.slow: фазы, SQL и форма параметров (типы и длины,
+// без значений). С QueryExplainer для последнего оператора трассы в фоне снимается план
+public class SlowOperationLog implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(SlowOperationLog.class);
+    private static final Logger slowLogger = LogManager.getLogger("com.userservice.slow");
+
+    public static final String THRESHOLD_PROPERTY = "userservice.trace.slow.ms";
+    public static final String EXPLAIN_PROPERTY = "userservice.trace.explain";
+    public static final long DEFAULT_THRESHOLD_MILLIS = 200;
+    private static final int EXPLAIN_QUEUE_CAPACITY = 16;
+
+    private final long thresholdNanos;
+    private final QueryExplainer explainer;
+    private final Executor explainExecutor;
+    private final AtomicLong slowOperations = new AtomicLong();
+
+    public SlowOperationLog(Duration threshold) {
+        this(threshold, null);
+    }
+
+    public SlowOperationLog(Duration threshold, QueryExplainer explainer) {
+        // Очередь ограничена: при шквале медленных вызовов лишние EXPLAIN отбрасываются
+        this(threshold, explainer, new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(EXPLAIN_QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "slow-query-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy()));
+    }
+
+    SlowOperationLog(Duration threshold, QueryExplainer explainer, Executor explainExecutor) {
+        this.thresholdNanos = threshold.toNanos();
+        this.explainer = explainer;
+        this.explainExecutor = explainExecutor;
+    }
+
+    public static SlowOperationLog fromSystemProperties(QueryExplainer explainer) {
+        Duration threshold = Duration.ofMillis(Long.getLong(THRESHOLD_PROPERTY, DEFAULT_THRESHOLD_MILLIS));
+        return new SlowOperationLog(threshold, Boolean.getBoolean(EXPLAIN_PROPERTY) ? explainer : null);
+    }
+
+    // true - трасса превысила порог и записана
+    public boolean onComplete(Trace trace) {
+        if (trace.getDurationNanos() < thresholdNanos) {
+            return false;
+        }
+        slowOperations.incrementAndGet();
+        slowLogger.warn(describe(trace));
+
+        if (explainer != null && !trace.getStatements().isEmpty()) {
+            Trace.Statement statement = trace.getStatements().get(trace.getStatements().size() - 1);
+            try {
+                explainExecutor.execute(() -> explain(trace.getTraceId(), statement));
+            } catch (RejectedExecutionException e) {
+                logger.debug("EXPLAIN для трассы {} пропущен: {}", trace.getTraceId(), e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    public long getSlowOperations() {
+        return slowOperations.get();
+    }
+
+    static String describe(Trace trace) {
+        StringBuilder text = new StringBuilder()
+                .append("Медленная операция ").append(trace.getOperation())
+                .append(" [trace ").append(trace.getTraceId()).append("]: ")
+                .append(millis(trace.getDurationNanos())).append(" мс");
+
+        if (!trace.getPhases().isEmpty()) {
+            text.append("; фазы:");
+            for (Map.Entry<String, Trace.Phase> entry : trace.getPhases().entrySet()) {
+                Trace.Phase phase = entry.getValue();
+                text.append(' ').append(entry.getKey()).append('=').append(millis(phase.getNanos())).append("мс");
+                if (phase.getCount() > 1) {
+                    text.append("(x").append(phase.getCount()).append(')');
+                }
+            }
+        }
+        for (Trace.Statement statement : trace.getStatements()) {
+            text.append(System.lineSeparator()).append("  SQL: ").append(statement.getSql().replaceAll("\\s+", " ").trim());
+            if (!statement.getParameters().isEmpty()) {
+                text.append(System.lineSeparator()).append("  параметры: ").append(shapes(statement.getParameters()));
+            }
+        }
+        return text.toString();
+    }
+
+    // Форма параметров вместо значений: в журнал не должны попадать email и другие персональные данные
+    static String shapes(List<Object> parameters) {
+        StringBuilder shapes = new StringBuilder("[");
+        for (int i = 0; i < parameters.size(); i++) {
+            Object value = parameters.get(i);
+            if (i > 0) {
+                shapes.append(", ");
+            }
+            if (value == null) {
+                shapes.append("null");
+            } else if (value instanceof CharSequence) {
+                shapes.append("String(").append(((CharSequence) value).length()).append(')');
+            } else {
+                shapes.append(value.getClass().getSimpleName());
+            }
+        }
+        return shapes.append(']').toString();
+    }
+
+    private void explain(String traceId, Trace.Statement statement) {
+        try {
+            String plan = explainer.explain(statement.getSql(), statement.getParameters());
+            slowLogger.warn("План [trace {}]:{}{}", traceId, System.lineSeparator(), plan);
+        } catch (Exception e) {
+            logger.warn("Не удалось получить план для трассы {}: {}", traceId, e.getMessage());
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.1f", nanos / 1_000_000.0);
+    }
+
+    @Override
+    public void close() {
+        if (explainExecutor instanceof ExecutorService) {
+            ((ExecutorService) explainExecutor).shutdownNow();
+        }
+    }
+}
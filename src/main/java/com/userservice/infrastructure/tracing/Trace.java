@@ -0,0 +1,131 @@
+package com.userservice.infrastructure.tracing;
+
+import org.apache.logging.log4j.ThreadContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Трасса вызова UserService: ID, время по фазам репозитория (сессия, соединение, запрос, маппинг, коммит) и SQL.
+// Привязана к потоку; без активной трассы start() и stop сводятся к чтению ThreadLocal
+public final class Trace {
+    public static final String TRACE_ID_KEY = "traceId";
+
+    // Длинная единица работы не должна раздувать трассу
+    static final int MAX_STATEMENTS = 50;
+
+    private static final ThreadLocal<Trace> CURRENT = new ThreadLocal<>();
+
+    public static final class Phase {
+        private long nanos;
+        private int count;
+
+        public long getNanos() { return nanos; }
+        public int getCount() { return count; }
+    }
+
+    public static final class Statement {
+        private final String sql;
+        private final List<Object> parameters;
+
+        Statement(String sql, List<Object> parameters) {
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+
+        public String getSql() { return sql; }
+        // Значения нужны только для EXPLAIN и в журнал не пишутся
+        public List<Object> getParameters() { return parameters; }
+    }
+
+    private final String traceId;
+    private final String operation;
+    private final long startNanos;
+    private long durationNanos = -1;
+    private final Map<String, Phase> phases = new LinkedHashMap<>();
+    private final List<Statement> statements = new ArrayList<>();
+    private List<Object> pendingParameters = Collections.emptyList();
+
+    private Trace(String traceId, String operation) {
+        this.traceId = traceId;
+        this.operation = operation;
+        this.startNanos = System.nanoTime();
+    }
+
+    // null, если трасса уже открыта во внешнем вызове: вложенные операции пишут фазы в нее
+    public static Trace begin(String operation) {
+        if (CURRENT.get() != null) {
+            return null;
+        }
+        Trace trace = new Trace(UUID.randomUUID().toString().substring(0, 8), operation);
+        CURRENT.set(trace);
+        ThreadContext.put(TRACE_ID_KEY, trace.traceId);
+        return trace;
+    }
+
+    public void end() {
+        durationNanos = System.nanoTime() - startNanos;
+        CURRENT.remove();
+        ThreadContext.remove(TRACE_ID_KEY);
+    }
+
+    public static Trace current() {
+        return CURRENT.get();
+    }
+
+    // Отметка начала фазы; 0 - трасса не активна
+    public static long start() {
+        return CURRENT.get() != null ? System.nanoTime() : 0L;
+    }
+
+    public static void stop(String phase, long startedAt) {
+        if (startedAt == 0L) {
+            return;
+        }
+        Trace trace = CURRENT.get();
+        if (trace != null) {
+            Phase accumulated = trace.phases.computeIfAbsent(phase, name -> new Phase());
+            accumulated.nanos += System.nanoTime() - startedAt;
+            accumulated.count++;
+        }
+    }
+
+    // Параметры следующего оператора, SQL которого перехватит TracingStatementInspector
+    public static void bind(Object... parameters) {
+        Trace trace = CURRENT.get();
+        if (trace != null) {
+            trace.pendingParameters = Arrays.asList(parameters);
+        }
+    }
+
+    public static void statement(String sql, Object... parameters) {
+        Trace trace = CURRENT.get();
+        if (trace != null) {
+            trace.addStatement(sql, Arrays.asList(parameters));
+        }
+    }
+
+    static void inspected(String sql) {
+        Trace trace = CURRENT.get();
+        if (trace != null) {
+            trace.addStatement(sql, trace.pendingParameters);
+        }
+    }
+
+    private void addStatement(String sql, List<Object> parameters) {
+        if (statements.size() < MAX_STATEMENTS) {
+            statements.add(new Statement(sql, parameters));
+        }
+        pendingParameters = Collections.emptyList();
+    }
+
+    public String getTraceId() { return traceId; }
+    public String getOperation() { return operation; }
+    public long getDurationNanos() { return durationNanos; }
+    public Map<String, Phase> getPhases() { return Collections.unmodifiableMap(phases); }
+    public List<Statement> getStatements() { return Collections.unmodifiableList(statements); }
+}
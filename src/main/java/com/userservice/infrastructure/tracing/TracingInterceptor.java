@@ -0,0 +1,29 @@
+package com.userservice.infrastructure.tracing;
+
+import com.userservice.application.service.UserOperation;
+import com.userservice.application.service.UserServiceInterceptor;
+
+import java.util.function.Supplier;
+
+// Открывает трассу на каждый вызов UserService; фазы в нее пишут репозитории
+public class TracingInterceptor implements UserServiceInterceptor {
+    private final SlowOperationLog slowOperationLog;
+
+    public TracingInterceptor(SlowOperationLog slowOperationLog) {
+        this.slowOperationLog = slowOperationLog;
+    }
+
+    @Override
+    public <T> T around(UserOperation operation, Supplier<T> call) {
+        Trace trace = Trace.begin(operation.name());
+        if (trace == null) {
+            return call.get();
+        }
+        try {
+            return call.get();
+        } finally {
+            trace.end();
+            slowOperationLog.onComplete(trace);
+        }
+    }
+}
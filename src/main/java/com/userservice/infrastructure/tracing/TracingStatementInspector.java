@@ -0,0 +1,13 @@
+package com.userservice.infrastructure.tracing;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Подключается через hibernate.session_factory.statement_inspector; SQL не изменяет
+public class TracingStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        Trace.inspected(sql);
+        return sql;
+    }
+}
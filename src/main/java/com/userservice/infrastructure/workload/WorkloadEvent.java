@@ -0,0 +1,41 @@
+package com.userservice.infrastructure.workload;
+
+import com.userservice.application.service.UserOperation;
+
+// Аргументы - только соленые хеши: повторные обращения к тем же пользователям воспроизводятся без email и ID
+public final class WorkloadEvent {
+    public enum Outcome { OK, NOT_FOUND, ERROR }
+
+    public static final long NO_KEY = 0L;
+
+    private final long offsetMicros;
+    private final UserOperation operation;
+    private final long key;
+    private final long secondaryKey;
+    private final long resultKey;
+    private final long latencyMicros;
+    private final Outcome outcome;
+
+    public WorkloadEvent(long offsetMicros, UserOperation operation, long key, long secondaryKey,
+                         long resultKey, long latencyMicros, Outcome outcome) {
+        this.offsetMicros = offsetMicros;
+        this.operation = operation;
+        this.key = key;
+        this.secondaryKey = secondaryKey;
+        this.resultKey = resultKey;
+        this.latencyMicros = latencyMicros;
+        this.outcome = outcome;
+    }
+
+    // Смещение начала вызова от начала записи
+    public long getOffsetMicros() { return offsetMicros; }
+    public UserOperation getOperation() { return operation; }
+    // Хеш ID (GET_BY_ID, UPDATE, DELETE) или email (CREATE, GET_BY_EMAIL)
+    public long getKey() { return key; }
+    // Хеш нового email в UPDATE
+    public long getSecondaryKey() { return secondaryKey; }
+    // Хеш ID, присвоенного в CREATE
+    public long getResultKey() { return resultKey; }
+    public long getLatencyMicros() { return latencyMicros; }
+    public Outcome getOutcome() { return outcome; }
+}
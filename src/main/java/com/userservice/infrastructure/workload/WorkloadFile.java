@@ -0,0 +1,121 @@
+package com.userservice.infrastructure.workload;
+
+import com.userservice.application.service.UserOperation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Заголовок: magic USWL, версия (1 байт), начало записи (epoch millis, 8 байт). Событие: байт флагов
+// (операция - 3 бита, исход - 2, наличие трех ключей - 3), смещение и задержка в мкс как varint,
+// затем присутствующие ключи по 8 байт; обычно 15-20 байт
+public final class WorkloadFile {
+    static final int MAGIC = 0x5553574C;
+    static final byte VERSION = 1;
+
+    private static final int HAS_KEY = 1 << 5;
+    private static final int HAS_SECONDARY_KEY = 1 << 6;
+    private static final int HAS_RESULT_KEY = 1 << 7;
+
+    private WorkloadFile() {}
+
+    public static final class Writer implements AutoCloseable {
+        private final DataOutputStream output;
+
+        public Writer(Path file, long startedAtMillis) throws IOException {
+            this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024));
+            output.writeInt(MAGIC);
+            output.writeByte(VERSION);
+            output.writeLong(startedAtMillis);
+        }
+
+        public void write(WorkloadEvent event) throws IOException {
+            int flags = event.getOperation().ordinal() | event.getOutcome().ordinal() << 3;
+            if (event.getKey() != WorkloadEvent.NO_KEY) flags |= HAS_KEY;
+            if (event.getSecondaryKey() != WorkloadEvent.NO_KEY) flags |= HAS_SECONDARY_KEY;
+            if (event.getResultKey() != WorkloadEvent.NO_KEY) flags |= HAS_RESULT_KEY;
+
+            output.writeByte(flags);
+            writeVarLong(output, event.getOffsetMicros());
+            writeVarLong(output, event.getLatencyMicros());
+            if ((flags & HAS_KEY) != 0) output.writeLong(event.getKey());
+            if ((flags & HAS_SECONDARY_KEY) != 0) output.writeLong(event.getSecondaryKey());
+            if ((flags & HAS_RESULT_KEY) != 0) output.writeLong(event.getResultKey());
+        }
+
+        public void flush() throws IOException {
+            output.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            output.close();
+        }
+    }
+
+    // События записываются по завершении вызовов; для воспроизведения они упорядочиваются по началу
+    public static List<WorkloadEvent> read(Path file) throws IOException {
+        List<WorkloadEvent> events = new ArrayList<>();
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024))) {
+            if (input.readInt() != MAGIC) {
+                throw new IOException("Not a workload recording: " + file);
+            }
+            byte version = input.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported workload recording version: " + version);
+            }
+            input.readLong();
+
+            UserOperation[] operations = UserOperation.values();
+            WorkloadEvent.Outcome[] outcomes = WorkloadEvent.Outcome.values();
+            while (true) {
+                int flags = input.read();
+                if (flags < 0) {
+                    break;
+                }
+                try {
+                    long offset = readVarLong(input);
+                    long latency = readVarLong(input);
+                    long key = (flags & HAS_KEY) != 0 ? input.readLong() : WorkloadEvent.NO_KEY;
+                    long secondaryKey = (flags & HAS_SECONDARY_KEY) != 0 ? input.readLong() : WorkloadEvent.NO_KEY;
+                    long resultKey = (flags & HAS_RESULT_KEY) != 0 ? input.readLong() : WorkloadEvent.NO_KEY;
+                    events.add(new WorkloadEvent(offset, operations[flags & 0x7], key, secondaryKey, resultKey,
+                            latency, outcomes[(flags >>> 3) & 0x3]));
+                } catch (EOFException e) {
+                    // Запись оборвана (процесс убит): последнее неполное событие отбрасывается
+                    break;
+                }
+            }
+        }
+        events.sort(Comparator.comparingLong(WorkloadEvent::getOffsetMicros));
+        return events;
+    }
+
+    static void writeVarLong(DataOutputStream output, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            output.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInputStream input) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = input.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
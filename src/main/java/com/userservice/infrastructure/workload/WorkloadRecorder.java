@@ -0,0 +1,175 @@
+package com.userservice.infrastructure.workload;
+
+import com.userservice.application.dto.CreateUserRequest;
+import com.userservice.application.dto.UpdateUserRequest;
+import com.userservice.application.dto.UserResponse;
+import com.userservice.application.service.UserOperation;
+import com.userservice.application.service.UserServiceInterceptor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Вызывающий поток только кладет событие в ограниченную очередь, файл пишет отдельный поток; при переполнении
+// события отбрасываются и подсчитываются. Email и ID хешируются SHA-256 с солью, которая есть только в памяти
+public class WorkloadRecorder implements UserServiceInterceptor, AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(WorkloadRecorder.class);
+
+    public static final String RECORD_PROPERTY = "userservice.workload.record";
+    public static final int DEFAULT_QUEUE_CAPACITY = 65_536;
+    private static final int DRAIN_BATCH = 1_024;
+
+    private final WorkloadFile.Writer writer;
+    private final BlockingQueue<WorkloadEvent> queue;
+    private final long startNanos = System.nanoTime();
+    private final byte[] salt = new byte[16];
+    private final ThreadLocal<MessageDigest> digests = ThreadLocal.withInitial(WorkloadRecorder::sha256);
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    private final AtomicLong recordedEvents = new AtomicLong();
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    public WorkloadRecorder(Path file) throws IOException {
+        this(file, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public WorkloadRecorder(Path file, int queueCapacity) throws IOException {
+        this.writer = new WorkloadFile.Writer(file, System.currentTimeMillis());
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        new SecureRandom().nextBytes(salt);
+        this.writerThread = new Thread(this::writeLoop, "workload-recorder");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        logger.info("Запись нагрузки в {}", file);
+    }
+
+    @Override
+    public <T> T around(UserOperation operation, Supplier<T> call) {
+        return around(operation, null, call);
+    }
+
+    @Override
+    public <T> T around(UserOperation operation, Object argument, Supplier<T> call) {
+        long started = System.nanoTime();
+        WorkloadEvent.Outcome outcome = WorkloadEvent.Outcome.ERROR;
+        T result = null;
+        try {
+            result = call.get();
+            outcome = outcomeOf(result);
+            return result;
+        } finally {
+            long finished = System.nanoTime();
+            record(operation, argument, result, outcome, started, finished);
+        }
+    }
+
+    public long getRecordedEvents() { return recordedEvents.get(); }
+    public long getDroppedEvents() { return droppedEvents.get(); }
+
+    private void record(UserOperation operation, Object argument, Object result, WorkloadEvent.Outcome outcome,
+                        long started, long finished) {
+        long key = WorkloadEvent.NO_KEY;
+        long secondaryKey = WorkloadEvent.NO_KEY;
+        long resultKey = WorkloadEvent.NO_KEY;
+        if (argument instanceof CreateUserRequest) {
+            key = hash("email:" + ((CreateUserRequest) argument).getEmail());
+        } else if (argument instanceof UpdateUserRequest) {
+            UpdateUserRequest request = (UpdateUserRequest) argument;
+            key = hash("id:" + request.getId());
+            secondaryKey = hash("email:" + request.getEmail());
+        } else if (argument instanceof Long) {
+            key = hash("id:" + argument);
+        } else if (argument instanceof String) {
+            key = hash("email:" + argument);
+        }
+        if (operation == UserOperation.CREATE && result instanceof UserResponse) {
+            resultKey = hash("id:" + ((UserResponse) result).getId());
+        }
+
+        WorkloadEvent event = new WorkloadEvent((started - startNanos) / 1_000, operation, key, secondaryKey,
+                resultKey, (finished - started) / 1_000, outcome);
+        if (!queue.offer(event)) {
+            droppedEvents.incrementAndGet();
+        }
+    }
+
+    private static WorkloadEvent.Outcome outcomeOf(Object result) {
+        if (result instanceof Optional && ((Optional<?>) result).isEmpty()) {
+            return WorkloadEvent.Outcome.NOT_FOUND;
+        }
+        if (Boolean.FALSE.equals(result)) {
+            return WorkloadEvent.Outcome.NOT_FOUND;
+        }
+        return WorkloadEvent.Outcome.OK;
+    }
+
+    // Первые 8 байт соленого SHA-256; 0 зарезервирован под "ключа нет"
+    private long hash(String value) {
+        MessageDigest digest = digests.get();
+        digest.update(salt);
+        long hash = ByteBuffer.wrap(digest.digest(value.getBytes(StandardCharsets.UTF_8))).getLong();
+        return hash != WorkloadEvent.NO_KEY ? hash : 1L;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private void writeLoop() {
+        List<WorkloadEvent> batch = new ArrayList<>(DRAIN_BATCH);
+        try {
+            while (running || !queue.isEmpty()) {
+                WorkloadEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    writer.flush();
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, DRAIN_BATCH - 1);
+                for (WorkloadEvent event : batch) {
+                    writer.write(event);
+                }
+                recordedEvents.addAndGet(batch.size());
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            running = false;
+            logger.error("Ошибка записи нагрузки, запись остановлена: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writerThread.join();
+            writer.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.error("Ошибка закрытия файла нагрузки: {}", e.getMessage(), e);
+        }
+        logger.info("Запись нагрузки завершена: записано {}, отброшено {}", recordedEvents.get(), droppedEvents.get());
+    }
+}
@@ -0,0 +1,254 @@
+package com.userservice.infrastructure.workload;
+
+import com.userservice.application.dto.CreateUserRequest;
+import com.userservice.application.dto.UpdateUserRequest;
+import com.userservice.application.dto.UserResponse;
+import com.userservice.application.service.UserService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Интервалы записи ускоряются в speed раз. Задержка считается от запланированного момента вызова
+// (поправка на coordinated omission), чистое время обслуживания - отдельно.
+// Пользователи, к которым запись обращается до их создания, создаются заранее вне замера
+public class WorkloadReplayer {
+    private static final Logger logger = LogManager.getLogger(WorkloadReplayer.class);
+
+    public static final class Report {
+        private final int total;
+        private final long errors;
+        private final long notFound;
+        private final long elapsedNanos;
+        private final long[] correctedNanos;
+        private final long[] serviceNanos;
+
+        Report(int total, long errors, long notFound, long elapsedNanos, long[] correctedNanos, long[] serviceNanos) {
+            this.total = total;
+            this.errors = errors;
+            this.notFound = notFound;
+            this.elapsedNanos = elapsedNanos;
+            this.correctedNanos = correctedNanos;
+            this.serviceNanos = serviceNanos;
+            Arrays.sort(this.correctedNanos);
+            Arrays.sort(this.serviceNanos);
+        }
+
+        public int getTotal() { return total; }
+        public long getErrors() { return errors; }
+        public long getNotFound() { return notFound; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        public double throughputPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : total * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        // Задержка от запланированного момента вызова
+        public long correctedPercentileNanos(double percentile) {
+            return percentile(correctedNanos, percentile);
+        }
+
+        public long servicePercentileNanos(double percentile) {
+            return percentile(serviceNanos, percentile);
+        }
+
+        private static long percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(String.format(
+                    "Вызовов: %d, ошибок: %d, не найдено: %d, время: %.1f с, пропускная способность: %.0f оп/с%n",
+                    total, errors, notFound, elapsedNanos / 1e9, throughputPerSecond()));
+            text.append(String.format("%-10s %12s %12s%n", "перцентиль", "с поправкой", "обслуживание"));
+            for (double percentile : new double[]{50, 90, 99, 99.9, 100}) {
+                text.append(String.format("%-10s %10.2fмс %10.2fмс%n", percentile == 100 ? "max" : "p" + percentile,
+                        correctedPercentileNanos(percentile) / 1e6, servicePercentileNanos(percentile) / 1e6));
+            }
+            return text.toString();
+        }
+    }
+
+    private final UserService userService;
+    private final double speed;
+    private final int workers;
+    // Уникальный суффикс email: повторное воспроизведение на той же БД не упирается в дубликаты
+    private final String runTag = Integer.toHexString(ThreadLocalRandom.current().nextInt(0x10000, 0xFFFFF));
+
+    private final Map<Long, Long> idsByKey = new ConcurrentHashMap<>();
+
+    public WorkloadReplayer(UserService userService, double speed, int workers) {
+        if (speed <= 0 || workers <= 0) {
+            throw new IllegalArgumentException("Speed and worker count must be positive");
+        }
+        this.userService = userService;
+        this.speed = speed;
+        this.workers = workers;
+    }
+
+    public Report replay(List<WorkloadEvent> events) throws InterruptedException {
+        seed(events);
+
+        long[] corrected = new long[events.size()];
+        long[] service = new long[events.size()];
+        AtomicLong errors = new AtomicLong();
+        AtomicLong notFound = new AtomicLong();
+        AtomicInteger workerNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "workload-replay-" + workerNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long firstOffset = events.isEmpty() ? 0 : events.get(0).getOffsetMicros();
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < events.size(); i++) {
+                WorkloadEvent event = events.get(i);
+                long intended = start + (long) ((event.getOffsetMicros() - firstOffset) * 1_000 / speed);
+                waitUntil(intended);
+
+                int index = i;
+                executor.execute(() -> {
+                    long actualStart = System.nanoTime();
+                    WorkloadEvent.Outcome outcome = execute(event);
+                    long finished = System.nanoTime();
+                    corrected[index] = finished - intended;
+                    service[index] = finished - actualStart;
+                    if (outcome == WorkloadEvent.Outcome.ERROR) {
+                        errors.incrementAndGet();
+                    } else if (outcome == WorkloadEvent.Outcome.NOT_FOUND) {
+                        notFound.incrementAndGet();
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Report report = new Report(events.size(), errors.get(), notFound.get(), elapsed, corrected, service);
+        logger.info("Воспроизведение нагрузки ({}x, потоков: {}) завершено:{}{}", speed, workers,
+                System.lineSeparator(), report);
+        return report;
+    }
+
+    WorkloadEvent.Outcome execute(WorkloadEvent event) {
+        try {
+            switch (event.getOperation()) {
+                case CREATE: {
+                    UserResponse created = userService.createUser(
+                            new CreateUserRequest("Replay user", emailFor(event.getKey()), 30));
+                    if (event.getResultKey() != WorkloadEvent.NO_KEY) {
+                        idsByKey.put(event.getResultKey(), created.getId());
+                    }
+                    return WorkloadEvent.Outcome.OK;
+                }
+                case GET_BY_ID:
+                    return outcomeOf(userService.getUserById(idFor(event.getKey())));
+                case GET_BY_EMAIL:
+                    return outcomeOf(userService.getUserByEmail(emailFor(event.getKey())));
+                case GET_ALL:
+                    userService.getAllUsers();
+                    return WorkloadEvent.Outcome.OK;
+                case UPDATE: {
+                    Long id = idsByKey.get(event.getKey());
+                    if (id == null) {
+                        return WorkloadEvent.Outcome.NOT_FOUND;
+                    }
+                    userService.updateUser(new UpdateUserRequest(id, "Replay user",
+                            emailFor(event.getSecondaryKey()), 31));
+                    return WorkloadEvent.Outcome.OK;
+                }
+                case DELETE:
+                    return userService.deleteUser(idFor(event.getKey()))
+                            ? WorkloadEvent.Outcome.OK : WorkloadEvent.Outcome.NOT_FOUND;
+                case SEARCH:
+                    // Текст запроса в запись не попадает; нагрузка поиска воспроизводится типовым запросом
+                    userService.searchUsers("Replay user", 10);
+                    return WorkloadEvent.Outcome.OK;
+                case AUTOCOMPLETE:
+                    userService.autocomplete("replay", 10);
+                    return WorkloadEvent.Outcome.OK;
+                default:
+                    throw new IllegalStateException("Unknown operation: " + event.getOperation());
+            }
+        } catch (RuntimeException e) {
+            return WorkloadEvent.Outcome.ERROR;
+        }
+    }
+
+    private void seed(List<WorkloadEvent> events) {
+        Set<Long> createdIds = new HashSet<>();
+        Set<Long> createdEmails = new HashSet<>();
+        int seeded = 0;
+        for (WorkloadEvent event : events) {
+            switch (event.getOperation()) {
+                case CREATE:
+                    createdIds.add(event.getResultKey());
+                    createdEmails.add(event.getKey());
+                    break;
+                case UPDATE:
+                    createdEmails.add(event.getSecondaryKey());
+                    // fall through
+                case GET_BY_ID:
+                case DELETE:
+                    if (event.getOutcome() != WorkloadEvent.Outcome.NOT_FOUND && createdIds.add(event.getKey())) {
+                        UserResponse user = userService.createUser(new CreateUserRequest("Replay seed",
+                                "seed-" + Long.toHexString(event.getKey()) + "." + runTag + "@replay.local", 30));
+                        idsByKey.put(event.getKey(), user.getId());
+                        seeded++;
+                    }
+                    break;
+                case GET_BY_EMAIL:
+                    if (event.getOutcome() == WorkloadEvent.Outcome.OK && createdEmails.add(event.getKey())) {
+                        userService.createUser(new CreateUserRequest("Replay seed", emailFor(event.getKey()), 30));
+                        seeded++;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        logger.info("Подготовлено пользователей для воспроизведения: {}", seeded);
+    }
+
+    private String emailFor(long key) {
+        return "u" + Long.toHexString(key) + "." + runTag + "@replay.local";
+    }
+
+    // Неизвестный ключ - заведомо отсутствующий ID
+    private long idFor(long key) {
+        return idsByKey.getOrDefault(key, Long.MAX_VALUE);
+    }
+
+    private static WorkloadEvent.Outcome outcomeOf(Optional<?> result) {
+        return result.isPresent() ? WorkloadEvent.Outcome.OK : WorkloadEvent.Outcome.NOT_FOUND;
+    }
+
+    private static void waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.userservice.presentation.binary;
+
+import com.userservice.application.dto.UserResponse;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Кадры с префиксом длины, числа big-endian. Запрос: int length | long requestId | byte opcode | аргументы,
+// ответ: int length | long requestId | byte status | результат или текст ошибки; length - байты после поля.
+// Ответы приходят в порядке готовности и сопоставляются по requestId. Строка - unsigned short длины UTF-8
+// и байты (NULL_STRING - null), возраст - int (Integer.MIN_VALUE - null). Список - страницами:
+// long afterId | int limit в запросе, int count | пользователи | long nextAfterId в ответе
+public final class BinaryProtocol {
+    public static final int MAX_FRAME_LENGTH = 1 << 20;
+    // requestId + opcode/status
+    public static final int HEADER_LENGTH = Long.BYTES + Byte.BYTES;
+    // Объем страницы GET_ALL, после которого пользователи больше не добавляются; с запасом на одну запись
+    static final int PAGE_BYTES = MAX_FRAME_LENGTH / 2;
+    public static final long NO_MORE_PAGES = -1;
+
+    public static final byte OP_CREATE = 1;
+    public static final byte OP_GET_BY_ID = 2;
+    public static final byte OP_GET_BY_EMAIL = 3;
+    public static final byte OP_GET_ALL = 4;
+    public static final byte OP_UPDATE = 5;
+    public static final byte OP_DELETE = 6;
+    public static final byte OP_SEARCH = 7;
+    public static final byte OP_AUTOCOMPLETE = 8;
+
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_NOT_FOUND = 1;
+    public static final byte STATUS_INVALID_ARGUMENT = 2;
+    public static final byte STATUS_OVERLOADED = 3;
+    public static final byte STATUS_UNAVAILABLE = 4;
+    public static final byte STATUS_ERROR = 5;
+
+    static final int NULL_STRING = 0xFFFF;
+    private static final int NULL_AGE = Integer.MIN_VALUE;
+
+    private BinaryProtocol() {
+    }
+
+    static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) NULL_STRING);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= NULL_STRING) {
+            throw new IllegalArgumentException("String is too long for the binary protocol: " + bytes.length);
+        }
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    static String getString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void putAge(ByteBuffer buffer, Integer age) {
+        buffer.putInt(age == null ? NULL_AGE : age);
+    }
+
+    static Integer getAge(ByteBuffer buffer) {
+        int age = buffer.getInt();
+        return age == NULL_AGE ? null : age;
+    }
+
+    static void putUser(ByteBuffer buffer, UserResponse user) {
+        buffer.putLong(user.getId());
+        putString(buffer, user.getName());
+        putString(buffer, user.getEmail());
+        putAge(buffer, user.getAge());
+        putString(buffer, user.getCreatedAt());
+        buffer.put((byte) (user.isStale() ? 1 : 0));
+    }
+
+    static UserResponse getUser(ByteBuffer buffer) {
+        long id = buffer.getLong();
+        String name = getString(buffer);
+        String email = getString(buffer);
+        Integer age = getAge(buffer);
+        String createdAt = getString(buffer);
+        boolean stale = buffer.get() != 0;
+        return new UserResponse(id, name, email, age, createdAt, stale);
+    }
+
+    // Начинает кадр: место под длину резервируется и заполняется в endFrame
+    static int beginFrame(ByteBuffer buffer, long requestId, byte code) {
+        int start = buffer.position();
+        buffer.putInt(0).putLong(requestId).put(code);
+        return start;
+    }
+
+    static void endFrame(ByteBuffer buffer, int start) {
+        int length = buffer.position() - start - Integer.BYTES;
+        if (length > MAX_FRAME_LENGTH) {
+            throw new IllegalArgumentException("Frame exceeds " + MAX_FRAME_LENGTH + " bytes: " + length);
+        }
+        buffer.putInt(start, length);
+    }
+
+    // Длина следующего полного кадра в буфере (режим чтения) или -1, если кадр еще не дочитан
+    static int completeFrameLength(ByteBuffer buffer) {
+        if (buffer.remaining() < Integer.BYTES) {
+            return -1;
+        }
+        int length = buffer.getInt(buffer.position());
+        if (length < HEADER_LENGTH || length > MAX_FRAME_LENGTH) {
+            throw new IllegalStateException("Invalid frame length: " + length);
+        }
+        return buffer.remaining() - Integer.BYTES >= length ? length : -1;
+    }
+}
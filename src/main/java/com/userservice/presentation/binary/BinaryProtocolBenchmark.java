@@ -0,0 +1,178 @@
+package com.userservice.presentation.binary;
+
+import com.userservice.application.dto.CreateUserRequest;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+// connections соединений, в каждом до pipelineDepth неотвеченных getUserById по заранее созданным
+// пользователям; задержка - от отправки до ответа. Созданные пользователи удаляются после замера
+public class BinaryProtocolBenchmark {
+    private static final Logger logger = Logger.getLogger(BinaryProtocolBenchmark.class.getName());
+
+    public static final int DEFAULT_SEED_USERS = 1_000;
+    private static final int SEED_WINDOW = 4;
+
+    public static final class Report {
+        private final int connections;
+        private final int pipelineDepth;
+        private final int total;
+        private final long errors;
+        private final long elapsedNanos;
+        private final long[] latencyNanos;
+
+        Report(int connections, int pipelineDepth, int total, long errors, long elapsedNanos, long[] latencyNanos) {
+            this.connections = connections;
+            this.pipelineDepth = pipelineDepth;
+            this.total = total;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            this.latencyNanos = latencyNanos;
+            Arrays.sort(this.latencyNanos);
+        }
+
+        public int getTotal() { return total; }
+        public long getErrors() { return errors; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        public double throughputPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : total * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        public long percentileNanos(double percentile) {
+            if (latencyNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * latencyNanos.length) - 1;
+            return latencyNanos[Math.max(0, Math.min(latencyNanos.length - 1, index))];
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(String.format(
+                    "Соединений: %d, глубина конвейера: %d, запросов: %d, ошибок: %d, время: %.1f с, "
+                            + "пропускная способность: %.0f оп/с%n",
+                    connections, pipelineDepth, total, errors, elapsedNanos / 1e9, throughputPerSecond()));
+            for (double percentile : new double[]{50, 90, 99, 99.9, 100}) {
+                text.append(String.format("%-10s %10.3fмс%n", percentile == 100 ? "max" : "p" + percentile,
+                        percentileNanos(percentile) / 1e6));
+            }
+            return text.toString();
+        }
+    }
+
+    private final InetSocketAddress address;
+    private final int connections;
+    private final int pipelineDepth;
+    private final int seedUsers;
+
+    public BinaryProtocolBenchmark(InetSocketAddress address, int connections, int pipelineDepth, int seedUsers) {
+        if (connections <= 0 || pipelineDepth <= 0 || seedUsers <= 0) {
+            throw new IllegalArgumentException("Connections, pipeline depth and seed users must be positive");
+        }
+        this.address = address;
+        this.connections = connections;
+        this.pipelineDepth = pipelineDepth;
+        this.seedUsers = seedUsers;
+    }
+
+    public Report run(int requests) throws InterruptedException {
+        List<Long> ids = seed();
+        try {
+            return measure(requests, ids);
+        } finally {
+            cleanUp(ids);
+        }
+    }
+
+    private Report measure(int requests, List<Long> ids) throws InterruptedException {
+        long[] latencies = new long[requests];
+        AtomicLong errors = new AtomicLong();
+        List<UserServiceClient> clients = new ArrayList<>(connections);
+        List<Thread> threads = new ArrayList<>(connections);
+        CountDownLatch done = new CountDownLatch(requests);
+        try {
+            for (int i = 0; i < connections; i++) {
+                clients.add(UserServiceClient.connect(address));
+            }
+            long start = System.nanoTime();
+            for (int c = 0; c < connections; c++) {
+                UserServiceClient client = clients.get(c);
+                int first = c;
+                Thread thread = new Thread(() -> {
+                    // Окно конвейера: следующий запрос уходит, как только освобождается место
+                    Semaphore window = new Semaphore(pipelineDepth);
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int index = first; index < requests; index += connections) {
+                        window.acquireUninterruptibly();
+                        int slot = index;
+                        long sent = System.nanoTime();
+                        client.getUserById(ids.get(random.nextInt(ids.size()))).whenComplete((user, error) -> {
+                            latencies[slot] = System.nanoTime() - sent;
+                            if (error != null || user.isEmpty()) {
+                                errors.incrementAndGet();
+                            }
+                            window.release();
+                            done.countDown();
+                        });
+                    }
+                }, "binary-bench-" + c);
+                thread.setDaemon(true);
+                threads.add(thread);
+                thread.start();
+            }
+            done.await();
+            long elapsed = System.nanoTime() - start;
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            return new Report(connections, pipelineDepth, requests, errors.get(), elapsed, latencies);
+        } finally {
+            clients.forEach(UserServiceClient::close);
+        }
+    }
+
+    // Небольшое окно: ограничитель параллелизма отклоняет лавину создания, отклоненные пропускаются
+    private List<Long> seed() {
+        String runTag = Integer.toHexString(ThreadLocalRandom.current().nextInt(0x10000, 0xFFFFF));
+        List<Long> ids = Collections.synchronizedList(new ArrayList<>(seedUsers));
+        Semaphore window = new Semaphore(SEED_WINDOW);
+        try (UserServiceClient client = UserServiceClient.connect(address)) {
+            for (int i = 0; i < seedUsers; i++) {
+                window.acquireUninterruptibly();
+                client.createUser(new CreateUserRequest("Bench User " + i,
+                        "bench-" + runTag + "-" + i + "@example.com", 30)).whenComplete((user, error) -> {
+                            if (error == null) {
+                                ids.add(user.getId());
+                            }
+                            window.release();
+                        });
+            }
+            window.acquireUninterruptibly(SEED_WINDOW);
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("Failed to create benchmark users");
+        }
+        logger.info("Создано пользователей для замера: " + ids.size());
+        return new ArrayList<>(ids);
+    }
+
+    private void cleanUp(List<Long> ids) {
+        try (UserServiceClient client = UserServiceClient.connect(address)) {
+            CompletableFuture.allOf(ids.stream().map(client::deleteUser).toArray(CompletableFuture[]::new))
+                    .get(1, TimeUnit.MINUTES);
+        } catch (Exception e) {
+            logger.warning("Не удалось удалить пользователей замера: " + e.getMessage());
+        }
+    }
+}
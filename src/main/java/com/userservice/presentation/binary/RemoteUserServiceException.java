@@ -0,0 +1,20 @@
+package com.userservice.presentation.binary;
+
+// Ошибка, которую вернул сервер двоичного протокола; неверные аргументы приходят как IllegalArgumentException
+public class RemoteUserServiceException extends RuntimeException {
+    private final byte status;
+
+    public RemoteUserServiceException(byte status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public RemoteUserServiceException(String message, Throwable cause) {
+        super(message, cause);
+        this.status = BinaryProtocol.STATUS_ERROR;
+    }
+
+    public byte getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,302 @@
+package com.userservice.presentation.binary;
+
+import com.userservice.application.dto.CreateUserRequest;
+import com.userservice.application.dto.UpdateUserRequest;
+import com.userservice.application.dto.UserResponse;
+import com.userservice.application.dto.UserSearchResult;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+// Одно соединение, запросы не ждут предыдущих ответов: CompletableFuture завершает поток чтения по requestId.
+// Потокобезопасен, запись в сокет сериализуется
+public class UserServiceClient implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(UserServiceClient.class.getName());
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    public static final int DEFAULT_PAGE_SIZE = 1_000;
+
+    private final SocketChannel channel;
+    private final Thread reader;
+    private final Map<Long, Pending<?>> pending = new ConcurrentHashMap<>();
+    private final AtomicLong nextRequestId = new AtomicLong();
+    private final Object writeLock = new Object();
+    private ByteBuffer writeBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private volatile boolean closed;
+
+    private UserServiceClient(SocketChannel channel) {
+        this.channel = channel;
+        this.reader = new Thread(this::readLoop, "binary-client-" + channel.socket().getLocalPort());
+        this.reader.setDaemon(true);
+    }
+
+    public static UserServiceClient connect(InetSocketAddress address) {
+        try {
+            SocketChannel channel = SocketChannel.open(address);
+            channel.socket().setTcpNoDelay(true);
+            UserServiceClient client = new UserServiceClient(channel);
+            client.reader.start();
+            return client;
+        } catch (IOException e) {
+            throw new RemoteUserServiceException("Failed to connect to " + address, e);
+        }
+    }
+
+    public CompletableFuture<UserResponse> createUser(CreateUserRequest request) {
+        return send(BinaryProtocol.OP_CREATE, buffer -> {
+            BinaryProtocol.putString(buffer, request.getName());
+            BinaryProtocol.putString(buffer, request.getEmail());
+            BinaryProtocol.putAge(buffer, request.getAge());
+        }, (status, payload) -> BinaryProtocol.getUser(payload));
+    }
+
+    public CompletableFuture<Optional<UserResponse>> getUserById(long id) {
+        return send(BinaryProtocol.OP_GET_BY_ID, buffer -> buffer.putLong(id), UserServiceClient::optionalUser);
+    }
+
+    public CompletableFuture<Optional<UserResponse>> getUserByEmail(String email) {
+        return send(BinaryProtocol.OP_GET_BY_EMAIL, buffer -> BinaryProtocol.putString(buffer, email),
+                UserServiceClient::optionalUser);
+    }
+
+    // Все пользователи постранично, каждая страница - отдельный кадр; следующая запрашивается после ответа
+    public CompletableFuture<List<UserResponse>> getAllUsers() {
+        return collectPages(0L, new ArrayList<>());
+    }
+
+    public CompletableFuture<Page> getUsersPage(long afterId, int limit) {
+        return send(BinaryProtocol.OP_GET_ALL, buffer -> buffer.putLong(afterId).putInt(limit), (status, payload) -> {
+            int count = payload.getInt();
+            List<UserResponse> users = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                users.add(BinaryProtocol.getUser(payload));
+            }
+            return new Page(users, payload.getLong());
+        });
+    }
+
+    public CompletableFuture<UserResponse> updateUser(UpdateUserRequest request) {
+        return send(BinaryProtocol.OP_UPDATE, buffer -> {
+            buffer.putLong(request.getId());
+            BinaryProtocol.putString(buffer, request.getName());
+            BinaryProtocol.putString(buffer, request.getEmail());
+            BinaryProtocol.putAge(buffer, request.getAge());
+        }, (status, payload) -> BinaryProtocol.getUser(payload));
+    }
+
+    public CompletableFuture<Boolean> deleteUser(long id) {
+        return send(BinaryProtocol.OP_DELETE, buffer -> buffer.putLong(id),
+                (status, payload) -> status == BinaryProtocol.STATUS_OK);
+    }
+
+    public CompletableFuture<List<UserSearchResult>> searchUsers(String query, int limit) {
+        return send(BinaryProtocol.OP_SEARCH, buffer -> {
+            BinaryProtocol.putString(buffer, query);
+            buffer.putInt(limit);
+        }, (status, payload) -> {
+            int count = payload.getInt();
+            List<UserSearchResult> results = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                double score = payload.getDouble();
+                results.add(new UserSearchResult(BinaryProtocol.getUser(payload), score));
+            }
+            return results;
+        });
+    }
+
+    public CompletableFuture<List<Long>> autocomplete(String prefix, int limit) {
+        return send(BinaryProtocol.OP_AUTOCOMPLETE, buffer -> {
+            BinaryProtocol.putString(buffer, prefix);
+            buffer.putInt(limit);
+        }, (status, payload) -> {
+            int count = payload.getInt();
+            List<Long> ids = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                ids.add(payload.getLong());
+            }
+            return ids;
+        });
+    }
+
+    public static final class Page {
+        private final List<UserResponse> users;
+        private final long nextAfterId;
+
+        Page(List<UserResponse> users, long nextAfterId) {
+            this.users = users;
+            this.nextAfterId = nextAfterId;
+        }
+
+        public List<UserResponse> getUsers() { return users; }
+        public long getNextAfterId() { return nextAfterId; }
+        public boolean hasMore() { return nextAfterId != BinaryProtocol.NO_MORE_PAGES; }
+    }
+
+    public int pendingRequests() {
+        return pending.size();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.fine("Ошибка при закрытии соединения: " + e.getMessage());
+        }
+        try {
+            reader.join(1_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        failAll(new RemoteUserServiceException(BinaryProtocol.STATUS_UNAVAILABLE, "Client is closed"));
+    }
+
+    private interface ArgumentWriter {
+        void write(ByteBuffer buffer);
+    }
+
+    // NOT_FOUND передается декодеру: для чтения это Optional.empty(), для удаления - false
+    private interface ResponseDecoder<T> {
+        T decode(byte status, ByteBuffer payload);
+    }
+
+    private static final class Pending<T> {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        final ResponseDecoder<T> decoder;
+
+        Pending(ResponseDecoder<T> decoder) {
+            this.decoder = decoder;
+        }
+
+        void complete(byte status, ByteBuffer payload) {
+            if (status == BinaryProtocol.STATUS_OK || status == BinaryProtocol.STATUS_NOT_FOUND) {
+                future.complete(decoder.decode(status, payload));
+                return;
+            }
+            String message = payload.remaining() >= Short.BYTES ? BinaryProtocol.getString(payload) : null;
+            future.completeExceptionally(status == BinaryProtocol.STATUS_INVALID_ARGUMENT
+                    ? new IllegalArgumentException(message)
+                    : new RemoteUserServiceException(status, message));
+        }
+    }
+
+    private CompletableFuture<List<UserResponse>> collectPages(long afterId, List<UserResponse> users) {
+        return getUsersPage(afterId, DEFAULT_PAGE_SIZE).thenCompose(page -> {
+            users.addAll(page.getUsers());
+            return page.hasMore()
+                    ? collectPages(page.getNextAfterId(), users)
+                    : CompletableFuture.completedFuture(users);
+        });
+    }
+
+    private static Optional<UserResponse> optionalUser(byte status, ByteBuffer payload) {
+        return status == BinaryProtocol.STATUS_OK ? Optional.of(BinaryProtocol.getUser(payload)) : Optional.empty();
+    }
+
+    private <T> CompletableFuture<T> send(byte opcode, ArgumentWriter arguments, ResponseDecoder<T> decoder) {
+        long requestId = nextRequestId.incrementAndGet();
+        Pending<T> request = new Pending<>(decoder);
+        pending.put(requestId, request);
+        if (closed) {
+            pending.remove(requestId);
+            request.future.completeExceptionally(
+                    new RemoteUserServiceException(BinaryProtocol.STATUS_UNAVAILABLE, "Client is closed"));
+            return request.future;
+        }
+        try {
+            synchronized (writeLock) {
+                encode(requestId, opcode, arguments);
+                while (writeBuffer.hasRemaining()) {
+                    channel.write(writeBuffer);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            pending.remove(requestId);
+            request.future.completeExceptionally(e instanceof RuntimeException
+                    ? e : new RemoteUserServiceException("Failed to send request", e));
+        }
+        return request.future;
+    }
+
+    private void encode(long requestId, byte opcode, ArgumentWriter arguments) {
+        while (true) {
+            writeBuffer.clear();
+            try {
+                int start = BinaryProtocol.beginFrame(writeBuffer, requestId, opcode);
+                arguments.write(writeBuffer);
+                BinaryProtocol.endFrame(writeBuffer, start);
+                writeBuffer.flip();
+                return;
+            } catch (BufferOverflowException e) {
+                if (writeBuffer.capacity() > BinaryProtocol.MAX_FRAME_LENGTH) {
+                    throw new IllegalArgumentException("Request exceeds " + BinaryProtocol.MAX_FRAME_LENGTH + " bytes");
+                }
+                writeBuffer = ByteBuffer.allocateDirect(writeBuffer.capacity() * 2);
+            }
+        }
+    }
+
+    private void readLoop() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        try {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                int length;
+                while ((length = BinaryProtocol.completeFrameLength(buffer)) >= 0) {
+                    int frameEnd = buffer.position() + Integer.BYTES + length;
+                    buffer.getInt();
+                    long requestId = buffer.getLong();
+                    byte status = buffer.get();
+                    int limit = buffer.limit();
+                    buffer.limit(frameEnd);
+                    Pending<?> request = pending.remove(requestId);
+                    if (request != null) {
+                        try {
+                            request.complete(status, buffer);
+                        } catch (RuntimeException e) {
+                            request.future.completeExceptionally(e);
+                        }
+                    } else {
+                        logger.warning("Ответ на неизвестный запрос " + requestId);
+                    }
+                    buffer.limit(limit).position(frameEnd);
+                }
+                buffer.compact();
+                if (!buffer.hasRemaining()) {
+                    ByteBuffer larger = ByteBuffer.allocateDirect(
+                            Math.min(buffer.capacity() * 2, BinaryProtocol.MAX_FRAME_LENGTH + Integer.BYTES));
+                    buffer.flip();
+                    larger.put(buffer);
+                    buffer = larger;
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            if (!closed) {
+                logger.warning("Соединение с сервером двоичного протокола потеряно: " + e.getMessage());
+            }
+        }
+        closed = true;
+        failAll(new RemoteUserServiceException(BinaryProtocol.STATUS_UNAVAILABLE, "Connection closed"));
+    }
+
+    private void failAll(RuntimeException error) {
+        for (Long requestId : new ArrayList<>(pending.keySet())) {
+            Pending<?> request = pending.remove(requestId);
+            if (request != null) {
+                request.future.completeExceptionally(error);
+            }
+        }
+    }
+}
@@ -0,0 +1,449 @@
+package com.userservice.presentation.binary;
+
+import com.userservice.application.dto.CreateUserRequest;
+import com.userservice.application.dto.UpdateUserRequest;
+import com.userservice.application.dto.UserResponse;
+import com.userservice.application.dto.UserSearchResult;
+import com.userservice.application.limit.OverloadedException;
+import com.userservice.application.service.UserService;
+import com.userservice.domain.repository.DataAccessException;
+import com.userservice.domain.repository.ReadYourWritesSession;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Поток с селектором принимает соединения, читает и пишет; запросы выполняет пул обработчиков, ответы
+// уходят в порядке готовности gathering-записью из пула direct-буферов. При избытке незавершенных запросов
+// чтение соединения приостанавливается. Соединение - сессия read-your-writes
+public class UserServiceServer implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(UserServiceServer.class.getName());
+
+    public static final String PORT_PROPERTY = "userservice.binary.port";
+    public static final String WORKERS_PROPERTY = "userservice.binary.workers";
+    public static final int DEFAULT_WORKERS = 16;
+    public static final int MAX_IN_FLIGHT_PER_CONNECTION = 1_024;
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final int POOLED_BUFFERS = 256;
+    private static final int MAX_GATHER = 64;
+
+    private final UserService userService;
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final ExecutorService workers;
+    private final Thread ioThread;
+    private final ArrayBlockingQueue<ByteBuffer> bufferPool = new ArrayBlockingQueue<>(POOLED_BUFFERS);
+    // Соединения с новыми ответами; интерес к записи меняет только поток селектора
+    private final Queue<Connection> pendingWrites = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed;
+
+    private final AtomicLong acceptedConnections = new AtomicLong();
+    private final AtomicLong handledRequests = new AtomicLong();
+    private final AtomicLong failedRequests = new AtomicLong();
+
+    private UserServiceServer(UserService userService, ServerSocketChannel serverChannel, Selector selector,
+                              int workerCount) {
+        this.userService = userService;
+        this.serverChannel = serverChannel;
+        this.selector = selector;
+        AtomicInteger workerNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "binary-worker-" + workerNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.ioThread = new Thread(this::ioLoop, "binary-io");
+        this.ioThread.setDaemon(true);
+    }
+
+    public static UserServiceServer start(UserService userService, InetSocketAddress address, int workerCount) {
+        try {
+            Selector selector = Selector.open();
+            ServerSocketChannel serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(address);
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+            UserServiceServer server = new UserServiceServer(userService, serverChannel, selector, workerCount);
+            server.ioThread.start();
+            logger.info("Двоичный протокол слушает " + serverChannel.getLocalAddress()
+                    + ", обработчиков: " + workerCount);
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to start binary protocol server on " + address, e);
+        }
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public long getAcceptedConnections() { return acceptedConnections.get(); }
+    public long getHandledRequests() { return handledRequests.get(); }
+    public long getFailedRequests() { return failedRequests.get(); }
+
+    public String metricsSummary() {
+        return String.format("соединений %d, запросов %d, ошибок %d",
+                acceptedConnections.get(), handledRequests.get(), failedRequests.get());
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        selector.wakeup();
+        try {
+            ioThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        workers.shutdownNow();
+    }
+
+    private void ioLoop() {
+        try {
+            while (!closed) {
+                selector.select();
+                Connection scheduled;
+                while ((scheduled = pendingWrites.poll()) != null) {
+                    scheduled.enableWrite();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        if (key.isReadable()) {
+                            connection.read();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            connection.write();
+                        }
+                    } catch (IOException | IllegalStateException e) {
+                        logger.fine("Соединение " + connection.channel + " закрыто: " + e.getMessage());
+                        connection.close();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Ошибка цикла ввода-вывода двоичного протокола: " + e.getMessage(), e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection) {
+                    ((Connection) key.attachment()).close();
+                }
+            }
+            try {
+                selector.close();
+                serverChannel.close();
+            } catch (IOException e) {
+                logger.warning("Ошибка при остановке двоичного протокола: " + e.getMessage());
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        key.attach(new Connection(channel, key));
+        acceptedConnections.incrementAndGet();
+    }
+
+    private ByteBuffer execute(ReadYourWritesSession session, long requestId, byte opcode, ByteBuffer arguments) {
+        try {
+            ByteBuffer response = userService.inSession(session, service -> encode(requestId, opcode, arguments));
+            handledRequests.incrementAndGet();
+            return response;
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            failedRequests.incrementAndGet();
+            String message = e instanceof BufferUnderflowException ? "Malformed request" : e.getMessage();
+            return error(requestId, BinaryProtocol.STATUS_INVALID_ARGUMENT, message);
+        } catch (OverloadedException e) {
+            failedRequests.incrementAndGet();
+            return error(requestId, BinaryProtocol.STATUS_OVERLOADED, e.getMessage());
+        } catch (DataAccessException e) {
+            failedRequests.incrementAndGet();
+            return error(requestId, BinaryProtocol.STATUS_UNAVAILABLE, e.getMessage());
+        } catch (RuntimeException e) {
+            failedRequests.incrementAndGet();
+            logger.log(Level.WARNING, "Ошибка запроса двоичного протокола (код " + opcode + "): " + e.getMessage(), e);
+            return error(requestId, BinaryProtocol.STATUS_ERROR, String.valueOf(e.getMessage()));
+        }
+    }
+
+    private ByteBuffer encode(long requestId, byte opcode, ByteBuffer arguments) {
+        switch (opcode) {
+            case BinaryProtocol.OP_CREATE: {
+                UserResponse created = userService.createUser(new CreateUserRequest(
+                        BinaryProtocol.getString(arguments), BinaryProtocol.getString(arguments),
+                        BinaryProtocol.getAge(arguments)));
+                return frame(requestId, BinaryProtocol.STATUS_OK, buffer -> BinaryProtocol.putUser(buffer, created));
+            }
+            case BinaryProtocol.OP_GET_BY_ID:
+                return found(requestId, userService.getUserById(arguments.getLong()));
+            case BinaryProtocol.OP_GET_BY_EMAIL:
+                return found(requestId, userService.getUserByEmail(BinaryProtocol.getString(arguments)));
+            case BinaryProtocol.OP_GET_ALL: {
+                long afterId = arguments.getLong();
+                int limit = arguments.getInt();
+                List<UserResponse> users = userService.getUsersPage(afterId, limit);
+                return frame(requestId, BinaryProtocol.STATUS_OK, buffer -> writePage(buffer, users, limit));
+            }
+            case BinaryProtocol.OP_UPDATE: {
+                UserResponse updated = userService.updateUser(new UpdateUserRequest(arguments.getLong(),
+                        BinaryProtocol.getString(arguments), BinaryProtocol.getString(arguments),
+                        BinaryProtocol.getAge(arguments)));
+                return frame(requestId, BinaryProtocol.STATUS_OK, buffer -> BinaryProtocol.putUser(buffer, updated));
+            }
+            case BinaryProtocol.OP_DELETE:
+                return frame(requestId, userService.deleteUser(arguments.getLong())
+                        ? BinaryProtocol.STATUS_OK : BinaryProtocol.STATUS_NOT_FOUND, buffer -> { });
+            case BinaryProtocol.OP_SEARCH: {
+                List<UserSearchResult> results = userService.searchUsers(BinaryProtocol.getString(arguments),
+                        arguments.getInt());
+                return frame(requestId, BinaryProtocol.STATUS_OK, buffer -> {
+                    buffer.putInt(results.size());
+                    for (UserSearchResult result : results) {
+                        buffer.putDouble(result.getScore());
+                        BinaryProtocol.putUser(buffer, result.getUser());
+                    }
+                });
+            }
+            case BinaryProtocol.OP_AUTOCOMPLETE: {
+                List<Long> ids = userService.autocomplete(BinaryProtocol.getString(arguments), arguments.getInt());
+                return frame(requestId, BinaryProtocol.STATUS_OK, buffer -> {
+                    buffer.putInt(ids.size());
+                    ids.forEach(buffer::putLong);
+                });
+            }
+            default:
+                throw new IllegalArgumentException("Unknown opcode: " + opcode);
+        }
+    }
+
+    // Страница обрезается по объему: кадр укладывается в MAX_FRAME_LENGTH и при длинных строках.
+    // Курсор следующей страницы - ID последнего записанного пользователя
+    private static void writePage(ByteBuffer buffer, List<UserResponse> users, int limit) {
+        int countAt = buffer.position();
+        buffer.putInt(0);
+        int count = 0;
+        while (count < users.size() && buffer.position() - countAt < BinaryProtocol.PAGE_BYTES) {
+            BinaryProtocol.putUser(buffer, users.get(count++));
+        }
+        buffer.putInt(countAt, count);
+        boolean more = count < users.size() || users.size() == limit;
+        buffer.putLong(more ? users.get(count - 1).getId() : BinaryProtocol.NO_MORE_PAGES);
+    }
+
+    private ByteBuffer found(long requestId, Optional<UserResponse> user) {
+        if (user.isEmpty()) {
+            return frame(requestId, BinaryProtocol.STATUS_NOT_FOUND, buffer -> { });
+        }
+        return frame(requestId, BinaryProtocol.STATUS_OK, buffer -> BinaryProtocol.putUser(buffer, user.get()));
+    }
+
+    private ByteBuffer error(long requestId, byte status, String message) {
+        String text = message != null && message.length() > 1_000 ? message.substring(0, 1_000) : message;
+        return frame(requestId, status, buffer -> BinaryProtocol.putString(buffer, text));
+    }
+
+    private interface PayloadWriter {
+        void write(ByteBuffer buffer);
+    }
+
+    // Кадр пишется в буфер из пула; не поместившийся ответ повторяется в буфере вдвое больше
+    private ByteBuffer frame(long requestId, byte status, PayloadWriter payload) {
+        ByteBuffer buffer = acquire();
+        while (true) {
+            try {
+                int start = BinaryProtocol.beginFrame(buffer, requestId, status);
+                payload.write(buffer);
+                BinaryProtocol.endFrame(buffer, start);
+                return buffer.flip();
+            } catch (BufferOverflowException e) {
+                release(buffer);
+                if (buffer.capacity() > BinaryProtocol.MAX_FRAME_LENGTH) {
+                    throw new IllegalStateException("Response exceeds " + BinaryProtocol.MAX_FRAME_LENGTH + " bytes");
+                }
+                buffer = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+            }
+        }
+    }
+
+    private ByteBuffer acquire() {
+        ByteBuffer buffer = bufferPool.poll();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    private void release(ByteBuffer buffer) {
+        if (buffer.capacity() == BUFFER_SIZE) {
+            buffer.clear();
+            bufferPool.offer(buffer);
+        }
+    }
+
+    private final class Connection {
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private final Queue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean writeScheduled = new AtomicBoolean();
+        // Запросы, ответ на которые еще не отправлен
+        private final AtomicInteger inFlight = new AtomicInteger();
+        // Запросы соединения выполняются разными обработчиками, поэтому позиция записи хранится здесь
+        private final ReadYourWritesSession session = ReadYourWritesSession.start();
+        private ByteBuffer readBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private boolean readPaused;
+        private volatile boolean open = true;
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+
+        void read() throws IOException {
+            if (channel.read(readBuffer) < 0) {
+                close();
+                return;
+            }
+            readBuffer.flip();
+            int length;
+            while ((length = BinaryProtocol.completeFrameLength(readBuffer)) >= 0) {
+                readBuffer.getInt();
+                long requestId = readBuffer.getLong();
+                byte opcode = readBuffer.get();
+                // Аргументы копируются: буфер чтения сдвигается, пока обработчик еще не начал работу
+                ByteBuffer arguments = ByteBuffer.allocate(length - BinaryProtocol.HEADER_LENGTH);
+                int limit = readBuffer.limit();
+                readBuffer.limit(readBuffer.position() + arguments.capacity());
+                arguments.put(readBuffer).flip();
+                readBuffer.limit(limit);
+                dispatch(requestId, opcode, arguments);
+            }
+            readBuffer.compact();
+            if (!readBuffer.hasRemaining()) {
+                // Кадр длиннее буфера: буфер растет до длины кадра (не больше MAX_FRAME_LENGTH)
+                ByteBuffer larger = ByteBuffer.allocateDirect(
+                        Math.min(readBuffer.capacity() * 2, BinaryProtocol.MAX_FRAME_LENGTH + Integer.BYTES));
+                readBuffer.flip();
+                larger.put(readBuffer);
+                readBuffer = larger;
+            }
+            if (inFlight.get() >= MAX_IN_FLIGHT_PER_CONNECTION) {
+                readPaused = true;
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+            }
+        }
+
+        void write() throws IOException {
+            writeScheduled.set(false);
+            while (true) {
+                List<ByteBuffer> batch = new ArrayList<>(MAX_GATHER);
+                for (ByteBuffer buffer : outbound) {
+                    batch.add(buffer);
+                    if (batch.size() == MAX_GATHER) {
+                        break;
+                    }
+                }
+                if (batch.isEmpty()) {
+                    key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+                    break;
+                }
+                channel.write(batch.toArray(new ByteBuffer[0]));
+                int written = 0;
+                for (ByteBuffer buffer : batch) {
+                    if (buffer.hasRemaining()) {
+                        break;
+                    }
+                    outbound.poll();
+                    release(buffer);
+                    written++;
+                }
+                inFlight.addAndGet(-written);
+                if (written < batch.size()) {
+                    // Сокет заполнен: продолжим, когда он снова станет доступен для записи
+                    key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                    break;
+                }
+            }
+            if (readPaused && inFlight.get() < MAX_IN_FLIGHT_PER_CONNECTION / 2) {
+                readPaused = false;
+                key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+            }
+        }
+
+        void enableWrite() {
+            if (key.isValid()) {
+                try {
+                    write();
+                } catch (IOException e) {
+                    close();
+                }
+            }
+        }
+
+        void close() {
+            open = false;
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.fine("Ошибка при закрытии соединения: " + e.getMessage());
+            }
+        }
+
+        private void dispatch(long requestId, byte opcode, ByteBuffer arguments) {
+            inFlight.incrementAndGet();
+            try {
+                workers.execute(() -> {
+                    ByteBuffer response = execute(session, requestId, opcode, arguments);
+                    if (!open) {
+                        release(response);
+                        return;
+                    }
+                    outbound.add(response);
+                    if (writeScheduled.compareAndSet(false, true)) {
+                        pendingWrites.add(this);
+                        selector.wakeup();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Сервер останавливается
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.userservice.presentation.console;
+
+import com.userservice.application.dto.CreateUserRequest;
+import com.userservice.application.dto.UserAnalyticsResponse;
+import com.userservice.application.dto.UserStatisticsResponse;
+import com.userservice.application.dto.UpdateUserRequest;
+import com.userservice.application.dto.UserResponse;
+import com.userservice.application.dto.UserSearchResult;
+import com.userservice.application.service.UserAnalyticsService;
+import com.userservice.application.service.UserService;
+import com.userservice.domain.repository.ReadYourWritesSession;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+// Команды из аргументов или построчно из файла/stdin: create <name> <email> [age], get <id>, get-email <email>,
+// update <id> <name> <email> [age], delete <id>, list, search <query> [limit], complete <prefix> [limit],
+// stats, analytics. Аргументы с пробелами - в кавычках, пустые строки и строки с # пропускаются.
+// Команды выполняются параллельно и независимо, вывод - в порядке ввода; зависимые запускайте с parallelism = 1.
+// Весь пакет - одна сессия read-your-writes: команда видит записи завершенных до нее команд
+public class BatchCommandRunner {
+    private static final Logger logger = Logger.getLogger(BatchCommandRunner.class.getName());
+
+    public static final String PARALLELISM_PROPERTY = "userservice.batch.parallelism";
+    public static final int DEFAULT_PARALLELISM = 8;
+
+    private static final String ERROR = "ERROR\t";
+
+    private final UserService userService;
+    private final int parallelism;
+    private final ReadYourWritesSession session = ReadYourWritesSession.start();
+    private volatile UserAnalyticsService analyticsService;
+
+    private long succeeded;
+    private long failed;
+
+    public BatchCommandRunner(UserService userService) {
+        this(userService, Integer.getInteger(PARALLELISM_PROPERTY, DEFAULT_PARALLELISM));
+    }
+
+    public BatchCommandRunner(UserService userService, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.userService = userService;
+        this.parallelism = parallelism;
+    }
+
+    // Без сервиса аналитики команды stats и analytics завершаются ошибкой
+    public void enableAnalytics(UserAnalyticsService analyticsService) {
+        this.analyticsService = analyticsService;
+    }
+
+    // Точка входа из Main: batch <file|-> читает команды из файла или stdin, иначе аргументы - одна команда
+    public void runArguments(String[] args) throws IOException {
+        Writer output = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        if (args.length > 0 && "batch".equals(args[0])) {
+            String source = args.length > 1 ? args[1] : "-";
+            try (BufferedReader input = "-".equals(source)
+                    ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                    : Files.newBufferedReader(Paths.get(source), StandardCharsets.UTF_8)) {
+                run(input, output);
+            }
+        } else {
+            output.write(execute(Arrays.asList(args)));
+            output.write(System.lineSeparator());
+            output.flush();
+        }
+    }
+
+    public void run(BufferedReader input, Writer output) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "batch-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Окно выполняющихся команд ограничивает и параллелизм, и объем буферизованного ввода
+        ArrayDeque<Future<String>> window = new ArrayDeque<>(parallelism);
+        long started = System.nanoTime();
+        try {
+            String line;
+            int lineNumber = 0;
+            while ((line = input.readLine()) != null) {
+                lineNumber++;
+                int number = lineNumber;
+                Future<String> result;
+                try {
+                    List<String> command = tokenize(line);
+                    if (command.isEmpty() || command.get(0).startsWith("#")) {
+                        continue;
+                    }
+                    result = executor.submit(() ->
+                            number + "\t" + userService.inSession(session, service -> execute(command)));
+                } catch (IllegalArgumentException e) {
+                    result = CompletableFuture.completedFuture(number + "\t" + ERROR + e.getMessage());
+                }
+                if (window.size() >= parallelism) {
+                    writeResult(window.poll(), output);
+                }
+                window.add(result);
+            }
+            while (!window.isEmpty()) {
+                writeResult(window.poll(), output);
+            }
+            output.flush();
+        } finally {
+            executor.shutdownNow();
+        }
+        logger.info(String.format("Пакетный режим: выполнено %d, ошибок %d за %d мс",
+                succeeded, failed, (System.nanoTime() - started) / 1_000_000));
+    }
+
+    public long getSucceeded() { return succeeded; }
+    public long getFailed() { return failed; }
+
+    private void writeResult(Future<String> result, Writer output) throws IOException {
+        String text;
+        try {
+            text = result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Batch interrupted", e);
+        } catch (ExecutionException e) {
+            text = ERROR + e.getCause().getMessage();
+        }
+        if (text.startsWith(ERROR, text.indexOf('\t') + 1)) {
+            failed++;
+        } else {
+            succeeded++;
+        }
+        output.write(text);
+        output.write(System.lineSeparator());
+    }
+
+    String execute(List<String> command) {
+        try {
+            switch (command.get(0).toLowerCase()) {
+                case "create": {
+                    requireArguments(command, 3, 4);
+                    UserResponse created = userService.createUser(
+                            new CreateUserRequest(command.get(1), command.get(2), age(command, 3)));
+                    return "OK\tcreated\t" + format(created);
+                }
+                case "get": {
+                    requireArguments(command, 2, 2);
+                    return found(userService.getUserById(Long.parseLong(command.get(1))));
+                }
+                case "get-email": {
+                    requireArguments(command, 2, 2);
+                    return found(userService.getUserByEmail(command.get(1)));
+                }
+                case "update": {
+                    requireArguments(command, 4, 5);
+                    UserResponse updated = userService.updateUser(new UpdateUserRequest(
+                            Long.parseLong(command.get(1)), command.get(2), command.get(3), age(command, 4)));
+                    return "OK\tupdated\t" + format(updated);
+                }
+                case "delete": {
+                    requireArguments(command, 2, 2);
+                    long id = Long.parseLong(command.get(1));
+                    return userService.deleteUser(id) ? "OK\tdeleted\t" + id : "OK\tnot-found\t" + id;
+                }
+                case "list": {
+                    requireArguments(command, 1, 1);
+                    List<UserResponse> users = userService.getAllUsers();
+                    StringBuilder result = new StringBuilder("OK\tlist\t").append(users.size());
+                    for (UserResponse user : users) {
+                        result.append(System.lineSeparator()).append("\t\t").append(format(user));
+                    }
+                    return result.toString();
+                }
+                case "search": {
+                    requireArguments(command, 2, 3);
+                    int limit = command.size() > 2 ? Integer.parseInt(command.get(2)) : 10;
+                    List<UserSearchResult> results = userService.searchUsers(command.get(1), limit);
+                    StringBuilder result = new StringBuilder("OK\tsearch\t").append(results.size());
+                    for (UserSearchResult found : results) {
+                        result.append(System.lineSeparator()).append("\t\t")
+                                .append(String.format(Locale.ROOT, "%.3f", found.getScore()))
+                                .append("\t").append(format(found.getUser()));
+                    }
+                    return result.toString();
+                }
+                case "complete": {
+                    requireArguments(command, 2, 3);
+                    int limit = command.size() > 2 ? Integer.parseInt(command.get(2)) : 10;
+                    List<Long> ids = userService.autocomplete(command.get(1), limit);
+                    StringBuilder result = new StringBuilder("OK\tcomplete\t").append(ids.size());
+                    for (Long id : ids) {
+                        result.append("\t").append(id);
+                    }
+                    return result.toString();
+                }
+                case "stats": {
+                    requireArguments(command, 1, 1);
+                    UserStatisticsResponse statistics = analytics().getStatistics();
+                    return "OK\tstats\t" + totals(statistics.getTotalUsers(), statistics.getAdults(),
+                            statistics.getMinors(), statistics.getUsersWithoutAge())
+                            + distribution("age-bucket", statistics.getAgeBuckets(), statistics.getDailyCreations());
+                }
+                case "analytics": {
+                    requireArguments(command, 1, 1);
+                    UserAnalyticsResponse analytics = analytics().getAnalytics();
+                    return "OK\tanalytics\t" + totals(analytics.getTotalUsers(), analytics.getAdults(),
+                            analytics.getMinors(), analytics.getUsersWithoutAge())
+                            + distribution("age", analytics.getAgeDistribution(), analytics.getSignUpsPerDay());
+                }
+                default:
+                    throw new IllegalArgumentException("Unknown command: " + command.get(0));
+            }
+        } catch (Exception e) {
+            return ERROR + e.getMessage();
+        }
+    }
+
+    private UserAnalyticsService analytics() {
+        UserAnalyticsService service = analyticsService;
+        if (service == null) {
+            throw new IllegalStateException("Analytics is not enabled");
+        }
+        return service;
+    }
+
+    private static String totals(long total, long adults, long minors, long withoutAge) {
+        return "total=" + total + "\tadults=" + adults + "\tminors=" + minors + "\twithout-age=" + withoutAge;
+    }
+
+    // Строка на возраст (или начало возрастной группы) и на день регистрации
+    private static String distribution(String ageLabel, Map<Integer, Long> byAge, Map<LocalDate, Long> perDay) {
+        StringBuilder result = new StringBuilder();
+        byAge.forEach((age, users) -> result.append(System.lineSeparator())
+                .append("\t\t").append(ageLabel).append("\t").append(age).append("\t").append(users));
+        perDay.forEach((day, users) -> result.append(System.lineSeparator())
+                .append("\t\tday\t").append(day).append("\t").append(users));
+        return result.toString();
+    }
+
+    private static String found(Optional<UserResponse> user) {
+        return user.map(response -> "OK\tfound\t" + format(response)).orElse("OK\tnot-found");
+    }
+
+    private static String format(UserResponse user) {
+        return user.getId() + "\t" + user.getName() + "\t" + user.getEmail() + "\t"
+                + (user.getAge() != null ? user.getAge() : "") + (user.isStale() ? "\tstale" : "");
+    }
+
+    private static Integer age(List<String> command, int index) {
+        return command.size() > index && !command.get(index).isEmpty() ? Integer.parseInt(command.get(index)) : null;
+    }
+
+    private static void requireArguments(List<String> command, int min, int max) {
+        if (command.size() < min || command.size() > max) {
+            throw new IllegalArgumentException("Wrong number of arguments for " + command.get(0));
+        }
+    }
+
+    static List<String> tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        boolean inToken = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+                inToken = true;
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (inToken) {
+                    tokens.add(current.toString());
+                    current.setLength(0);
+                    inToken = false;
+                }
+            } else {
+                current.append(c);
+                inToken = true;
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quote");
+        }
+        if (inToken) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+}
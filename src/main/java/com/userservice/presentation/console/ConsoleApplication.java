@@ -1,22 +1,37 @@
 package com.userservice.presentation.console;
 
+import com.userservice.application.service.UserAnalyticsService;
 import com.userservice.application.service.UserService;
 import com.userservice.application.dto.*;
+import com.userservice.domain.model.UserStatistics;
+import com.userservice.domain.repository.ReadYourWritesSession;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Scanner;
 
 public class ConsoleApplication {
     private final UserService userService;
     private final Scanner scanner;
+    private UserAnalyticsService analyticsService;
 
     public ConsoleApplication(UserService userService) {
         this.userService = userService;
         this.scanner = new Scanner(System.in);
     }
 
+    public void enableAnalytics(UserAnalyticsService analyticsService) {
+        this.analyticsService = analyticsService;
+    }
+
+    // Вся работа с консолью - одна сессия: созданный пользователь сразу виден в поиске по ID
     public void start() {
+        userService.runInSession(ReadYourWritesSession.start(), service -> run());
+    }
+
+    private void run() {
         System.out.println("=== User Service Console ===");
 
         while (true) {
@@ -45,6 +60,15 @@ public class ConsoleApplication {
                 case "7":
                     System.out.println("Выход...");
                     return;
+                case "8":
+                    searchUsers();
+                    break;
+                case "9":
+                    showStatistics();
+                    break;
+                case "10":
+                    showAnalytics();
+                    break;
                 default:
                     System.out.println("Неверный выбор");
             }
@@ -60,6 +84,9 @@ public class ConsoleApplication {
         System.out.println("5. Удалить пользователя");
         System.out.println("6. Найти пользователя по email");
         System.out.println("7. Выход");
+        System.out.println("8. Поиск пользователей по имени (с опечатками)");
+        System.out.println("9. Статистика пользователей");
+        System.out.println("10. Полная аналитика (сканирование всей таблицы)");
         System.out.print("Выберите действие: ");
     }
 
@@ -100,6 +127,7 @@ public class ConsoleApplication {
                         response.getEmail(),
                         response.getAge()
                 );
+                printStaleWarning(response);
             } else {
                 System.out.println("Пользователь не найден");
             }
@@ -181,6 +209,7 @@ public class ConsoleApplication {
                 UserResponse response = user.get();
                 System.out.printf("Найден пользователь: ID=%d, Name=%s, Email=%s, Age=%d%n",
                         response.getId(), response.getName(), response.getEmail(), response.getAge());
+                printStaleWarning(response);
             } else {
                 System.out.println("Пользователь не найден");
             }
@@ -188,4 +217,72 @@ public class ConsoleApplication {
             System.out.println("Ошибка: " + e.getMessage());
         }
     }
+
+    private void searchUsers() {
+        try {
+            System.out.print("Введите имя или его часть: ");
+            String query = scanner.nextLine();
+
+            List<UserSearchResult> results = userService.searchUsers(query, 10);
+            if (results.isEmpty()) {
+                System.out.println("Похожие пользователи не найдены");
+            } else {
+                System.out.println("Похожие пользователи (" + results.size() + "):");
+                results.forEach(result ->
+                        System.out.printf("  %.2f  ID: %d, Name: %s, Email: %s%n",
+                                result.getScore(),
+                                result.getUser().getId(),
+                                result.getUser().getName(),
+                                result.getUser().getEmail())
+                );
+            }
+        } catch (Exception e) {
+            System.out.println("Ошибка: " + e.getMessage());
+        }
+    }
+
+    private void showStatistics() {
+        if (analyticsService == null) {
+            System.out.println("Статистика недоступна в этом режиме хранения");
+            return;
+        }
+        try {
+            UserStatisticsResponse statistics = analyticsService.getStatistics();
+            System.out.println("Статистика на " + statistics.getComputedAt() + ":");
+            printTotals(statistics.getTotalUsers(), statistics.getAdults(), statistics.getMinors(),
+                    statistics.getUsersWithoutAge(), statistics.getDailyCreations());
+            statistics.getAgeBuckets().forEach((bucket, users) -> System.out.printf("  Возраст %d-%d: %d%n",
+                    bucket, bucket + UserStatistics.AGE_BUCKET_WIDTH - 1, users));
+        } catch (Exception e) {
+            System.out.println("Ошибка: " + e.getMessage());
+        }
+    }
+
+    private void showAnalytics() {
+        if (analyticsService == null) {
+            System.out.println("Аналитика недоступна в этом режиме хранения");
+            return;
+        }
+        try {
+            UserAnalyticsResponse analytics = analyticsService.getAnalytics();
+            printTotals(analytics.getTotalUsers(), analytics.getAdults(), analytics.getMinors(),
+                    analytics.getUsersWithoutAge(), analytics.getSignUpsPerDay());
+            analytics.getAgeDistribution().forEach((age, users) ->
+                    System.out.printf("  Возраст %d: %d%n", age, users));
+        } catch (Exception e) {
+            System.out.println("Ошибка: " + e.getMessage());
+        }
+    }
+
+    private void printTotals(long total, long adults, long minors, long withoutAge, Map<LocalDate, Long> perDay) {
+        System.out.printf("  Всего: %d, взрослых: %d, несовершеннолетних: %d, без возраста: %d%n",
+                total, adults, minors, withoutAge);
+        perDay.forEach((day, users) -> System.out.printf("  %s: регистраций %d%n", day, users));
+    }
+
+    private void printStaleWarning(UserResponse response) {
+        if (response.isStale()) {
+            System.out.println("Внимание: БД недоступна, показаны последние известные данные");
+        }
+    }
 }
@@ -0,0 +1,110 @@
+package com.userservice.application.limit;
+
+import com.userservice.application.service.UserOperation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    @DisplayName("Рост задержки под нагрузкой - лимит снижается")
+    void onSample_WhenLatencyGrows_ShouldDecreaseLimit() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(40, 4, 100, clock::get);
+        for (int i = 0; i < 200; i++) {
+            limiter.onSample(TimeUnit.MILLISECONDS.toNanos(2), 40);
+        }
+        int before = limiter.getLimit();
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample(TimeUnit.MILLISECONDS.toNanos(20), 40);
+        }
+
+        // Then
+        assertTrue(limiter.getLimit() < before, "Лимит " + limiter.getLimit() + " не снизился с " + before);
+        assertTrue(limiter.getLimit() >= 4);
+    }
+
+    @Test
+    @DisplayName("Стабильная задержка при полной загрузке - лимит растет")
+    void onSample_WithStableLatencyAtLimit_ShouldIncreaseLimit() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 4, 100, clock::get);
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample(TimeUnit.MILLISECONDS.toNanos(2), limiter.getLimit());
+        }
+
+        // Then
+        assertTrue(limiter.getLimit() > 10);
+        assertTrue(limiter.getLimit() <= 100);
+    }
+
+    @Test
+    @DisplayName("Лимит исчерпан - массовая выборка отклоняется раньше точечного чтения")
+    void around_WhenBusy_ShouldShedLowPriorityFirst() throws Exception {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 4, 4, clock::get);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            for (int i = 0; i < 2; i++) {
+                executor.submit(() -> limiter.around(UserOperation.GET_BY_ID, () -> {
+                    started.countDown();
+                    await(release);
+                    return null;
+                }));
+            }
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // When & Then
+            assertThrows(OverloadedException.class, () -> limiter.around(UserOperation.GET_ALL, () -> "all"));
+            assertEquals("one", limiter.around(UserOperation.GET_BY_ID, () -> "one"));
+            assertEquals(1, limiter.getRejected(UserOperation.GET_ALL));
+            assertEquals(2, limiter.getInFlight());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        }
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Исключение в операции - слот освобождается")
+    void around_WhenCallFails_ShouldReleasePermit() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 4, 4, clock::get);
+
+        // When
+        assertThrows(IllegalArgumentException.class, () -> limiter.around(UserOperation.CREATE, () -> {
+            throw new IllegalArgumentException("invalid");
+        }));
+
+        // Then
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(1, limiter.getAccepted(UserOperation.CREATE));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
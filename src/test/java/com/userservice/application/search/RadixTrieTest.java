@@ -0,0 +1,112 @@
+package com.userservice.application.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RadixTrieTest {
+
+    @Test
+    @DisplayName("Префикс - ID в порядке ключей, выдача ограничена, префикс посреди ребра работает")
+    void collect_ShouldReturnIdsInKeyOrder() {
+        // Given
+        RadixTrie trie = new RadixTrie();
+        trie.add("anna", 3);
+        trie.add("andrey", 1);
+        trie.add("anastasia", 2);
+        trie.add("boris", 4);
+        trie.add("anna", 5);
+
+        // When & Then
+        assertEquals(List.of(2L, 1L, 3L, 5L), collect(trie, "an", 10));
+        assertEquals(List.of(2L, 1L), collect(trie, "an", 2));
+        assertEquals(List.of(3L, 5L), collect(trie, "ann", 10));
+        assertEquals(List.of(4L), collect(trie, "bo", 10));
+        assertTrue(collect(trie, "annabel", 10).isEmpty());
+        assertTrue(collect(trie, "c", 10).isEmpty());
+        assertEquals(5, trie.size());
+    }
+
+    @Test
+    @DisplayName("Удаление - пустые узлы убираются, цепочки снова схлопываются")
+    void remove_ShouldPruneAndMergeNodes() {
+        // Given
+        RadixTrie trie = new RadixTrie();
+        trie.add("test", 1);
+        long compact = trie.nodeCount();
+        trie.add("team", 2);
+        trie.add("tea", 3);
+
+        // When
+        assertTrue(trie.remove("team", 2));
+        assertTrue(trie.remove("tea", 3));
+        assertFalse(trie.remove("tea", 3));
+        assertFalse(trie.remove("te", 1));
+
+        // Then
+        assertEquals(compact, trie.nodeCount());
+        assertEquals(List.of(1L), collect(trie, "t", 10));
+        assertEquals(1, trie.size());
+    }
+
+    @Test
+    @DisplayName("Случайные вставки и удаления - совпадает с эталоном на TreeMap")
+    void randomOperations_ShouldMatchReferenceImplementation() {
+        // Given
+        Random random = new Random(42);
+        RadixTrie trie = new RadixTrie();
+        TreeMap<String, Set<Long>> reference = new TreeMap<>();
+        Map<Long, String> keys = new HashMap<>();
+
+        // When
+        for (int i = 0; i < 5_000; i++) {
+            long id = random.nextInt(500);
+            String previous = keys.remove(id);
+            if (previous != null) {
+                assertTrue(trie.remove(previous, id));
+                reference.get(previous).remove(id);
+            }
+            if (random.nextInt(4) != 0) {
+                String key = randomKey(random);
+                trie.add(key, id);
+                reference.computeIfAbsent(key, k -> new TreeSet<>()).add(id);
+                keys.put(id, key);
+            }
+        }
+
+        // Then
+        for (String prefix : List.of("", "a", "ab", "ba", "abc", "cab", "bb")) {
+            List<Long> expected = new ArrayList<>();
+            reference.subMap(prefix, prefix + Character.MAX_VALUE).values().forEach(expected::addAll);
+            assertEquals(expected.subList(0, Math.min(20, expected.size())), collect(trie, prefix, 20),
+                    "Префикс: " + prefix);
+        }
+        assertEquals(keys.size(), trie.size());
+    }
+
+    private static String randomKey(Random random) {
+        StringBuilder key = new StringBuilder();
+        int length = 1 + random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            key.append((char) ('a' + random.nextInt(3)));
+        }
+        return key.toString();
+    }
+
+    private static List<Long> collect(RadixTrie trie, String prefix, int limit) {
+        Set<Long> ids = new LinkedHashSet<>();
+        trie.collect(prefix, limit, ids);
+        return new ArrayList<>(ids);
+    }
+}
@@ -0,0 +1,95 @@
+package com.userservice.application.search;
+
+import com.userservice.domain.event.UserChangeEvent;
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+import com.userservice.infrastructure.memory.InMemoryUserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserPrefixIndexTest {
+
+    private InMemoryUserRepository repository;
+    private UserPrefixIndex prefixIndex;
+
+    @BeforeEach
+    void setUp() {
+        UserPrefixIndex[] holder = new UserPrefixIndex[1];
+        repository = new InMemoryUserRepository(event -> holder[0].onUserChanged(event));
+        prefixIndex = new UserPrefixIndex(consumer -> repository.findAll().forEach(consumer), repository);
+        holder[0] = prefixIndex;
+    }
+
+    @Test
+    @DisplayName("Автодополнение - по началу имени, любого слова имени и email без учета регистра")
+    void complete_ShouldMatchNameWordsAndEmail() {
+        // Given
+        User anna = save("Anna Maria Smirnova", "a.smirnova@example.com");
+        User boris = save("Boris Annenkov", "boris@example.com");
+
+        // When & Then
+        assertEquals(List.of(anna.getId(), boris.getId()), prefixIndex.complete("ann", 10));
+        assertEquals(List.of(anna.getId()), prefixIndex.complete("Smi", 10));
+        assertEquals(List.of(anna.getId()), prefixIndex.complete("A.SMIR", 10));
+        assertEquals(List.of(boris.getId()), prefixIndex.complete("boris@", 10));
+        assertEquals(List.of(anna.getId()), prefixIndex.complete("a", 1));
+        assertTrue(prefixIndex.complete("z", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Изменения - старые ключи удаляются, новые добавляются, удаленный пропадает")
+    void onUserChanged_ShouldReplaceKeys() {
+        // Given
+        User user = save("Ivan Petrov", "ivan@example.com");
+
+        // When
+        repository.update(user.update("Oleg Sidorov", new Email("oleg@example.com"), 35));
+
+        // Then
+        assertTrue(prefixIndex.complete("iva", 10).isEmpty());
+        assertTrue(prefixIndex.complete("pet", 10).isEmpty());
+        assertEquals(List.of(user.getId()), prefixIndex.complete("sid", 10));
+
+        repository.delete(user.getId());
+        assertTrue(prefixIndex.complete("ole", 10).isEmpty());
+        assertEquals(0, prefixIndex.size());
+    }
+
+    @Test
+    @DisplayName("Перестроение - загружает пользователей и не затирает изменения, пришедшие во время чтения")
+    void rebuild_ShouldKeepChangesMadeDuringScan() {
+        // Given
+        InMemoryUserRepository silent = new InMemoryUserRepository();
+        User kept = silent.save(new User("Maria Ivanova", new Email("maria@example.com"), 30));
+        User changed = silent.save(new User("Pavel Orlov", new Email("pavel@example.com"), 30));
+        UserPrefixIndex[] holder = new UserPrefixIndex[1];
+        UserPrefixIndex index = new UserPrefixIndex(consumer -> {
+            List<User> snapshot = silent.findAll();
+            // Пользователь изменен после чтения выборки, но до окончания перестроения
+            User renamed = changed.update("Petr Orlov", changed.getEmail(), 30);
+            silent.update(renamed);
+            holder[0].onUserChanged(UserChangeEvent.updated(changed, renamed));
+            snapshot.forEach(consumer);
+        }, silent);
+        holder[0] = index;
+
+        // When
+        index.rebuild();
+
+        // Then
+        assertTrue(index.isReady());
+        assertEquals(2, index.size());
+        assertEquals(List.of(kept.getId()), index.complete("mar", 10));
+        assertEquals(List.of(changed.getId()), index.complete("petr", 10));
+        assertTrue(index.complete("pavel orlov", 10).isEmpty());
+    }
+
+    private User save(String name, String email) {
+        return repository.save(new User(name, new Email(email), 30));
+    }
+}
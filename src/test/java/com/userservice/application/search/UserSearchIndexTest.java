@@ -0,0 +1,116 @@
+package com.userservice.application.search;
+
+import com.userservice.domain.event.UserChangeEvent;
+import com.userservice.domain.event.UserChangeType;
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+import com.userservice.infrastructure.memory.InMemoryUserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserSearchIndexTest {
+
+    private InMemoryUserRepository repository;
+    private UserSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        UserSearchIndex[] holder = new UserSearchIndex[1];
+        repository = new InMemoryUserRepository(event -> holder[0].onUserChanged(event));
+        searchIndex = new UserSearchIndex(repository, 0.3);
+        holder[0] = searchIndex;
+    }
+
+    @Test
+    @DisplayName("Поиск с опечаткой - ближайшее имя первым, непохожие имена отсекаются")
+    void search_MisspelledName_ShouldRankClosestFirst() {
+        // Given
+        User alexander = save("Alexander Petrov", "a.petrov@example.com");
+        User alexandra = save("Alexandra Petrova", "sasha@example.com");
+        save("Maria Ivanova", "maria@example.com");
+
+        // When
+        List<UserSearchIndex.Hit> hits = searchIndex.search("Aleksander Petrov", 10);
+
+        // Then
+        assertEquals(List.of(alexander.getId(), alexandra.getId()), ids(hits));
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+    }
+
+    @Test
+    @DisplayName("Поиск по локальной части email - находит пользователя с другим именем")
+    void search_EmailLocalPart_ShouldMatch() {
+        // Given
+        User user = save("Sasha", "alexander.petrov@example.com");
+        save("Maria", "maria@example.com");
+
+        // When & Then
+        assertEquals(List.of(user.getId()), ids(searchIndex.search("alexandr.petrov", 10)));
+        assertTrue(searchIndex.search("example", 10).isEmpty(), "Домен email не индексируется");
+    }
+
+    @Test
+    @DisplayName("Изменения пользователей - индекс следует за созданием, обновлением и удалением")
+    void onUserChanged_ShouldKeepIndexInSync() {
+        // Given
+        User user = save("Ivan Ivanov", "user1@example.com");
+
+        // When
+        repository.update(user.update("Petr Petrov", user.getEmail(), 40));
+
+        // Then
+        assertTrue(searchIndex.search("Ivan Ivanov", 10).isEmpty());
+        assertEquals(List.of(user.getId()), ids(searchIndex.search("Petr Petrof", 10)));
+
+        repository.delete(user.getId());
+        assertTrue(searchIndex.search("Petr Petrov", 10).isEmpty());
+        assertEquals(0, searchIndex.size());
+    }
+
+    @Test
+    @DisplayName("Событие с другого экземпляра - пользователь перечитывается из репозитория")
+    void onUserChanged_RemoteEvent_ShouldReloadUser() {
+        // Given
+        InMemoryUserRepository silent = new InMemoryUserRepository();
+        UserSearchIndex index = new UserSearchIndex(silent, 0.3);
+        User user = silent.save(new User("Olga Smirnova", new Email("olga@example.com"), 30));
+
+        // When
+        index.onUserChanged(UserChangeEvent.remote(UserChangeType.CREATED, user.getId()));
+
+        // Then
+        assertEquals(List.of(user.getId()), ids(index.search("Olga Smirnova", 10)));
+    }
+
+    @Test
+    @DisplayName("Перестроение - загружает существующих пользователей, лимит ограничивает выдачу")
+    void rebuild_ShouldIndexExistingUsers() {
+        // Given
+        InMemoryUserRepository silent = new InMemoryUserRepository();
+        for (int i = 0; i < 20; i++) {
+            silent.save(new User("Anna Kuznetsova", new Email("anna" + i + "@example.com"), 20 + i));
+        }
+        UserSearchIndex index = new UserSearchIndex(silent, 0.3);
+
+        // When
+        index.rebuild();
+
+        // Then
+        assertEquals(20, index.size());
+        assertEquals(5, index.search("Ana Kuznetsova", 5).size());
+    }
+
+    private User save(String name, String email) {
+        return repository.save(new User(name, new Email(email), 30));
+    }
+
+    private static List<Long> ids(List<UserSearchIndex.Hit> hits) {
+        return hits.stream().map(hit -> hit.getUser().getId()).collect(Collectors.toList());
+    }
+}
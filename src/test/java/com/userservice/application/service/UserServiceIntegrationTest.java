@@ -2,6 +2,7 @@ package com.userservice.application.service;
 
 import com.userservice.application.dto.*;
 import com.userservice.infrastructure.config.HibernateConfig;
+import com.userservice.infrastructure.persistence.HibernateTransactionManager;
 import com.userservice.infrastructure.persistence.UserRepositoryImpl;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.TestInstance.Lifecycle;
@@ -19,7 +20,7 @@ class UserServiceIntegrationTest {
     @BeforeAll
     void setUp() {
         UserRepositoryImpl userRepository = new UserRepositoryImpl();
-        userService = new UserService(userRepository);
+        userService = new UserService(userRepository, new HibernateTransactionManager());
     }
 
     @BeforeEach
@@ -482,4 +483,37 @@ class UserServiceIntegrationTest {
         Optional<UserResponse> byOldEmail = userService.getUserByEmail("old@example.com");
         assertFalse(byOldEmail.isPresent());
     }
+
+    @Test
+    @DisplayName("UNIT OF WORK: Поиск, обновление и чтение в одной транзакции")
+    void inTransaction_WithSeveralOperations_ShouldCommitOnce() {
+        // Given
+        userService.createUser(new CreateUserRequest("Unit Of Work", "uow@example.com", 20));
+
+        // When
+        UserResponse result = userService.inTransaction(service -> {
+            UserResponse found = service.getUserByEmail("uow@example.com").orElseThrow();
+            service.updateUser(new UpdateUserRequest(found.getId(), "Unit Of Work", "uow@example.com", 21));
+            return service.getUserById(found.getId()).orElseThrow();
+        });
+
+        // Then
+        assertEquals(21, result.getAge());
+        assertEquals(21, userService.getUserByEmail("uow@example.com").orElseThrow().getAge());
+    }
+
+    @Test
+    @DisplayName("UNIT OF WORK: Исключение внутри транзакции откатывает все изменения")
+    void inTransaction_WhenWorkFails_ShouldRollBackAllChanges() {
+        // When
+        assertThrows(IllegalStateException.class, () -> userService.runInTransaction(service -> {
+            service.createUser(new CreateUserRequest("First", "first.uow@example.com", 30));
+            service.createUser(new CreateUserRequest("Second", "second.uow@example.com", 30));
+            throw new IllegalStateException("abort");
+        }));
+
+        // Then
+        assertFalse(userService.getUserByEmail("first.uow@example.com").isPresent());
+        assertFalse(userService.getUserByEmail("second.uow@example.com").isPresent());
+    }
 }
@@ -0,0 +1,280 @@
+package com.userservice.application.service;
+
+import com.userservice.application.dto.CreateUserRequest;
+import com.userservice.application.dto.UpdateUserRequest;
+import com.userservice.application.dto.UserResponse;
+import com.userservice.domain.event.UserChangePublisher;
+import com.userservice.domain.repository.TransactionManager;
+import com.userservice.infrastructure.bloom.BloomFilterUserRepository;
+import com.userservice.infrastructure.config.HibernateConfig;
+import com.userservice.infrastructure.id.TimeOrderedIdGenerator;
+import com.userservice.infrastructure.jdbc.JdbcConnectionPool;
+import com.userservice.infrastructure.jdbc.JdbcUserRepository;
+import com.userservice.infrastructure.memory.InMemoryUserRepository;
+import com.userservice.infrastructure.persistence.HibernateTransactionManager;
+import com.userservice.infrastructure.persistence.UserRepositoryImpl;
+import com.userservice.infrastructure.routing.SessionRouter;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Многопоточная проверка инвариантов UserService при сталкивающихся email и ID.
+// Репозитории в памяти проверяются при каждой сборке, PostgreSQL - с -Duserservice.stress.db=true.
+// Нагрузка: -Duserservice.stress.threads (по умолчанию 8), -Duserservice.stress.operations (на поток)
+class UserServiceStressTest {
+    private static final String DB_PROPERTY = "userservice.stress.db";
+    private static final int THREADS = Integer.getInteger("userservice.stress.threads", 8);
+    private static final int OPERATIONS = Integer.getInteger("userservice.stress.operations", 2_000);
+    // Маленький пул email: регистрации и смены email постоянно сталкиваются
+    private static final int SHARED_EMAILS = 16;
+
+    @Test
+    @DisplayName("Репозиторий в памяти - email уникальны, обновления не теряются, удаленные не возвращаются")
+    void inMemory_ConcurrentCollidingWrites_ShouldKeepInvariants() throws InterruptedException {
+        StressRun run = new StressRun("память", new UserService(new InMemoryUserRepository()));
+
+        run.execute();
+
+        run.assertInvariants();
+    }
+
+    @Test
+    @DisplayName("Фильтр Блума с перестроением в фоне - инварианты сохраняются")
+    void bloomFilter_ConcurrentWritesDuringRebuild_ShouldKeepInvariants() throws InterruptedException {
+        BloomFilterUserRepository repository = new BloomFilterUserRepository(new InMemoryUserRepository());
+        repository.start(Duration.ofMillis(20));
+        try {
+            StressRun run = new StressRun("память + фильтр Блума", new UserService(repository));
+
+            run.execute();
+
+            run.assertInvariants();
+        } finally {
+            repository.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Hibernate - инварианты сохраняются, все сессии закрыты")
+    void hibernate_ConcurrentCollidingWrites_ShouldKeepInvariantsAndCloseSessions() throws InterruptedException {
+        Assumptions.assumeTrue(Boolean.getBoolean(DB_PROPERTY), "Нагрузочный прогон на БД выключен: " + DB_PROPERTY);
+
+        SessionFactory sessionFactory = HibernateConfig.buildSessionFactory(
+                Map.of("hibernate.generate_statistics", "true", "hibernate.show_sql", "false"));
+        try {
+            SessionRouter router = SessionRouter.primaryOnly(() -> sessionFactory);
+            UserService userService = new UserService(new UserRepositoryImpl(router, UserChangePublisher.NONE),
+                    new HibernateTransactionManager(router), TimeOrderedIdGenerator.standard());
+            StressRun run = new StressRun("Hibernate", userService);
+
+            run.execute();
+
+            run.assertInvariants();
+            run.cleanUp();
+            Statistics statistics = sessionFactory.getStatistics();
+            assertEquals(statistics.getSessionOpenCount(), statistics.getSessionCloseCount(), "Незакрытые сессии");
+        } finally {
+            sessionFactory.close();
+        }
+    }
+
+    @Test
+    @DisplayName("JDBC - инварианты сохраняются, все соединения возвращены в пул")
+    void jdbc_ConcurrentCollidingWrites_ShouldKeepInvariantsAndReleaseConnections() throws InterruptedException {
+        Assumptions.assumeTrue(Boolean.getBoolean(DB_PROPERTY), "Нагрузочный прогон на БД выключен: " + DB_PROPERTY);
+
+        JdbcConnectionPool pool = JdbcConnectionPool.fromHibernateSettings();
+        try {
+            UserService userService = new UserService(new JdbcUserRepository(pool), TransactionManager.NONE,
+                    TimeOrderedIdGenerator.standard());
+            StressRun run = new StressRun("JDBC", userService);
+
+            run.execute();
+
+            run.assertInvariants();
+            run.cleanUp();
+            assertEquals(pool.getOpenedConnections(), pool.getIdleConnections(), "Соединения не возвращены в пул");
+        } finally {
+            pool.close();
+        }
+    }
+
+    private static final class StressRun {
+        private final String label;
+        private final UserService userService;
+        // Отличает данные прогона от чужих строк в общей БД
+        private final String tag = Long.toHexString(System.nanoTime());
+
+        private final List<Long> sharedIds = new CopyOnWriteArrayList<>();
+        private final Set<Long> deletedIds = ConcurrentHashMap.newKeySet();
+        private final long[] ownerIds = new long[THREADS];
+        private final int[] ownerAges = new int[THREADS];
+        private final List<Throwable> unexpected = new CopyOnWriteArrayList<>();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+
+        StressRun(String label, UserService userService) {
+            this.label = label;
+            this.userService = userService;
+        }
+
+        void execute() throws InterruptedException {
+            for (int thread = 0; thread < THREADS; thread++) {
+                ownerIds[thread] = userService.createUser(
+                        new CreateUserRequest("Writer 30", "owner" + thread + "." + tag + "@stress.local", 30)).getId();
+                ownerAges[thread] = 30;
+            }
+
+            ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+            long start = System.nanoTime();
+            AtomicLong lastCompleted = new AtomicLong();
+            reporter.scheduleAtFixedRate(() -> System.out.printf("[%s] %d оп/с, всего %d, отклонено %d%n",
+                    label, completed.get() - lastCompleted.getAndSet(completed.get()), completed.get(), rejected.get()),
+                    1, 1, TimeUnit.SECONDS);
+
+            CountDownLatch ready = new CountDownLatch(THREADS);
+            CountDownLatch go = new CountDownLatch(1);
+            List<Thread> workers = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int index = thread;
+                Thread worker = new Thread(() -> {
+                    ready.countDown();
+                    try {
+                        go.await();
+                        for (int i = 0; i < OPERATIONS; i++) {
+                            step(index, i);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }, "stress-" + thread);
+                workers.add(worker);
+                worker.start();
+            }
+            ready.await();
+            go.countDown();
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            reporter.shutdownNow();
+
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("[%s] потоков: %d, операций: %d за %.2f с (%.0f оп/с), отклонено: %d%n",
+                    label, THREADS, completed.get(), seconds, completed.get() / seconds, rejected.get());
+        }
+
+        private void step(int thread, int iteration) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            try {
+                switch (random.nextInt(10)) {
+                    case 0:
+                    case 1:
+                    case 2:
+                        sharedIds.add(userService.createUser(new CreateUserRequest("Writer 30",
+                                sharedEmail(random.nextInt(SHARED_EMAILS)), 30)).getId());
+                        break;
+                    case 3:
+                    case 4: {
+                        Long id = randomSharedId(random);
+                        if (id != null) {
+                            int age = random.nextInt(100);
+                            userService.updateUser(new UpdateUserRequest(id, "Writer " + age,
+                                    sharedEmail(random.nextInt(SHARED_EMAILS)), age));
+                        }
+                        break;
+                    }
+                    case 5: {
+                        Long id = randomSharedId(random);
+                        if (id != null && userService.deleteUser(id)) {
+                            deletedIds.add(id);
+                        }
+                        break;
+                    }
+                    case 6: {
+                        // Владелец обновляется только своим потоком: последнее записанное значение известно
+                        int age = iteration % 100;
+                        userService.updateUser(new UpdateUserRequest(ownerIds[thread], "Writer " + age,
+                                "owner" + thread + "." + tag + "@stress.local", age));
+                        ownerAges[thread] = age;
+                        break;
+                    }
+                    case 7:
+                    case 8: {
+                        Long id = randomSharedId(random);
+                        if (id != null) {
+                            userService.getUserById(id);
+                        }
+                        break;
+                    }
+                    default:
+                        userService.getUserByEmail(sharedEmail(random.nextInt(SHARED_EMAILS)));
+                        break;
+                }
+                completed.incrementAndGet();
+            } catch (IllegalArgumentException e) {
+                // Email занят или пользователь уже удален - ожидаемый исход гонки
+                rejected.incrementAndGet();
+                completed.incrementAndGet();
+            } catch (Throwable e) {
+                unexpected.add(e);
+            }
+        }
+
+        void assertInvariants() {
+            assertTrue(unexpected.isEmpty(), () -> "Непредвиденные ошибки: " + unexpected.size()
+                    + ", первая: " + unexpected.get(0));
+
+            List<UserResponse> users = userService.getAllUsers().stream()
+                    .filter(user -> user.getEmail().endsWith("." + tag + "@stress.local"))
+                    .collect(Collectors.toList());
+            Set<String> emails = new HashSet<>();
+            for (UserResponse user : users) {
+                assertTrue(emails.add(user.getEmail()), "Дубликат email: " + user.getEmail());
+                assertEquals(user.getId(), userService.getUserByEmail(user.getEmail()).orElseThrow().getId(),
+                        "Индекс email указывает на другого пользователя: " + user.getEmail());
+                // Имя и возраст пишутся одним обновлением: расхождение означает смешение двух записей
+                assertEquals("Writer " + user.getAge(), user.getName(), "Смешанная запись: " + user.getId());
+                assertFalse(deletedIds.contains(user.getId()), "Удаленный пользователь вернулся: " + user.getId());
+            }
+            for (int thread = 0; thread < THREADS; thread++) {
+                assertEquals(ownerAges[thread], userService.getUserById(ownerIds[thread]).orElseThrow().getAge(),
+                        "Потеряно обновление владельца потока " + thread);
+            }
+        }
+
+        void cleanUp() {
+            userService.getAllUsers().stream()
+                    .filter(user -> user.getEmail().endsWith("." + tag + "@stress.local"))
+                    .forEach(user -> userService.deleteUser(user.getId()));
+        }
+
+        private String sharedEmail(int index) {
+            return "shared" + index + "." + tag + "@stress.local";
+        }
+
+        private Long randomSharedId(ThreadLocalRandom random) {
+            int size = sharedIds.size();
+            return size == 0 ? null : sharedIds.get(random.nextInt(size));
+        }
+    }
+}
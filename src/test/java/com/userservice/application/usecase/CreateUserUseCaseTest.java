@@ -83,4 +83,22 @@ class CreateUserUseCaseTest {
         assertNotNull(response);
         assertNull(response.getAge());
     }
+
+    @Test
+    @DisplayName("Создание пользователя с генератором ID - ID назначается до сохранения")
+    void execute_WithIdGenerator_ShouldAssignIdBeforeSave() {
+        // Given
+        CreateUserUseCase useCase = new CreateUserUseCase(userRepository, () -> 42L);
+        CreateUserRequest request = new CreateUserRequest("John Doe", "john@example.com", 30);
+
+        when(userRepository.existsByEmail(any(Email.class))).thenReturn(false);
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        UserResponse response = useCase.execute(request);
+
+        // Then
+        assertEquals(42L, response.getId());
+        verify(userRepository).save(argThat(user -> Long.valueOf(42L).equals(user.getId())));
+    }
 }
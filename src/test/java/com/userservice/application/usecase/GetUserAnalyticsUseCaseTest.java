@@ -0,0 +1,83 @@
+package com.userservice.application.usecase;
+
+import com.userservice.application.dto.UserAnalyticsResponse;
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+import com.userservice.domain.repository.UserScanner;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GetUserAnalyticsUseCaseTest {
+
+    private static final LocalDateTime DAY_ONE = LocalDateTime.of(2024, 1, 10, 9, 30);
+    private static final LocalDateTime DAY_TWO = LocalDateTime.of(2024, 1, 11, 18, 0);
+
+    @Test
+    @DisplayName("Аналитика по пользователям - подсчет возрастов и регистраций")
+    void execute_WithUsers_ShouldAggregateReports() {
+        // Given
+        List<User> users = Arrays.asList(
+                new User(1L, "Adult One", new Email("adult1@example.com"), 30, DAY_ONE),
+                new User(2L, "Adult Two", new Email("adult2@example.com"), 30, DAY_ONE.plusHours(2)),
+                new User(3L, "Minor", new Email("minor@example.com"), 17, DAY_TWO),
+                new User(4L, "No Age", new Email("noage@example.com"), null, DAY_TWO),
+                new User(5L, "No Date", new Email("nodate@example.com"), 18, null)
+        );
+        GetUserAnalyticsUseCase useCase = new GetUserAnalyticsUseCase(new SplittingScanner(users));
+
+        // When
+        UserAnalyticsResponse response = useCase.execute();
+
+        // Then
+        assertEquals(5, response.getTotalUsers());
+        assertEquals(3, response.getAdults());
+        assertEquals(1, response.getMinors());
+        assertEquals(1, response.getUsersWithoutAge());
+        assertEquals(2L, response.getAgeDistribution().get(30));
+        assertEquals(1L, response.getAgeDistribution().get(17));
+        assertEquals(1L, response.getAgeDistribution().get(18));
+        assertEquals(2L, response.getSignUpsPerDay().get(LocalDate.of(2024, 1, 10)));
+        assertEquals(2L, response.getSignUpsPerDay().get(LocalDate.of(2024, 1, 11)));
+    }
+
+    @Test
+    @DisplayName("Аналитика по пустой таблице - нулевые значения")
+    void execute_WithNoUsers_ShouldReturnEmptyReports() {
+        // Given
+        GetUserAnalyticsUseCase useCase = new GetUserAnalyticsUseCase(new SplittingScanner(List.of()));
+
+        // When
+        UserAnalyticsResponse response = useCase.execute();
+
+        // Then
+        assertEquals(0, response.getTotalUsers());
+        assertTrue(response.getAgeDistribution().isEmpty());
+        assertTrue(response.getSignUpsPerDay().isEmpty());
+    }
+
+    private static class SplittingScanner implements UserScanner {
+        private final List<User> users;
+
+        SplittingScanner(List<User> users) {
+            this.users = users;
+        }
+
+        @Override
+        public <A, R> R scan(Collector<User, A, R> collector) {
+            int middle = users.size() / 2;
+            A left = collector.supplier().get();
+            A right = collector.supplier().get();
+            users.subList(0, middle).forEach(user -> collector.accumulator().accept(left, user));
+            users.subList(middle, users.size()).forEach(user -> collector.accumulator().accept(right, user));
+            return collector.finisher().apply(collector.combiner().apply(left, right));
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.userservice.application.usecase;
+
+import com.userservice.application.dto.UserStatisticsResponse;
+import com.userservice.domain.event.UserChangeEvent;
+import com.userservice.domain.event.UserChangeType;
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+import com.userservice.domain.model.UserStatistics;
+import com.userservice.domain.repository.UserStatisticsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GetUserStatisticsUseCaseTest {
+
+    private static final LocalDate DAY_ONE = LocalDate.of(2024, 3, 1);
+    private static final LocalDate DAY_TWO = LocalDate.of(2024, 3, 2);
+
+    @Mock
+    private UserStatisticsRepository statisticsRepository;
+
+    private MutableClock clock;
+    private GetUserStatisticsUseCase useCase;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-03-02T12:00:00Z"));
+        useCase = new GetUserStatisticsUseCase(statisticsRepository,
+                Duration.ofSeconds(30), Duration.ofMinutes(10), clock);
+    }
+
+    @Test
+    @DisplayName("Статистика в пределах TTL - берется из кэша")
+    void execute_WithinTtl_ShouldUseCache() {
+        // Given
+        when(statisticsRepository.computeStatistics())
+                .thenReturn(statistics(2, Map.of(DAY_ONE, 2L)));
+
+        // When
+        UserStatisticsResponse first = useCase.execute();
+        clock.advance(Duration.ofSeconds(10));
+        UserStatisticsResponse second = useCase.execute();
+
+        // Then
+        assertSame(first, second);
+        verify(statisticsRepository, times(1)).computeStatistics();
+    }
+
+    @Test
+    @DisplayName("Истекший TTL - счетчики обновлены по событиям без запроса в БД")
+    void execute_AfterTtl_ShouldApplyEventsWithoutQuery() {
+        // Given
+        when(statisticsRepository.computeStatistics())
+                .thenReturn(statistics(3, Map.of(DAY_ONE, 2L, DAY_TWO, 1L)));
+        User adult = user(1L, 25, DAY_ONE.atTime(10, 0));
+        User child = user(2L, 12, DAY_TWO.atTime(11, 0));
+
+        // When
+        useCase.execute();
+        useCase.onUserChanged(UserChangeEvent.created(child));
+        useCase.onUserChanged(UserChangeEvent.updated(adult, adult.update("Adult User", adult.getEmail(), 31)));
+        useCase.onUserChanged(UserChangeEvent.deleted(adult.update("Adult User", adult.getEmail(), 31)));
+        clock.advance(Duration.ofSeconds(31));
+        UserStatisticsResponse response = useCase.execute();
+
+        // Then
+        assertEquals(3, response.getTotalUsers());
+        assertEquals(2, response.getAdults());
+        assertEquals(1, response.getMinors());
+        assertEquals(Map.of(10, 1L, 20, 2L), response.getAgeBuckets());
+        assertEquals(1L, response.getDailyCreations().get(DAY_ONE));
+        assertEquals(2L, response.getDailyCreations().get(DAY_TWO));
+        verify(statisticsRepository, times(1)).computeStatistics();
+    }
+
+    @Test
+    @DisplayName("Событие с другого узла - без снимков, статистика пересчитывается полностью")
+    void execute_AfterRemoteEvent_ShouldRecompute() {
+        // Given
+        when(statisticsRepository.computeStatistics())
+                .thenReturn(statistics(2, Map.of(DAY_ONE, 2L)))
+                .thenReturn(statistics(3, Map.of(DAY_ONE, 3L)));
+
+        // When
+        useCase.execute();
+        useCase.onUserChanged(UserChangeEvent.remote(UserChangeType.CREATED, 7L));
+        clock.advance(Duration.ofSeconds(31));
+        UserStatisticsResponse response = useCase.execute();
+
+        // Then
+        assertEquals(3, response.getTotalUsers());
+        verify(statisticsRepository, times(2)).computeStatistics();
+    }
+
+    @Test
+    @DisplayName("Истек интервал полного пересчета - статистика считается заново")
+    void execute_AfterFullRefreshInterval_ShouldRecomputeEverything() {
+        // Given
+        when(statisticsRepository.computeStatistics())
+                .thenReturn(statistics(2, Map.of(DAY_ONE, 2L)));
+
+        // When
+        useCase.execute();
+        clock.advance(Duration.ofMinutes(11));
+        useCase.execute();
+
+        // Then
+        verify(statisticsRepository, times(2)).computeStatistics();
+    }
+
+    private UserStatistics statistics(long total, Map<LocalDate, Long> daily) {
+        return new UserStatistics(total, total, 0, 0, Map.of(20, total), daily);
+    }
+
+    private User user(Long id, int age, LocalDateTime createdAt) {
+        return new User(id, "User " + id, new Email("user" + id + "@example.com"), age, createdAt);
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
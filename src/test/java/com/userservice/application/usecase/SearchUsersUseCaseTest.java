@@ -0,0 +1,57 @@
+package com.userservice.application.usecase;
+
+import com.userservice.application.dto.UserSearchResult;
+import com.userservice.application.search.UserSearchIndex;
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+import com.userservice.domain.repository.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SearchUsersUseCaseTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Test
+    @DisplayName("Нечеткий поиск - результаты с оценкой сходства")
+    void execute_WithMatchingQuery_ShouldReturnScoredResults() {
+        // Given
+        User user = new User(1L, "John Doe", new Email("john@example.com"), 30, null);
+        when(userRepository.findAll()).thenReturn(List.of(user));
+        UserSearchIndex searchIndex = new UserSearchIndex(userRepository, 0.3);
+        searchIndex.rebuild();
+        SearchUsersUseCase searchUsersUseCase = new SearchUsersUseCase(searchIndex);
+
+        // When
+        List<UserSearchResult> results = searchUsersUseCase.execute("  Jon Doe ", 10);
+
+        // Then
+        assertEquals(1, results.size());
+        assertEquals(1L, results.get(0).getUser().getId());
+        assertEquals("john@example.com", results.get(0).getUser().getEmail());
+        assertTrue(results.get(0).getScore() > 0.3 && results.get(0).getScore() < 1);
+    }
+
+    @Test
+    @DisplayName("Нечеткий поиск с пустым запросом или неверным лимитом - исключение")
+    void execute_WithInvalidArguments_ShouldThrowException() {
+        SearchUsersUseCase searchUsersUseCase = new SearchUsersUseCase(new UserSearchIndex(userRepository, 0.3));
+
+        assertThrows(IllegalArgumentException.class, () -> searchUsersUseCase.execute(" ", 10));
+        assertThrows(IllegalArgumentException.class, () -> searchUsersUseCase.execute(null, 10));
+        assertThrows(IllegalArgumentException.class, () -> searchUsersUseCase.execute("John", 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> searchUsersUseCase.execute("John", SearchUsersUseCase.MAX_LIMIT + 1));
+        verifyNoInteractions(userRepository);
+    }
+}
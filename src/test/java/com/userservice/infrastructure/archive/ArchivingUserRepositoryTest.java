@@ -0,0 +1,129 @@
+package com.userservice.infrastructure.archive;
+
+import com.userservice.domain.event.UserChangeEvent;
+import com.userservice.domain.event.UserChangeType;
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+import com.userservice.infrastructure.memory.InMemoryUserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchivingUserRepositoryTest {
+
+    @TempDir
+    Path directory;
+
+    private InMemoryUserRepository hot;
+    private ColdUserArchive archive;
+    private ArchivingUserRepository repository;
+    private List<User> cold;
+
+    @BeforeEach
+    void setUp() {
+        hot = new InMemoryUserRepository();
+        archive = ColdUserArchive.open(directory, 16);
+        cold = ColumnarUserSegmentTest.users(100);
+        archive.append(cold);
+        repository = new ArchivingUserRepository(hot, archive);
+    }
+
+    @AfterEach
+    void tearDown() {
+        archive.close();
+    }
+
+    @Test
+    @DisplayName("Чтение - пользователь, которого нет в БД, находится в архиве по ID и email")
+    void find_MissingInDatabase_ShouldFallBackToArchive() {
+        // Given
+        User archived = cold.get(42);
+
+        // When & Then
+        assertEquals(archived, repository.findById(archived.getId()).orElseThrow());
+        assertEquals(archived, repository.findByEmail(archived.getEmail()).orElseThrow());
+        assertTrue(repository.existsByEmail(archived.getEmail()));
+        assertTrue(repository.findAll().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Обновление архивного пользователя - возвращает его в БД с прежней датой создания")
+    void update_ArchivedUser_ShouldRehydrateIntoDatabase() {
+        // Given
+        User archived = cold.get(7);
+
+        // When
+        repository.update(archived.update("Renamed", archived.getEmail(), 50));
+
+        // Then
+        User restored = hot.findById(archived.getId()).orElseThrow();
+        assertEquals("Renamed", restored.getName());
+        assertEquals(archived.getCreatedAt(), restored.getCreatedAt());
+
+        hot.delete(archived.getId());
+        assertTrue(repository.findById(archived.getId()).isEmpty(), "Устаревшая архивная копия вернулась");
+    }
+
+    @Test
+    @DisplayName("Удаление архивного пользователя - переживает повторное открытие архива")
+    void delete_ArchivedUser_ShouldStayDeletedAfterReopen() {
+        // Given
+        User archived = cold.get(3);
+
+        // When
+        repository.delete(archived.getId());
+        archive.close();
+        archive = ColdUserArchive.open(directory, 16);
+
+        // Then
+        assertTrue(archive.findById(archived.getId()).isEmpty());
+        assertTrue(archive.findByEmail(archived.getEmail()).isEmpty());
+        assertEquals(cold.get(4), archive.findById(cold.get(4).getId()).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Удаление пользователя, который есть только в архиве - публикуется событие удаления")
+    void delete_ArchivedOnlyUser_ShouldPublishDeletedEvent() {
+        // Given
+        List<UserChangeEvent> events = new ArrayList<>();
+        repository = new ArchivingUserRepository(hot, archive, events::add);
+        User archived = cold.get(5);
+
+        // When
+        repository.delete(archived.getId());
+        repository.delete(archived.getId());
+
+        // Then
+        assertEquals(1, events.size());
+        assertEquals(UserChangeType.DELETED, events.get(0).getType());
+        assertEquals(archived, events.get(0).getBefore().orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Повторная архивация - новая копия в следующем сегменте снова видна")
+    void append_AfterRemoval_ShouldServeNewerCopy() {
+        // Given
+        User archived = cold.get(10);
+        archive.remove(archived.getId());
+
+        // When
+        User changed = new User(archived.getId(), "Changed", new Email("changed@archive.test"),
+                archived.getAge(), archived.getCreatedAt());
+        archive.append(List.of(changed));
+
+        // Then
+        assertEquals("Changed", archive.findById(archived.getId()).orElseThrow().getName());
+        assertTrue(archive.findByEmail(archived.getEmail()).isEmpty());
+        List<Email> emails = new ArrayList<>();
+        repository.forEachEmail(emails::add);
+        assertEquals(cold.size(), emails.size());
+    }
+}
@@ -0,0 +1,101 @@
+package com.userservice.infrastructure.archive;
+
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarUserSegmentTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Сегмент - точечный поиск по ID и email находит каждого пользователя во всех блоках")
+    void write_ThenOpen_ShouldFindEveryUserById() {
+        // Given
+        List<User> users = users(1_000);
+        Path path = directory.resolve("segment.ucol");
+
+        // When
+        ColumnarUserSegment.write(path, users, 128);
+        ColumnarUserSegment segment = ColumnarUserSegment.open(path);
+
+        // Then
+        assertEquals(users.size(), segment.size());
+        for (User user : users) {
+            User byId = segment.findById(user.getId());
+            assertEquals(user, byId);
+            assertEquals(user.getName(), byId.getName());
+            assertEquals(user.getAge(), byId.getAge());
+            assertEquals(user.getCreatedAt(), byId.getCreatedAt());
+            assertEquals(user.getId(), segment.findByEmail(user.getEmail().getValue()).getId());
+        }
+        assertNull(segment.findById(users.get(0).getId() + 1));
+        assertNull(segment.findById(Long.MAX_VALUE));
+        assertNull(segment.findByEmail("missing@archive.test"));
+    }
+
+    @Test
+    @DisplayName("Сегмент - повторяющиеся имена и домены сжимаются словарем")
+    void write_RepetitiveColumns_ShouldBeMuchSmallerThanRawData() throws IOException {
+        // Given
+        List<User> users = users(10_000);
+        long rawSize = 0;
+        for (User user : users) {
+            rawSize += Long.BYTES * 2 + Integer.BYTES + user.getName().length() + user.getEmail().getValue().length();
+        }
+        Path path = directory.resolve("segment.ucol");
+
+        // When
+        ColumnarUserSegment.write(path, users, ColumnarUserSegment.DEFAULT_BLOCK_SIZE);
+
+        // Then
+        assertTrue(Files.size(path) < rawSize / 2, "Размер сегмента: " + Files.size(path) + " из " + rawSize);
+    }
+
+    @Test
+    @DisplayName("Поврежденный сегмент - открытие отклоняется по контрольной сумме")
+    void open_CorruptedFile_ShouldFail() throws IOException {
+        // Given
+        Path path = directory.resolve("segment.ucol");
+        ColumnarUserSegment.write(path, users(100), 32);
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 1] ^= 0x5A;
+        Files.write(path, bytes);
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> ColumnarUserSegment.open(path));
+    }
+
+    @Test
+    @DisplayName("Запись - ID должны идти по возрастанию")
+    void write_UnsortedUsers_ShouldBeRejected() {
+        List<User> users = new ArrayList<>(users(2));
+        users.add(users.remove(0));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> ColumnarUserSegment.write(directory.resolve("segment.ucol"), users, 16));
+    }
+
+    static List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        LocalDateTime createdAt = LocalDateTime.of(2019, 5, 1, 12, 0, 0, 123_456_000);
+        for (int i = 0; i < count; i++) {
+            users.add(new User(1_000L + i * 3L, "User " + (i % 50),
+                    new Email("cold" + i + "@" + (i % 3 == 0 ? "mail.test" : "archive.test")),
+                    i % 7 == 0 ? null : 18 + i % 60, createdAt.plusMinutes(i * 17L)));
+        }
+        return users;
+    }
+}
@@ -0,0 +1,130 @@
+package com.userservice.infrastructure.bloom;
+
+import com.userservice.application.dto.CreateUserRequest;
+import com.userservice.application.service.UserService;
+import com.userservice.domain.event.UserChangeEvent;
+import com.userservice.domain.event.UserChangeType;
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+import com.userservice.infrastructure.memory.InMemoryUserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BloomFilterUserRepositoryTest {
+
+    private InMemoryUserRepository delegate;
+    private BloomFilterUserRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        delegate = spy(new InMemoryUserRepository());
+        delegate.save(new User("Alice", new Email("alice@example.com"), 30));
+        repository = new BloomFilterUserRepository(delegate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+    }
+
+    @Test
+    @DisplayName("Фильтр не построен - проверки идут в БД")
+    void existsByEmail_BeforeBuild_ShouldDelegate() {
+        // When
+        boolean exists = repository.existsByEmail(new Email("bob@example.com"));
+
+        // Then
+        assertFalse(exists);
+        assertFalse(repository.isReady());
+        verify(delegate).existsByEmail(new Email("bob@example.com"));
+    }
+
+    @Test
+    @DisplayName("Новый email при регистрации - проверка без обращения к БД")
+    void createUser_WithNewEmail_ShouldSkipDatabaseCheck() {
+        // Given
+        repository.rebuild();
+        UserService userService = new UserService(repository);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            userService.createUser(new CreateUserRequest("User " + i, "user" + i + "@example.com", 20));
+        }
+
+        // Then
+        verify(delegate, atMost(3)).existsByEmail(any());
+        assertTrue(repository.getDefiniteNegatives() >= 97);
+        assertEquals(101, delegate.size());
+    }
+
+    @Test
+    @DisplayName("Существующий и только что созданный email - находятся")
+    void existsByEmail_ForKnownEmails_ShouldReturnTrue() {
+        // Given
+        repository.rebuild();
+        repository.save(new User("Bob", new Email("bob@example.com"), 25));
+
+        // When & Then
+        assertTrue(repository.existsByEmail(new Email("alice@example.com")));
+        assertTrue(repository.existsByEmail(new Email("bob@example.com")));
+        assertEquals("Bob", repository.findByEmail(new Email("bob@example.com")).orElseThrow().getName());
+    }
+
+    @Test
+    @DisplayName("Удаленный email - ложное срабатывание до перестроения, затем отсекается фильтром")
+    void delete_ThenRebuild_ShouldDropEmailFromFilter() {
+        // Given
+        repository.rebuild();
+        Long id = delegate.findByEmail(new Email("alice@example.com")).orElseThrow().getId();
+        repository.delete(id);
+
+        // When
+        boolean beforeRebuild = repository.existsByEmail(new Email("alice@example.com"));
+        repository.rebuild();
+        boolean afterRebuild = repository.existsByEmail(new Email("alice@example.com"));
+
+        // Then
+        assertFalse(beforeRebuild);
+        assertFalse(afterRebuild);
+        assertEquals(1, repository.getFalsePositives());
+        assertEquals(1, repository.getDefiniteNegatives());
+        assertEquals(0, repository.getDeletesSinceRebuild());
+    }
+
+    @Test
+    @DisplayName("Пользователь создан на другом узле - email попадает в фильтр по событию")
+    void remoteCreatedEvent_ShouldAddEmailToFilter() {
+        // Given: запись прошла мимо фильтра этого узла
+        repository.rebuild();
+        User remote = delegate.save(new User("Carol", new Email("carol@example.com"), 41));
+        assertFalse(repository.existsByEmail(new Email("carol@example.com")));
+
+        // When
+        repository.onUserChanged(UserChangeEvent.remote(UserChangeType.CREATED, remote.getId()));
+
+        // Then
+        assertTrue(repository.existsByEmail(new Email("carol@example.com")));
+        assertEquals("Carol", repository.findByEmail(new Email("carol@example.com")).orElseThrow().getName());
+    }
+
+    @Test
+    @DisplayName("Поиск по email - не отсекается фильтром, даже если адреса в нем нет")
+    void findByEmail_ForEmailMissingFromFilter_ShouldQueryDatabase() {
+        // Given
+        repository.rebuild();
+        delegate.save(new User("Dave", new Email("dave@example.com"), 35));
+
+        // When
+        User found = repository.findByEmail(new Email("dave@example.com")).orElseThrow();
+
+        // Then
+        assertEquals("Dave", found.getName());
+        assertEquals(0, repository.getDefiniteNegatives());
+    }
+}
@@ -0,0 +1,67 @@
+package com.userservice.infrastructure.bloom;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScalableBloomFilterTest {
+
+    @Test
+    @DisplayName("Добавленные значения - всегда 'возможно присутствуют'")
+    void mightContain_ForInsertedValues_ShouldNeverBeFalse() {
+        // Given
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01);
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i + "@example.com");
+        }
+
+        // Then
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("user" + i + "@example.com"));
+        }
+        assertTrue(filter.getStageCount() > 1, "Фильтр должен вырасти сверх начальной емкости");
+    }
+
+    @Test
+    @DisplayName("Рост сверх начальной емкости - доля ложных срабатываний остается в пределах заданной")
+    void mightContain_AfterGrowth_ShouldKeepFalsePositiveRateBounded() {
+        // Given
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01);
+        for (int i = 0; i < 20_000; i++) {
+            filter.put("user" + i + "@example.com");
+        }
+
+        // When
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("absent" + i + "@example.org")) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        double observed = (double) falsePositives / probes;
+        assertTrue(observed < 0.015, "Доля ложных срабатываний: " + observed);
+        assertTrue(filter.expectedFalsePositiveRate() < 0.015);
+    }
+
+    @Test
+    @DisplayName("Повторная вставка - не увеличивает счетчик")
+    void put_Duplicate_ShouldNotConsumeCapacity() {
+        // Given
+        ScalableBloomFilter filter = new ScalableBloomFilter(10, 0.01);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            filter.put("alice@example.com");
+        }
+
+        // Then
+        assertEquals(1, filter.getApproximateCount());
+        assertEquals(1, filter.getStageCount());
+    }
+}
@@ -0,0 +1,54 @@
+package com.userservice.infrastructure.config;
+
+import com.userservice.infrastructure.entity.UserEntity;
+import org.hibernate.engine.spi.ManagedEntity;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HibernateSettingsTest {
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty(HibernateSettings.URL_PROPERTY);
+    }
+
+    @Test
+    @DisplayName("Настройки по умолчанию - совпадают с прежним hibernate.cfg.xml")
+    void primary_WithoutOverrides_ShouldUseDefaults() {
+        // When
+        Map<String, Object> settings = HibernateSettings.primary();
+
+        // Then
+        assertEquals(HibernateSettings.DEFAULT_URL, settings.get("hibernate.connection.url"));
+        assertEquals("org.hibernate.dialect.PostgreSQLDialect", settings.get("hibernate.dialect"));
+        assertEquals("update", settings.get("hibernate.hbm2ddl.auto"));
+        assertEquals("false", settings.get("hibernate.temp.use_jdbc_metadata_defaults"));
+    }
+
+    @Test
+    @DisplayName("Системное свойство и явные переопределения - имеют приоритет")
+    void primary_WithOverrides_ShouldApplyThem() {
+        // Given
+        System.setProperty(HibernateSettings.URL_PROPERTY, "jdbc:postgresql://db:5432/users");
+
+        // When
+        Map<String, Object> settings = HibernateSettings.primary(Map.of("hibernate.hbm2ddl.auto", "none"));
+
+        // Then
+        assertEquals("jdbc:postgresql://db:5432/users", settings.get("hibernate.connection.url"));
+        assertEquals("none", settings.get("hibernate.hbm2ddl.auto"));
+    }
+
+    @Test
+    @DisplayName("UserEntity - улучшена при сборке для отслеживания изменений")
+    void userEntity_ShouldBeEnhancedAtBuildTime() {
+        assertTrue(SelfDirtinessTracker.class.isAssignableFrom(UserEntity.class));
+        assertTrue(ManagedEntity.class.isAssignableFrom(UserEntity.class));
+    }
+}
@@ -0,0 +1,143 @@
+package com.userservice.infrastructure.event;
+
+import com.userservice.domain.event.UserChangeEvent;
+import com.userservice.domain.event.UserChangeListener;
+import com.userservice.domain.event.UserChangeType;
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedUserEventPublisherTest {
+
+    @Test
+    @DisplayName("События от нескольких потоков - доставляются все и в порядке каждого потока")
+    void publish_FromManyThreads_ShouldDeliverAllInProducerOrder() throws InterruptedException {
+        // Given
+        int producers = 4;
+        int eventsPerProducer = 2_000;
+        CountDownLatch delivered = new CountDownLatch(producers * eventsPerProducer);
+        Map<Long, Long> lastSeenByProducer = new ConcurrentHashMap<>();
+        List<String> violations = new ArrayList<>();
+
+        try (BoundedUserEventPublisher publisher = new BoundedUserEventPublisher(64, Duration.ofSeconds(5))) {
+            publisher.subscribe(event -> {
+                long producer = event.getUserId() / 1_000_000;
+                long sequence = event.getUserId() % 1_000_000;
+                Long previous = lastSeenByProducer.put(producer, sequence);
+                if (previous != null && previous >= sequence) {
+                    violations.add(producer + ": " + previous + " -> " + sequence);
+                }
+                delivered.countDown();
+            });
+            publisher.start();
+
+            // When
+            List<Thread> threads = new ArrayList<>();
+            for (int p = 1; p <= producers; p++) {
+                long base = p * 1_000_000L;
+                Thread thread = new Thread(() -> {
+                    for (int i = 0; i < eventsPerProducer; i++) {
+                        publisher.publish(UserChangeEvent.created(user(base + i)));
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            // Then
+            assertTrue(delivered.await(10, TimeUnit.SECONDS), "Все события должны быть доставлены");
+            assertTrue(violations.isEmpty(), "Нарушен порядок: " + violations);
+            assertEquals(0, publisher.getDroppedEvents());
+        }
+    }
+
+    @Test
+    @DisplayName("Переполненный буфер без потребителя - событие отбрасывается после ожидания")
+    void publish_WhenFull_ShouldApplyBackpressureAndDrop() {
+        // Given
+        BoundedUserEventPublisher publisher = new BoundedUserEventPublisher(2, Duration.ofMillis(20));
+
+        // When
+        publisher.publish(UserChangeEvent.created(user(1)));
+        publisher.publish(UserChangeEvent.created(user(2)));
+        publisher.publish(UserChangeEvent.created(user(3)));
+
+        // Then
+        assertEquals(2, publisher.getPublishedEvents());
+        assertEquals(1, publisher.getDroppedEvents());
+        assertEquals(1, publisher.getBlockedPublishes());
+        assertEquals(2, publisher.getPendingEvents());
+    }
+
+    @Test
+    @DisplayName("Отброшенное событие - обработчики узнают о потере после событий, принятых до нее")
+    void publish_WhenDropped_ShouldNotifyListenersAfterQueuedEvents() throws InterruptedException {
+        // Given
+        BoundedUserEventPublisher publisher = new BoundedUserEventPublisher(2, Duration.ofMillis(20));
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(4);
+        publisher.subscribe(new UserChangeListener() {
+            @Override
+            public void onUserChanged(UserChangeEvent event) {
+                received.add("event " + event.getUserId());
+                done.countDown();
+            }
+
+            @Override
+            public void onEventsLost(long count) {
+                received.add("lost " + count);
+                done.countDown();
+            }
+        });
+        publisher.publish(UserChangeEvent.created(user(1)));
+        publisher.publish(UserChangeEvent.created(user(2)));
+        publisher.publish(UserChangeEvent.created(user(3)));
+
+        // When
+        try (publisher) {
+            publisher.start();
+            publisher.publish(UserChangeEvent.created(user(4)));
+
+            // Then
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertEquals(List.of("event 1", "event 2", "lost 1", "event 4"), received);
+        }
+    }
+
+    @Test
+    @DisplayName("Событие обновления - содержит снимки до и после")
+    void updatedEvent_ShouldCarryBeforeAndAfter() {
+        // Given
+        User before = user(7);
+        User after = before.update("Renamed", before.getEmail(), 40);
+
+        // When
+        UserChangeEvent event = UserChangeEvent.updated(before, after);
+
+        // Then
+        assertEquals(UserChangeType.UPDATED, event.getType());
+        assertEquals(7L, event.getUserId());
+        assertEquals("User 7", event.getBefore().orElseThrow().getName());
+        assertEquals("Renamed", event.getAfter().orElseThrow().getName());
+        assertFalse(event.isRemote());
+    }
+
+    private static User user(long id) {
+        return new User(id, "User " + id, new Email("user" + id + "@example.com"), 30, null);
+    }
+}
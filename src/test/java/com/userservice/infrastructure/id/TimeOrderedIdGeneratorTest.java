@@ -0,0 +1,144 @@
+package com.userservice.infrastructure.id;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedIdGeneratorTest {
+
+    private static final long NOW = Instant.parse("2026-03-01T12:00:00Z").toEpochMilli();
+
+    @Test
+    @DisplayName("ID возрастают и содержат время и номер узла")
+    void nextId_ShouldBeIncreasingAndDecodable() {
+        // Given
+        AtomicLong clock = new AtomicLong(NOW);
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(TimeOrderedIdGenerator.Layout.STANDARD, 7, clock::get);
+
+        // When
+        long first = generator.nextId();
+        long second = generator.nextId();
+        clock.addAndGet(5);
+        long third = generator.nextId();
+
+        // Then
+        assertTrue(first > 0);
+        assertTrue(first < second && second < third);
+        assertEquals(7, generator.nodeOf(third));
+        assertEquals(Instant.ofEpochMilli(NOW + 5), generator.timestampOf(third));
+    }
+
+    @Test
+    @DisplayName("Часы пошли назад - ID продолжают возрастать")
+    void nextId_WhenClockMovesBackwards_ShouldStayMonotonic() {
+        // Given
+        AtomicLong clock = new AtomicLong(NOW);
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(TimeOrderedIdGenerator.Layout.STANDARD, 1, clock::get);
+        long before = generator.nextId();
+
+        // When
+        clock.addAndGet(-10_000);
+        long after = generator.nextId();
+
+        // Then
+        assertTrue(after > before);
+    }
+
+    @Test
+    @DisplayName("Последовательность тика исчерпана - ID занимают следующий тик без повторов")
+    void nextId_WhenSequenceExhausted_ShouldBorrowNextTick() {
+        // Given
+        TimeOrderedIdGenerator.Layout layout = new TimeOrderedIdGenerator.Layout(1, 41, 10, 2);
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(layout, 3, () -> NOW);
+
+        // When
+        long previous = 0;
+        for (int i = 0; i < 10; i++) {
+            long id = generator.nextId();
+
+            // Then
+            assertTrue(id > previous);
+            previous = id;
+        }
+        assertEquals(Instant.ofEpochMilli(NOW + 2), generator.timestampOf(previous));
+    }
+
+    @Test
+    @DisplayName("Параллельная генерация - без дубликатов")
+    void nextId_Concurrently_ShouldBeUnique() throws Exception {
+        // Given
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(TimeOrderedIdGenerator.Layout.STANDARD, 0);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    ids.add(generator.nextId());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Then
+        assertEquals(400_000, ids.size());
+    }
+
+    @Test
+    @DisplayName("Схема для шардов - ID укладывается в локальные 48 бит")
+    void shardLocalLayout_ShouldFitShardLocalIdBits() {
+        // Given
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(
+                TimeOrderedIdGenerator.Layout.SHARD_LOCAL, 15, () -> Instant.parse("2100-01-01T00:00:00Z").toEpochMilli());
+
+        // When
+        long id = generator.nextId();
+
+        // Then
+        assertEquals(48, TimeOrderedIdGenerator.Layout.SHARD_LOCAL.totalBits());
+        assertTrue(id > 0 && id < (1L << 48));
+    }
+
+    @Test
+    @DisplayName("Номер узла не задан или вне диапазона схемы - запуск завершается ошибкой")
+    void configuredNode_WithoutValidProperty_ShouldFail() {
+        String previous = System.getProperty(TimeOrderedIdGenerator.NODE_PROPERTY);
+        try {
+            System.clearProperty(TimeOrderedIdGenerator.NODE_PROPERTY);
+            assertThrows(IllegalStateException.class,
+                    () -> TimeOrderedIdGenerator.configuredNode(TimeOrderedIdGenerator.Layout.STANDARD));
+
+            System.setProperty(TimeOrderedIdGenerator.NODE_PROPERTY, "17");
+            assertEquals(17, TimeOrderedIdGenerator.configuredNode(TimeOrderedIdGenerator.Layout.STANDARD));
+            // 16 узлов у схемы шардов: 17 не сворачивается в 1, а отклоняется
+            assertThrows(IllegalStateException.class,
+                    () -> TimeOrderedIdGenerator.configuredNode(TimeOrderedIdGenerator.Layout.SHARD_LOCAL));
+
+            System.setProperty(TimeOrderedIdGenerator.NODE_PROPERTY, "node-a");
+            assertThrows(IllegalStateException.class,
+                    () -> TimeOrderedIdGenerator.configuredNode(TimeOrderedIdGenerator.Layout.STANDARD));
+        } finally {
+            if (previous != null) {
+                System.setProperty(TimeOrderedIdGenerator.NODE_PROPERTY, previous);
+            } else {
+                System.clearProperty(TimeOrderedIdGenerator.NODE_PROPERTY);
+            }
+        }
+    }
+}
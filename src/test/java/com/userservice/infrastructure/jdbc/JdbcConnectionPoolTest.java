@@ -0,0 +1,112 @@
+package com.userservice.infrastructure.jdbc;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class JdbcConnectionPoolTest {
+
+    @Test
+    @DisplayName("Повторный запрос - подготовленный оператор берется из кэша соединения")
+    void prepare_SameSql_ShouldReuseStatement() throws SQLException {
+        // Given
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> mock(PreparedStatement.class));
+        JdbcConnectionPool pool = new JdbcConnectionPool(() -> connection, 1, Duration.ofMillis(100));
+
+        // When
+        PreparedStatement first;
+        try (PooledConnection pooled = pool.acquire()) {
+            first = pooled.prepare("SELECT 1");
+        }
+        PreparedStatement second;
+        try (PooledConnection pooled = pool.acquire()) {
+            second = pooled.prepare("SELECT 1");
+        }
+
+        // Then
+        assertSame(first, second);
+        verify(connection, times(1)).prepareStatement("SELECT 1");
+        verify(second).clearParameters();
+        assertEquals(1, pool.getOpenedConnections());
+    }
+
+    @Test
+    @DisplayName("Пул исчерпан - ожидание завершается ошибкой по таймауту")
+    void acquire_WhenExhausted_ShouldTimeOut() throws SQLException {
+        // Given
+        JdbcConnectionPool pool = new JdbcConnectionPool(() -> mock(Connection.class), 1, Duration.ofMillis(50));
+        PooledConnection held = pool.acquire();
+
+        // When & Then
+        assertThrows(SQLException.class, pool::acquire);
+        held.close();
+        assertNotNull(pool.acquire());
+    }
+
+    @Test
+    @DisplayName("Ошибка соединения - соединение закрывается и не возвращается в пул")
+    void release_AfterConnectionFailure_ShouldDiscardConnection() throws SQLException {
+        // Given
+        AtomicInteger opened = new AtomicInteger();
+        Connection connection = mock(Connection.class);
+        JdbcConnectionPool pool = new JdbcConnectionPool(() -> {
+            opened.incrementAndGet();
+            return connection;
+        }, 2, Duration.ofMillis(50));
+
+        // When
+        try (PooledConnection pooled = pool.acquire()) {
+            pooled.onFailure(new SQLException("connection reset", "08006"));
+        }
+        try (PooledConnection pooled = pool.acquire()) {
+            pooled.onFailure(new SQLException("duplicate key", "23505"));
+        }
+        pool.acquire().close();
+
+        // Then
+        verify(connection, times(1)).close();
+        assertEquals(2, opened.get());
+        assertEquals(1, pool.getIdleConnections());
+    }
+
+    @Test
+    @DisplayName("Сломанное соединение закрыто - ожидающий поток сразу открывает замену, а не ждет таймаута")
+    void release_BrokenConnection_ShouldWakeWaiter() throws Exception {
+        // Given
+        AtomicInteger opened = new AtomicInteger();
+        JdbcConnectionPool pool = new JdbcConnectionPool(() -> {
+            opened.incrementAndGet();
+            return mock(Connection.class);
+        }, 1, Duration.ofSeconds(10));
+        PooledConnection held = pool.acquire();
+        CompletableFuture<PooledConnection> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pool.acquire();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+
+        // When
+        held.onFailure(new SQLException("connection reset", "08006"));
+        held.close();
+
+        // Then
+        assertNotNull(waiter.get(2, TimeUnit.SECONDS));
+        assertEquals(2, opened.get());
+        assertEquals(1, pool.getOpenedConnections());
+    }
+}
@@ -0,0 +1,112 @@
+package com.userservice.infrastructure.jdbc;
+
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+import com.userservice.domain.repository.UserRepository;
+import com.userservice.infrastructure.config.HibernateConfig;
+import com.userservice.infrastructure.persistence.UserRepositoryImpl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+public class UserRepositoryBenchmark {
+    private static final int DATASET_SIZE = 1_000;
+    private static final int WARMUP_OPERATIONS = 2_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int operationsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+
+        JdbcConnectionPool pool = JdbcConnectionPool.fromHibernateSettings();
+        try {
+            UserRepository hibernate = new UserRepositoryImpl();
+            UserRepository jdbc = new JdbcUserRepository(pool);
+
+            List<User> dataset = prepareDataset(jdbc);
+            System.out.printf("Потоков: %d, операций на поток: %d, пользователей: %d%n",
+                    threads, operationsPerThread, dataset.size());
+
+            run("Hibernate", hibernate, dataset, threads, operationsPerThread);
+            run("JDBC", jdbc, dataset, threads, operationsPerThread);
+
+            for (User user : dataset) {
+                jdbc.delete(user.getId());
+            }
+        } finally {
+            pool.close();
+            HibernateConfig.shutdown();
+        }
+    }
+
+    private static List<User> prepareDataset(UserRepository repository) {
+        String prefix = "bench-" + System.nanoTime() + "-";
+        List<User> users = new ArrayList<>(DATASET_SIZE);
+        for (int i = 0; i < DATASET_SIZE; i++) {
+            users.add(repository.save(new User("Bench User " + i, new Email(prefix + i + "@example.com"), 20 + i % 50)));
+        }
+        return users;
+    }
+
+    private static void run(String label, UserRepository repository, List<User> dataset,
+                            int threads, int operationsPerThread) throws InterruptedException {
+        execute(repository, dataset, threads, WARMUP_OPERATIONS / threads, new long[threads * WARMUP_OPERATIONS]);
+
+        long[] latencies = new long[threads * operationsPerThread];
+        long start = System.nanoTime();
+        execute(repository, dataset, threads, operationsPerThread, latencies);
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        double throughput = latencies.length / (elapsed / 1_000_000_000.0);
+        System.out.printf("%-10s %10.0f оп/с   p50 %6d мкс   p99 %6d мкс   p99.9 %6d мкс%n",
+                label, throughput,
+                micros(latencies, 0.50), micros(latencies, 0.99), micros(latencies, 0.999));
+    }
+
+    // Смешанная нагрузка горячего пути: 50% findById, 40% findByEmail, 10% existsByEmail
+    private static void execute(UserRepository repository, List<User> dataset, int threads,
+                                int operationsPerThread, long[] latencies) throws InterruptedException {
+        CountDownLatch startSignal = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            int offset = t * operationsPerThread;
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    startSignal.await();
+                    for (int i = 0; i < operationsPerThread; i++) {
+                        User user = dataset.get(random.nextInt(dataset.size()));
+                        int operation = random.nextInt(10);
+                        long begin = System.nanoTime();
+                        if (operation < 5) {
+                            repository.findById(user.getId());
+                        } else if (operation < 9) {
+                            repository.findByEmail(user.getEmail());
+                        } else {
+                            repository.existsByEmail(user.getEmail());
+                        }
+                        latencies[offset + i] = System.nanoTime() - begin;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "bench-worker-" + t);
+            worker.start();
+        }
+
+        startSignal.countDown();
+        done.await();
+    }
+
+    private static long micros(long[] sorted, double percentile) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return TimeUnit.NANOSECONDS.toMicros(sorted[Math.max(0, index)]);
+    }
+}
@@ -0,0 +1,64 @@
+package com.userservice.infrastructure.memory;
+
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+import com.userservice.infrastructure.startup.StartupWarmUp;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryUserRepositoryTest {
+
+    private final InMemoryUserRepository repository = new InMemoryUserRepository();
+
+    @Test
+    @DisplayName("Сохранение - присваивается ID и дата создания, поиск по email работает")
+    void save_ShouldAssignIdAndIndexEmail() {
+        // When
+        User saved = repository.save(new User("Alice", new Email("alice@example.com"), 30));
+
+        // Then
+        assertNotNull(saved.getId());
+        assertNotNull(saved.getCreatedAt());
+        assertEquals(saved.getId(), repository.findByEmail(new Email("alice@example.com")).orElseThrow().getId());
+        assertTrue(repository.existsByEmail(new Email("alice@example.com")));
+    }
+
+    @Test
+    @DisplayName("Дублирующийся email - сохранение отклоняется как в БД")
+    void save_WithDuplicateEmail_ShouldThrow() {
+        // Given
+        repository.save(new User("Alice", new Email("alice@example.com"), 30));
+
+        // When & Then
+        assertThrows(RuntimeException.class,
+                () -> repository.save(new User("Other", new Email("alice@example.com"), 40)));
+        assertEquals(1, repository.size());
+    }
+
+    @Test
+    @DisplayName("Смена email - старый email освобождается")
+    void update_WithNewEmail_ShouldMoveEmailIndex() {
+        // Given
+        User saved = repository.save(new User("Alice", new Email("alice@example.com"), 30));
+
+        // When
+        repository.update(saved.update("Alice", new Email("alice@example.org"), 31));
+
+        // Then
+        assertFalse(repository.existsByEmail(new Email("alice@example.com")));
+        assertEquals(31, repository.findByEmail(new Email("alice@example.org")).orElseThrow().getAge());
+        assertEquals(saved.getCreatedAt(), repository.findById(saved.getId()).orElseThrow().getCreatedAt());
+
+        repository.delete(saved.getId());
+        assertTrue(repository.findAll().isEmpty());
+        assertFalse(repository.existsByEmail(new Email("alice@example.org")));
+    }
+
+    @Test
+    @DisplayName("Прогрев - проходит на репозитории в памяти без БД")
+    void startupWarmUp_ShouldCompleteWithoutDatabase() {
+        assertTrue(new StartupWarmUp(50).run() >= 0);
+    }
+}
@@ -0,0 +1,54 @@
+package com.userservice.infrastructure.partition;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserPartitionManagerTest {
+
+    @Test
+    @DisplayName("Имя секции - месяц восстанавливается из имени, посторонние таблицы игнорируются")
+    void partitionName_ShouldRoundTrip() {
+        // When
+        String name = UserPartitionManager.partitionName(YearMonth.of(2024, 3));
+
+        // Then
+        assertEquals("users_p2024_03", name);
+        assertEquals(YearMonth.of(2024, 3), UserPartitionManager.monthOf(name));
+        assertNull(UserPartitionManager.monthOf(UserPartitionManager.DEFAULT_PARTITION));
+    }
+
+    @Test
+    @DisplayName("DDL секции - полуоткрытый диапазон от первого дня месяца до первого дня следующего")
+    void partitionDdl_ShouldCoverWholeMonth() {
+        assertEquals("CREATE TABLE IF NOT EXISTS users_p2024_12 PARTITION OF users " +
+                        "FOR VALUES FROM ('2024-12-01') TO ('2025-01-01')",
+                UserPartitionManager.partitionDdl(YearMonth.of(2024, 12)));
+    }
+
+    @Test
+    @DisplayName("Будущие секции - текущий месяц и заданное число следующих")
+    void monthsToCreate_ShouldIncludeCurrentAndAhead() {
+        assertEquals(List.of(YearMonth.of(2024, 11), YearMonth.of(2024, 12), YearMonth.of(2025, 1)),
+                UserPartitionManager.monthsToCreate(YearMonth.of(2024, 11), 2));
+    }
+
+    @Test
+    @DisplayName("Отсоединение - только секции старше срока хранения, default и будущие остаются")
+    void partitionsToDetach_ShouldSelectOnlyExpiredMonths() {
+        // Given
+        List<String> partitions = List.of("users_p2024_01", "users_p2024_02", "users_p2024_03",
+                "users_p2024_06", "users_p2024_07", UserPartitionManager.DEFAULT_PARTITION);
+
+        // When
+        List<String> detached = UserPartitionManager.partitionsToDetach(partitions, YearMonth.of(2024, 6), 3);
+
+        // Then
+        assertEquals(List.of("users_p2024_01", "users_p2024_02"), detached);
+        assertTrue(UserPartitionManager.partitionsToDetach(partitions, YearMonth.of(2024, 6), 0).isEmpty());
+    }
+}
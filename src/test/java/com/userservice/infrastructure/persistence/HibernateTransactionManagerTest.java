@@ -0,0 +1,121 @@
+package com.userservice.infrastructure.persistence;
+
+import com.userservice.infrastructure.routing.SessionRouter;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HibernateTransactionManagerTest {
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private Session session;
+
+    @Mock
+    private Transaction transaction;
+
+    private HibernateTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        when(sessionFactory.openSession()).thenReturn(session);
+        when(session.beginTransaction()).thenReturn(transaction);
+        transactionManager = new HibernateTransactionManager(SessionRouter.primaryOnly(() -> sessionFactory));
+    }
+
+    @Test
+    @DisplayName("Единица работы - одна сессия и один коммит на вложенные вызовы")
+    void inTransaction_WithNestedCalls_ShouldShareSessionAndCommitOnce() {
+        // When
+        String result = transactionManager.inTransaction(() -> {
+            Session outer = UnitOfWork.current(sessionFactory).getSession();
+            return transactionManager.inTransaction(() -> {
+                assertSame(outer, UnitOfWork.current(sessionFactory).getSession());
+                return "done";
+            });
+        });
+
+        // Then
+        assertEquals("done", result);
+        verify(sessionFactory, times(1)).openSession();
+        verify(transaction, times(1)).commit();
+        verify(session).close();
+        assertNull(UnitOfWork.current(sessionFactory));
+    }
+
+    @Test
+    @DisplayName("Исключение в единице работы - откат и отмена отложенных действий")
+    void inTransaction_WhenWorkFails_ShouldRollBackAndSkipAfterCommit() {
+        // Given
+        when(transaction.isActive()).thenReturn(true);
+        List<String> actions = new ArrayList<>();
+
+        // When
+        assertThrows(IllegalArgumentException.class, () -> transactionManager.inTransaction(() -> {
+            UnitOfWork.current(sessionFactory).afterCommit(() -> actions.add("published"));
+            throw new IllegalArgumentException("boom");
+        }));
+
+        // Then
+        verify(transaction).rollback();
+        verify(transaction, never()).commit();
+        assertTrue(actions.isEmpty());
+        assertNull(UnitOfWork.current(sessionFactory));
+    }
+
+    @Test
+    @DisplayName("Перехваченная ошибка вложенного вызова - внешний коммит запрещен")
+    void inTransaction_WhenNestedFailureIsSwallowed_ShouldNotCommit() {
+        // Given
+        when(transaction.isActive()).thenReturn(true);
+
+        // When
+        assertThrows(IllegalStateException.class, () -> transactionManager.inTransaction(() -> {
+            try {
+                transactionManager.inTransaction(() -> {
+                    throw new IllegalArgumentException("nested");
+                });
+            } catch (IllegalArgumentException ignored) {
+                // вызывающий код проглотил ошибку
+            }
+            return null;
+        }));
+
+        // Then
+        verify(transaction, never()).commit();
+        verify(transaction).rollback();
+    }
+
+    @Test
+    @DisplayName("Отложенные действия - выполняются после коммита")
+    void inTransaction_OnSuccess_ShouldRunAfterCommitActions() {
+        // Given
+        List<String> actions = new ArrayList<>();
+
+        // When
+        transactionManager.inTransaction(() -> {
+            UnitOfWork.current(sessionFactory).afterCommit(() -> actions.add("published"));
+            assertTrue(actions.isEmpty());
+            return null;
+        });
+
+        // Then
+        assertEquals(List.of("published"), actions);
+        verify(transaction).commit();
+    }
+}
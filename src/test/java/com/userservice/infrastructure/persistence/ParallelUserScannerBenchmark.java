@@ -0,0 +1,48 @@
+package com.userservice.infrastructure.persistence;
+
+import com.userservice.application.analytics.UserAnalyticsAccumulator;
+import com.userservice.application.dto.UserAnalyticsResponse;
+import com.userservice.domain.repository.UserScanner;
+import com.userservice.infrastructure.config.HibernateConfig;
+
+import java.util.concurrent.TimeUnit;
+
+public class ParallelUserScannerBenchmark {
+    private static final int WARMUP_ITERATIONS = 2;
+    private static final int MEASURED_ITERATIONS = 5;
+
+    public static void main(String[] args) {
+        int chunkSize = args.length > 0 ? Integer.parseInt(args[0]) : ParallelUserScanner.DEFAULT_CHUNK_SIZE;
+        int parallelism = args.length > 1 ? Integer.parseInt(args[1]) : ParallelUserScanner.DEFAULT_PARALLELISM;
+
+        try {
+            UserScanner sequential = new SequentialUserScanner(new UserRepositoryImpl());
+            UserScanner parallel = new ParallelUserScanner(chunkSize, parallelism);
+
+            long sequentialMillis = measure("findAll (1 поток)", sequential);
+            long parallelMillis = measure("чанки по " + chunkSize + " (" + parallelism + " потоков)", parallel);
+
+            System.out.printf("Ускорение: %.2fx%n", (double) sequentialMillis / Math.max(1, parallelMillis));
+        } finally {
+            HibernateConfig.shutdown();
+        }
+    }
+
+    private static long measure(String label, UserScanner scanner) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            scanner.scan(UserAnalyticsAccumulator.collector());
+        }
+
+        long totalNanos = 0;
+        UserAnalyticsResponse response = null;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long start = System.nanoTime();
+            response = scanner.scan(UserAnalyticsAccumulator.collector());
+            totalNanos += System.nanoTime() - start;
+        }
+
+        long averageMillis = TimeUnit.NANOSECONDS.toMillis(totalNanos / MEASURED_ITERATIONS);
+        System.out.printf("%-40s %6d мс (пользователей: %d)%n", label, averageMillis, response.getTotalUsers());
+        return averageMillis;
+    }
+}
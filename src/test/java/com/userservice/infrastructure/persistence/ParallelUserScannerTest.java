@@ -0,0 +1,87 @@
+package com.userservice.infrastructure.persistence;
+
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelUserScannerTest {
+
+    @Test
+    @DisplayName("Разреженные ID по времени - число чанков зависит от числа строк, а не от разброса ID")
+    void scan_WithSparseTimeOrderedIds_ShouldSplitByRowCount() {
+        // Given: ID с шагом в несколько миллисекунд, как у TimeOrderedIdGenerator (около 4 млн значений на мс)
+        long step = 1L << 22;
+        NavigableMap<Long, User> table = new TreeMap<>();
+        long id = 370_000_000_000_000_000L;
+        for (int i = 0; i < 1_005; i++) {
+            id += step * (1 + i % 7);
+            table.put(id, new User(id, "User " + i, new Email("user" + i + "@example.com"), 20 + i % 50, null));
+        }
+        FakeChunkReader reader = new FakeChunkReader(table);
+        ParallelUserScanner scanner = new ParallelUserScanner(reader, 100, 4);
+
+        // When
+        List<User> scanned = scanner.scan(Collectors.toList());
+
+        // Then
+        assertEquals(1_005, scanned.size());
+        assertEquals(table.keySet(),
+                scanned.stream().map(User::getId).collect(Collectors.toCollection(TreeSet::new)));
+        assertEquals(11, reader.reads.size());
+        assertTrue(reader.reads.stream().allMatch(size -> size <= 100));
+    }
+
+    @Test
+    @DisplayName("Пустая таблица - чанки не читаются")
+    void scan_WithEmptyTable_ShouldNotReadChunks() {
+        // Given
+        FakeChunkReader reader = new FakeChunkReader(new TreeMap<>());
+        ParallelUserScanner scanner = new ParallelUserScanner(reader, 100, 4);
+
+        // When & Then
+        assertTrue(scanner.scan(Collectors.toList()).isEmpty());
+        assertTrue(reader.reads.isEmpty());
+    }
+
+    // Границы - каждый chunkSize-й ID, как у оконного запроса row_number() в БД
+    private static final class FakeChunkReader implements ParallelUserScanner.ChunkReader {
+        private final NavigableMap<Long, User> table;
+        private final ConcurrentLinkedQueue<Integer> reads = new ConcurrentLinkedQueue<>();
+
+        FakeChunkReader(NavigableMap<Long, User> table) {
+            this.table = table;
+        }
+
+        @Override
+        public List<Long> chunkStarts(int chunkSize) {
+            List<Long> starts = new ArrayList<>();
+            int row = 0;
+            for (Long id : table.keySet()) {
+                if (row++ % chunkSize == 0) {
+                    starts.add(id);
+                }
+            }
+            return starts;
+        }
+
+        @Override
+        public List<User> read(long fromId, Long toId) {
+            List<User> users = new ArrayList<>(toId == null
+                    ? table.tailMap(fromId, true).values()
+                    : table.subMap(fromId, true, toId, false).values());
+            reads.add(users.size());
+            return users;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.userservice.infrastructure.persistence;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TombstonePurgeJobTest {
+
+    private static final Clock AT_2AM = Clock.fixed(Instant.parse("2024-03-10T02:00:00Z"), ZoneOffset.UTC);
+    private static final Clock AT_NOON = Clock.fixed(Instant.parse("2024-03-10T12:00:00Z"), ZoneOffset.UTC);
+
+    @Test
+    @DisplayName("Очистка в окне - удаляет пакетами, пока есть что удалять, с учетом срока хранения")
+    void runOnce_InsideWindow_ShouldPurgeInBatches() throws InterruptedException {
+        // Given
+        int[] tombstones = {1_200};
+        List<LocalDateTime> cutoffs = new ArrayList<>();
+        TombstonePurgeJob job = new TombstonePurgeJob((deletedBefore, limit) -> {
+            cutoffs.add(deletedBefore);
+            int purged = Math.min(limit, tombstones[0]);
+            tombstones[0] -= purged;
+            return purged;
+        }, LocalTime.of(1, 0), LocalTime.of(5, 0), 500, Duration.ZERO, Duration.ofHours(24), AT_2AM);
+
+        // When
+        long purged = job.runOnce();
+
+        // Then
+        assertEquals(1_200, purged);
+        assertEquals(3, job.getBatches());
+        assertEquals(0, tombstones[0]);
+        assertEquals(LocalDateTime.of(2024, 3, 9, 2, 0), cutoffs.get(0));
+    }
+
+    @Test
+    @DisplayName("Очистка вне окна - к БД не обращается")
+    void runOnce_OutsideWindow_ShouldNotPurge() throws InterruptedException {
+        // Given
+        TombstonePurgeJob job = new TombstonePurgeJob((deletedBefore, limit) -> {
+            throw new AssertionError("Purge outside of the window");
+        }, LocalTime.of(1, 0), LocalTime.of(5, 0), 500, Duration.ZERO, Duration.ofHours(24), AT_NOON);
+
+        // When & Then
+        assertEquals(0, job.runOnce());
+        assertEquals(0, job.getBatches());
+    }
+
+    @Test
+    @DisplayName("Окно через полночь - время до и после полуночи входит в окно")
+    void inWindow_AcrossMidnight_ShouldWrapAround() {
+        TombstonePurgeJob job = new TombstonePurgeJob((deletedBefore, limit) -> 0,
+                LocalTime.of(23, 0), LocalTime.of(4, 0), 500, Duration.ZERO, Duration.ZERO);
+
+        assertTrue(job.inWindow(LocalTime.of(23, 30)));
+        assertTrue(job.inWindow(LocalTime.of(3, 59)));
+        assertFalse(job.inWindow(LocalTime.of(4, 0)));
+        assertFalse(job.inWindow(LocalTime.of(12, 0)));
+    }
+}
@@ -0,0 +1,144 @@
+package com.userservice.infrastructure.resilience;
+
+import com.userservice.application.dto.UserResponse;
+import com.userservice.application.usecase.GetUserByIdUseCase;
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+import com.userservice.domain.repository.DataAccessException;
+import com.userservice.domain.repository.StaleReads;
+import com.userservice.domain.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CircuitBreakerUserRepositoryTest {
+
+    private static final User ALICE = new User(1L, "Alice", new Email("alice@example.com"), 30, null);
+    private static final DataAccessException OUTAGE =
+            new DataAccessException("Failed to find user", new SQLException("Connection refused", "08001"));
+
+    @Mock
+    private UserRepository delegate;
+
+    private final AtomicLong clock = new AtomicLong();
+    private CircuitBreaker circuitBreaker;
+    private CircuitBreakerUserRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreaker = new CircuitBreaker("test", 4, 2, 0.5, Duration.ofSeconds(10), 1, clock::get);
+        repository = new CircuitBreakerUserRepository(delegate, circuitBreaker, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        StaleReads.consume();
+    }
+
+    @Test
+    @DisplayName("Сбои БД - цепь размыкается и вызовы отклоняются без обращения к БД")
+    void findAll_AfterRepeatedFailures_ShouldFailFast() {
+        // Given
+        when(delegate.findAll()).thenThrow(OUTAGE);
+        assertThrows(DataAccessException.class, repository::findAll);
+        assertThrows(DataAccessException.class, repository::findAll);
+
+        // When & Then
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertThrows(CircuitOpenException.class, repository::findAll);
+        verify(delegate, times(2)).findAll();
+        assertEquals(1, circuitBreaker.getRejectedCalls());
+    }
+
+    @Test
+    @DisplayName("Открытая цепь - чтение известного пользователя из кэша с пометкой stale")
+    void findById_WhenCircuitOpen_ShouldServeStaleValue() {
+        // Given
+        when(delegate.findById(1L)).thenReturn(Optional.of(ALICE)).thenThrow(OUTAGE);
+        GetUserByIdUseCase useCase = new GetUserByIdUseCase(repository);
+        assertFalse(useCase.execute(1L).orElseThrow().isStale());
+
+        // When
+        UserResponse response = useCase.execute(1L).orElseThrow();
+
+        // Then
+        assertTrue(response.isStale());
+        assertEquals("Alice", response.getName());
+        assertEquals(ALICE, repository.findByEmail(new Email("alice@example.com")).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Неизвестный пользователь при сбое БД - ошибка, а не 'не найден'")
+    void findById_WhenDatabaseDownAndNotCached_ShouldThrow() {
+        // Given
+        when(delegate.findById(2L)).thenThrow(OUTAGE);
+        when(delegate.existsByEmail(any())).thenThrow(OUTAGE);
+
+        // When & Then
+        assertThrows(DataAccessException.class, () -> repository.findById(2L));
+        assertThrows(DataAccessException.class, () -> repository.existsByEmail(new Email("bob@example.com")));
+    }
+
+    @Test
+    @DisplayName("Полуоткрытая цепь - успешная проба замыкает цепь")
+    void tryAcquire_AfterOpenInterval_ShouldProbeAndClose() {
+        // Given
+        when(delegate.findAll()).thenThrow(OUTAGE);
+        assertThrows(DataAccessException.class, repository::findAll);
+        assertThrows(DataAccessException.class, repository::findAll);
+        reset(delegate);
+        when(delegate.findById(1L)).thenReturn(Optional.of(ALICE));
+
+        // When
+        clock.addAndGet(Duration.ofSeconds(11).toNanos());
+        repository.findById(1L);
+
+        // Then
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    @DisplayName("Нарушение уникальности - не считается сбоем БД")
+    void save_WithConstraintViolation_ShouldNotOpenCircuit() {
+        // Given
+        DataAccessException duplicate = new DataAccessException("Failed to save user",
+                new SQLException("duplicate key", "23505"));
+        when(delegate.save(any())).thenThrow(duplicate);
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            assertThrows(DataAccessException.class, () -> repository.save(new User("Bob", new Email("bob@example.com"), 20)));
+        }
+
+        // Then
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    @DisplayName("Кэш устаревших данных ограничен по размеру")
+    void staleCache_ShouldEvictLeastRecentlyUsed() {
+        // Given
+        for (long id = 1; id <= 3; id++) {
+            User user = new User(id, "User " + id, new Email("user" + id + "@example.com"), 20, null);
+            when(delegate.findById(id)).thenReturn(Optional.of(user));
+            repository.findById(id);
+        }
+
+        // Then
+        assertEquals(2, repository.getStaleCacheSize());
+    }
+}
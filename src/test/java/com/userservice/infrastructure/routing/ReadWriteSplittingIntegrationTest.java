@@ -0,0 +1,83 @@
+package com.userservice.infrastructure.routing;
+
+import com.userservice.domain.event.UserChangePublisher;
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+import com.userservice.domain.repository.ReadYourWritesSession;
+import com.userservice.infrastructure.config.HibernateConfig;
+import com.userservice.infrastructure.persistence.UserRepositoryImpl;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Запуск: -Duserservice.db.replica.url=jdbc:postgresql://localhost:5433/user_service
+// Реплика может быть потоковой копией основной БД или независимой БД с той же схемой;
+// у независимой БД позиция журнала неизвестна, и сессия после записи читает с основной БД
+@TestInstance(Lifecycle.PER_CLASS)
+class ReadWriteSplittingIntegrationTest {
+
+    private UserRepositoryImpl userRepository;
+
+    @BeforeAll
+    void setUp() {
+        Assumptions.assumeTrue(HibernateConfig.isReplicaConfigured(),
+                "Реплика не настроена: " + HibernateConfig.REPLICA_URL_PROPERTY);
+
+        SessionRouter router = new SessionRouter(HibernateConfig::getSessionFactory,
+                HibernateConfig::getReplicaSessionFactory);
+        userRepository = new UserRepositoryImpl(router, UserChangePublisher.NONE);
+    }
+
+    @BeforeEach
+    void cleanDatabase() {
+        try (Session session = HibernateConfig.getSessionFactory().openSession()) {
+            Transaction transaction = session.beginTransaction();
+            session.createMutationQuery("DELETE FROM UserEntity").executeUpdate();
+            transaction.commit();
+        }
+    }
+
+    @AfterAll
+    void tearDown() {
+        HibernateConfig.shutdown();
+    }
+
+    @Test
+    @DisplayName("Чтение своей записи - пользователь виден сразу после сохранения")
+    void findById_RightAfterSave_ShouldSeeOwnWrite() {
+        // Given
+        ReadYourWritesSession session = ReadYourWritesSession.start();
+        User saved = session.call(() ->
+                userRepository.save(new User("Primary User", new Email("primary@example.com"), 30)));
+
+        // When & Then
+        assertTrue(session.getToken() > ReadYourWritesSession.NO_WRITES);
+        assertTrue(session.call(() -> userRepository.findById(saved.getId())).isPresent());
+        assertTrue(userRepository.existsByEmail(new Email("primary@example.com")));
+    }
+
+    @Test
+    @DisplayName("Чтение в другой сессии - идет на реплику")
+    void findById_FromOtherSession_ShouldReadReplica() throws InterruptedException {
+        // Given
+        User saved = ReadYourWritesSession.start().call(() ->
+                userRepository.save(new User("Replica User", new Email("replica@example.com"), 30)));
+        boolean[] foundOnReplica = new boolean[1];
+
+        // When
+        Thread reader = new Thread(() -> foundOnReplica[0] = userRepository.findById(saved.getId()).isPresent());
+        reader.start();
+        reader.join();
+
+        // Then
+        try (Session session = HibernateConfig.getReplicaSessionFactory().openSession()) {
+            boolean replicaHasRow = session.createQuery("SELECT count(u) FROM UserEntity u WHERE u.id = :id", Long.class)
+                    .setParameter("id", saved.getId())
+                    .getSingleResult() > 0;
+            assertEquals(replicaHasRow, foundOnReplica[0]);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.userservice.infrastructure.routing;
+
+import com.userservice.domain.repository.ReadYourWritesSession;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class SessionRouterTest {
+
+    @Mock
+    private SessionFactory primary;
+
+    @Mock
+    private SessionFactory replica;
+
+    @Mock
+    private Session primarySession;
+
+    private FakePositions positions;
+    private SessionRouter router;
+
+    @BeforeEach
+    void setUp() {
+        positions = new FakePositions();
+        router = new SessionRouter(() -> primary, () -> replica, positions);
+    }
+
+    @Test
+    @DisplayName("Чтение без сессии или без записей - идет на реплику без запроса позиции")
+    void readFactory_WithoutWrite_ShouldUseReplica() {
+        // When & Then
+        assertSame(replica, router.readFactory());
+        assertSame(replica, ReadYourWritesSession.start().call(router::readFactory));
+        assertSame(primary, router.writeFactory());
+        assertEquals(2, router.getReplicaReads());
+        assertEquals(0, positions.replayQueries.get());
+    }
+
+    @Test
+    @DisplayName("Реплика не догнала запись сессии - чтение идет на основную БД")
+    void readFactory_ReplicaBehindSessionWrite_ShouldUsePrimary() {
+        // Given
+        ReadYourWritesSession session = ReadYourWritesSession.start();
+        positions.primary.set(500);
+        positions.replica.set(400);
+        session.call(() -> {
+            router.recordWrite(primarySession);
+            return null;
+        });
+
+        // When & Then
+        assertEquals(500, session.getToken());
+        assertSame(primary, session.call(router::readFactory));
+        assertEquals(1, router.getPrimaryReads());
+    }
+
+    @Test
+    @DisplayName("Реплика применила журнал до позиции записи - чтение возвращается на реплику")
+    void readFactory_ReplicaCaughtUp_ShouldUseReplica() {
+        // Given
+        ReadYourWritesSession session = ReadYourWritesSession.resume(500);
+        positions.replica.set(400);
+        assertSame(primary, session.call(router::readFactory));
+
+        // When
+        positions.replica.set(600);
+
+        // Then: после догона позиция запоминается, повторное чтение не запрашивает ее снова
+        assertSame(replica, session.call(router::readFactory));
+        assertSame(replica, session.call(router::readFactory));
+        assertEquals(2, positions.replayQueries.get());
+    }
+
+    @Test
+    @DisplayName("Сессия - токен не зависит от потока: запись в одном потоке видна чтению в другом")
+    void session_ShouldCarryTokenAcrossThreadsButNotToOtherSessions() throws InterruptedException {
+        // Given
+        ReadYourWritesSession session = ReadYourWritesSession.start();
+        positions.primary.set(500);
+        positions.replica.set(400);
+        Thread writer = new Thread(() -> session.call(() -> {
+            router.recordWrite(primarySession);
+            return null;
+        }));
+        writer.start();
+        writer.join();
+        SessionFactory[] chosen = new SessionFactory[2];
+
+        // When
+        Thread sameSession = new Thread(() -> chosen[0] = session.call(router::readFactory));
+        Thread otherSession = new Thread(() -> chosen[1] = ReadYourWritesSession.start().call(router::readFactory));
+        sameSession.start();
+        otherSession.start();
+        sameSession.join();
+        otherSession.join();
+
+        // Then
+        assertSame(primary, chosen[0]);
+        assertSame(replica, chosen[1]);
+        assertFalse(ReadYourWritesSession.active().isPresent());
+    }
+
+    @Test
+    @DisplayName("Без реплики - позиции не запрашиваются, токен не меняется")
+    void primaryOnly_ShouldNotTrackPositions() {
+        // Given
+        SessionRouter primaryOnly = SessionRouter.primaryOnly(() -> primary);
+        ReadYourWritesSession session = ReadYourWritesSession.start();
+
+        // When
+        SessionFactory chosen = session.call(() -> {
+            primaryOnly.recordWrite(primarySession);
+            return primaryOnly.readFactory();
+        });
+
+        // Then
+        assertSame(primary, chosen);
+        assertEquals(ReadYourWritesSession.NO_WRITES, session.getToken());
+    }
+
+    private static final class FakePositions implements ReplicationPositions {
+        private final AtomicLong primary = new AtomicLong();
+        private final AtomicLong replica = new AtomicLong(UNKNOWN);
+        private final AtomicInteger replayQueries = new AtomicInteger();
+
+        @Override
+        public long afterCommit(Session primarySession) {
+            return primary.get();
+        }
+
+        @Override
+        public long replayed() {
+            replayQueries.incrementAndGet();
+            return replica.get();
+        }
+    }
+}
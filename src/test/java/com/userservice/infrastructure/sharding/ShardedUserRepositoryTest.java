@@ -0,0 +1,429 @@
+package com.userservice.infrastructure.sharding;
+
+import com.userservice.domain.event.UserChangeEvent;
+import com.userservice.domain.event.UserChangeType;
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+import com.userservice.domain.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedUserRepositoryTest {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    private ShardedUserRepository repository;
+
+    @AfterEach
+    void tearDown() {
+        if (repository != null) {
+            repository.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Кодирование ID - шард и локальный ID восстанавливаются")
+    void shardIdCodec_ShouldRoundTrip() {
+        long globalId = ShardIdCodec.encode(7, 123_456L);
+
+        assertEquals(7, ShardIdCodec.shardOf(globalId));
+        assertEquals(123_456L, ShardIdCodec.localIdOf(globalId));
+        assertEquals(42L, ShardIdCodec.encode(0, 42L));
+        assertThrows(IllegalArgumentException.class, () -> ShardIdCodec.encode(ShardIdCodec.MAX_SHARDS, 1L));
+    }
+
+    @Test
+    @DisplayName("Кольцо хешей - равномерное распределение и независимость от регистра")
+    void consistentHashRing_ShouldDistributeEvenly() {
+        ConsistentHashRing ring = new ConsistentHashRing(shards(4), ConsistentHashRing.DEFAULT_VIRTUAL_NODES);
+        int[] counts = new int[4];
+        for (int i = 0; i < 20_000; i++) {
+            counts[ring.shardFor(new Email("user" + i + "@example.com"))]++;
+        }
+
+        for (int count : counts) {
+            assertTrue(count > 3_500 && count < 6_500, "Неравномерное распределение: " + count);
+        }
+        assertEquals(ring.shardFor(new Email("Mixed.Case@Example.com")),
+                ring.shardFor(new Email("mixed.case@example.com")));
+    }
+
+    @Test
+    @DisplayName("Добавление шарда - перемещается около 1/N ключей")
+    void consistentHashRing_AddingShard_ShouldMoveFewKeys() {
+        ConsistentHashRing before = new ConsistentHashRing(shards(4), ConsistentHashRing.DEFAULT_VIRTUAL_NODES);
+        ConsistentHashRing after = new ConsistentHashRing(shards(5), ConsistentHashRing.DEFAULT_VIRTUAL_NODES);
+
+        int moved = 0;
+        int keys = 20_000;
+        for (int i = 0; i < keys; i++) {
+            Email email = new Email("user" + i + "@example.com");
+            int newShard = after.shardFor(email);
+            if (before.shardFor(email) != newShard) {
+                moved++;
+                assertEquals(4, newShard, "Ключи должны переезжать только на новый шард");
+            }
+        }
+
+        assertTrue(moved > keys / 10 && moved < keys * 3 / 10, "Перемещено ключей: " + moved);
+    }
+
+    @Test
+    @DisplayName("Сохранение и поиск - ID указывает на шард, поиск по email находит пользователя")
+    void saveAndFind_ShouldRouteByEmailAndId() {
+        repository = new ShardedUserRepository(shards(3));
+
+        User saved = repository.save(new User("Alice", new Email("alice@example.com"), 30));
+
+        int expectedShard = repository.shardFor(new Email("alice@example.com"));
+        assertEquals(expectedShard, ShardIdCodec.shardOf(saved.getId()));
+        assertEquals("Alice", repository.findById(saved.getId()).orElseThrow().getName());
+        assertEquals(saved.getId(), repository.findByEmail(new Email("alice@example.com")).orElseThrow().getId());
+        assertTrue(repository.existsByEmail(new Email("alice@example.com")));
+        assertFalse(repository.existsByEmail(new Email("bob@example.com")));
+    }
+
+    @Test
+    @DisplayName("Смена email - пользователь переезжает в шард нового адреса с прежним ID")
+    void update_WithNewEmail_ShouldMoveToEmailShardAndKeepId() {
+        List<Shard> shards = shards(3);
+        repository = new ShardedUserRepository(shards);
+        User saved = repository.save(new User("Alice", new Email("alice@example.com"), 30));
+        Email newEmail = emailOnOtherShard(repository, ShardIdCodec.shardOf(saved.getId()));
+
+        repository.update(saved.update("Alice", newEmail, 31));
+
+        User found = repository.findByEmail(newEmail).orElseThrow();
+        assertEquals(saved.getId(), found.getId());
+        assertEquals(31, found.getAge());
+        assertEquals(newEmail, repository.findById(saved.getId()).orElseThrow().getEmail());
+        assertTrue(shards.get(ShardIdCodec.shardOf(saved.getId())).getRepository().findAll().isEmpty());
+        assertEquals(1, shards.get(repository.shardFor(newEmail)).getRepository().findAll().size());
+
+        repository.delete(saved.getId());
+        assertTrue(repository.findById(saved.getId()).isEmpty());
+        assertTrue(repository.findByEmail(newEmail).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Перенос при смене email - дата создания сохраняется, удаленный пользователь не восстанавливается")
+    void update_ShouldKeepCreatedAtAndSkipDeletedUsers() {
+        // Given
+        List<UserChangeEvent> events = new ArrayList<>();
+        List<Shard> shards = shards(3);
+        repository = new ShardedUserRepository(shards, ConsistentHashRing.DEFAULT_VIRTUAL_NODES, events::add);
+        User saved = repository.save(new User(null, "Alice", new Email("alice@example.com"), 30, BASE_TIME));
+        User deleted = repository.save(new User("Bob", new Email("bob@example.com"), 40));
+        repository.delete(deleted.getId());
+        events.clear();
+
+        // When
+        Email newEmail = emailOnOtherShard(repository, ShardIdCodec.shardOf(saved.getId()));
+        repository.update(saved.update("Alice", newEmail, 31));
+        repository.update(deleted.update("Bob", emailOnOtherShard(repository, ShardIdCodec.shardOf(deleted.getId())), 41));
+
+        // Then
+        assertEquals(BASE_TIME, repository.findById(saved.getId()).orElseThrow().getCreatedAt());
+        assertTrue(repository.findById(deleted.getId()).isEmpty());
+        assertEquals(1, repository.findAll().size());
+        assertEquals(1, events.size());
+        assertEquals(UserChangeType.UPDATED, events.get(0).getType());
+        assertEquals(BASE_TIME, events.get(0).getAfter().orElseThrow().getCreatedAt());
+    }
+
+    @Test
+    @DisplayName("Поиск отсутствующего email - запрос только в шард адреса, без обхода всех шардов")
+    void findByEmail_Miss_ShouldQueryOnlyOwningShard() {
+        List<Shard> shards = shards(4);
+        repository = new ShardedUserRepository(shards);
+        Email email = new Email("nobody@example.com");
+
+        assertTrue(repository.findByEmail(email).isEmpty());
+
+        for (Shard shard : shards) {
+            int expected = shard.getIndex() == repository.shardFor(email) ? 1 : 0;
+            assertEquals(expected, ((InMemoryShardRepository) shard.getRepository()).emailLookups.get(),
+                    shard.getName());
+        }
+    }
+
+    @Test
+    @DisplayName("findAll - слияние отсортированных результатов всех шардов")
+    void findAll_ShouldMergeShardsInCreationOrder() {
+        repository = new ShardedUserRepository(shards(3));
+        for (int i = 0; i < 30; i++) {
+            repository.save(new User(null, "User " + i, new Email("user" + i + "@example.com"), 20,
+                    BASE_TIME.plusMinutes(i)));
+        }
+
+        List<User> users = repository.findAll();
+
+        assertEquals(30, users.size());
+        for (int i = 0; i < users.size(); i++) {
+            assertEquals("User " + i, users.get(i).getName());
+        }
+    }
+
+    @Test
+    @DisplayName("Ребалансировка - после добавления шарда пользователи переезжают по кольцу")
+    void rebalance_AfterAddingShard_ShouldMoveUsersToRingOwner() {
+        List<Shard> initial = shards(2);
+        repository = new ShardedUserRepository(initial);
+        Map<String, Long> idsByEmail = new HashMap<>();
+        for (int i = 0; i < 200; i++) {
+            User saved = repository.save(new User("User " + i, new Email("user" + i + "@example.com"), 25));
+            idsByEmail.put(saved.getEmail().getValue(), saved.getId());
+        }
+
+        repository.addShard(new Shard(2, "shard-2", new InMemoryShardRepository()));
+        ShardRebalancer.Report report = new ShardRebalancer(repository).rebalance();
+
+        assertTrue(report.getMovedUsers() > 0);
+        assertEquals(0, report.getFailedMoves());
+        assertEquals(200, repository.findAll().size());
+        for (Map.Entry<String, Long> entry : idsByEmail.entrySet()) {
+            Email email = new Email(entry.getKey());
+            User user = repository.findByEmail(email).orElseThrow();
+            assertEquals(entry.getValue(), user.getId());
+            assertEquals(email, repository.findById(entry.getValue()).orElseThrow().getEmail());
+        }
+        for (Shard shard : repository.getShards()) {
+            for (User row : shard.getRepository().findAll()) {
+                assertEquals(shard.getIndex(), repository.shardFor(row.getEmail()));
+            }
+        }
+
+        // Запись после переноса попадает в строку нового шарда, дубликатов нет
+        Long movedId = idsByEmail.entrySet().stream()
+                .filter(entry -> repository.shardFor(new Email(entry.getKey())) == 2)
+                .map(Map.Entry::getValue)
+                .findFirst().orElseThrow();
+        User moved = repository.findById(movedId).orElseThrow();
+        repository.update(moved.update("Renamed", moved.getEmail(), 26));
+        assertEquals("Renamed", repository.findByEmail(moved.getEmail()).orElseThrow().getName());
+        assertEquals(200, repository.findAll().size());
+    }
+
+    @Test
+    @DisplayName("Ребалансировка не закончена - пользователь находится по email в шарде старого кольца")
+    void findByEmail_BeforeRebalance_ShouldCheckPreviousRing() {
+        repository = new ShardedUserRepository(shards(2));
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            users.add(repository.save(new User("User " + i, new Email("user" + i + "@example.com"), 25)));
+        }
+
+        repository.addShard(new Shard(2, "shard-2", new InMemoryShardRepository()));
+
+        for (User user : users) {
+            assertEquals(user.getId(), repository.findByEmail(user.getEmail()).orElseThrow().getId());
+        }
+        assertThrows(IllegalStateException.class,
+                () -> repository.addShard(new Shard(3, "shard-3", new InMemoryShardRepository())));
+    }
+
+    @Test
+    @DisplayName("Прерванный перенос - копия без владельца подхватывается, дубликата не остается")
+    void relocate_AfterInterruptedMove_ShouldAdoptOrphanCopy() {
+        repository = new ShardedUserRepository(shards(2));
+        User saved = repository.save(new User("Alice", new Email("alice@example.com"), 30));
+        repository.addShard(new Shard(2, "shard-2", new InMemoryShardRepository()));
+        int target = repository.shardFor(saved.getEmail());
+        Assumptions.assumeTrue(target != ShardIdCodec.shardOf(saved.getId()), "Адрес не переезжает");
+        // Сбой после копирования: строка в целевом шарде есть, в каталоге ее нет
+        repository.getShard(target).getRepository().save(new User("Alice", saved.getEmail(), 30));
+
+        assertTrue(repository.relocate(saved.getId()));
+
+        assertEquals(1, repository.getShard(target).getRepository().findAll().size());
+        assertEquals(saved.getId(), repository.findByEmail(saved.getEmail()).orElseThrow().getId());
+        assertEquals(1, repository.findAll().size());
+    }
+
+    @Test
+    @DisplayName("Перенос на другом узле - каталог перечитывается мимо кэша, ID и поиск по email верны")
+    void findAfterMoveOnOtherNode_ShouldReloadDirectory() {
+        // Given: два узла с общими шардами и общей таблицей каталога, у каждого свой кэш
+        List<Shard> shards = shards(3);
+        Map<Long, Long> table = new ConcurrentHashMap<>();
+        repository = new ShardedUserRepository(shards, ConsistentHashRing.DEFAULT_VIRTUAL_NODES,
+                event -> {}, new CachedDirectory(table));
+        ShardedUserRepository otherNode = new ShardedUserRepository(shards, ConsistentHashRing.DEFAULT_VIRTUAL_NODES,
+                event -> {}, new CachedDirectory(table));
+        User saved = repository.save(new User("Alice", new Email("alice@example.com"), 30));
+        assertTrue(repository.findById(saved.getId()).isPresent());
+
+        // When
+        Email newEmail = emailOnOtherShard(otherNode, ShardIdCodec.shardOf(saved.getId()));
+        otherNode.update(saved.update("Alice", newEmail, 31));
+
+        // Then
+        assertEquals(newEmail, repository.findById(saved.getId()).orElseThrow().getEmail());
+        assertEquals(saved.getId(), repository.findByEmail(newEmail).orElseThrow().getId());
+        assertEquals(List.of(saved.getId()), repository.findAll().stream().map(User::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("Постраничное чтение - все пользователи по возрастанию ID, включая перенесенных, без повторов")
+    void findPage_ShouldMergeShardsAndMovedUsersById() {
+        // Given
+        List<Shard> shards = shards(3);
+        repository = new ShardedUserRepository(shards);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ids.add(repository.save(new User("User " + i, new Email("user" + i + "@example.com"), 20 + i)).getId());
+        }
+        User moved = repository.findById(ids.get(0)).orElseThrow();
+        repository.update(moved.update("Moved", emailOnOtherShard(repository, ShardIdCodec.shardOf(moved.getId())), 50));
+
+        // When
+        List<Long> paged = new ArrayList<>();
+        long cursor = 0;
+        for (List<User> page = repository.findPage(cursor, 3); !page.isEmpty(); page = repository.findPage(cursor, 3)) {
+            assertTrue(page.size() <= 3);
+            page.forEach(user -> paged.add(user.getId()));
+            cursor = page.get(page.size() - 1).getId();
+        }
+
+        // Then
+        ids.sort(Long::compare);
+        assertEquals(ids, paged);
+    }
+
+    private static Email emailOnOtherShard(ShardedUserRepository repository, int shard) {
+        for (int i = 0; ; i++) {
+            Email email = new Email("alice.new" + i + "@example.org");
+            if (repository.shardFor(email) != shard) {
+                return email;
+            }
+        }
+    }
+
+    private static List<Shard> shards(int count) {
+        List<Shard> shards = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            shards.add(new Shard(i, "shard-" + i, new InMemoryShardRepository()));
+        }
+        return shards;
+    }
+
+    // Кэш узла поверх общей таблицы: обычные чтения видят только кэш, reload* - таблицу
+    private static class CachedDirectory implements ShardDirectory {
+        private final Map<Long, Long> table;
+        private InMemoryShardDirectory cache = new InMemoryShardDirectory();
+
+        CachedDirectory(Map<Long, Long> table) {
+            this.table = table;
+        }
+
+        @Override
+        public Optional<Long> locationOf(long userId) {
+            return cache.locationOf(userId);
+        }
+
+        @Override
+        public Optional<Long> userAt(long location) {
+            return cache.userAt(location);
+        }
+
+        @Override
+        public void record(long userId, long location) {
+            table.put(userId, location);
+            cache.record(userId, location);
+        }
+
+        @Override
+        public void remove(long userId) {
+            table.remove(userId);
+            cache.remove(userId);
+        }
+
+        @Override
+        public List<Long> movedAfter(long afterId, int limit) {
+            return cache.movedAfter(afterId, limit);
+        }
+
+        @Override
+        public Optional<Long> reloadLocationOf(long userId) {
+            Optional<Long> location = Optional.ofNullable(table.get(userId));
+            location.ifPresent(found -> cache.record(userId, found));
+            return location;
+        }
+
+        @Override
+        public Optional<Long> reloadUserAt(long location) {
+            Optional<Long> userId = table.entrySet().stream()
+                    .filter(entry -> entry.getValue() == location)
+                    .map(Map.Entry::getKey)
+                    .findFirst();
+            userId.ifPresent(found -> cache.record(found, location));
+            return userId;
+        }
+
+        @Override
+        public void reload() {
+            InMemoryShardDirectory loaded = new InMemoryShardDirectory();
+            table.forEach(loaded::record);
+            cache = loaded;
+        }
+    }
+
+    private static class InMemoryShardRepository implements UserRepository {
+        private final Map<Long, User> users = new ConcurrentHashMap<>();
+        private final AtomicLong sequence = new AtomicLong();
+        private final AtomicLong emailLookups = new AtomicLong();
+
+        @Override
+        public Optional<User> findById(Long id) {
+            return Optional.ofNullable(users.get(id));
+        }
+
+        @Override
+        public List<User> findAll() {
+            return new ArrayList<>(users.values());
+        }
+
+        @Override
+        public Optional<User> findByEmail(Email email) {
+            emailLookups.incrementAndGet();
+            return users.values().stream().filter(user -> user.getEmail().equals(email)).findFirst();
+        }
+
+        @Override
+        public boolean existsByEmail(Email email) {
+            return users.values().stream().anyMatch(user -> user.getEmail().equals(email));
+        }
+
+        @Override
+        public User save(User user) {
+            LocalDateTime createdAt = user.getCreatedAt() != null ? user.getCreatedAt() : LocalDateTime.now();
+            User saved = new User(sequence.incrementAndGet(), user.getName(), user.getEmail(), user.getAge(), createdAt);
+            users.put(saved.getId(), saved);
+            return saved;
+        }
+
+        @Override
+        public void update(User user) {
+            users.put(user.getId(), user);
+        }
+
+        @Override
+        public void delete(Long id) {
+            users.remove(id);
+        }
+    }
+}
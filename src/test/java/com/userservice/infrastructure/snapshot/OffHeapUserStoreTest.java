@@ -0,0 +1,135 @@
+package com.userservice.infrastructure.snapshot;
+
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+import com.userservice.domain.repository.UserReader;
+import com.userservice.domain.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapUserStoreTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 5, 17, 10, 15, 30, 123_456_000);
+
+    private OffHeapUserStore store;
+
+    @BeforeEach
+    void setUp() {
+        OffHeapUserStore.Builder builder = new OffHeapUserStore.Builder(2);
+        for (long id = 1; id <= 100; id++) {
+            builder.add(new User(id * 7, "User " + (id % 5), new Email("user" + id + "@example.com"),
+                    id % 10 == 0 ? null : (int) id, id % 3 == 0 ? null : CREATED_AT));
+        }
+        store = builder.build();
+    }
+
+    @Test
+    @DisplayName("Поиск по ID - все поля восстанавливаются из off-heap буферов")
+    void findById_ShouldRestoreAllFields() {
+        // When
+        Optional<User> user = store.findById(7L * 4);
+
+        // Then
+        assertTrue(user.isPresent());
+        assertEquals(28L, user.get().getId());
+        assertEquals("User 4", user.get().getName());
+        assertEquals("user4@example.com", user.get().getEmail().getValue());
+        assertEquals(4, user.get().getAge());
+        assertEquals(CREATED_AT, user.get().getCreatedAt());
+    }
+
+    @Test
+    @DisplayName("Пустые возраст и дата создания - сохраняются как null")
+    void findById_WithNullColumns_ShouldReturnNulls() {
+        // When
+        User user = store.findById(7L * 30).orElseThrow();
+
+        // Then
+        assertNull(user.getAge());
+        assertNull(user.getCreatedAt());
+    }
+
+    @Test
+    @DisplayName("Поиск по email и проверка существования")
+    void findByEmail_ShouldUseEmailIndex() {
+        // When & Then
+        assertEquals(7L * 42, store.findByEmail(new Email("user42@example.com")).orElseThrow().getId());
+        assertTrue(store.existsByEmail(new Email("user99@example.com")));
+        assertFalse(store.existsByEmail(new Email("missing@example.com")));
+        assertTrue(store.findByEmail(new Email("missing@example.com")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Несуществующий ID - пустой результат")
+    void findById_WithUnknownId_ShouldReturnEmpty() {
+        // When & Then
+        assertTrue(store.findById(8L).isEmpty());
+        assertTrue(store.findById(null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Получение всех пользователей из снимка")
+    void findAll_ShouldReturnEveryUser() {
+        // When
+        List<User> users = store.findAll();
+
+        // Then
+        assertEquals(100, users.size());
+        assertEquals(100, store.size());
+        assertEquals(7L, users.get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Снимок только для чтения - реализует порт чтения, а не репозиторий")
+    void store_ShouldExposeOnlyReadPort() {
+        // When & Then
+        assertTrue(UserReader.class.isAssignableFrom(OffHeapUserStore.class));
+        assertFalse(UserRepository.class.isAssignableFrom(OffHeapUserStore.class));
+        assertFalse(UserRepository.class.isAssignableFrom(SnapshotUserRepository.class));
+    }
+
+    @Test
+    @DisplayName("Строки не помещаются в один сегмент - продолжаются в следующих, снимок читается и после записи в файл")
+    void build_WhenStringsExceedSegment_ShouldSpillIntoNextSegments(@TempDir Path directory) {
+        // Given: сегмент на 64 байта вмещает не больше двух email
+        OffHeapUserStore.Builder builder = new OffHeapUserStore.Builder(4, 64);
+        for (long id = 1; id <= 50; id++) {
+            builder.add(new User(id, "Name " + id, new Email("user" + id + "@example.com"), (int) id, CREATED_AT));
+        }
+
+        // When
+        OffHeapUserStore segmented = builder.build();
+        Path file = directory.resolve("users.snapshot");
+        new UserSnapshotWriter().write(segmented, CREATED_AT, file);
+        OffHeapUserStore loaded = new UserSnapshotLoader().load(file).getStore();
+
+        // Then
+        assertTrue(segmented.segmentCount() > 1);
+        assertEquals(segmented.segmentCount(), loaded.segmentCount());
+        for (OffHeapUserStore candidate : List.of(segmented, loaded)) {
+            for (long id = 1; id <= 50; id++) {
+                User user = candidate.findById(id).orElseThrow();
+                assertEquals("Name " + id, user.getName());
+                assertEquals(id, candidate.findByEmail(new Email("user" + id + "@example.com")).orElseThrow().getId());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Ссылка на строку - номер сегмента и смещение восстанавливаются без потери знака")
+    void stringRef_ShouldPackSegmentAndOffset() {
+        long ref = OffHeapUserStore.stringRef(3, Integer.MAX_VALUE - 7);
+
+        assertEquals(3, OffHeapUserStore.segmentOf(ref));
+        assertEquals(Integer.MAX_VALUE - 7, OffHeapUserStore.offsetOf(ref));
+    }
+}
@@ -0,0 +1,240 @@
+package com.userservice.infrastructure.snapshot;
+
+import com.userservice.domain.event.UserChangeEvent;
+import com.userservice.domain.event.UserChangeType;
+import com.userservice.domain.model.Email;
+import com.userservice.domain.model.User;
+import com.userservice.infrastructure.memory.InMemoryUserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserSnapshotFileTest {
+
+    private static final LocalDateTime TAKEN_AT = LocalDateTime.of(2024, 6, 1, 3, 0);
+
+    @TempDir
+    Path directory;
+
+    private Path snapshotFile;
+
+    @BeforeEach
+    void setUp() {
+        OffHeapUserStore.Builder builder = new OffHeapUserStore.Builder();
+        for (long id = 1; id <= 50; id++) {
+            builder.add(new User(id, "User " + id, new Email("user" + id + "@example.com"), (int) id, TAKEN_AT));
+        }
+        snapshotFile = directory.resolve("users.snapshot");
+        new UserSnapshotWriter().write(builder.build(), TAKEN_AT, snapshotFile);
+    }
+
+    @Test
+    @DisplayName("Запись и загрузка снимка - данные и high-water mark сохраняются")
+    void writeAndLoad_ShouldRoundTrip() {
+        // When
+        UserSnapshot snapshot = new UserSnapshotLoader().load(snapshotFile);
+
+        // Then
+        assertEquals(UserSnapshotFormat.VERSION, snapshot.getVersion());
+        assertEquals(50L, snapshot.getHighWaterId());
+        assertEquals(TAKEN_AT, snapshot.getTakenAt());
+        assertEquals(50, snapshot.getStore().size());
+        assertEquals("User 17", snapshot.getStore().findById(17L).orElseThrow().getName());
+        assertTrue(snapshot.getStore().existsByEmail(new Email("user33@example.com")));
+    }
+
+    @Test
+    @DisplayName("Поврежденный снимок - ошибка контрольной суммы")
+    void load_WithCorruptedSection_ShouldFailChecksum() throws IOException {
+        // Given
+        try (RandomAccessFile file = new RandomAccessFile(snapshotFile.toFile(), "rw")) {
+            file.seek(file.length() - 1);
+            int last = file.read();
+            file.seek(file.length() - 1);
+            file.write(last ^ 0xFF);
+        }
+
+        // When & Then
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> new UserSnapshotLoader(true).load(snapshotFile));
+        assertTrue(error.getMessage().contains("checksum"));
+    }
+
+    @Test
+    @DisplayName("Изменения после снимка - перекрывают данные снимка")
+    void snapshotRepository_ShouldApplyChangesOverSnapshot() {
+        // Given
+        SnapshotUserRepository repository = new SnapshotUserRepository(new UserSnapshotLoader().load(snapshotFile));
+
+        // When
+        repository.apply(new User(5L, "Renamed", new Email("renamed@example.com"), 55, TAKEN_AT));
+        repository.apply(new User(51L, "New User", new Email("user51@example.com"), 51, TAKEN_AT));
+        repository.markDeleted(7L);
+
+        // Then
+        assertEquals("Renamed", repository.findById(5L).orElseThrow().getName());
+        assertTrue(repository.findByEmail(new Email("user5@example.com")).isEmpty());
+        assertEquals(5L, repository.findByEmail(new Email("renamed@example.com")).orElseThrow().getId());
+        assertTrue(repository.findById(51L).isPresent());
+        assertTrue(repository.findById(7L).isEmpty());
+        assertFalse(repository.existsByEmail(new Email("user7@example.com")));
+        assertEquals(50, repository.findAll().size());
+    }
+
+    @Test
+    @DisplayName("Удаление, перезапуск, догоняющее чтение - мягко удаленные пользователи не отдаются")
+    void catchUp_AfterRestart_ShouldApplySoftDeletes() {
+        // Given: после снимка пользователь 7 удален, 51 создан и удален, 12 переименован
+        LocalDateTime later = TAKEN_AT.plusHours(1);
+        List<Object[]> changedRows = List.of(
+                new Object[]{new User(7L, "User 7", new Email("user7@example.com"), 7, TAKEN_AT), later, later},
+                new Object[]{new User(12L, "Renamed", new Email("renamed@example.com"), 12, TAKEN_AT), later, null},
+                new Object[]{new User(51L, "User 51", new Email("user51@example.com"), 51, later), later, later});
+        SnapshotUserRepository.ChangeFeed feed = (afterId, since, changed, deleted) -> {
+            long count = 0;
+            for (Object[] row : changedRows) {
+                User user = (User) row[0];
+                if (user.getId() > afterId || !((LocalDateTime) row[1]).isBefore(since)) {
+                    if (row[2] != null) {
+                        deleted.accept(user.getId());
+                    } else {
+                        changed.accept(user);
+                    }
+                    count++;
+                }
+            }
+            return count;
+        };
+
+        // When: перезапуск - снимок заново загружается из файла и догоняет БД
+        SnapshotUserRepository repository = new SnapshotUserRepository(new UserSnapshotLoader().load(snapshotFile));
+        long applied = repository.catchUp(feed);
+
+        // Then
+        assertEquals(3, applied);
+        assertTrue(repository.findById(7L).isEmpty());
+        assertFalse(repository.existsByEmail(new Email("user7@example.com")));
+        assertTrue(repository.findById(51L).isEmpty());
+        assertEquals("Renamed", repository.findById(12L).orElseThrow().getName());
+        assertEquals(49, repository.findAll().size());
+    }
+
+    @Test
+    @DisplayName("Событие с другого узла без снимка - строка перечитывается из источника")
+    void remoteEvents_ShouldRefreshFromSource() {
+        // Given: другой узел переименовал пользователя 12, создал 51 и удалил 7
+        InMemoryUserRepository source = new InMemoryUserRepository();
+        source.save(new User(12L, "Renamed", new Email("renamed@example.com"), 12, TAKEN_AT));
+        source.save(new User(51L, "User 51", new Email("user51@example.com"), 51, TAKEN_AT));
+        SnapshotUserRepository repository =
+                new SnapshotUserRepository(new UserSnapshotLoader().load(snapshotFile), source);
+
+        // When
+        repository.onUserChanged(UserChangeEvent.remote(UserChangeType.UPDATED, 12L));
+        repository.onUserChanged(UserChangeEvent.remote(UserChangeType.CREATED, 51L));
+        repository.onUserChanged(UserChangeEvent.remote(UserChangeType.UPDATED, 7L));
+
+        // Then
+        assertEquals("Renamed", repository.findById(12L).orElseThrow().getName());
+        assertTrue(repository.findByEmail(new Email("user12@example.com")).isEmpty());
+        assertEquals(51L, repository.findByEmail(new Email("user51@example.com")).orElseThrow().getId());
+        assertTrue(repository.findById(7L).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Перезапись снимка - overlay переносится в файл и очищается, новые изменения остаются")
+    void rewrite_ShouldCompactOverlayIntoSnapshot() {
+        // Given
+        SnapshotUserRepository repository = new SnapshotUserRepository(new UserSnapshotLoader().load(snapshotFile));
+        repository.apply(new User(5L, "Renamed", new Email("renamed@example.com"), 55, TAKEN_AT));
+        repository.apply(new User(51L, "New User", new Email("user51@example.com"), 51, TAKEN_AT));
+        repository.markDeleted(7L);
+
+        // When
+        repository.rewrite(snapshotFile);
+        repository.apply(new User(52L, "Later User", new Email("user52@example.com"), 52, TAKEN_AT));
+
+        // Then: в overlay только изменение после перезаписи, снимок содержит прежние изменения
+        assertEquals(1, repository.overlaySize());
+        assertEquals(50, repository.getSnapshot().getStore().size());
+        assertEquals("Renamed", repository.findById(5L).orElseThrow().getName());
+        assertTrue(repository.findByEmail(new Email("user5@example.com")).isEmpty());
+        assertTrue(repository.findById(7L).isEmpty());
+        assertEquals(51, repository.findAll().size());
+
+        SnapshotUserRepository restarted = new SnapshotUserRepository(new UserSnapshotLoader().load(snapshotFile));
+        assertEquals(51L, restarted.getSnapshot().getHighWaterId());
+        assertEquals(TAKEN_AT, restarted.getSnapshot().getTakenAt());
+        assertEquals(5L, restarted.findByEmail(new Email("renamed@example.com")).orElseThrow().getId());
+        assertFalse(restarted.existsByEmail(new Email("user7@example.com")));
+    }
+
+    @Test
+    @DisplayName("Неуспешная запись - overlay не меняется, успешная попадает в снимок через событие")
+    void snapshotReadRepository_ShouldChangeOverlayOnlyFromEvents() {
+        // Given: в БД только пользователь 51, события доставляются в снимок синхронно
+        SnapshotUserRepository snapshot = new SnapshotUserRepository(new UserSnapshotLoader().load(snapshotFile));
+        InMemoryUserRepository database = new InMemoryUserRepository(snapshot::onUserChanged);
+        database.save(new User(51L, "User 51", new Email("user51@example.com"), 51, TAKEN_AT));
+        SnapshotReadUserRepository repository = new SnapshotReadUserRepository(database, snapshot);
+
+        // When: обновление отсутствующего в БД пользователя и запись с занятым email
+        repository.update(new User(5L, "Phantom", new Email("phantom@example.com"), 5, TAKEN_AT));
+        assertThrows(RuntimeException.class,
+                () -> repository.save(new User(52L, "Duplicate", new Email("user51@example.com"), 52, TAKEN_AT)));
+
+        // Then
+        assertEquals(1, snapshot.overlaySize());
+        assertEquals("User 5", repository.findById(5L).orElseThrow().getName());
+        assertTrue(repository.findByEmail(new Email("phantom@example.com")).isEmpty());
+        assertTrue(repository.findById(52L).isEmpty());
+
+        // When: успешное обновление
+        repository.update(new User(51L, "Renamed", new Email("user51@example.com"), 51, TAKEN_AT));
+
+        // Then
+        assertEquals("Renamed", repository.findById(51L).orElseThrow().getName());
+    }
+
+    @Test
+    @DisplayName("Постраничное чтение - строки снимка и overlay идут по возрастанию ID без пропусков")
+    void findPage_ShouldMergeSnapshotAndOverlayById() {
+        // Given: 5 переименован, 7 удален, 51 создан
+        SnapshotUserRepository repository = new SnapshotUserRepository(new UserSnapshotLoader().load(snapshotFile));
+        repository.apply(new User(5L, "Renamed", new Email("renamed@example.com"), 55, TAKEN_AT));
+        repository.apply(new User(51L, "New User", new Email("user51@example.com"), 51, TAKEN_AT));
+        repository.markDeleted(7L);
+
+        // When
+        List<User> first = repository.findPage(3L, 4);
+        List<User> last = repository.findPage(48L, 10);
+
+        // Then
+        assertEquals(List.of(4L, 5L, 6L, 8L), first.stream().map(User::getId).collect(Collectors.toList()));
+        assertEquals("Renamed", first.get(1).getName());
+        assertEquals(List.of(49L, 50L, 51L), last.stream().map(User::getId).collect(Collectors.toList()));
+        assertTrue(repository.findPage(51L, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Строки снимка не по возрастанию ID - ошибка построения")
+    void builder_WithUnorderedIds_ShouldFail() {
+        // Given
+        OffHeapUserStore.Builder builder = new OffHeapUserStore.Builder();
+        builder.add(new User(2L, "User 2", new Email("user2@example.com"), 2, TAKEN_AT));
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> builder.add(new User(1L, "User 1", new Email("user1@example.com"), 1, TAKEN_AT)));
+    }
+}
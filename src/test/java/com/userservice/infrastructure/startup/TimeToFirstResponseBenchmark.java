@@ -0,0 +1,78 @@
+package com.userservice.infrastructure.startup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Требует сборки с профилем appcds: mvn -Pappcds package
+// Аргументы: [число запусков] [репозиторий: memory | hibernate | jdbc]
+public class TimeToFirstResponseBenchmark {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        String repository = args.length > 1 ? args[1] : "memory";
+
+        Path jar = Paths.get("target", "user-service-1.0-SNAPSHOT.jar");
+        Path archive = Paths.get("target", "user-service.jsa");
+        if (!Files.exists(jar) || !Files.exists(archive)) {
+            System.err.println("Не найден " + jar + " или " + archive + ": выполните mvn -Pappcds package");
+            return;
+        }
+
+        System.out.printf("Репозиторий: %s, запусков на режим: %d%n", repository, runs);
+        measure("Без CDS", runs, List.of("-Xshare:auto"), jar, repository);
+        measure("AppCDS", runs, List.of("-XX:SharedArchiveFile=" + archive, "-Xlog:cds=error"), jar, repository);
+        measure("AppCDS + прогрев", runs, List.of("-XX:SharedArchiveFile=" + archive, "-Xlog:cds=error",
+                "-D" + StartupWarmUp.WARMUP_PROPERTY + "=true"), jar, repository);
+    }
+
+    private static void measure(String label, int runs, List<String> jvmOptions, Path jar, String repository)
+            throws IOException, InterruptedException {
+        List<Long> samples = new ArrayList<>();
+        for (int i = 0; i < runs; i++) {
+            List<String> command = new ArrayList<>();
+            command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+            command.addAll(jvmOptions);
+            command.add("-D" + StartupTimer.PROBE_PROPERTY + "=true");
+            command.add("-Duserservice.repository=" + repository);
+            command.add("-jar");
+            command.add(jar.toString());
+
+            Long sample = runOnce(command);
+            if (sample != null) {
+                samples.add(sample);
+            }
+        }
+
+        if (samples.isEmpty()) {
+            System.out.printf("%-20s нет результатов%n", label);
+            return;
+        }
+        Collections.sort(samples);
+        System.out.printf("%-20s медиана %5d мс   мин %5d мс   макс %5d мс%n",
+                label, samples.get(samples.size() / 2), samples.get(0), samples.get(samples.size() - 1));
+    }
+
+    private static Long runOnce(List<String> command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        Long result = null;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(StartupTimer.REPORT_PREFIX)) {
+                    result = Long.parseLong(line.substring(StartupTimer.REPORT_PREFIX.length()).trim());
+                }
+            }
+        }
+        process.waitFor();
+        return result;
+    }
+}
@@ -0,0 +1,100 @@
+package com.userservice.infrastructure.tracing;
+
+import com.userservice.application.dto.CreateUserRequest;
+import com.userservice.application.service.UserOperation;
+import com.userservice.application.service.UserService;
+import com.userservice.infrastructure.memory.InMemoryUserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlowOperationLogTest {
+
+    @AfterEach
+    void tearDown() {
+        Trace current = Trace.current();
+        if (current != null) {
+            current.end();
+        }
+    }
+
+    @Test
+    @DisplayName("Трасса - фазы суммируются, SQL с параметрами записывается, вложенная трасса не создается")
+    void trace_ShouldAccumulatePhasesAndStatements() {
+        // Given
+        Trace trace = Trace.begin(UserOperation.GET_BY_EMAIL.name());
+
+        // When
+        Trace.stop("query", Trace.start());
+        Trace.stop("query", Trace.start());
+        Trace.bind("alice@example.com");
+        new TracingStatementInspector().inspect("select u.id from users u where u.email=?");
+        Trace nested = Trace.begin(UserOperation.GET_BY_ID.name());
+        trace.end();
+
+        // Then
+        assertNull(nested);
+        assertNull(Trace.current());
+        assertEquals(2, trace.getPhases().get("query").getCount());
+        assertEquals(List.of("alice@example.com"), trace.getStatements().get(0).getParameters());
+        assertTrue(trace.getDurationNanos() >= 0);
+    }
+
+    @Test
+    @DisplayName("Медленная операция - в журнал попадают фазы, SQL и форма параметров без значений")
+    void onComplete_AboveThreshold_ShouldLogShapesAndExplain() {
+        // Given
+        List<String> explained = new ArrayList<>();
+        SlowOperationLog log = new SlowOperationLog(Duration.ZERO,
+                (sql, parameters) -> {
+                    explained.add(sql + " " + parameters);
+                    return "Index Scan";
+                }, Runnable::run);
+        Trace trace = Trace.begin(UserOperation.GET_BY_EMAIL.name());
+        Trace.stop("session-open", Trace.start());
+        Trace.statement("SELECT id FROM users WHERE email = ?", "alice@example.com");
+        trace.end();
+
+        // When
+        boolean logged = log.onComplete(trace);
+        String description = SlowOperationLog.describe(trace);
+
+        // Then
+        assertTrue(logged);
+        assertEquals(1, log.getSlowOperations());
+        assertTrue(description.contains("GET_BY_EMAIL"));
+        assertTrue(description.contains("session-open="));
+        assertTrue(description.contains("SQL: SELECT id FROM users WHERE email = ?"));
+        assertTrue(description.contains("[String(17)]"));
+        assertFalse(description.contains("alice@example.com"));
+        assertEquals(List.of("SELECT id FROM users WHERE email = ? [alice@example.com]"), explained);
+    }
+
+    @Test
+    @DisplayName("Быстрая операция через UserService - трасса закрывается, журнал не пишется")
+    void interceptor_BelowThreshold_ShouldNotLog() {
+        // Given
+        SlowOperationLog log = new SlowOperationLog(Duration.ofMinutes(1));
+        UserService userService = new UserService(new InMemoryUserRepository());
+        userService.addInterceptor(new TracingInterceptor(log));
+
+        // When
+        userService.createUser(new CreateUserRequest("Alice", "alice@example.com", 30));
+
+        // Then
+        assertEquals(0, log.getSlowOperations());
+        assertNull(Trace.current());
+    }
+
+    @Test
+    @DisplayName("Подсчет плейсхолдеров - знаки вопроса в строковых литералах не учитываются")
+    void placeholders_ShouldIgnoreQuotedQuestionMarks() {
+        assertEquals(2, JdbcQueryExplainer.placeholders("SELECT '?' FROM users WHERE id = ? AND email = ?"));
+    }
+}
@@ -0,0 +1,101 @@
+package com.userservice.infrastructure.workload;
+
+import com.userservice.application.dto.CreateUserRequest;
+import com.userservice.application.dto.UpdateUserRequest;
+import com.userservice.application.dto.UserResponse;
+import com.userservice.application.service.UserOperation;
+import com.userservice.application.service.UserService;
+import com.userservice.infrastructure.memory.InMemoryUserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkloadRecorderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Запись нагрузки - события читаются обратно, email в файле отсутствует")
+    void record_ShouldWriteHashedEvents() throws Exception {
+        // Given
+        Path file = tempDir.resolve("workload.bin");
+        UserService userService = new UserService(new InMemoryUserRepository());
+
+        // When
+        try (WorkloadRecorder recorder = new WorkloadRecorder(file)) {
+            userService.addInterceptor(recorder);
+            UserResponse alice = userService.createUser(new CreateUserRequest("Alice", "alice@example.com", 30));
+            userService.getUserByEmail("alice@example.com");
+            userService.getUserById(alice.getId());
+            userService.getUserById(999L);
+        }
+        List<WorkloadEvent> events = WorkloadFile.read(file);
+        String raw = new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1);
+
+        // Then
+        assertEquals(4, events.size());
+        assertEquals(UserOperation.CREATE, events.get(0).getOperation());
+        assertEquals(events.get(0).getResultKey(), events.get(2).getKey());
+        assertEquals(events.get(0).getKey(), events.get(1).getKey());
+        assertEquals(WorkloadEvent.Outcome.NOT_FOUND, events.get(3).getOutcome());
+        assertFalse(raw.contains("alice"));
+    }
+
+    @Test
+    @DisplayName("Обрезанный файл - неполное последнее событие отбрасывается")
+    void read_TruncatedFile_ShouldSkipPartialEvent() throws Exception {
+        // Given
+        Path file = tempDir.resolve("workload.bin");
+        try (WorkloadFile.Writer writer = new WorkloadFile.Writer(file, 0)) {
+            writer.write(new WorkloadEvent(10, UserOperation.GET_BY_ID, 42, 0, 0, 5, WorkloadEvent.Outcome.OK));
+            writer.write(new WorkloadEvent(20, UserOperation.GET_BY_ID, 43, 0, 0, 5, WorkloadEvent.Outcome.OK));
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+        // When
+        List<WorkloadEvent> events = WorkloadFile.read(file);
+
+        // Then
+        assertEquals(1, events.size());
+        assertEquals(42, events.get(0).getKey());
+    }
+
+    @Test
+    @DisplayName("Воспроизведение на чистом репозитории - все вызовы выполняются без ошибок")
+    void replay_OnFreshRepository_ShouldCompleteWithoutErrors() throws Exception {
+        // Given
+        Path file = tempDir.resolve("workload.bin");
+        UserService recorded = new UserService(new InMemoryUserRepository());
+        try (WorkloadRecorder recorder = new WorkloadRecorder(file)) {
+            recorded.addInterceptor(recorder);
+            for (int i = 0; i < 20; i++) {
+                UserResponse user = recorded.createUser(new CreateUserRequest("User", "user" + i + "@example.com", 30));
+                recorded.getUserById(user.getId());
+                recorded.updateUser(new UpdateUserRequest(user.getId(), "User", "new" + i + "@example.com", 31));
+                recorded.getUserByEmail("new" + i + "@example.com");
+            }
+            recorded.getAllUsers();
+        }
+        List<WorkloadEvent> events = WorkloadFile.read(file);
+
+        // When
+        WorkloadReplayer.Report report = new WorkloadReplayer(
+                new UserService(new InMemoryUserRepository()), 1.0, 1).replay(events);
+
+        // Then
+        assertEquals(81, report.getTotal());
+        assertEquals(0, report.getErrors());
+        assertEquals(0, report.getNotFound());
+        assertTrue(report.correctedPercentileNanos(99) >= report.servicePercentileNanos(50));
+    }
+}
@@ -0,0 +1,170 @@
+package com.userservice.presentation.binary;
+
+import com.userservice.application.dto.CreateUserRequest;
+import com.userservice.application.dto.UpdateUserRequest;
+import com.userservice.application.dto.UserResponse;
+import com.userservice.application.dto.UserSearchResult;
+import com.userservice.application.search.UserPrefixIndex;
+import com.userservice.application.search.UserSearchIndex;
+import com.userservice.application.service.UserService;
+import com.userservice.infrastructure.memory.InMemoryUserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserServiceServerTest {
+
+    private InMemoryUserRepository repository;
+    private UserServiceServer server;
+    private UserServiceClient client;
+
+    @BeforeEach
+    void setUp() {
+        UserSearchIndex[] searchIndex = new UserSearchIndex[1];
+        UserPrefixIndex[] prefixIndex = new UserPrefixIndex[1];
+        repository = new InMemoryUserRepository(event -> {
+            searchIndex[0].onUserChanged(event);
+            prefixIndex[0].onUserChanged(event);
+        });
+        searchIndex[0] = new UserSearchIndex(repository, 0.3);
+        prefixIndex[0] = new UserPrefixIndex(consumer -> repository.findAll().forEach(consumer), repository);
+        searchIndex[0].rebuild();
+        prefixIndex[0].rebuild();
+        UserService userService = new UserService(repository);
+        userService.enableSearch(searchIndex[0]);
+        userService.enableAutocomplete(prefixIndex[0]);
+
+        server = UserServiceServer.start(userService, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 4);
+        client = UserServiceClient.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    @DisplayName("Все операции - результат через сокет совпадает с вызовом UserService")
+    void allOperations_ShouldRoundTrip() throws Exception {
+        // Given
+        UserResponse created = await(client.createUser(new CreateUserRequest("Анна Смирнова", "anna@example.com", null)));
+        await(client.createUser(new CreateUserRequest("Boris Petrov", "boris@example.com", 40)));
+
+        // When & Then
+        assertNotNull(created.getId());
+        assertEquals("Анна Смирнова", created.getName());
+        assertNull(created.getAge());
+        assertEquals(Optional.of(created.getEmail()), await(client.getUserById(created.getId())).map(UserResponse::getEmail));
+        assertEquals(created.getId(), await(client.getUserByEmail("anna@example.com")).orElseThrow().getId());
+        assertTrue(await(client.getUserById(999_999L)).isEmpty());
+        assertEquals(2, await(client.getAllUsers()).size());
+
+        UserResponse updated = await(client.updateUser(
+                new UpdateUserRequest(created.getId(), "Anna Smirnova", "anna@example.com", 31)));
+        assertEquals(31, updated.getAge());
+
+        List<UserSearchResult> found = await(client.searchUsers("Ana Smirnova", 10));
+        assertEquals(created.getId(), found.get(0).getUser().getId());
+        assertTrue(found.get(0).getScore() > 0.3);
+        assertEquals(List.of(created.getId()), await(client.autocomplete("smir", 10)));
+
+        assertTrue(await(client.deleteUser(created.getId())));
+        assertFalse(await(client.deleteUser(created.getId())));
+        assertEquals(1, repository.size());
+    }
+
+    @Test
+    @DisplayName("Конвейер - тысячи запросов без ожидания ответов, каждый ответ приходит своему запросу")
+    void pipelinedRequests_ShouldMatchResponsesById() throws Exception {
+        // Given
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            ids.add(await(client.createUser(new CreateUserRequest("User " + i, "user" + i + "@example.com", 20 + i)))
+                    .getId());
+        }
+
+        // When
+        List<CompletableFuture<Optional<UserResponse>>> responses = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            responses.add(client.getUserById(ids.get(i % ids.size())));
+        }
+
+        // Then
+        for (int i = 0; i < responses.size(); i++) {
+            UserResponse user = await(responses.get(i)).orElseThrow();
+            assertEquals(ids.get(i % ids.size()), user.getId());
+            assertEquals("user" + (i % ids.size()) + "@example.com", user.getEmail());
+        }
+        assertEquals(0, client.pendingRequests());
+        assertEquals(5_050, server.getHandledRequests());
+    }
+
+    @Test
+    @DisplayName("Ошибки - неверные аргументы приходят как IllegalArgumentException, соединение остается рабочим")
+    void invalidRequests_ShouldMapErrorsAndKeepConnection() throws Exception {
+        // Given
+        await(client.createUser(new CreateUserRequest("Ivan Petrov", "ivan@example.com", 30)));
+
+        // When
+        CompletableFuture<UserResponse> duplicate =
+                client.createUser(new CreateUserRequest("Ivan Clone", "ivan@example.com", 30));
+        CompletableFuture<UserResponse> missing =
+                client.updateUser(new UpdateUserRequest(999L, "Nobody", "nobody@example.com", 30));
+        CompletableFuture<List<Long>> badLimit = client.autocomplete("iv", 0);
+
+        // Then
+        assertInstanceOf(IllegalArgumentException.class, failure(duplicate));
+        assertInstanceOf(IllegalArgumentException.class, failure(missing));
+        assertInstanceOf(IllegalArgumentException.class, failure(badLimit));
+        assertEquals(1, await(client.getAllUsers()).size());
+        assertEquals(3, server.getFailedRequests());
+    }
+
+    @Test
+    @DisplayName("Список больше одного кадра - отдается страницами, все пользователи доходят до клиента")
+    void getAllUsers_LargerThanOneFrame_ShouldPage() throws Exception {
+        // Given: около 1,5 МиБ имен при кадре в 1 МиБ
+        String longName = "N" + "a".repeat(5_000);
+        List<CompletableFuture<UserResponse>> created = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            created.add(client.createUser(new CreateUserRequest(longName + i, "page" + i + "@example.com", 30)));
+        }
+        for (CompletableFuture<UserResponse> user : created) {
+            await(user);
+        }
+
+        // When
+        UserServiceClient.Page first = await(client.getUsersPage(0L, UserServiceClient.DEFAULT_PAGE_SIZE));
+        List<UserResponse> all = await(client.getAllUsers());
+
+        // Then
+        assertTrue(first.hasMore());
+        assertTrue(first.getUsers().size() < 300);
+        assertEquals(first.getUsers().get(first.getUsers().size() - 1).getId(), first.getNextAfterId());
+        assertEquals(300, all.size());
+        assertEquals(300, all.stream().map(UserResponse::getId).distinct().count());
+        assertFalse(await(client.getUsersPage(all.get(all.size() - 1).getId(), 10)).hasMore());
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        return future.get(10, TimeUnit.SECONDS);
+    }
+
+    private static Throwable failure(CompletableFuture<?> future) {
+        CompletionException error = assertThrows(CompletionException.class, future::join);
+        return error.getCause();
+    }
+}
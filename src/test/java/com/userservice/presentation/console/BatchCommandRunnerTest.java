@@ -0,0 +1,128 @@
+package com.userservice.presentation.console;
+
+import com.userservice.application.service.UserAnalyticsService;
+import com.userservice.application.service.UserService;
+import com.userservice.domain.model.UserStatistics;
+import com.userservice.infrastructure.memory.InMemoryUserRepository;
+import com.userservice.infrastructure.persistence.SequentialUserScanner;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchCommandRunnerTest {
+
+    private final InMemoryUserRepository repository = new InMemoryUserRepository();
+    private final UserService userService = new UserService(repository);
+
+    @Test
+    @DisplayName("Пакет команд - все выполняются, вывод в порядке ввода")
+    void run_WithManyCommands_ShouldKeepInputOrder() throws Exception {
+        // Given
+        StringBuilder script = new StringBuilder("# массовое создание\n\n");
+        for (int i = 0; i < 200; i++) {
+            script.append("create \"User ").append(i).append("\" user").append(i).append("@example.com 30\n");
+        }
+        BatchCommandRunner runner = new BatchCommandRunner(userService, 4);
+        StringWriter output = new StringWriter();
+
+        // When
+        runner.run(new BufferedReader(new StringReader(script.toString())), output);
+
+        // Then
+        List<String> lines = output.toString().lines().collect(Collectors.toList());
+        assertEquals(200, lines.size());
+        for (int i = 0; i < 200; i++) {
+            String line = lines.get(i);
+            assertTrue(line.startsWith((i + 3) + "\tOK\tcreated\t"), line);
+            assertTrue(line.contains("\tUser " + i + "\tuser" + i + "@example.com\t"), line);
+        }
+        assertEquals(200, repository.size());
+        assertEquals(200, runner.getSucceeded());
+        assertEquals(0, runner.getFailed());
+    }
+
+    @Test
+    @DisplayName("Ошибочные команды - строка ERROR, пакет продолжается")
+    void run_WithInvalidCommands_ShouldReportErrorsAndContinue() throws Exception {
+        // Given
+        String script = "create Alice alice@example.com 30\n"
+                + "create Bob not-an-email\n"
+                + "unknown 1\n"
+                + "get \"1\n"
+                + "get-email alice@example.com\n";
+        BatchCommandRunner runner = new BatchCommandRunner(userService, 1);
+        StringWriter output = new StringWriter();
+
+        // When
+        runner.run(new BufferedReader(new StringReader(script)), output);
+
+        // Then
+        List<String> lines = output.toString().lines().collect(Collectors.toList());
+        assertEquals(5, lines.size());
+        assertTrue(lines.get(1).startsWith("2\tERROR\t"));
+        assertTrue(lines.get(2).startsWith("3\tERROR\tUnknown command"));
+        assertTrue(lines.get(3).startsWith("4\tERROR\tUnterminated quote"));
+        assertTrue(lines.get(4).startsWith("5\tOK\tfound\t"));
+        assertEquals(2, runner.getSucceeded());
+        assertEquals(3, runner.getFailed());
+    }
+
+    @Test
+    @DisplayName("Одиночная подкоманда - обновление и удаление")
+    void execute_UpdateAndDelete_ShouldDelegateToService() {
+        // Given
+        BatchCommandRunner runner = new BatchCommandRunner(userService, 1);
+        runner.execute(List.of("create", "Alice", "alice@example.com", "30"));
+        Long id = repository.findAll().get(0).getId();
+
+        // When
+        String updated = runner.execute(List.of("update", id.toString(), "Alice Smith", "alice@example.com", "31"));
+        String deleted = runner.execute(List.of("delete", id.toString()));
+
+        // Then
+        assertEquals("OK\tupdated\t" + id + "\tAlice Smith\talice@example.com\t31", updated);
+        assertEquals("OK\tdeleted\t" + id, deleted);
+        assertEquals("OK\tnot-found", runner.execute(List.of("get", id.toString())));
+    }
+
+    @Test
+    @DisplayName("Команды stats и analytics - итоги и распределения, без сервиса аналитики - ошибка")
+    void execute_StatsAndAnalytics_ShouldReportTotals() {
+        // Given
+        BatchCommandRunner runner = new BatchCommandRunner(userService, 1);
+        String disabled = runner.execute(List.of("stats"));
+        runner.execute(List.of("create", "Alice", "alice@example.com", "30"));
+        runner.execute(List.of("create", "Bob", "bob@example.com", "12"));
+        LocalDate day = LocalDate.of(2024, 3, 1);
+        runner.enableAnalytics(new UserAnalyticsService(new SequentialUserScanner(repository),
+                () -> new UserStatistics(2, 1, 1, 0, Map.of(10, 1L, 30, 1L), Map.of(day, 2L))));
+
+        // When
+        String stats = runner.execute(List.of("stats"));
+        String analytics = runner.execute(List.of("analytics"));
+
+        // Then
+        assertEquals("ERROR\tAnalytics is not enabled", disabled);
+        assertEquals(String.join(System.lineSeparator(),
+                "OK\tstats\ttotal=2\tadults=1\tminors=1\twithout-age=0",
+                "\t\tage-bucket\t10\t1", "\t\tage-bucket\t30\t1", "\t\tday\t2024-03-01\t2"), stats);
+        assertTrue(analytics.startsWith("OK\tanalytics\ttotal=2\tadults=1\tminors=1\twithout-age=0"), analytics);
+        assertTrue(analytics.contains("\t\tage\t12\t1"), analytics);
+    }
+
+    @Test
+    @DisplayName("Разбор строки - кавычки объединяют аргумент с пробелами")
+    void tokenize_WithQuotes_ShouldKeepSpaces() {
+        assertEquals(List.of("create", "Anna Maria", "anna@example.com", ""),
+                BatchCommandRunner.tokenize("create  \"Anna Maria\" anna@example.com \"\""));
+    }
+}